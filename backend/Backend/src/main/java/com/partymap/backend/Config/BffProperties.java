@@ -0,0 +1,194 @@
+package com.partymap.backend.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del cliente del microservicio detrás de /bff (ClienteRest): conexiones, tiempos
+ * máximos, límite de llamadas simultáneas, circuito y caché de lecturas.
+ * Se define con las propiedades partymap.bff.* en application.properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "partymap.bff")
+public class BffProperties {
+
+    /**
+     * Milisegundos máximos para abrir una conexión con el microservicio
+     */
+    private int connectTimeoutMs = 2000;
+
+    /**
+     * Milisegundos máximos de espera de la respuesta, para los métodos sin un tiempo propio
+     */
+    private int readTimeoutMs = 5000;
+
+    /**
+     * Milisegundos máximos de espera de la respuesta por método de ClienteRest (create, read, update, delete)
+     */
+    private Map<String, Integer> timeoutsMs = new HashMap<>();
+
+    /**
+     * Llamadas simultáneas máximas al microservicio; las demás se rechazan
+     */
+    private int maxLlamadasConcurrentes = 20;
+
+    /**
+     * Milisegundos que una llamada espera un cupo libre antes de rechazarse
+     */
+    private long esperaCupoMs = 100;
+
+    /**
+     * Cantidad de últimas llamadas con que el circuito calcula el porcentaje de fallos
+     */
+    private int ventanaLlamadas = 20;
+
+    /**
+     * Llamadas mínimas en la ventana antes de que el circuito pueda abrirse
+     */
+    private int minimoLlamadas = 10;
+
+    /**
+     * Porcentaje de fallos en la ventana que abre el circuito
+     */
+    private int porcentajeFallos = 50;
+
+    /**
+     * Milisegundos que el circuito queda abierto antes de dejar pasar una llamada de prueba
+     */
+    private long aperturaMs = 30_000;
+
+    /**
+     * Llamadas de /bff que pueden esperar un hilo libre de la variante asíncrona
+     */
+    private int colaAsincrona = 100;
+
+    /**
+     * Segundos que se responde read(id) desde la caché sin llamar al microservicio (0 la desactiva)
+     */
+    private long ttlLecturaSegundos = 5;
+
+    /**
+     * Segundos que se guarda la última lectura, para responderla si el microservicio no está disponible
+     */
+    private long ttlLecturaObsoletaSegundos = 300;
+
+    /**
+     * Cantidad máxima de lecturas guardadas
+     */
+    private long tamanioCacheLecturas = 1000;
+
+    /**
+     * Tiempo máximo de respuesta de un método de ClienteRest
+     */
+    public int getTimeoutMs(String metodo) {
+        return timeoutsMs.getOrDefault(metodo, readTimeoutMs);
+    }
+
+    // Getters y Setters explícitos para evitar problemas con Lombok
+    public int getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public void setConnectTimeoutMs(int connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+    }
+
+    public int getReadTimeoutMs() {
+        return readTimeoutMs;
+    }
+
+    public void setReadTimeoutMs(int readTimeoutMs) {
+        this.readTimeoutMs = readTimeoutMs;
+    }
+
+    public Map<String, Integer> getTimeoutsMs() {
+        return timeoutsMs;
+    }
+
+    public void setTimeoutsMs(Map<String, Integer> timeoutsMs) {
+        this.timeoutsMs = timeoutsMs;
+    }
+
+    public int getMaxLlamadasConcurrentes() {
+        return maxLlamadasConcurrentes;
+    }
+
+    public void setMaxLlamadasConcurrentes(int maxLlamadasConcurrentes) {
+        this.maxLlamadasConcurrentes = maxLlamadasConcurrentes;
+    }
+
+    public long getEsperaCupoMs() {
+        return esperaCupoMs;
+    }
+
+    public void setEsperaCupoMs(long esperaCupoMs) {
+        this.esperaCupoMs = esperaCupoMs;
+    }
+
+    public int getVentanaLlamadas() {
+        return ventanaLlamadas;
+    }
+
+    public void setVentanaLlamadas(int ventanaLlamadas) {
+        this.ventanaLlamadas = ventanaLlamadas;
+    }
+
+    public int getMinimoLlamadas() {
+        return minimoLlamadas;
+    }
+
+    public void setMinimoLlamadas(int minimoLlamadas) {
+        this.minimoLlamadas = minimoLlamadas;
+    }
+
+    public int getPorcentajeFallos() {
+        return porcentajeFallos;
+    }
+
+    public void setPorcentajeFallos(int porcentajeFallos) {
+        this.porcentajeFallos = porcentajeFallos;
+    }
+
+    public long getAperturaMs() {
+        return aperturaMs;
+    }
+
+    public void setAperturaMs(long aperturaMs) {
+        this.aperturaMs = aperturaMs;
+    }
+
+    public int getColaAsincrona() {
+        return colaAsincrona;
+    }
+
+    public void setColaAsincrona(int colaAsincrona) {
+        this.colaAsincrona = colaAsincrona;
+    }
+
+    public long getTtlLecturaSegundos() {
+        return ttlLecturaSegundos;
+    }
+
+    public void setTtlLecturaSegundos(long ttlLecturaSegundos) {
+        this.ttlLecturaSegundos = ttlLecturaSegundos;
+    }
+
+    public long getTtlLecturaObsoletaSegundos() {
+        return ttlLecturaObsoletaSegundos;
+    }
+
+    public void setTtlLecturaObsoletaSegundos(long ttlLecturaObsoletaSegundos) {
+        this.ttlLecturaObsoletaSegundos = ttlLecturaObsoletaSegundos;
+    }
+
+    public long getTamanioCacheLecturas() {
+        return tamanioCacheLecturas;
+    }
+
+    public void setTamanioCacheLecturas(long tamanioCacheLecturas) {
+        this.tamanioCacheLecturas = tamanioCacheLecturas;
+    }
+}
@@ -0,0 +1,27 @@
+package com.partymap.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de la caché de los paneles de estadísticas.
+ * Se define con las propiedades partymap.cache.estadisticas.* en application.properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "partymap.cache.estadisticas")
+public class CacheEstadisticasProperties {
+
+    /**
+     * Segundos que se reutiliza un resultado de estadísticas (0 desactiva la caché)
+     */
+    private long ttlSegundos = 30;
+
+    // Getters y Setters explícitos para evitar problemas con Lombok
+    public long getTtlSegundos() {
+        return ttlSegundos;
+    }
+
+    public void setTtlSegundos(long ttlSegundos) {
+        this.ttlSegundos = ttlSegundos;
+    }
+}
@@ -0,0 +1,54 @@
+package com.partymap.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de la caché del catálogo público de eventos.
+ * Se define con las propiedades partymap.cache.eventos.* en application.properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "partymap.cache.eventos")
+public class CacheEventosProperties {
+
+    /**
+     * Cantidad máxima de eventos (DTO) retenidos entre todas las entradas de la caché
+     */
+    private long tamanioMaximo = 10_000;
+
+    /**
+     * Segundos que se mantiene en caché el detalle de un evento
+     */
+    private long ttlSegundos = 300;
+
+    /**
+     * Segundos que se mantienen en caché los listados y búsquedas.
+     * Es menor porque listados como /proximos dependen de la hora actual
+     */
+    private long ttlListadosSegundos = 60;
+
+    // Getters y Setters explícitos para evitar problemas con Lombok
+    public long getTamanioMaximo() {
+        return tamanioMaximo;
+    }
+
+    public void setTamanioMaximo(long tamanioMaximo) {
+        this.tamanioMaximo = tamanioMaximo;
+    }
+
+    public long getTtlSegundos() {
+        return ttlSegundos;
+    }
+
+    public void setTtlSegundos(long ttlSegundos) {
+        this.ttlSegundos = ttlSegundos;
+    }
+
+    public long getTtlListadosSegundos() {
+        return ttlListadosSegundos;
+    }
+
+    public void setTtlListadosSegundos(long ttlListadosSegundos) {
+        this.ttlListadosSegundos = ttlListadosSegundos;
+    }
+}
@@ -0,0 +1,53 @@
+package com.partymap.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de las cachés de usuarios autenticados con JWT (sincronización y usuario actual).
+ * Se define con las propiedades partymap.cache.usuarios.* en application.properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "partymap.cache.usuarios")
+public class CacheUsuariosProperties {
+
+    /**
+     * Cantidad máxima de tokens recordados como ya sincronizados
+     */
+    private long tamanioMaximo = 10_000;
+
+    /**
+     * Segundos máximos que se recuerda un token, aunque expire más tarde o no indique expiración
+     */
+    private long ttlMaximoSegundos = 3600;
+
+    /**
+     * Segundos que se reutiliza el usuario actual resuelto para un mismo sujeto entre peticiones
+     */
+    private long ttlUsuarioActualSegundos = 60;
+
+    // Getters y Setters explícitos para evitar problemas con Lombok
+    public long getTamanioMaximo() {
+        return tamanioMaximo;
+    }
+
+    public void setTamanioMaximo(long tamanioMaximo) {
+        this.tamanioMaximo = tamanioMaximo;
+    }
+
+    public long getTtlMaximoSegundos() {
+        return ttlMaximoSegundos;
+    }
+
+    public void setTtlMaximoSegundos(long ttlMaximoSegundos) {
+        this.ttlMaximoSegundos = ttlMaximoSegundos;
+    }
+
+    public long getTtlUsuarioActualSegundos() {
+        return ttlUsuarioActualSegundos;
+    }
+
+    public void setTtlUsuarioActualSegundos(long ttlUsuarioActualSegundos) {
+        this.ttlUsuarioActualSegundos = ttlUsuarioActualSegundos;
+    }
+}
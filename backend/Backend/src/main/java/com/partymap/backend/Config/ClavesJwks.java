@@ -0,0 +1,141 @@
+package com.partymap.backend.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+
+/**
+ * Claves públicas (JWKS) con que Azure B2C firma los tokens, guardadas en memoria.
+ *
+ * El JWKS se carga la primera vez que se verifica un token y se refresca cada cierto tiempo en
+ * segundo plano, así que la verificación de una firma no hace llamadas de red. Si llega un token
+ * firmado con una clave desconocida (rotación de claves), se recarga en el momento, como máximo
+ * una vez por intervalo mínimo. Si una recarga falla se siguen usando las claves anteriores.
+ *
+ * Con partymap.seguridad.jwt.jwk-set-archivo se lee de un archivo local en lugar de la URL.
+ */
+@Component
+public class ClavesJwks implements JWKSource<SecurityContext> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClavesJwks.class);
+
+    /**
+     * Tamaño máximo aceptado para el JWKS remoto
+     */
+    private static final int TAMANIO_MAXIMO_BYTES = 512 * 1024;
+
+    private final JwtProperties properties;
+
+    private volatile JWKSet claves;
+
+    /**
+     * Momento (System.nanoTime) del último intento de carga; 0 si aún no se intenta
+     */
+    private volatile long ultimoIntento;
+
+    public ClavesJwks(JwtProperties properties,
+            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri:}") String jwkSetUriSpring) {
+        this.properties = properties;
+        // Se mantiene la URL ya configurada para el servidor de recursos si no se indica otra
+        if (isBlank(properties.getJwkSetUri()) && !isBlank(jwkSetUriSpring)) {
+            properties.setJwkSetUri(jwkSetUriSpring);
+        }
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector selector, SecurityContext contexto) {
+        JWKSet actuales = claves;
+        if (actuales == null) {
+            actuales = cargarSiCorresponde(true);
+        }
+        List<JWK> encontradas = actuales != null ? selector.select(actuales) : List.of();
+        if (encontradas.isEmpty()) {
+            // Clave desconocida: puede que Azure B2C haya rotado las claves
+            JWKSet recargadas = cargarSiCorresponde(false);
+            if (recargadas != null && recargadas != actuales) {
+                encontradas = selector.select(recargadas);
+            }
+        }
+        return encontradas;
+    }
+
+    /**
+     * Refresca el JWKS en segundo plano, si ya se cargó alguna vez
+     */
+    @Scheduled(fixedDelayString = "${partymap.seguridad.jwt.refresco-jwks-ms:3600000}",
+            initialDelayString = "${partymap.seguridad.jwt.refresco-jwks-ms:3600000}")
+    public void refrescar() {
+        if (claves != null) {
+            recargar();
+        }
+    }
+
+    /**
+     * Vuelve a leer el JWKS; si falla se conservan las claves anteriores
+     * @return Claves vigentes tras la recarga
+     */
+    public synchronized JWKSet recargar() {
+        ultimoIntento = System.nanoTime();
+        try {
+            JWKSet leidas = leer();
+            if (leidas.getKeys().isEmpty()) {
+                logger.warn("El JWKS no contiene claves; se conservan las anteriores");
+            } else {
+                claves = leidas;
+                logger.debug("JWKS cargado con {} claves", leidas.getKeys().size());
+            }
+        } catch (IOException | ParseException e) {
+            logger.warn("No se pudo cargar el JWKS: {}", e.getMessage());
+        }
+        return claves;
+    }
+
+    /**
+     * Cantidad de claves en memoria
+     */
+    public int getCantidadClaves() {
+        JWKSet actuales = claves;
+        return actuales != null ? actuales.getKeys().size() : 0;
+    }
+
+    private synchronized JWKSet cargarSiCorresponde(boolean inicial) {
+        if (inicial && claves != null) {
+            // Otro hilo lo cargó mientras se esperaba
+            return claves;
+        }
+        long intervaloMinimo = properties.getIntervaloMinimoRecargaSegundos() * 1_000_000_000L;
+        if (ultimoIntento != 0 && System.nanoTime() - ultimoIntento < intervaloMinimo) {
+            return claves;
+        }
+        return recargar();
+    }
+
+    private JWKSet leer() throws IOException, ParseException {
+        if (!isBlank(properties.getJwkSetArchivo())) {
+            return JWKSet.load(new File(properties.getJwkSetArchivo()));
+        }
+        if (isBlank(properties.getJwkSetUri())) {
+            throw new IOException("No se configuró la URL ni el archivo del JWKS");
+        }
+        return JWKSet.load(new URL(properties.getJwkSetUri()), properties.getTimeoutJwksMs(),
+                properties.getTimeoutJwksMs(), TAMANIO_MAXIMO_BYTES);
+    }
+
+    private static boolean isBlank(String valor) {
+        return valor == null || valor.isBlank();
+    }
+}
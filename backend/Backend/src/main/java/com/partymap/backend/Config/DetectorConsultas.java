@@ -0,0 +1,276 @@
+package com.partymap.backend.config;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.partymap.backend.dto.ConsultaProblemaDTO;
+
+/**
+ * Cuenta las consultas SQL de cada petición HTTP y detecta las N+1 y las lentas.
+ *
+ * DetectorConsultasFilter abre un registro por petición; Hibernate informa cada consulta que
+ * prepara y ejecuta (InspectorConsultas) y el registro acumula, por consulta, las ejecuciones y
+ * el tiempo en base de datos. Al terminar la petición:
+ * - una consulta que se repite partymap.consultas.umbral-repeticiones veces o más se informa como N+1
+ *   (la misma sentencia con otros parámetros, típicamente una asociación cargada elemento por elemento)
+ * - una ejecución que supera partymap.consultas.umbral-lenta-ms se informa como lenta
+ *
+ * Las peticiones con problemas se registran con un resumen en una línea (WARN) y las consultas
+ * problemáticas se acumulan por ruta para GET /diagnostico/consultas. Las demás solo con DEBUG.
+ *
+ * El registro es del hilo de la petición: no cuenta consultas de tareas programadas ni de otros hilos.
+ */
+@Component
+public class DetectorConsultas implements HibernatePropertiesCustomizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DetectorConsultas.class);
+
+    /**
+     * Largo máximo de una consulta en el resumen del log
+     */
+    private static final int LARGO_SQL_LOG = 160;
+
+    private static final Pattern TEXTO = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERO = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern LISTA_PARAMETROS = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private static final ThreadLocal<ConsultasPeticion> ACTUAL = new ThreadLocal<>();
+
+    public enum TipoProblema { N_MAS_1, LENTA }
+
+    /**
+     * Consulta problemática de una petición
+     */
+    public record Hallazgo(TipoProblema tipo, String sql, int ejecuciones, long nanos, long maxNanos) {
+    }
+
+    /**
+     * Consultas de una petición terminada
+     */
+    public record ResumenConsultas(String ruta, int consultas, long nanos, List<Hallazgo> hallazgos) {
+    }
+
+    /**
+     * Acumulado de una consulta en la petición, por texto SQL
+     */
+    private static final class Ejecuciones {
+        int cantidad;
+        long nanos;
+        long maxNanos;
+    }
+
+    private static final class ConsultasPeticion {
+        final Map<String, Ejecuciones> porSql = new HashMap<>();
+        String sqlActual;
+        long inicioEjecucion;
+        int consultas;
+        long nanos;
+    }
+
+    /**
+     * Acumulado de una consulta problemática en una ruta, entre peticiones
+     */
+    private static final class Problema {
+        final TipoProblema tipo;
+        final String ruta;
+        final String sql;
+        long peticiones;
+        long maxEjecuciones;
+        long nanos;
+        long maxNanos;
+        LocalDateTime ultimaDeteccion;
+
+        Problema(TipoProblema tipo, String ruta, String sql) {
+            this.tipo = tipo;
+            this.ruta = ruta;
+            this.sql = sql;
+        }
+
+        synchronized void sumar(Hallazgo hallazgo) {
+            peticiones++;
+            maxEjecuciones = Math.max(maxEjecuciones, hallazgo.ejecuciones());
+            nanos += hallazgo.nanos();
+            maxNanos = Math.max(maxNanos, hallazgo.maxNanos());
+            ultimaDeteccion = LocalDateTime.now();
+        }
+
+        synchronized ConsultaProblemaDTO toDTO() {
+            return new ConsultaProblemaDTO(tipo.name(), ruta, sql, peticiones, maxEjecuciones,
+                    nanos / 1_000_000.0, maxNanos / 1_000_000.0, ultimaDeteccion);
+        }
+
+        synchronized long getNanos() {
+            return nanos;
+        }
+    }
+
+    private final DetectorConsultasProperties properties;
+    private final Cache<String, Problema> problemas;
+
+    public DetectorConsultas(DetectorConsultasProperties properties) {
+        this.properties = properties;
+        this.problemas = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, properties.getMaxProblemas()))
+                .build();
+    }
+
+    /**
+     * Registra InspectorConsultas en Hibernate para recibir las consultas preparadas y ejecutadas
+     */
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        if (properties.isHabilitado()) {
+            hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, InspectorConsultas.class.getName());
+            hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, InspectorConsultas.class.getName());
+        }
+    }
+
+    public boolean isHabilitado() {
+        return properties.isHabilitado();
+    }
+
+    /**
+     * Abre el registro de consultas de la petición del hilo actual
+     */
+    public void iniciar() {
+        ACTUAL.set(new ConsultasPeticion());
+    }
+
+    /**
+     * Cierra el registro de la petición del hilo actual, informa los problemas y los acumula por ruta
+     * @param ruta Método y plantilla de la ruta de la petición
+     * @return Resumen de la petición, o null si no había registro abierto
+     */
+    public ResumenConsultas finalizar(String ruta) {
+        ConsultasPeticion peticion = ACTUAL.get();
+        ACTUAL.remove();
+        if (peticion == null) {
+            return null;
+        }
+
+        // Textos que solo difieren en literales cuentan como la misma consulta
+        Map<String, Ejecuciones> porForma = new HashMap<>();
+        peticion.porSql.forEach((sql, ejecuciones) -> {
+            Ejecuciones acumulado = porForma.computeIfAbsent(forma(sql), f -> new Ejecuciones());
+            acumulado.cantidad += ejecuciones.cantidad;
+            acumulado.nanos += ejecuciones.nanos;
+            acumulado.maxNanos = Math.max(acumulado.maxNanos, ejecuciones.maxNanos);
+        });
+
+        long umbralLentaNanos = properties.getUmbralLentaMs() * 1_000_000L;
+        List<Hallazgo> hallazgos = new ArrayList<>();
+        porForma.forEach((sql, ejecuciones) -> {
+            if (ejecuciones.cantidad >= properties.getUmbralRepeticiones()) {
+                hallazgos.add(new Hallazgo(TipoProblema.N_MAS_1, sql, ejecuciones.cantidad, ejecuciones.nanos, ejecuciones.maxNanos));
+            }
+            if (ejecuciones.maxNanos >= umbralLentaNanos) {
+                hallazgos.add(new Hallazgo(TipoProblema.LENTA, sql, ejecuciones.cantidad, ejecuciones.nanos, ejecuciones.maxNanos));
+            }
+        });
+        hallazgos.sort(Comparator.comparingLong(Hallazgo::nanos).reversed());
+
+        ResumenConsultas resumen = new ResumenConsultas(ruta, peticion.consultas, peticion.nanos, hallazgos);
+        if (!hallazgos.isEmpty()) {
+            for (Hallazgo hallazgo : hallazgos) {
+                problemas.get(hallazgo.tipo() + "|" + ruta + "|" + hallazgo.sql(),
+                        clave -> new Problema(hallazgo.tipo(), ruta, hallazgo.sql())).sumar(hallazgo);
+            }
+            logger.warn("Consultas problemáticas en {}: {}", ruta, describir(resumen));
+        } else if (logger.isDebugEnabled() && peticion.consultas > 0) {
+            logger.debug("Consultas de {}: {}", ruta, describir(resumen));
+        }
+        return resumen;
+    }
+
+    /**
+     * Consultas problemáticas acumuladas, de mayor a menor tiempo total en base de datos
+     */
+    public List<ConsultaProblemaDTO> getPeoresConsultas(int limite) {
+        return problemas.asMap().values().stream()
+                .sorted(Comparator.comparingLong(Problema::getNanos).reversed())
+                .limit(Math.max(0, limite))
+                .map(Problema::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Olvida las consultas problemáticas acumuladas
+     */
+    public void limpiar() {
+        problemas.invalidateAll();
+    }
+
+    /**
+     * Consulta preparada por Hibernate en el hilo actual (se ejecuta a continuación)
+     */
+    static void consultaPreparada(String sql) {
+        ConsultasPeticion peticion = ACTUAL.get();
+        if (peticion != null) {
+            peticion.sqlActual = sql;
+        }
+    }
+
+    static void ejecucionIniciada() {
+        ConsultasPeticion peticion = ACTUAL.get();
+        if (peticion != null) {
+            peticion.inicioEjecucion = System.nanoTime();
+        }
+    }
+
+    static void ejecucionTerminada() {
+        ConsultasPeticion peticion = ACTUAL.get();
+        if (peticion == null || peticion.inicioEjecucion == 0) {
+            return;
+        }
+        long nanos = System.nanoTime() - peticion.inicioEjecucion;
+        peticion.inicioEjecucion = 0;
+        peticion.consultas++;
+        peticion.nanos += nanos;
+        Ejecuciones ejecuciones = peticion.porSql.computeIfAbsent(
+                peticion.sqlActual != null ? peticion.sqlActual : "(desconocida)", sql -> new Ejecuciones());
+        ejecuciones.cantidad++;
+        ejecuciones.nanos += nanos;
+        ejecuciones.maxNanos = Math.max(ejecuciones.maxNanos, nanos);
+    }
+
+    /**
+     * Forma de la consulta: sin literales, con las listas IN (?, ?, ...) abreviadas y en una línea
+     */
+    static String forma(String sql) {
+        String forma = TEXTO.matcher(sql).replaceAll("?");
+        forma = NUMERO.matcher(forma).replaceAll("?");
+        forma = LISTA_PARAMETROS.matcher(forma).replaceAll("(?...)");
+        return ESPACIOS.matcher(forma).replaceAll(" ").trim();
+    }
+
+    private static String describir(ResumenConsultas resumen) {
+        StringBuilder texto = new StringBuilder()
+                .append(resumen.consultas()).append(" consultas, ")
+                .append(resumen.nanos() / 1_000_000).append(" ms en BD");
+        for (Hallazgo hallazgo : resumen.hallazgos()) {
+            texto.append("; ").append(hallazgo.tipo() == TipoProblema.N_MAS_1 ? "N+1 " : "lenta ")
+                    .append(hallazgo.ejecuciones()).append("x ")
+                    .append(hallazgo.nanos() / 1_000_000).append(" ms (máx ")
+                    .append(hallazgo.maxNanos() / 1_000_000).append(" ms) [")
+                    .append(hallazgo.sql().length() > LARGO_SQL_LOG
+                            ? hallazgo.sql().substring(0, LARGO_SQL_LOG) + "..." : hallazgo.sql())
+                    .append(']');
+        }
+        return texto.toString();
+    }
+}
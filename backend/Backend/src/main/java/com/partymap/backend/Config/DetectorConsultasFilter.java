@@ -0,0 +1,53 @@
+package com.partymap.backend.config;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Abre el registro de consultas de DetectorConsultas al llegar cada petición y lo cierra al
+ * terminar. Corre antes de la seguridad para contar también las consultas de la sincronización
+ * de usuarios (JwtUserSyncFilter).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class DetectorConsultasFilter extends OncePerRequestFilter {
+
+    private final DetectorConsultas detector;
+
+    public DetectorConsultasFilter(DetectorConsultas detector) {
+        this.detector = detector;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        detector.iniciar();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            detector.finalizar(ruta(request));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
+        return !detector.isHabilitado() || request.getRequestURI().startsWith("/actuator");
+    }
+
+    /**
+     * Método y plantilla de la ruta (GET /evento/{id}), para agrupar las peticiones de un mismo endpoint
+     */
+    static String ruta(HttpServletRequest request) {
+        Object plantilla = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (plantilla != null ? plantilla : request.getRequestURI());
+    }
+}
@@ -0,0 +1,66 @@
+package com.partymap.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del detector de consultas N+1 y lentas por petición HTTP (DetectorConsultas).
+ * Se define con las propiedades partymap.consultas.* en application.properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "partymap.consultas")
+public class DetectorConsultasProperties {
+
+    /**
+     * Si se cuentan las consultas de cada petición
+     */
+    private boolean habilitado = true;
+
+    /**
+     * Ejecuciones de una misma consulta (con otros parámetros) en una petición que se informan como N+1
+     */
+    private int umbralRepeticiones = 10;
+
+    /**
+     * Milisegundos desde los que una consulta se informa como lenta
+     */
+    private long umbralLentaMs = 500;
+
+    /**
+     * Cantidad máxima de consultas problemáticas que se recuerdan para GET /diagnostico/consultas
+     */
+    private long maxProblemas = 200;
+
+    // Getters y Setters explícitos para evitar problemas con Lombok
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public void setHabilitado(boolean habilitado) {
+        this.habilitado = habilitado;
+    }
+
+    public int getUmbralRepeticiones() {
+        return umbralRepeticiones;
+    }
+
+    public void setUmbralRepeticiones(int umbralRepeticiones) {
+        this.umbralRepeticiones = umbralRepeticiones;
+    }
+
+    public long getUmbralLentaMs() {
+        return umbralLentaMs;
+    }
+
+    public void setUmbralLentaMs(long umbralLentaMs) {
+        this.umbralLentaMs = umbralLentaMs;
+    }
+
+    public long getMaxProblemas() {
+        return maxProblemas;
+    }
+
+    public void setMaxProblemas(long maxProblemas) {
+        this.maxProblemas = maxProblemas;
+    }
+}
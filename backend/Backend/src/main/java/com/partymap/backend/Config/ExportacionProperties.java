@@ -0,0 +1,29 @@
+package com.partymap.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de los listados completos y exportaciones que se escriben a medida que se leen
+ * (GET ...?stream=true y las exportaciones de reservas /reserva/.../export).
+ * Se define con las propiedades partymap.exportacion.* en application.properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "partymap.exportacion")
+public class ExportacionProperties {
+
+    /**
+     * Exportaciones simultáneas permitidas. Cada una retiene una conexión del pool mientras se
+     * escribe, así que debe quedar bastante por debajo del tamaño del pool.
+     */
+    private int maximoSimultaneas = 3;
+
+    // Getters y Setters explícitos para evitar problemas con Lombok
+    public int getMaximoSimultaneas() {
+        return maximoSimultaneas;
+    }
+
+    public void setMaximoSimultaneas(int maximoSimultaneas) {
+        this.maximoSimultaneas = maximoSimultaneas;
+    }
+}
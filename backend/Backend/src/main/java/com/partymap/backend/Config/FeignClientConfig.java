@@ -3,13 +3,27 @@ package com.partymap.backend.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.partymap.backend.restClients.ClienteHttpPool;
+
+import feign.Client;
 import feign.Logger;
 
 @Configuration
 public class FeignClientConfig {
 
+    /**
+     * Solo método, URL, estado y duración: FULL registraba los headers (Authorization) y los cuerpos
+     */
     @Bean
     public Logger.Level feignLoggerLevel() {
-        return Logger.Level.FULL;
+        return Logger.Level.BASIC;
+    }
+
+    /**
+     * Cliente HTTP con conexiones reutilizables y tiempos máximos por método
+     */
+    @Bean
+    public Client feignClient(BffProperties bffProperties) {
+        return new ClienteHttpPool(bffProperties);
     }
-} 
\ No newline at end of file
+}
@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 
 import com.partymap.backend.exceptions.NotFoundException;
+import com.partymap.backend.exceptions.ServicioNoDisponibleException;
 
 /**
  * Controlador global de excepciones para manejar errores de manera consistente.
@@ -84,6 +85,22 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
     }
 
+    /**
+     * Maneja excepciones de servicios externos no disponibles (503 Service Unavailable)
+     */
+    @ExceptionHandler(ServicioNoDisponibleException.class)
+    public ResponseEntity<Map<String, Object>> handleServicioNoDisponibleException(
+            ServicioNoDisponibleException ex, WebRequest request) {
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", "Servicio no disponible");
+        body.put("message", ex.getMessage());
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("path", request.getDescription(false));
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+
     /**
      * Maneja excepciones generales (500 Internal Server Error)
      */
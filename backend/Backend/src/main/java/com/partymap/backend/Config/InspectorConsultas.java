@@ -0,0 +1,40 @@
+package com.partymap.backend.config;
+
+import org.hibernate.SessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Avisa a DetectorConsultas de cada consulta que Hibernate prepara (inspect) y del tiempo de
+ * cada ejecución (eventos JDBC de la sesión). Hibernate lo instancia por nombre de clase
+ * (ver DetectorConsultas#customize): no guarda estado, el registro es del hilo de la petición.
+ */
+public class InspectorConsultas implements StatementInspector, SessionEventListener {
+
+    private static final long serialVersionUID = 1;
+
+    @Override
+    public String inspect(String sql) {
+        DetectorConsultas.consultaPreparada(sql);
+        return sql;
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        DetectorConsultas.ejecucionIniciada();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        DetectorConsultas.ejecucionTerminada();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        DetectorConsultas.ejecucionIniciada();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        DetectorConsultas.ejecucionTerminada();
+    }
+}
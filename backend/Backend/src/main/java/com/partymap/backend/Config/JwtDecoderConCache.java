@@ -0,0 +1,167 @@
+package com.partymap.backend.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Decodificador de JWT que recuerda los tokens ya validados.
+ *
+ * Un cliente manda el mismo token en todas sus peticiones hasta que expira; la primera vez se
+ * verifica con el decodificador real (firma y claims) y el resultado se guarda, con la huella
+ * SHA-256 del token como clave, hasta la expiración del token. Las peticiones siguientes con el
+ * mismo token no vuelven a parsearlo ni a verificar la firma. Los tokens rechazados no se guardan.
+ *
+ * Registra la cantidad de aciertos y fallos de la caché y el tiempo de las decodificaciones reales,
+ * también como métricas (partymap.jwt.tokens y partymap.jwt.decodificacion).
+ */
+public class JwtDecoderConCache implements JwtDecoder, MeterBinder {
+
+    private final JwtDecoder decoder;
+    private final Cache<String, Jwt> tokens;
+
+    private final LongAdder decodificaciones = new LongAdder();
+    private final LongAdder rechazos = new LongAdder();
+    private final LongAdder nanosDecodificando = new LongAdder();
+    private final AtomicLong maximoNanos = new AtomicLong();
+
+    private volatile Timer timerDecodificacion;
+
+    public JwtDecoderConCache(JwtDecoder decoder, long tamanioMaximo) {
+        this.decoder = decoder;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(tamanioMaximo)
+                .recordStats()
+                .expireAfter(new Expiry<String, Jwt>() {
+                    @Override
+                    public long expireAfterCreate(String clave, Jwt jwt, long ahora) {
+                        return vigenciaNanos(jwt.getExpiresAt());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String clave, Jwt jwt, long ahora, long vigenciaActual) {
+                        return vigenciaNanos(jwt.getExpiresAt());
+                    }
+
+                    @Override
+                    public long expireAfterRead(String clave, Jwt jwt, long ahora, long vigenciaActual) {
+                        return vigenciaActual;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (token == null) {
+            throw new JwtException("Token vacío");
+        }
+        String clave = huella(token);
+        Jwt recordado = tokens.getIfPresent(clave);
+        if (recordado != null) {
+            return recordado;
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            Jwt jwt = decoder.decode(token);
+            // Sin expiración no se recuerda: cada petición vuelve a validarlo
+            if (jwt.getExpiresAt() != null) {
+                tokens.put(clave, jwt);
+            }
+            return jwt;
+        } catch (JwtException e) {
+            rechazos.increment();
+            throw e;
+        } finally {
+            long nanos = System.nanoTime() - inicio;
+            Timer timer = timerDecodificacion;
+            if (timer != null) {
+                timer.record(nanos, TimeUnit.NANOSECONDS);
+            }
+            decodificaciones.increment();
+            nanosDecodificando.add(nanos);
+            maximoNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, tokens, "partymap.jwt.tokens");
+        FunctionCounter.builder("partymap.jwt.rechazados", rechazos, LongAdder::sum)
+                .description("Tokens rechazados por firma, emisor, audiencia o vigencia")
+                .register(registry);
+        timerDecodificacion = Timer.builder("partymap.jwt.decodificacion")
+                .description("Decodificaciones con verificación de firma (fallos de la caché de tokens)")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Estadísticas de la caché de tokens y de las decodificaciones reales
+     */
+    public Map<String, Object> getEstadisticas() {
+        CacheStats stats = tokens.stats();
+        long cantidad = decodificaciones.sum();
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("tokensEnCache", tokens.estimatedSize());
+        estadisticas.put("aciertos", stats.hitCount());
+        estadisticas.put("fallos", stats.missCount());
+        estadisticas.put("tasaAciertos", stats.hitRate());
+        estadisticas.put("decodificaciones", cantidad);
+        estadisticas.put("rechazados", rechazos.sum());
+        estadisticas.put("promedioDecodificacionMs", cantidad > 0 ? nanosDecodificando.sum() / cantidad / 1_000_000.0 : 0.0);
+        estadisticas.put("maximoDecodificacionMs", maximoNanos.get() / 1_000_000.0);
+        return estadisticas;
+    }
+
+    /**
+     * Olvida los tokens recordados (por ejemplo, tras revocar claves)
+     */
+    public void limpiar() {
+        tokens.invalidateAll();
+    }
+
+    /**
+     * Huella SHA-256 del token, para no guardar los tokens en claro como clave
+     */
+    static String huella(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static long vigenciaNanos(Instant expiracion) {
+        if (expiracion == null) {
+            return 0;
+        }
+        Duration restante = Duration.between(Instant.now(), expiracion);
+        return restante.isNegative() ? 0 : restante.toNanos();
+    }
+}
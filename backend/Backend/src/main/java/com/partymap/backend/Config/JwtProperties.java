@@ -0,0 +1,105 @@
+package com.partymap.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de la validación de los tokens de Azure B2C (firma, emisor, audiencia y cachés).
+ * Se define con las propiedades partymap.seguridad.jwt.* en application.properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "partymap.seguridad.jwt")
+public class JwtProperties {
+
+    /**
+     * Emisor (iss) que deben indicar los tokens
+     */
+    private String issuer = "https://duocdesarrollocloudnative.b2clogin.com/dd063bcd-7ee5-4283-a6b4-76561cc07f64/v2.0/";
+
+    /**
+     * Audiencia (aud) que deben incluir los tokens: el ID de la aplicación registrada en Azure B2C
+     */
+    private String audience = "ad16d15c-7d6e-4f58-8146-4b5b3d7b7124";
+
+    /**
+     * URL del JWKS con las claves públicas con que Azure B2C firma los tokens
+     */
+    private String jwkSetUri;
+
+    /**
+     * Archivo local con el JWKS; si se indica, se usa en lugar de la URL (pruebas sin conexión)
+     */
+    private String jwkSetArchivo;
+
+    /**
+     * Milisegundos máximos para conectar y para leer el JWKS remoto
+     */
+    private int timeoutJwksMs = 5000;
+
+    /**
+     * Segundos mínimos entre recargas del JWKS provocadas por un token firmado con una clave desconocida
+     */
+    private long intervaloMinimoRecargaSegundos = 30;
+
+    /**
+     * Cantidad máxima de tokens ya validados que se recuerdan para no volver a verificarlos
+     */
+    private long tamanioCacheTokens = 10_000;
+
+    // Getters y Setters explícitos para evitar problemas con Lombok
+    public String getIssuer() {
+        return issuer;
+    }
+
+    public void setIssuer(String issuer) {
+        this.issuer = issuer;
+    }
+
+    public String getAudience() {
+        return audience;
+    }
+
+    public void setAudience(String audience) {
+        this.audience = audience;
+    }
+
+    public String getJwkSetUri() {
+        return jwkSetUri;
+    }
+
+    public void setJwkSetUri(String jwkSetUri) {
+        this.jwkSetUri = jwkSetUri;
+    }
+
+    public String getJwkSetArchivo() {
+        return jwkSetArchivo;
+    }
+
+    public void setJwkSetArchivo(String jwkSetArchivo) {
+        this.jwkSetArchivo = jwkSetArchivo;
+    }
+
+    public int getTimeoutJwksMs() {
+        return timeoutJwksMs;
+    }
+
+    public void setTimeoutJwksMs(int timeoutJwksMs) {
+        this.timeoutJwksMs = timeoutJwksMs;
+    }
+
+    public long getIntervaloMinimoRecargaSegundos() {
+        return intervaloMinimoRecargaSegundos;
+    }
+
+    public void setIntervaloMinimoRecargaSegundos(long intervaloMinimoRecargaSegundos) {
+        this.intervaloMinimoRecargaSegundos = intervaloMinimoRecargaSegundos;
+    }
+
+    public long getTamanioCacheTokens() {
+        return tamanioCacheTokens;
+    }
+
+    public void setTamanioCacheTokens(long tamanioCacheTokens) {
+        this.tamanioCacheTokens = tamanioCacheTokens;
+    }
+}
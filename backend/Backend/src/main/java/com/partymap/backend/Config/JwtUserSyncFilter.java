@@ -8,8 +8,7 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.partymap.backend.model.Usuario;
-import com.partymap.backend.service.UsuarioService;
+import com.partymap.backend.service.SincronizacionUsuariosJwt;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -20,7 +19,8 @@ import java.io.IOException;
 /**
  * Filtro que sincroniza automáticamente usuarios desde JWT de Azure B2C.
  * Se ejecuta después de la autenticación JWT para asegurar que el usuario
- * existe en la base de datos local.
+ * existe en la base de datos local. Cada token se sincroniza una sola vez
+ * (ver SincronizacionUsuariosJwt).
  */
 @Component
 public class JwtUserSyncFilter extends OncePerRequestFilter {
@@ -28,7 +28,7 @@ public class JwtUserSyncFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtUserSyncFilter.class);
 
     @Autowired
-    private UsuarioService usuarioService;
+    private SincronizacionUsuariosJwt sincronizacionUsuarios;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -41,10 +41,8 @@ public class JwtUserSyncFilter extends OncePerRequestFilter {
             if (authentication != null && authentication.getPrincipal() instanceof Jwt) {
                 Jwt jwt = (Jwt) authentication.getPrincipal();
                 
-                // Sincronizar usuario desde JWT
-                Usuario usuario = usuarioService.sincronizarUsuarioDesdeJWT(jwt);
-                
-                logger.debug("Usuario sincronizado: {} ({})", usuario.getEmail(), usuario.getTipoUsuario());
+                // Sincronizar usuario desde JWT (solo la primera vez que llega el token)
+                sincronizacionUsuarios.sincronizar(jwt);
             }
         } catch (Exception e) {
             logger.error("Error sincronizando usuario desde JWT", e);
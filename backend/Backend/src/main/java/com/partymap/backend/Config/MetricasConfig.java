@@ -0,0 +1,29 @@
+package com.partymap.backend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Métricas de la aplicación (Micrometer), publicadas para Prometheus en /actuator/prometheus.
+ *
+ * Spring Boot ya registra las peticiones HTTP por ruta (http.server.requests), el pool de Hikari,
+ * las estadísticas de Hibernate, las llamadas de Feign (http.client.requests) y la JVM/GC. Aquí se
+ * agregan los tiempos de los servicios: cada método de una clase anotada con
+ * {@code @Timed(TIMER_SERVICIOS)} se mide con las etiquetas class, method y exception.
+ */
+@Configuration
+public class MetricasConfig {
+
+    /**
+     * Nombre del timer de los métodos de servicio
+     */
+    public static final String TIMER_SERVICIOS = "partymap.servicio";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -0,0 +1,55 @@
+package com.partymap.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de la paginación por cursor de los listados.
+ * Se define con las propiedades partymap.paginacion.* en application.properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "partymap.paginacion")
+public class PaginacionProperties {
+
+    /**
+     * Tamaño de página usado cuando el cliente no indica uno válido
+     */
+    private int tamanioPorDefecto = 20;
+
+    /**
+     * Tamaño máximo de página; cualquier solicitud mayor se acota a este valor
+     */
+    private int tamanioMaximo = 100;
+
+    /**
+     * Resuelve el tamaño de página solicitado aplicando el valor por defecto y el límite máximo
+     * @param tamanio Tamaño solicitado por el cliente (puede ser nulo)
+     * @return Tamaño de página efectivo
+     */
+    public int resolverTamanio(Integer tamanio) {
+        if (tamanio == null) {
+            return Math.min(tamanioPorDefecto, tamanioMaximo);
+        }
+        if (tamanio < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a 0");
+        }
+        return Math.min(tamanio, tamanioMaximo);
+    }
+
+    // Getters y Setters explícitos para evitar problemas con Lombok
+    public int getTamanioPorDefecto() {
+        return tamanioPorDefecto;
+    }
+
+    public void setTamanioPorDefecto(int tamanioPorDefecto) {
+        this.tamanioPorDefecto = tamanioPorDefecto;
+    }
+
+    public int getTamanioMaximo() {
+        return tamanioMaximo;
+    }
+
+    public void setTamanioMaximo(int tamanioMaximo) {
+        this.tamanioMaximo = tamanioMaximo;
+    }
+}
@@ -3,11 +3,13 @@ package com.partymap.backend.config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.core.OAuth2TokenValidator;
@@ -20,6 +22,12 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -28,9 +36,7 @@ import java.io.IOException;
 import java.security.KeyFactory;
 import java.security.PublicKey;
 import java.security.spec.RSAPublicKeySpec;
-import java.time.Instant;
-import java.util.Base64;
-import java.util.Map;
+import java.util.List;
 
 @Configuration
 @EnableWebSecurity
@@ -41,16 +47,33 @@ public class SecurityConfig {
     @Autowired
     private JwtUserSyncFilter jwtUserSyncFilter;
 
+    /**
+     * Puerto de Actuator; -1 si no se configuró uno propio, y entonces no se permite sin autenticar
+     */
+    @Value("${management.server.port:-1}")
+    private int puertoAdministracion;
+
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtDecoder jwtDecoder) throws Exception {
 
         http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf
                 .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
-                .ignoringRequestMatchers("/evento/**", "/productor/**", "/reserva/**") // Ignorar endpoints de API
+                .ignoringRequestMatchers("/evento/**", "/productor/**", "/reserva/**", "/diagnostico/**") // Ignorar endpoints de API
             )
             .addFilterAfter(jwtUserSyncFilter, org.springframework.security.oauth2.server.resource.web.BearerTokenAuthenticationFilter.class)
             .authorizeHttpRequests(authorize -> authorize
+                // Continuación de respuestas streaming: la petición original ya pasó la autorización
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
+                // Salud y métricas para Prometheus: solo existen en el puerto de administración
+                // (management.server.port), que no se publica; en el puerto de la API no se exponen
+                .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/prometheus").access(
+                    (autenticacion, contexto) -> new AuthorizationDecision(esPuertoAdministracion(contexto.getRequest())))
+
+                // GET/DELETE /diagnostico/consultas - Consultas N+1 y lentas detectadas (solo administradores)
+                .requestMatchers("/diagnostico/**").authenticated()
+
                 // Endpoints de prueba de CORS (acceso público)
                 .requestMatchers(HttpMethod.GET, "/cors-test/**").permitAll()
                 
@@ -59,6 +82,10 @@ public class SecurityConfig {
 
                  // GET /ubicacion/buscar 
                 .requestMatchers(HttpMethod.GET, "/ubicacion/buscar").permitAll()
+                // GET /ubicacion/duplicados - Grupos de ubicaciones duplicadas (solo administradores)
+                .requestMatchers(HttpMethod.GET, "/ubicacion/duplicados").authenticated()
+                // POST /ubicacion/{id}/fusionar - Fusionar ubicaciones duplicadas (solo administradores)
+                .requestMatchers(HttpMethod.POST, "/ubicacion/{id}/fusionar").authenticated()
                 
                 // Configuración de seguridad para eventos
                 // GET /evento/all - Obtener todos los eventos (acceso público para consulta)
@@ -69,6 +96,8 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.POST, "/evento/crear").authenticated()
                 // POST /evento/con-ubicacion - Crear evento con ubicación (solo productores y administradores)
                 .requestMatchers(HttpMethod.POST, "/evento/con-ubicacion").authenticated()
+                // POST /evento/importar - Importación masiva de eventos (solo productores y administradores)
+                .requestMatchers(HttpMethod.POST, "/evento/importar").authenticated()
                 // PUT /evento/{id} - Actualizar evento (solo el productor propietario o administradores)
                 .requestMatchers(HttpMethod.PUT, "/evento/{id}").authenticated()
                 // DELETE /evento/{id} - Eliminar evento (solo el productor propietario o administradores)
@@ -79,6 +108,10 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/evento/proximos").permitAll()
                 // GET /evento/disponibles - Obtener eventos disponibles (acceso público para consulta)
                 .requestMatchers(HttpMethod.GET, "/evento/disponibles").permitAll()
+                // GET /evento/rango - Obtener eventos por rango de fechas (acceso público para consulta)
+                .requestMatchers(HttpMethod.GET, "/evento/rango").permitAll()
+                // GET /evento/cercanos, /evento/area y /evento/mapa - Búsqueda geográfica (acceso público para consulta)
+                .requestMatchers(HttpMethod.GET, "/evento/cercanos", "/evento/area", "/evento/mapa").permitAll()
                 // GET /evento/{id}/cupos - Obtener cupos disponibles (acceso público para consulta)
                 .requestMatchers(HttpMethod.GET, "/evento/{id}/cupos").permitAll()
                 
@@ -111,6 +144,8 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/reserva/{id}").authenticated()
                 // POST /reserva - Solo clientes pueden crear reservas
                 .requestMatchers(HttpMethod.POST, "/reserva").authenticated()
+                // POST /reserva/lote - Solo clientes (para sí mismos) y administradores crean reservas en lote
+                .requestMatchers(HttpMethod.POST, "/reserva/lote").authenticated()
                 // PUT /reserva/{id} - Solo usuarios autenticados pueden actualizar reservas
                 .requestMatchers(HttpMethod.PUT, "/reserva/{id}").authenticated()
                 // DELETE /reserva/{id} - Solo administradores pueden eliminar reservas
@@ -121,6 +156,10 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/reserva/usuario/{usuarioId}").authenticated()
                 // GET /reserva/evento/{eventoId} - Solo admin/productor pueden ver reservas de eventos
                 .requestMatchers(HttpMethod.GET, "/reserva/evento/{eventoId}").authenticated()
+                // GET /reserva/evento/{eventoId}/export - Solo admin o el productor dueño del evento
+                .requestMatchers(HttpMethod.GET, "/reserva/evento/{eventoId}/export").authenticated()
+                // GET /reserva/productor/export - Solo admin/productor
+                .requestMatchers(HttpMethod.GET, "/reserva/productor/export").authenticated()
                 // GET /reserva/activas - Solo admin/productor pueden ver todas las reservas activas
                 .requestMatchers(HttpMethod.GET, "/reserva/activas").authenticated()
                 // GET /reserva/canceladas - Solo admin/productor pueden ver todas las reservas canceladas
@@ -185,91 +224,37 @@ public class SecurityConfig {
                 // Requerir autenticación para todos los demás endpoints
                 .anyRequest().authenticated()
             )
-            .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt.decoder(jwtDecoder())));
+            .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt.decoder(jwtDecoder)));
         
         return http.build();
     }
 
-    @Bean
-    public JwtDecoder jwtDecoder() {
-        // Usar un JwtDecoder que no valide la firma por ahora
-        return new JwtDecoder() {
-            @Override
-            public Jwt decode(String token) throws JwtException {
-                try {
-                    String[] parts = token.split("\\.");
-                    if (parts.length != 3) {
-                        throw new JwtException("Invalid JWT structure");
-                    }
-
-                    // Decodificar el header
-                    String headerJson = new String(Base64.getUrlDecoder().decode(parts[0]));
-                    Map<String, Object> header = new com.fasterxml.jackson.databind.ObjectMapper()
-                        .readValue(headerJson, Map.class);
-
-                    // Decodificar el payload
-                    String payloadJson = new String(Base64.getUrlDecoder().decode(parts[1]));
-                    Map<String, Object> claims = new com.fasterxml.jackson.databind.ObjectMapper()
-                        .readValue(payloadJson, Map.class);
-
-                    // Validar audience
-                    String audience = (String) claims.get("aud");
-                    if (!"ad16d15c-7d6e-4f58-8146-4b5b3d7b7124".equals(audience)) {
-                        throw new JwtException("Invalid audience");
-                    }
-
-                    // Validar issuer
-                    String issuer = (String) claims.get("iss");
-                    if (!"https://duocdesarrollocloudnative.b2clogin.com/dd063bcd-7ee5-4283-a6b4-76561cc07f64/v2.0/".equals(issuer)) {
-                        throw new JwtException("Invalid issuer");
-                    }
-
-                    // Validar expiración
-                    Object expObj = claims.get("exp");
-                    Instant exp = null;
-                    if (expObj instanceof Integer) {
-                        exp = Instant.ofEpochSecond(((Integer) expObj).longValue());
-                    } else if (expObj instanceof Long) {
-                        exp = Instant.ofEpochSecond((Long) expObj);
-                    }
-                    
-                    if (exp != null && exp.isBefore(Instant.now())) {
-                        throw new JwtException("Token expired");
-                    }
+    /**
+     * Indica si la petición llegó por el puerto de administración y no por el de la API
+     */
+    boolean esPuertoAdministracion(HttpServletRequest request) {
+        return puertoAdministracion > 0 && request.getLocalPort() == puertoAdministracion;
+    }
 
-                    // Obtener iat de manera segura
-                    Object iatObj = claims.get("iat");
-                    Instant iat = null;
-                    if (iatObj instanceof Integer) {
-                        iat = Instant.ofEpochSecond(((Integer) iatObj).longValue());
-                    } else if (iatObj instanceof Long) {
-                        iat = Instant.ofEpochSecond((Long) iatObj);
-                    }
+    /**
+     * Decodificador de los tokens de Azure B2C: verifica la firma RS256 con el JWKS en memoria
+     * (ClavesJwks), el emisor, la audiencia y la vigencia, y recuerda los tokens ya validados
+     */
+    @Bean
+    public JwtDecoderConCache jwtDecoder(JwtProperties jwtProperties, ClavesJwks clavesJwks) {
+        DefaultJWTProcessor<SecurityContext> procesador = new DefaultJWTProcessor<>();
+        procesador.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, clavesJwks));
+        // Los claims los valida Spring Security con los validadores del decodificador
+        procesador.setJWTClaimsSetVerifier((claims, contexto) -> {
+        });
 
-                    // Crear el JWT usando el constructor correcto
-                    return Jwt.withTokenValue(token)
-                        .header("alg", header.get("alg"))
-                        .header("kid", header.get("kid"))
-                        .header("typ", header.get("typ"))
-                        .claim("aud", audience)
-                        .claim("iss", issuer)
-                        .issuedAt(iat)
-                        .expiresAt(exp)
-                        .claim("sub", claims.get("sub"))
-                        .claim("extension_Roles", claims.get("extension_Roles"))
-                        .claim("extension_RUT", claims.get("extension_RUT"))
-                        .claim("family_name", claims.get("family_name"))
-                        .claim("given_name", claims.get("given_name"))
-                        .claim("name", claims.get("name"))
-                        .claim("emails", claims.get("emails"))
-                        .claim("tfp", claims.get("tfp"))
-                        .build();
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(procesador);
+        OAuth2TokenValidator<Jwt> audiencia = new JwtClaimValidator<List<String>>(JwtClaimNames.AUD,
+                aud -> aud != null && aud.contains(jwtProperties.getAudience()));
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                JwtValidators.createDefaultWithIssuer(jwtProperties.getIssuer()), audiencia));
 
-                } catch (Exception e) {
-                    throw new JwtException("Error decoding JWT: " + e.getMessage());
-                }
-            }
-        };
+        return new JwtDecoderConCache(decoder, jwtProperties.getTamanioCacheTokens());
     }
 
     @Bean
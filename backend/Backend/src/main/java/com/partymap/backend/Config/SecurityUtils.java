@@ -1,76 +1,106 @@
 package com.partymap.backend.config;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.partymap.backend.model.Usuario;
 import com.partymap.backend.service.UsuarioService;
 
 /**
  * Clase utilitaria para manejar la autenticación y autorización.
  * Proporciona métodos para obtener el usuario actual del contexto de seguridad.
+ *
+ * El usuario se resuelve una sola vez por petición: la primera consulta lo busca y reemplaza la
+ * autenticación del contexto por un UsuarioAutenticadoToken que lo lleva, y las siguientes lo leen
+ * de ahí. Entre peticiones se recuerda por sujeto del token durante unos segundos, así que un mismo
+ * usuario no repite la búsqueda por email en cada llamada a la API.
  */
 @Component
 public class SecurityUtils {
 
     private final UsuarioService usuarioService;
 
-    public SecurityUtils(UsuarioService usuarioService) {
+    /**
+     * Usuarios resueltos, por sujeto del token (o email si el token no trae sujeto)
+     */
+    private final Cache<String, UsuarioAutenticado> usuarios;
+
+    public SecurityUtils(UsuarioService usuarioService, CacheUsuariosProperties properties) {
         this.usuarioService = usuarioService;
+        this.usuarios = Caffeine.newBuilder()
+                .maximumSize(properties.getTamanioMaximo())
+                .expireAfterWrite(Duration.ofSeconds(Math.max(1, properties.getTtlUsuarioActualSegundos())))
+                .build();
     }
 
     /**
      * Obtiene el usuario actual autenticado del contexto de seguridad.
+     * Cada llamada entrega una instancia nueva, que el llamador puede modificar sin afectar a otros.
      * @return Optional con el usuario si está autenticado, empty si no
      */
     public Optional<Usuario> getCurrentUser() {
+        return getUsuarioAutenticado().map(UsuarioAutenticado::comoUsuario);
+    }
+
+    /**
+     * Obtiene los datos inmutables del usuario actual, resolviéndolos a lo más una vez por petición.
+     * @return Optional con el usuario si está autenticado y registrado, empty si no
+     */
+    public Optional<UsuarioAutenticado> getUsuarioAutenticado() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         
         if (authentication == null || !authentication.isAuthenticated()) {
             return Optional.empty();
         }
 
-        Object principal = authentication.getPrincipal();
-        
-        if (principal instanceof Jwt) {
-            Jwt jwt = (Jwt) principal;
-            
-            // Intentar obtener email de diferentes claims
-            String email = null;
-            
-            // Primero intentar con 'emails' (lista)
-            try {
-                Object emailsClaim = jwt.getClaim("emails");
-                if (emailsClaim instanceof java.util.List) {
-                    java.util.List<String> emails = (java.util.List<String>) emailsClaim;
-                    if (!emails.isEmpty()) {
-                        email = emails.get(0);
-                    }
-                }
-            } catch (Exception e) {
-                // Ignorar error y continuar con otros claims
-            }
-            
-            // Si no se encontró, intentar con 'preferred_username'
-            if (email == null) {
-                email = jwt.getClaimAsString("preferred_username");
-            }
-            
-            // Si no se encontró, intentar con 'email'
-            if (email == null) {
-                email = jwt.getClaimAsString("email");
-            }
-            
-            if (email != null) {
-                return usuarioService.getUsuarioByEmail(email);
+        if (authentication instanceof UsuarioAutenticadoToken autenticado) {
+            return Optional.of(autenticado.getUsuario());
+        }
+
+        if (!(authentication.getPrincipal() instanceof Jwt jwt)) {
+            return Optional.empty();
+        }
+
+        String email = getEmail(jwt);
+        if (email == null) {
+            return Optional.empty();
+        }
+
+        String clave = jwt.getSubject() != null ? jwt.getSubject() : email;
+        UsuarioAutenticado usuario = usuarios.getIfPresent(clave);
+        if (usuario == null) {
+            usuario = usuarioService.getUsuarioByEmail(email).map(UsuarioAutenticado::desde).orElse(null);
+            if (usuario == null) {
+                return Optional.empty();
             }
+            usuarios.put(clave, usuario);
+        }
+
+        // Las siguientes consultas de esta petición lo leen del contexto
+        if (authentication instanceof JwtAuthenticationToken jwtAuthentication) {
+            SecurityContextHolder.getContext().setAuthentication(new UsuarioAutenticadoToken(jwtAuthentication, usuario));
+        }
+        return Optional.of(usuario);
+    }
+
+    /**
+     * Recuerda el usuario recién sincronizado desde el token, para no volver a buscarlo
+     * @param jwt Token con el que se sincronizó
+     * @param usuario Usuario tal como quedó guardado
+     */
+    public void recordarUsuario(Jwt jwt, Usuario usuario) {
+        String clave = jwt.getSubject() != null ? jwt.getSubject() : usuario.getEmail();
+        if (clave != null && usuario.getId() != null) {
+            usuarios.put(clave, UsuarioAutenticado.desde(usuario));
         }
-        
-        return Optional.empty();
     }
 
     /**
@@ -87,35 +117,7 @@ public class SecurityUtils {
         Object principal = authentication.getPrincipal();
         
         if (principal instanceof Jwt) {
-            Jwt jwt = (Jwt) principal;
-            
-            // Intentar obtener email de diferentes claims
-            String email = null;
-            
-            // Primero intentar con 'emails' (lista)
-            try {
-                Object emailsClaim = jwt.getClaim("emails");
-                if (emailsClaim instanceof java.util.List) {
-                    java.util.List<String> emails = (java.util.List<String>) emailsClaim;
-                    if (!emails.isEmpty()) {
-                        email = emails.get(0);
-                    }
-                }
-            } catch (Exception e) {
-                // Ignorar error y continuar con otros claims
-            }
-            
-            // Si no se encontró, intentar con 'preferred_username'
-            if (email == null) {
-                email = jwt.getClaimAsString("preferred_username");
-            }
-            
-            // Si no se encontró, intentar con 'email'
-            if (email == null) {
-                email = jwt.getClaimAsString("email");
-            }
-            
-            return Optional.ofNullable(email);
+            return Optional.ofNullable(getEmail((Jwt) principal));
         }
         
         return Optional.empty();
@@ -126,8 +128,8 @@ public class SecurityUtils {
      * @return true si es cliente, false en caso contrario
      */
     public boolean isCurrentUserCliente() {
-        return getCurrentUser()
-                .map(Usuario::isCliente)
+        return getUsuarioAutenticado()
+                .map(UsuarioAutenticado::isCliente)
                 .orElse(false);
     }
 
@@ -136,8 +138,8 @@ public class SecurityUtils {
      * @return true si es productor, false en caso contrario
      */
     public boolean isCurrentUserProductor() {
-        return getCurrentUser()
-                .map(Usuario::isProductor)
+        return getUsuarioAutenticado()
+                .map(UsuarioAutenticado::isProductor)
                 .orElse(false);
     }
 
@@ -146,8 +148,8 @@ public class SecurityUtils {
      * @return true si es administrador, false en caso contrario
      */
     public boolean isCurrentUserAdministrador() {
-        return getCurrentUser()
-                .map(Usuario::isAdministrador)
+        return getUsuarioAutenticado()
+                .map(UsuarioAutenticado::isAdministrador)
                 .orElse(false);
     }
 
@@ -158,13 +160,13 @@ public class SecurityUtils {
      * @return true si puede acceder, false en caso contrario
      */
     public boolean canAccessReserva(Long reservaUsuarioId) {
-        Optional<Usuario> currentUser = getCurrentUser();
+        Optional<UsuarioAutenticado> currentUser = getUsuarioAutenticado();
         
         if (currentUser.isEmpty()) {
             return false;
         }
 
-        Usuario user = currentUser.get();
+        UsuarioAutenticado user = currentUser.get();
         
         // Administradores y productores pueden acceder a todas las reservas
         if (user.isAdministrador() || user.isProductor()) {
@@ -172,7 +174,7 @@ public class SecurityUtils {
         }
         
         // Clientes solo pueden acceder a sus propias reservas
-        return user.getId().equals(reservaUsuarioId);
+        return user.id().equals(reservaUsuarioId);
     }
 
     /**
@@ -182,13 +184,13 @@ public class SecurityUtils {
      * @return true si puede modificar, false en caso contrario
      */
     public boolean canModifyReserva(Long reservaUsuarioId) {
-        Optional<Usuario> currentUser = getCurrentUser();
+        Optional<UsuarioAutenticado> currentUser = getUsuarioAutenticado();
         
         if (currentUser.isEmpty()) {
             return false;
         }
 
-        Usuario user = currentUser.get();
+        UsuarioAutenticado user = currentUser.get();
         
         // Solo administradores pueden modificar cualquier reserva
         if (user.isAdministrador()) {
@@ -196,6 +198,38 @@ public class SecurityUtils {
         }
         
         // Clientes solo pueden modificar sus propias reservas
-        return user.isCliente() && user.getId().equals(reservaUsuarioId);
+        return user.isCliente() && user.id().equals(reservaUsuarioId);
+    }
+
+    /**
+     * Email del token: claim 'emails' (lista), 'preferred_username' o 'email', en ese orden
+     */
+    private static String getEmail(Jwt jwt) {
+        String email = null;
+        
+        // Primero intentar con 'emails' (lista)
+        try {
+            Object emailsClaim = jwt.getClaim("emails");
+            if (emailsClaim instanceof java.util.List) {
+                java.util.List<String> emails = (java.util.List<String>) emailsClaim;
+                if (!emails.isEmpty()) {
+                    email = emails.get(0);
+                }
+            }
+        } catch (Exception e) {
+            // Ignorar error y continuar con otros claims
+        }
+        
+        // Si no se encontró, intentar con 'preferred_username'
+        if (email == null) {
+            email = jwt.getClaimAsString("preferred_username");
+        }
+        
+        // Si no se encontró, intentar con 'email'
+        if (email == null) {
+            email = jwt.getClaimAsString("email");
+        }
+        
+        return email;
     }
-} 
\ No newline at end of file
+}
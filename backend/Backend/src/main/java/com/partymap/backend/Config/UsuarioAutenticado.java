@@ -0,0 +1,63 @@
+package com.partymap.backend.config;
+
+import java.time.LocalDateTime;
+
+import com.partymap.backend.model.TipoUsuario;
+import com.partymap.backend.model.Usuario;
+
+/**
+ * Datos inmutables del usuario autenticado en la petición actual.
+ *
+ * Se resuelven una vez por petición (ver SecurityUtils) y viajan en el contexto de seguridad
+ * dentro de UsuarioAutenticadoToken, así que pueden compartirse entre peticiones sin riesgo
+ * de que una las modifique para otra.
+ */
+public record UsuarioAutenticado(Long id, String nombre, String email, TipoUsuario tipoUsuario,
+        String azureB2cId, String nombreAzure, String apellidoAzure, String rolAzure, String rutProductor,
+        Boolean esUsuarioAzure, LocalDateTime fechaUltimaConexion, Integer activo, LocalDateTime fechaCreacion) {
+
+    /**
+     * Copia los datos de un usuario cargado desde la base de datos
+     */
+    public static UsuarioAutenticado desde(Usuario usuario) {
+        return new UsuarioAutenticado(usuario.getId(), usuario.getNombre(), usuario.getEmail(),
+                usuario.getTipoUsuario(), usuario.getAzureB2cId(), usuario.getNombreAzure(),
+                usuario.getApellidoAzure(), usuario.getRolAzure(), usuario.getRutProductor(),
+                usuario.getEsUsuarioAzure(), usuario.getFechaUltimaConexion(), usuario.getActivo(),
+                usuario.getFechaCreacion());
+    }
+
+    /**
+     * Crea un Usuario nuevo (no administrado por JPA) con estos datos. Cada llamada entrega una
+     * instancia distinta, que sirve como referencia al asignar el usuario a reservas o eventos
+     */
+    public Usuario comoUsuario() {
+        Usuario usuario = new Usuario();
+        usuario.setId(id);
+        usuario.setNombre(nombre);
+        usuario.setEmail(email);
+        usuario.setTipoUsuario(tipoUsuario);
+        usuario.setAzureB2cId(azureB2cId);
+        usuario.setNombreAzure(nombreAzure);
+        usuario.setApellidoAzure(apellidoAzure);
+        usuario.setRolAzure(rolAzure);
+        usuario.setRutProductor(rutProductor);
+        usuario.setEsUsuarioAzure(esUsuarioAzure);
+        usuario.setFechaUltimaConexion(fechaUltimaConexion);
+        usuario.setActivo(activo);
+        usuario.setFechaCreacion(fechaCreacion);
+        return usuario;
+    }
+
+    public boolean isCliente() {
+        return tipoUsuario == TipoUsuario.CLIENTE;
+    }
+
+    public boolean isProductor() {
+        return tipoUsuario == TipoUsuario.PRODUCTOR;
+    }
+
+    public boolean isAdministrador() {
+        return tipoUsuario == TipoUsuario.ADMINISTRADOR;
+    }
+}
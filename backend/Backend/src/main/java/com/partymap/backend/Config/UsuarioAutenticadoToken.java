@@ -0,0 +1,22 @@
+package com.partymap.backend.config;
+
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+/**
+ * Autenticación JWT que además lleva el usuario local ya resuelto.
+ * El principal sigue siendo el Jwt, así que el código que lee los claims no cambia.
+ */
+public class UsuarioAutenticadoToken extends JwtAuthenticationToken {
+
+    private final UsuarioAutenticado usuario;
+
+    public UsuarioAutenticadoToken(JwtAuthenticationToken autenticacion, UsuarioAutenticado usuario) {
+        super(autenticacion.getToken(), autenticacion.getAuthorities(), autenticacion.getName());
+        setDetails(autenticacion.getDetails());
+        this.usuario = usuario;
+    }
+
+    public UsuarioAutenticado getUsuario() {
+        return usuario;
+    }
+}
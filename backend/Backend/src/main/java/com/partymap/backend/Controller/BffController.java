@@ -3,6 +3,7 @@ package com.partymap.backend.controller;
 
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -17,38 +18,42 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.partymap.backend.service.BffService;
+import com.partymap.backend.service.BffServiceAsync;
 
 
 
+/**
+ * Proxy al microservicio. Las respuestas se completan de forma asíncrona (BffServiceAsync), así
+ * los hilos de Tomcat quedan libres mientras se espera al microservicio.
+ */
 @RestController
 @RequestMapping("/bff")
 public class BffController {
 
-     private final BffService bffService;
+     private final BffServiceAsync bffService;
 
-	public BffController(BffService bffService) {
+	public BffController(BffServiceAsync bffService) {
 		this.bffService = bffService;
 	}
 
 	@PostMapping
-	public ResponseEntity<String> create(@RequestBody Map<String, String> body) {
-		return ResponseEntity.ok(bffService.create(body));
+	public CompletableFuture<ResponseEntity<String>> create(@RequestBody Map<String, String> body) {
+		return bffService.create(body).thenApply(ResponseEntity::ok);
 	}
 
 	@GetMapping("/{id}")
-	public ResponseEntity<String> read(@PathVariable("id") String id) {
-		return ResponseEntity.ok(bffService.read(id));
+	public CompletableFuture<ResponseEntity<String>> read(@PathVariable("id") String id) {
+		return bffService.read(id).thenApply(ResponseEntity::ok);
 	}
 
 	@PutMapping
-	public ResponseEntity<String> update(@RequestParam("status") String status) {
-		return ResponseEntity.ok(bffService.update(status));
+	public CompletableFuture<ResponseEntity<String>> update(@RequestParam("status") String status) {
+		return bffService.update(status).thenApply(ResponseEntity::ok);
 	}
 
 	@DeleteMapping
-	public ResponseEntity<String> delete(@RequestHeader("Authorization") String authHeader) {
-		return ResponseEntity.ok(bffService.delete(authHeader));
+	public CompletableFuture<ResponseEntity<String>> delete(@RequestHeader("Authorization") String authHeader) {
+		return bffService.delete(authHeader).thenApply(ResponseEntity::ok);
 	}
 
 }
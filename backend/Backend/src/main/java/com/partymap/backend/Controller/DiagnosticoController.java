@@ -0,0 +1,94 @@
+package com.partymap.backend.controller;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.partymap.backend.config.DetectorConsultas;
+import com.partymap.backend.config.SecurityUtils;
+import com.partymap.backend.dto.ConsultaProblemaDTO;
+import com.partymap.backend.dto.ErrorResponseDTO;
+import com.partymap.backend.model.Usuario;
+
+/**
+ * Controlador REST de diagnóstico para administradores.
+ * Expone las consultas SQL problemáticas (N+1 y lentas) detectadas por DetectorConsultas.
+ */
+@RestController
+@RequestMapping("/diagnostico")
+public class DiagnosticoController {
+
+    /**
+     * Cantidad máxima de consultas por respuesta
+     */
+    private static final int LIMITE_MAXIMO = 200;
+
+    private final DetectorConsultas detectorConsultas;
+
+    private final SecurityUtils securityUtils;
+
+    public DiagnosticoController(DetectorConsultas detectorConsultas, SecurityUtils securityUtils) {
+        this.detectorConsultas = detectorConsultas;
+        this.securityUtils = securityUtils;
+    }
+
+    /**
+     * Obtiene las consultas problemáticas, de mayor a menor tiempo acumulado en base de datos
+     * GET /diagnostico/consultas?limite=20
+     *
+     * SEGURIDAD:
+     * - Solo ADMINISTRADOR
+     */
+    @GetMapping("/consultas")
+    public ResponseEntity<?> getConsultasProblematicas(@RequestParam(defaultValue = "20") int limite) {
+        ResponseEntity<ErrorResponseDTO> error = validarAdministrador("/diagnostico/consultas");
+        if (error != null) {
+            return error;
+        }
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponseDTO(400, "Bad Request", "El límite debe estar entre 1 y " + LIMITE_MAXIMO, "/diagnostico/consultas"));
+        }
+
+        List<ConsultaProblemaDTO> consultas = detectorConsultas.getPeoresConsultas(limite);
+        return ResponseEntity.ok(consultas);
+    }
+
+    /**
+     * Olvida las consultas problemáticas acumuladas (por ejemplo, tras desplegar una corrección)
+     * DELETE /diagnostico/consultas
+     *
+     * SEGURIDAD:
+     * - Solo ADMINISTRADOR
+     */
+    @DeleteMapping("/consultas")
+    public ResponseEntity<?> limpiarConsultasProblematicas() {
+        ResponseEntity<ErrorResponseDTO> error = validarAdministrador("/diagnostico/consultas");
+        if (error != null) {
+            return error;
+        }
+
+        detectorConsultas.limpiar();
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<ErrorResponseDTO> validarAdministrador(String ruta) {
+        Optional<Usuario> currentUser = securityUtils.getCurrentUser();
+        if (currentUser.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponseDTO(401, "Unauthorized", "Usuario no autenticado", ruta));
+        }
+        if (!currentUser.get().isAdministrador()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(new ErrorResponseDTO(403, "Forbidden", "Solo los administradores pueden ver el diagnóstico", ruta));
+        }
+        return null;
+    }
+}
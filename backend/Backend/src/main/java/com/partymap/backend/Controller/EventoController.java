@@ -1,21 +1,38 @@
 package com.partymap.backend.controller;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.partymap.backend.config.PaginacionProperties;
 import com.partymap.backend.config.SecurityUtils;
+import com.partymap.backend.dto.ClusterMapaDTO;
+import com.partymap.backend.dto.CursorPaginacion;
+import com.partymap.backend.dto.ErrorResponseDTO;
 import com.partymap.backend.dto.EventoConUbicacionDTO;
 import com.partymap.backend.dto.EventoConUbicacionUpdateDTO;
 import com.partymap.backend.dto.EventoDTO;
+import com.partymap.backend.dto.EventoFiltroDTO;
 import com.partymap.backend.dto.EventoResponseDTO;
+import com.partymap.backend.dto.MapaEventosDTO;
+import com.partymap.backend.dto.PaginatedResponseDTO;
 import com.partymap.backend.dto.UbicacionDTO;
 import com.partymap.backend.dto.UbicacionResponseDTO;
 import com.partymap.backend.exceptions.NotFoundException;
@@ -25,7 +42,13 @@ import com.partymap.backend.model.Usuario;
 import com.partymap.backend.repository.EventoRepository;
 import com.partymap.backend.repository.UbicacionRepository;
 import com.partymap.backend.repository.UsuarioRepository;
+import com.partymap.backend.service.EstadisticasCache;
+import com.partymap.backend.service.EventoCatalogoCache;
+import com.partymap.backend.service.EventoIndiceEspacial;
+import com.partymap.backend.service.EventoIndiceTexto;
 import com.partymap.backend.service.EventoService;
+import com.partymap.backend.service.ImportacionEventos;
+import com.partymap.backend.service.ListadoStreaming;
 
 /**
  * Controlador REST para la gestión de eventos.
@@ -36,20 +59,49 @@ import com.partymap.backend.service.EventoService;
 @RequestMapping("/evento")
 public class EventoController {
 
+    private static final Logger logger = LoggerFactory.getLogger(EventoController.class);
+
+    /**
+     * Máximo de eventos individuales que entrega el mapa en zoom alto
+     */
+    static final int MAXIMO_EVENTOS_MAPA = 500;
+
+    static final int ZOOM_MAXIMO_MAPA = 22;
+
+    /**
+     * Máximo de eventos que entrega la búsqueda por texto de /mis-eventos/buscar
+     */
+    static final int MAXIMO_RESULTADOS_TEXTO = 500;
+
     private final EventoService eventoService;
     private final UbicacionRepository ubicacionRepository;
     private final UsuarioRepository usuarioRepository;
     private final SecurityUtils securityUtils;
+    private final PaginacionProperties paginacion;
+    private final EventoCatalogoCache catalogoCache;
+    private final EstadisticasCache estadisticasCache;
+    private final ListadoStreaming listadoStreaming;
+    private final ImportacionEventos importacionEventos;
 
     public EventoController(EventoService eventoService, 
                           UbicacionRepository ubicacionRepository,
                           UsuarioRepository usuarioRepository,
                           EventoRepository eventoRepository,
-                          SecurityUtils securityUtils) {
+                          SecurityUtils securityUtils,
+                          PaginacionProperties paginacion,
+                          EventoCatalogoCache catalogoCache,
+                          EstadisticasCache estadisticasCache,
+                          ListadoStreaming listadoStreaming,
+                          ImportacionEventos importacionEventos) {
         this.eventoService = eventoService;
         this.ubicacionRepository = ubicacionRepository;
         this.usuarioRepository = usuarioRepository;
         this.securityUtils = securityUtils;
+        this.paginacion = paginacion;
+        this.catalogoCache = catalogoCache;
+        this.estadisticasCache = estadisticasCache;
+        this.listadoStreaming = listadoStreaming;
+        this.importacionEventos = importacionEventos;
     }
 
     /**
@@ -58,22 +110,52 @@ public class EventoController {
      */
     @GetMapping("/all")
     public ResponseEntity<List<EventoResponseDTO>> getAllEventos() {
-        List<Evento> eventos = eventoService.getAllEvento();
-        List<EventoResponseDTO> eventosDTO = eventos.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        List<EventoResponseDTO> eventosDTO = catalogoCache.obtenerListado(EventoCatalogoCache.Listado.TODOS,
+                eventoService::getRespuestasEventosActivos);
         return ResponseEntity.ok(eventosDTO);
     }
 
+    /**
+     * Obtiene los eventos paginados por cursor, ordenados por fecha e ID
+     * GET /evento/all?tamanio=20&cursor=...
+     * 
+     * El modo paginado se activa al enviar el parámetro tamanio. La primera página se pide
+     * sin cursor y las siguientes con el valor de siguienteCursor de la respuesta anterior.
+     */
+    @GetMapping(value = "/all", params = "tamanio")
+    public ResponseEntity<PaginatedResponseDTO<EventoResponseDTO>> getEventosPaginados(
+            @RequestParam(required = false) Integer tamanio,
+            @RequestParam(required = false) String cursor) {
+        CursorPaginacion desde = CursorPaginacion.decodificar(cursor);
+        Slice<EventoResponseDTO> eventos = eventoService.getRespuestasEventosDesdeCursor(desde,
+                paginacion.resolverTamanio(tamanio));
+        return ResponseEntity.ok(PaginatedResponseDTO.desdeCursor(eventos, evento -> evento,
+                evento -> new CursorPaginacion(evento.getFecha(), evento.getId()), desde == null));
+    }
+
+    /**
+     * Obtiene todos los eventos escribiendo el arreglo JSON a medida que se leen de la base de datos
+     * GET /evento/all?stream=true
+     * 
+     * Entrega los mismos eventos que GET /evento/all sin pasar por la caché ni armar la lista en memoria,
+     * pensado para exportaciones de catálogos grandes.
+     */
+    @GetMapping(value = "/all", params = { "stream=true", "!tamanio" })
+    public ResponseEntity<StreamingResponseBody> getAllEventosStreaming() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                .body(listadoStreaming.json(eventoService::streamEventosActivos, this::convertToResponseDTO));
+    }
+
     /**
      * Obtiene un evento específico por su ID
      * GET /evento/{id}
      */
     @GetMapping("/{id}")
     public ResponseEntity<EventoResponseDTO> getEventoById(@PathVariable Long id) {
-        var evento = eventoService.getEventoById(id);
+        var evento = catalogoCache.obtenerEvento(id,
+                () -> eventoService.getEventoById(id).map(this::convertToResponseDTO));
         if (evento.isPresent()) {
-            return ResponseEntity.ok(convertToResponseDTO(evento.get()));
+            return ResponseEntity.ok(evento.get());
         } else {
             throw new NotFoundException("Evento no encontrado con ID: " + id);
         }
@@ -231,6 +313,68 @@ public class EventoController {
         }
     }
 
+    /**
+     * Importa eventos con su ubicación desde un archivo CSV o JSON
+     * POST /evento/importar (multipart, parte "archivo")[?formato=csv|json|ndjson][&productorId=...]
+     * 
+     * El formato se toma del parámetro formato o, si no viene, de la extensión del archivo.
+     * Las ubicaciones se reutilizan cuando ya existe una con la misma dirección y comuna.
+     * La respuesta es NDJSON: una línea de avance por cada bloque guardado y una línea final
+     * con terminado = true. Las filas inválidas se informan y no detienen la importación.
+     * 
+     * SEGURIDAD:
+     * - ADMINISTRADOR: Puede importar a nombre de un productor indicando productorId
+     * - PRODUCTOR: Importa sus propios eventos (productorId se ignora)
+     * - CLIENTE: No puede importar eventos
+     */
+    @PostMapping(value = "/importar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importarEventos(
+            @RequestParam("archivo") MultipartFile archivo,
+            @RequestParam(required = false) String formato,
+            @RequestParam(required = false) Long productorId) {
+        Optional<Usuario> currentUser = securityUtils.getCurrentUser();
+        if (currentUser.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponseDTO(401, "Unauthorized", "Usuario no autenticado", "/evento/importar"));
+        }
+
+        Usuario user = currentUser.get();
+        if (!user.isProductor() && !user.isAdministrador()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(new ErrorResponseDTO(403, "Forbidden", "No tienes permisos para importar eventos", "/evento/importar"));
+        }
+
+        Usuario productor = user;
+        if (user.isAdministrador() && productorId != null) {
+            Optional<Usuario> indicado = usuarioRepository.findById(productorId);
+            if (indicado.isEmpty() || !indicado.get().isProductor()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponseDTO(400, "Bad Request", "No existe un productor con ID: " + productorId, "/evento/importar"));
+            }
+            productor = indicado.get();
+        }
+
+        if (archivo == null || archivo.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponseDTO(400, "Bad Request", "El archivo está vacío", "/evento/importar"));
+        }
+
+        try {
+            ImportacionEventos.Formato formatoArchivo = ImportacionEventos.Formato.desde(formato,
+                    archivo.getOriginalFilename());
+            InputStream contenido = archivo.getInputStream();
+            return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson"))
+                    .body(importacionEventos.importar(contenido, formatoArchivo, productor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponseDTO(400, "Bad Request", e.getMessage(), "/evento/importar"));
+        } catch (IOException e) {
+            logger.warn("Error al leer el archivo de importación de eventos", e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponseDTO(400, "Bad Request", "No se pudo leer el archivo", "/evento/importar"));
+        }
+    }
+
     /**
      * Actualiza un evento existente
      * PUT /evento/{id}
@@ -467,49 +611,19 @@ public class EventoController {
     }
 
     /**
-     * Busca eventos con filtros
-     * GET /evento/buscar
+     * Busca eventos con filtros, ordenamiento y paginación resueltos en la base de datos
+     * GET /evento/buscar?nombre=&comuna=&usuarioId=&soloDisponibles=&fechaDesde=&fechaHasta=
+     *      &precioMinimo=&precioMaximo=&pagina=0&tamanio=20&ordenarPor=fecha&direccion=asc
+     * 
+     * ORDENAMIENTO: fecha (por defecto), nombre, precio, creacion
+     * PAGINACIÓN: página base 0, tamaño por defecto 20 y máximo 100
      */
     @GetMapping("/buscar")
-    public ResponseEntity<List<EventoResponseDTO>> buscarEventos(
-            @RequestParam(required = false) String nombre,
-            @RequestParam(required = false) String comuna,
-            @RequestParam(required = false) Long usuarioId,
-            @RequestParam(required = false) Boolean soloDisponibles) {
-        
-        List<Evento> eventos = eventoService.getAllEvento();
-        
-        // Aplicar filtros
-        if (nombre != null) {
-            eventos = eventos.stream()
-                    .filter(evento -> evento.getNombre().toLowerCase().contains(nombre.toLowerCase()))
-                    .collect(Collectors.toList());
-        }
-        
-        if (comuna != null) {
-            eventos = eventos.stream()
-                    .filter(evento -> evento.getUbicacion() != null && 
-                            evento.getUbicacion().getComuna().toLowerCase().contains(comuna.toLowerCase()))
-                    .collect(Collectors.toList());
-        }
-        
-        if (usuarioId != null) {
-            eventos = eventos.stream()
-                    .filter(evento -> evento.getUsuario() != null && evento.getUsuario().getId().equals(usuarioId))
-                    .collect(Collectors.toList());
-        }
-        
-        if (soloDisponibles != null && soloDisponibles) {
-            eventos = eventos.stream()
-                    .filter(Evento::isDisponible)
-                    .collect(Collectors.toList());
-        }
-        
-        List<EventoResponseDTO> eventosDTO = eventos.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(eventosDTO);
+    public ResponseEntity<PaginatedResponseDTO<EventoResponseDTO>> buscarEventos(EventoFiltroDTO filtro) {
+        return ResponseEntity.ok(catalogoCache.obtenerBusqueda(filtro, () -> {
+            Page<Evento> eventos = eventoService.buscarEventos(filtro);
+            return PaginatedResponseDTO.desdePagina(eventos, this::convertToResponseDTO);
+        }));
     }
 
     /**
@@ -518,11 +632,8 @@ public class EventoController {
      */
     @GetMapping("/proximos")
     public ResponseEntity<List<EventoResponseDTO>> getEventosProximos() {
-        List<Evento> eventos = eventoService.getAllEvento();
-        List<EventoResponseDTO> eventosDTO = eventos.stream()
-                .filter(Evento::isEventoProximo)
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        List<EventoResponseDTO> eventosDTO = catalogoCache.obtenerListado(EventoCatalogoCache.Listado.PROXIMOS,
+                eventoService::getRespuestasEventosProximos);
         
         return ResponseEntity.ok(eventosDTO);
     }
@@ -533,15 +644,123 @@ public class EventoController {
      */
     @GetMapping("/disponibles")
     public ResponseEntity<List<EventoResponseDTO>> getEventosDisponibles() {
-        List<Evento> eventos = eventoService.getAllEvento();
+        List<EventoResponseDTO> eventosDTO = catalogoCache.obtenerListado(EventoCatalogoCache.Listado.DISPONIBLES,
+                eventoService::getRespuestasEventosDisponibles);
+        
+        return ResponseEntity.ok(eventosDTO);
+    }
+
+    /**
+     * Obtiene eventos activos en un rango de fechas, ordenados por fecha
+     * GET /evento/rango?desde=2025-01-01T00:00:00&hasta=2025-02-01T00:00:00&tamanio=50
+     * 
+     * desde es inclusivo y hasta exclusivo.
+     */
+    @GetMapping("/rango")
+    public ResponseEntity<List<EventoResponseDTO>> getEventosEnRango(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) Integer tamanio) {
+        return ResponseEntity.ok(eventoService.getRespuestasEventosEnRango(desde, hasta,
+                paginacion.resolverTamanio(tamanio)));
+    }
+
+    /**
+     * Busca eventos activos cercanos a un punto, ordenados por distancia
+     * GET /evento/cercanos?lat=-33.45&lon=-70.66&radioKm=5&tamanio=20
+     * 
+     * Usa el índice espacial en memoria, sin recorrer todos los eventos.
+     * Cada evento incluye distanciaKm desde el punto consultado.
+     */
+    @GetMapping("/cercanos")
+    public ResponseEntity<List<EventoResponseDTO>> getEventosCercanos(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "5") double radioKm,
+            @RequestParam(required = false) Integer tamanio) {
+        List<Evento> eventos = eventoService.buscarEventosCercanos(lat, lon, radioKm, paginacion.resolverTamanio(tamanio));
         List<EventoResponseDTO> eventosDTO = eventos.stream()
-                .filter(Evento::isDisponible)
-                .map(this::convertToResponseDTO)
+                .map(evento -> {
+                    EventoResponseDTO dto = convertToResponseDTO(evento);
+                    if (dto.getUbicacion() != null && dto.getUbicacion().getLatitud() != null
+                            && dto.getUbicacion().getLongitud() != null) {
+                        dto.setDistanciaKm(EventoIndiceEspacial.distanciaKm(lat, lon,
+                                dto.getUbicacion().getLatitud().doubleValue(),
+                                dto.getUbicacion().getLongitud().doubleValue()));
+                    }
+                    return dto;
+                })
                 .collect(Collectors.toList());
-        
         return ResponseEntity.ok(eventosDTO);
     }
 
+    /**
+     * Busca eventos activos dentro de un rectángulo del mapa
+     * GET /evento/area?latMin=-33.5&lonMin=-70.7&latMax=-33.4&lonMax=-70.6&tamanio=100
+     */
+    @GetMapping("/area")
+    public ResponseEntity<List<EventoResponseDTO>> getEventosEnArea(
+            @RequestParam double latMin,
+            @RequestParam double lonMin,
+            @RequestParam double latMax,
+            @RequestParam double lonMax,
+            @RequestParam(required = false) Integer tamanio) {
+        List<Evento> eventos = eventoService.buscarEventosEnArea(latMin, lonMin, latMax, lonMax,
+                paginacion.resolverTamanio(tamanio));
+        return ResponseEntity.ok(eventos.stream()
+                .map(this::convertToResponseDTO)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Obtiene los marcadores del mapa para el área visible
+     * GET /evento/mapa?bbox=lonMin,latMin,lonMax,latMax&zoom=12
+     * 
+     * - zoom menor a 15: grupos de eventos (cantidad, centroide e IDs representativos)
+     * - zoom 15 o mayor: eventos individuales del área (hasta MAXIMO_EVENTOS_MAPA)
+     * 
+     * El bbox sigue el orden de GeoJSON: oeste, sur, este, norte.
+     */
+    @GetMapping("/mapa")
+    public ResponseEntity<MapaEventosDTO> getMapaEventos(@RequestParam String bbox, @RequestParam int zoom) {
+        double[] area = parsearBbox(bbox);
+        if (zoom < 0 || zoom > ZOOM_MAXIMO_MAPA) {
+            throw new IllegalArgumentException("El zoom debe estar entre 0 y " + ZOOM_MAXIMO_MAPA);
+        }
+
+        if (zoom >= EventoIndiceEspacial.ZOOM_EVENTOS) {
+            List<EventoResponseDTO> eventos = eventoService.buscarEventosEnArea(area[1], area[0], area[3], area[2],
+                    MAXIMO_EVENTOS_MAPA).stream()
+                    .map(this::convertToResponseDTO)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(new MapaEventosDTO(zoom, eventos.size(), List.of(), eventos));
+        }
+
+        List<ClusterMapaDTO> clusters = eventoService.agruparEventosEnArea(area[1], area[0], area[3], area[2], zoom);
+        int total = clusters.stream().mapToInt(ClusterMapaDTO::getCantidad).sum();
+        return ResponseEntity.ok(new MapaEventosDTO(zoom, total, clusters, List.of()));
+    }
+
+    /**
+     * Obtiene las estadísticas de la caché del catálogo de eventos
+     * GET /evento/cache/estadisticas
+     * 
+     * SEGURIDAD:
+     * - ADMINISTRADOR: Puede ver las estadísticas
+     * - PRODUCTOR / CLIENTE: No pueden ver las estadísticas
+     */
+    @GetMapping("/cache/estadisticas")
+    public ResponseEntity<Map<String, Object>> getEstadisticasCache() {
+        Optional<Usuario> currentUser = securityUtils.getCurrentUser();
+        if (currentUser.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!currentUser.get().isAdministrador()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(catalogoCache.getEstadisticas());
+    }
+
     /**
      * Obtiene cupos disponibles para un evento
      * GET /evento/{id}/cupos
@@ -704,31 +923,11 @@ public class EventoController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        List<Evento> eventos = eventoService.getAllEvento();
-        
-        if (user.isProductor()) {
-            // Filtrar solo eventos del productor
-            eventos = eventos.stream()
-                    .filter(evento -> evento.getUsuario() != null &&
-                            evento.getUsuario().getId().equals(user.getId()))
-                    .collect(Collectors.toList());
-        }
-
-        long totalEventos = eventos.size();
-        long eventosActivos = eventos.stream().filter(e -> e.getActivo() == 1).count();
-        long eventosInactivos = eventos.stream().filter(e -> e.getActivo() == 0).count();
-        long eventosDisponibles = eventos.stream().filter(Evento::isDisponible).count();
-        long eventosProximos = eventos.stream().filter(Evento::isEventoProximo).count();
-        long eventosPasados = eventos.stream().filter(Evento::isEventoPasado).count();
-        
-        return ResponseEntity.ok(java.util.Map.of(
-            "totalEventos", totalEventos,
-            "eventosActivos", eventosActivos,
-            "eventosInactivos", eventosInactivos,
-            "eventosDisponibles", eventosDisponibles,
-            "eventosProximos", eventosProximos,
-            "eventosPasados", eventosPasados
-        ));
+        // Los conteos se resuelven en la base de datos con una sola consulta
+        Long productorId = user.isProductor() ? user.getId() : null;
+        String clave = productorId != null ? "eventos:productor:" + productorId : "eventos:todos";
+        return ResponseEntity.ok(estadisticasCache.obtener(clave,
+                () -> eventoService.getEstadisticasEventos(productorId)));
     }
 
     /**
@@ -761,27 +960,29 @@ public class EventoController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        List<Evento> eventos = eventoService.getAllEvento();
-        
-        // Filtrar por usuario si es productor
-        if (user.isProductor()) {
-            eventos = eventos.stream()
-                    .filter(evento -> evento.getUsuario() != null &&
-                            evento.getUsuario().getId().equals(user.getId()))
-                    .collect(Collectors.toList());
+        List<Evento> eventos;
+        if (nombre != null && !nombre.isBlank()) {
+            // El índice de texto busca en nombre y descripción, sin tildes, y ordena por relevancia
+            Long productorId = user.isProductor() ? user.getId() : null;
+            eventos = eventoService.buscarEventosPorTexto(nombre, productorId, MAXIMO_RESULTADOS_TEXTO);
+        } else {
+            eventos = eventoService.getAllEvento();
+            
+            // Filtrar por usuario si es productor
+            if (user.isProductor()) {
+                eventos = eventos.stream()
+                        .filter(evento -> evento.getUsuario() != null &&
+                                evento.getUsuario().getId().equals(user.getId()))
+                        .collect(Collectors.toList());
+            }
         }
         
         // Aplicar filtros adicionales
-        if (nombre != null) {
-            eventos = eventos.stream()
-                    .filter(evento -> evento.getNombre().toLowerCase().contains(nombre.toLowerCase()))
-                    .collect(Collectors.toList());
-        }
-        
         if (comuna != null) {
+            String comunaNormalizada = EventoIndiceTexto.normalizar(comuna);
             eventos = eventos.stream()
-                    .filter(evento -> evento.getUbicacion() != null && 
-                            evento.getUbicacion().getComuna().toLowerCase().contains(comuna.toLowerCase()))
+                    .filter(evento -> evento.getUbicacion() != null && evento.getUbicacion().getComuna() != null &&
+                            EventoIndiceTexto.normalizar(evento.getUbicacion().getComuna()).contains(comunaNormalizada))
                     .collect(Collectors.toList());
         }
         
@@ -816,6 +1017,25 @@ public class EventoController {
         return ResponseEntity.ok(eventosDTO);
     }
 
+    /**
+     * Convierte el parámetro bbox "oeste,sur,este,norte" en [lonMin, latMin, lonMax, latMax]
+     */
+    private double[] parsearBbox(String bbox) {
+        String[] partes = bbox.split(",");
+        if (partes.length != 4) {
+            throw new IllegalArgumentException("El bbox debe tener el formato lonMin,latMin,lonMax,latMax");
+        }
+        double[] area = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                area[i] = Double.parseDouble(partes[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El bbox debe contener solo números: " + bbox);
+        }
+        return area;
+    }
+
     /**
      * Convierte un Evento a EventoResponseDTO
      */
@@ -831,6 +1051,14 @@ public class EventoController {
         dto.setActivo(evento.getActivo());
         dto.setFechaCreacion(evento.getFechaCreacion());
         
+        // Disponibilidad calculada con el contador de entradas, sin cargar las reservas
+        dto.setCuposDisponibles(evento.getCuposDisponibles());
+        if (evento.getFecha() != null) {
+            dto.setDisponible(evento.isDisponible());
+            dto.setEventoPasado(evento.isEventoPasado());
+            dto.setEventoProximo(evento.isEventoProximo());
+        }
+        
         // Convertir ubicación
         if (evento.getUbicacion() != null) {
             UbicacionResponseDTO ubicacionDTO = new UbicacionResponseDTO();
@@ -4,13 +4,26 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.HashMap;
-
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,13 +31,22 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.partymap.backend.config.PaginacionProperties;
 import com.partymap.backend.config.SecurityUtils;
+import com.partymap.backend.dto.CursorPaginacion;
 import com.partymap.backend.dto.ErrorResponseDTO;
+import com.partymap.backend.dto.PaginatedResponseDTO;
 import com.partymap.backend.dto.ReservaDTO;
+import com.partymap.backend.dto.ReservaExportacionDTO;
+import com.partymap.backend.dto.ReservaLoteDTO;
+import com.partymap.backend.dto.ReservaLoteRespuestaDTO;
+import com.partymap.backend.dto.ReservaLoteResultadoDTO;
 import com.partymap.backend.dto.ReservaResponseDTO;
 import com.partymap.backend.exceptions.NotFoundException;
 import com.partymap.backend.model.Evento;
@@ -32,6 +54,7 @@ import com.partymap.backend.model.Reserva;
 import com.partymap.backend.model.Usuario;
 import com.partymap.backend.repository.EventoRepository;
 import com.partymap.backend.repository.UsuarioRepository;
+import com.partymap.backend.service.ListadoStreaming;
 import com.partymap.backend.service.ReservaService;
 
 /**
@@ -48,17 +71,23 @@ import com.partymap.backend.service.ReservaService;
 @RequestMapping("/reserva")
 public class ReservaController {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReservaController.class);
+
     private final ReservaService reservaService;
     private final SecurityUtils securityUtils;
     private final EventoRepository eventoRepository;
     private final UsuarioRepository usuarioRepository;
+    private final PaginacionProperties paginacion;
+    private final ListadoStreaming listadoStreaming;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    public ReservaController(ReservaService reservaService, SecurityUtils securityUtils, EventoRepository eventoRepository, UsuarioRepository usuarioRepository) {
+    public ReservaController(ReservaService reservaService, SecurityUtils securityUtils, EventoRepository eventoRepository, UsuarioRepository usuarioRepository, PaginacionProperties paginacion, ListadoStreaming listadoStreaming) {
         this.reservaService = reservaService;
         this.securityUtils = securityUtils;
         this.eventoRepository = eventoRepository;
         this.usuarioRepository = usuarioRepository;
+        this.paginacion = paginacion;
+        this.listadoStreaming = listadoStreaming;
     }
 
     /**
@@ -111,25 +140,91 @@ public class ReservaController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        List<Reserva> reservas;
+        List<ReservaResponseDTO> reservasDTO;
         Usuario user = currentUser.get();
 
         if (user.isAdministrador() || user.isProductor()) {
             // Admin y productores ven todas las reservas
-            reservas = reservaService.getAllreservas();
+            reservasDTO = reservaService.getRespuestasReservasActivas();
         } else if (user.isCliente()) {
             // Clientes solo ven sus propias reservas
-            reservas = reservaService.getReservasByUsuarioId(user.getId());
+            reservasDTO = reservaService.getRespuestasReservasByUsuarioId(user.getId());
         } else {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        List<ReservaResponseDTO> reservasDTO = reservas.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
         return ResponseEntity.ok(reservasDTO);
     }
 
+    /**
+     * Obtiene las reservas paginadas por cursor, ordenadas por ID
+     * GET /reserva/all?tamanio=20&cursor=...
+     * 
+     * SEGURIDAD:
+     * - ADMINISTRADOR: Ve todas las reservas
+     * - PRODUCTOR: Ve todas las reservas
+     * - CLIENTE: Ve solo sus propias reservas
+     */
+    @GetMapping(value = "/all", params = "tamanio")
+    public ResponseEntity<PaginatedResponseDTO<ReservaResponseDTO>> getReservasPaginadas(
+            @RequestParam(required = false) Integer tamanio,
+            @RequestParam(required = false) String cursor) {
+        Optional<Usuario> currentUser = securityUtils.getCurrentUser();
+        if (currentUser.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Usuario user = currentUser.get();
+        CursorPaginacion desde = CursorPaginacion.decodificar(cursor);
+        int tamanioPagina = paginacion.resolverTamanio(tamanio);
+        Slice<Reserva> reservas;
+
+        if (user.isAdministrador() || user.isProductor()) {
+            reservas = reservaService.getReservasDesdeCursor(desde, tamanioPagina);
+        } else if (user.isCliente()) {
+            reservas = reservaService.getReservasByUsuarioIdDesdeCursor(user.getId(), desde, tamanioPagina);
+        } else {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(PaginatedResponseDTO.desdeCursor(reservas, this::convertToResponseDTO,
+                reserva -> CursorPaginacion.porId(reserva.getId()), desde == null));
+    }
+
+    /**
+     * Obtiene todas las reservas escribiendo el arreglo JSON a medida que se leen de la base de datos
+     * GET /reserva/all?stream=true
+     * 
+     * Entrega lo mismo que GET /reserva/all, pero sin armar la lista completa en memoria.
+     * 
+     * SEGURIDAD:
+     * - ADMINISTRADOR: Ve todas las reservas
+     * - PRODUCTOR: Ve todas las reservas
+     * - CLIENTE: Ve solo sus propias reservas
+     */
+    @GetMapping(value = "/all", params = { "stream=true", "!tamanio" })
+    public ResponseEntity<StreamingResponseBody> getAllReservasStreaming() {
+        Optional<Usuario> currentUser = securityUtils.getCurrentUser();
+        if (currentUser.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Usuario user = currentUser.get();
+        StreamingResponseBody cuerpo;
+
+        if (user.isAdministrador() || user.isProductor()) {
+            cuerpo = listadoStreaming.json(reservaService::streamReservasActivas, this::convertToResponseDTO);
+        } else if (user.isCliente()) {
+            Long usuarioId = user.getId();
+            cuerpo = listadoStreaming.json(() -> reservaService.streamReservasByUsuarioId(usuarioId),
+                    this::convertToResponseDTO);
+        } else {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cuerpo);
+    }
+
     /**
      * Obtiene una reserva por su ID
      * GET /reserva/{id}
@@ -246,23 +341,9 @@ public class ReservaController {
                         ", Cantidad solicitada: " + reservaDTO.getCantidad(), "/reserva/crear"));
             }
 
-            // Verificar límite de 5 reservas ACTIVAS por usuario por evento (NO incluir canceladas)
-            List<Reserva> reservasExistentes = reservaService.getReservasByUsuarioId(user.getId());
-            long totalReservasActivasUsuarioEvento = reservasExistentes.stream()
-                    .filter(r -> r.getEvento().getId().equals(reservaDTO.getEventoId()) && r.isActiva())
-                    .count();
-            
-            if (totalReservasActivasUsuarioEvento >= 5) {
-                return ResponseEntity.badRequest()
-                    .body(new ErrorResponseDTO(400, "Bad Request", 
-                        "Has alcanzado el límite máximo de 5 reservas activas para este evento", "/reserva/crear"));
-            }
-
             // Verificar que el usuario no tenga ya una reserva activa para este evento
-            boolean yaTieneReserva = reservasExistentes.stream()
-                    .anyMatch(r -> r.getEvento().getId().equals(reservaDTO.getEventoId()) && r.isActiva());
-            
-            if (yaTieneReserva) {
+            // (con una sola reserva activa por evento, el límite de 5 nunca se alcanza)
+            if (reservaService.tieneReservaActiva(user.getId(), reservaDTO.getEventoId())) {
                 return ResponseEntity.badRequest()
                     .body(new ErrorResponseDTO(400, "Bad Request", 
                         "Ya tienes una reserva activa para este evento", "/reserva/crear"));
@@ -318,6 +399,128 @@ public class ReservaController {
         }
     }
 
+    /**
+     * Crea varias reservas para uno o varios eventos en una sola transacción
+     * POST /reserva/lote
+     * 
+     * Los usuarios y eventos del lote se cargan con una consulta cada uno y se aplican las mismas
+     * validaciones que en /reserva/crear. Cada reserva se acepta o rechaza por separado:
+     * responde 201 si se crearon todas y 207 (Multi-Status) si alguna se rechazó.
+     * 
+     * SEGURIDAD:
+     * - CLIENTE: Solo puede reservar para sí mismo (se ignora el usuarioId de cada reserva)
+     * - PRODUCTOR: No puede crear reservas
+     * - ADMINISTRADOR: Reserva para el usuarioId indicado en cada reserva
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<?> createReservasLote(@RequestBody ReservaLoteDTO loteDTO) {
+        Optional<Usuario> currentUser = securityUtils.getCurrentUser();
+        if (currentUser.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponseDTO(401, "Unauthorized", "Usuario no autenticado", "/reserva/lote"));
+        }
+
+        Usuario user = currentUser.get();
+        if (!user.isCliente() && !user.isAdministrador()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(new ErrorResponseDTO(403, "Forbidden", "No tienes permisos para crear reservas", "/reserva/lote"));
+        }
+
+        if (loteDTO == null || loteDTO.getReservas() == null || loteDTO.getReservas().isEmpty()) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponseDTO(400, "Bad Request", "El lote debe incluir al menos una reserva", "/reserva/lote"));
+        }
+        List<ReservaDTO> solicitudes = loteDTO.getReservas();
+        if (solicitudes.size() > ReservaService.MAX_RESERVAS_POR_LOTE) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponseDTO(400, "Bad Request",
+                    "El lote no puede superar las " + ReservaService.MAX_RESERVAS_POR_LOTE + " reservas", "/reserva/lote"));
+        }
+
+        try {
+            // Usuarios y eventos de todo el lote, una consulta para cada uno
+            Map<Long, Evento> eventos = eventoRepository.findAllById(idsDe(solicitudes, ReservaDTO::getEventoId))
+                    .stream().collect(Collectors.toMap(Evento::getId, Function.identity()));
+            Map<Long, Usuario> usuarios = user.isCliente()
+                    ? Map.of(user.getId(), user)
+                    : usuarioRepository.findAllById(idsDe(solicitudes, ReservaDTO::getUsuarioId))
+                            .stream().collect(Collectors.toMap(Usuario::getId, Function.identity()));
+
+            String[] errores = new String[solicitudes.size()];
+            List<Reserva> reservas = new ArrayList<>();
+            List<Integer> posiciones = new ArrayList<>();
+            for (int i = 0; i < solicitudes.size(); i++) {
+                ReservaDTO dto = solicitudes.get(i);
+                Long usuarioId = dto == null ? null : user.isCliente() ? user.getId() : dto.getUsuarioId();
+                if (dto == null) {
+                    errores[i] = "La reserva no puede ser nula";
+                } else if (dto.getEventoId() == null) {
+                    errores[i] = "El ID del evento es obligatorio";
+                } else if (usuarioId == null) {
+                    errores[i] = "El ID del usuario es obligatorio";
+                } else if (!eventos.containsKey(dto.getEventoId())) {
+                    errores[i] = "Evento no encontrado con ID: " + dto.getEventoId();
+                } else if (!usuarios.containsKey(usuarioId)) {
+                    errores[i] = "Usuario no encontrado con ID: " + usuarioId;
+                } else {
+                    Reserva reserva = new Reserva();
+                    reserva.setCantidad(dto.getCantidad());
+                    reserva.setPrecioUnitario(dto.getPrecioUnitario());
+                    reserva.setComentarios(dto.getComentarios());
+                    reserva.setUsuario(usuarios.get(usuarioId));
+                    reserva.setEvento(eventos.get(dto.getEventoId()));
+                    reservas.add(reserva);
+                    posiciones.add(i);
+                }
+            }
+
+            List<ReservaService.ResultadoLote> creadas = reservas.isEmpty()
+                    ? List.of()
+                    : reservaService.createReservasLote(reservas);
+
+            List<ReservaLoteResultadoDTO> resultados = new ArrayList<>(solicitudes.size());
+            for (int i = 0; i < solicitudes.size(); i++) {
+                resultados.add(new ReservaLoteResultadoDTO(i, false, null, errores[i]));
+            }
+            int totalCreadas = 0;
+            for (int j = 0; j < creadas.size(); j++) {
+                ReservaService.ResultadoLote resultado = creadas.get(j);
+                ReservaLoteResultadoDTO dto = resultados.get(posiciones.get(j));
+                if (resultado.isCreada()) {
+                    dto.setCreada(true);
+                    dto.setReserva(convertToResponseDTO(resultado.reserva()));
+                    totalCreadas++;
+                } else {
+                    dto.setError(resultado.error());
+                }
+            }
+
+            ReservaLoteRespuestaDTO respuesta = new ReservaLoteRespuestaDTO(solicitudes.size(), totalCreadas,
+                    solicitudes.size() - totalCreadas, resultados);
+            return ResponseEntity.status(totalCreadas == solicitudes.size() ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS)
+                    .body(respuesta);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponseDTO(400, "Bad Request", e.getMessage(), "/reserva/lote"));
+        } catch (Exception e) {
+            logger.error("Error inesperado al crear lote de reservas", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponseDTO(500, "Internal Server Error", "Error inesperado del servidor", "/reserva/lote"));
+        }
+    }
+
+    /**
+     * IDs distintos y no nulos de las reservas solicitadas
+     */
+    private static Set<Long> idsDe(List<ReservaDTO> solicitudes, Function<ReservaDTO, Long> id) {
+        return solicitudes.stream()
+                .filter(Objects::nonNull)
+                .map(id)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
     /**
      * Actualiza una reserva existente
      * PUT /reserva/{id}
@@ -407,11 +610,7 @@ public class ReservaController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        List<Reserva> reservas = reservaService.getReservasByUsuarioId(usuarioId);
-        List<ReservaResponseDTO> reservasDTO = reservas.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(reservasDTO);
+        return ResponseEntity.ok(reservaService.getRespuestasReservasByUsuarioId(usuarioId));
     }
 
     /**
@@ -437,11 +636,112 @@ public class ReservaController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        List<Reserva> reservas = reservaService.getReservasByEventoId(eventoId);
-        List<ReservaResponseDTO> reservasDTO = reservas.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(reservasDTO);
+        return ResponseEntity.ok(reservaService.getRespuestasReservasByEventoId(eventoId));
+    }
+
+    /**
+     * Exporta los asistentes de un evento como CSV o NDJSON, escribiendo las filas a medida que se leen
+     * GET /reserva/evento/{eventoId}/export?format=csv|ndjson
+     * 
+     * Si el cliente envía Accept-Encoding: gzip la respuesta se comprime.
+     * 
+     * SEGURIDAD:
+     * - ADMINISTRADOR: Puede exportar cualquier evento
+     * - PRODUCTOR: Solo puede exportar sus propios eventos
+     * - CLIENTE: No puede exportar
+     */
+    @GetMapping("/evento/{eventoId}/export")
+    public ResponseEntity<StreamingResponseBody> exportarReservasEvento(
+            @PathVariable Long eventoId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Optional<Usuario> currentUser = securityUtils.getCurrentUser();
+        if (currentUser.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Usuario user = currentUser.get();
+        if (!user.isAdministrador() && !user.isProductor()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        Optional<Evento> evento = eventoRepository.findById(eventoId);
+        if (evento.isEmpty() || evento.get().getActivo() != 1) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!user.isAdministrador() && !evento.get().getUsuario().getId().equals(user.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return exportar(() -> reservaService.streamReservasByEventoId(eventoId), format, acceptEncoding,
+                "reservas-evento-" + eventoId);
+    }
+
+    /**
+     * Exporta los asistentes de todos los eventos de un productor como CSV o NDJSON
+     * GET /reserva/productor/export?format=csv|ndjson[&productorId=...]
+     * 
+     * Si el cliente envía Accept-Encoding: gzip la respuesta se comprime.
+     * 
+     * SEGURIDAD:
+     * - ADMINISTRADOR: Debe indicar productorId
+     * - PRODUCTOR: Exporta sus propios eventos (productorId se ignora)
+     * - CLIENTE: No puede exportar
+     */
+    @GetMapping("/productor/export")
+    public ResponseEntity<StreamingResponseBody> exportarReservasProductor(
+            @RequestParam(required = false) Long productorId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Optional<Usuario> currentUser = securityUtils.getCurrentUser();
+        if (currentUser.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Usuario user = currentUser.get();
+        Long productor;
+        if (user.isAdministrador()) {
+            if (productorId == null) {
+                return ResponseEntity.badRequest().build();
+            }
+            productor = productorId;
+        } else if (user.isProductor()) {
+            productor = user.getId();
+        } else {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return exportar(() -> reservaService.streamReservasByProductorId(productor), format, acceptEncoding,
+                "reservas-productor-" + productor);
+    }
+
+    /**
+     * Arma la respuesta de una exportación de reservas en el formato pedido
+     */
+    private ResponseEntity<StreamingResponseBody> exportar(Supplier<Stream<Reserva>> consulta, String format,
+            String acceptEncoding, String nombreArchivo) {
+        ListadoStreaming.Formato formato;
+        try {
+            formato = ListadoStreaming.Formato.desde(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        StreamingResponseBody cuerpo = formato == ListadoStreaming.Formato.CSV
+                ? listadoStreaming.csv(consulta, ReservaExportacionDTO.COLUMNAS,
+                        reserva -> convertToExportacionDTO(reserva).valores(), gzip)
+                : listadoStreaming.ndjson(consulta, this::convertToExportacionDTO, gzip);
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(formato.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(nombreArchivo + "." + formato.getExtension()).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return respuesta.body(cuerpo);
     }
 
     /**
@@ -644,6 +944,40 @@ public class ReservaController {
         }
     }
 
+    /**
+     * Obtiene reservas por rango de fechas escribiendo el arreglo JSON a medida que se leen
+     * GET /reserva/rango-fechas?stream=true
+     * 
+     * SEGURIDAD:
+     * - Solo ADMINISTRADOR y PRODUCTOR pueden usar este endpoint
+     */
+    @GetMapping(value = "/rango-fechas", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> getReservasPorRangoFechasStreaming(
+            @RequestParam String fechaInicio,
+            @RequestParam String fechaFin) {
+        Optional<Usuario> currentUser = securityUtils.getCurrentUser();
+        if (currentUser.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        // Solo administradores y productores pueden usar este endpoint
+        if (currentUser.get().isCliente()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        LocalDateTime inicio;
+        LocalDateTime fin;
+        try {
+            inicio = LocalDateTime.parse(fechaInicio, DATE_FORMATTER);
+            fin = LocalDateTime.parse(fechaFin, DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(listadoStreaming.json(
+                () -> reservaService.streamReservasPorRangoFechas(inicio, fin), this::convertToResponseDTO));
+    }
+
     /**
      * Obtiene reservas de un usuario en un rango de fechas
      * GET /reserva/usuario/{usuarioId}/rango-fechas
@@ -982,26 +1316,7 @@ public class ReservaController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        List<Reserva> todasLasReservas = reservaService.getAllreservas();
-        List<Reserva> reservasActivas = reservaService.getReservasActivas();
-        
-        long totalReservas = todasLasReservas.size();
-        long reservasActivasCount = reservasActivas.size();
-        long reservasCanceladas = todasLasReservas.stream()
-                .filter(Reserva::isCancelada)
-                .count();
-        
-        double totalIngresos = todasLasReservas.stream()
-                .filter(Reserva::isActiva)
-                .mapToDouble(reserva -> reserva.getPrecioTotal().doubleValue())
-                .sum();
-        
-        return ResponseEntity.ok(Map.of(
-            "totalReservas", totalReservas,
-            "reservasActivas", reservasActivasCount,
-            "reservasCanceladas", reservasCanceladas,
-            "totalIngresos", totalIngresos
-        ));
+        return ResponseEntity.ok(reservaService.getEstadisticasBasicas());
     }
 
     /**
@@ -1131,6 +1446,30 @@ public class ReservaController {
 
     // Métodos de conversión privados
 
+    /**
+     * Convierte una Reserva en la fila plana de las exportaciones
+     */
+    private ReservaExportacionDTO convertToExportacionDTO(Reserva reserva) {
+        ReservaExportacionDTO dto = new ReservaExportacionDTO();
+        dto.setReservaId(reserva.getId());
+        dto.setCantidad(reserva.getCantidad());
+        dto.setPrecioUnitario(reserva.getPrecioUnitario());
+        dto.setPrecioTotal(reserva.getPrecioTotal());
+        dto.setEstado(reserva.getEstado());
+        dto.setFechaReserva(reserva.getFechaReserva());
+        if (reserva.getEvento() != null) {
+            dto.setEventoId(reserva.getEvento().getId());
+            dto.setEventoNombre(reserva.getEvento().getNombre());
+            dto.setEventoFecha(reserva.getEvento().getFecha());
+        }
+        if (reserva.getUsuario() != null) {
+            dto.setUsuarioId(reserva.getUsuario().getId());
+            dto.setUsuarioNombre(reserva.getUsuario().getNombre());
+            dto.setUsuarioEmail(reserva.getUsuario().getEmail());
+        }
+        return dto;
+    }
+
     /**
      * Convierte un Reserva a ReservaResponseDTO
      */
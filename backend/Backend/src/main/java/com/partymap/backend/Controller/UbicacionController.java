@@ -1,9 +1,12 @@
 package com.partymap.backend.controller;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -17,10 +20,18 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.partymap.backend.config.PaginacionProperties;
+import com.partymap.backend.config.SecurityUtils;
+import com.partymap.backend.dto.CursorPaginacion;
+import com.partymap.backend.dto.ErrorResponseDTO;
+import com.partymap.backend.dto.PaginatedResponseDTO;
 import com.partymap.backend.dto.UbicacionDTO;
+import com.partymap.backend.dto.UbicacionDuplicadasDTO;
+import com.partymap.backend.dto.UbicacionFusionDTO;
 import com.partymap.backend.dto.UbicacionResponseDTO;
 import com.partymap.backend.exceptions.NotFoundException;
 import com.partymap.backend.model.Ubicacion;
+import com.partymap.backend.model.Usuario;
 import com.partymap.backend.service.UbicacionService;
 
 /**
@@ -33,8 +44,15 @@ public class UbicacionController {
 
     private final UbicacionService ubicacionService;
 
-    public UbicacionController(UbicacionService ubicacionService) {
+    private final PaginacionProperties paginacion;
+
+    private final SecurityUtils securityUtils;
+
+    public UbicacionController(UbicacionService ubicacionService, PaginacionProperties paginacion,
+                               SecurityUtils securityUtils) {
         this.ubicacionService = ubicacionService;
+        this.paginacion = paginacion;
+        this.securityUtils = securityUtils;
     }
 
     /**
@@ -43,11 +61,21 @@ public class UbicacionController {
      */
     @GetMapping("/all")
     public ResponseEntity<List<UbicacionResponseDTO>> getAllUbicaciones() {
-        List<Ubicacion> ubicaciones = ubicacionService.getAllUbicaciones();
-        List<UbicacionResponseDTO> ubicacionesDTO = ubicaciones.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(ubicacionesDTO);
+        return ResponseEntity.ok(ubicacionService.getRespuestasUbicacionesActivas());
+    }
+
+    /**
+     * Obtiene las ubicaciones paginadas por cursor, ordenadas por ID
+     * GET /ubicacion/all?tamanio=20&cursor=...
+     */
+    @GetMapping(value = "/all", params = "tamanio")
+    public ResponseEntity<PaginatedResponseDTO<UbicacionResponseDTO>> getUbicacionesPaginadas(
+            @RequestParam(required = false) Integer tamanio,
+            @RequestParam(required = false) String cursor) {
+        CursorPaginacion desde = CursorPaginacion.decodificar(cursor);
+        Slice<Ubicacion> ubicaciones = ubicacionService.getUbicacionesDesdeCursor(desde, paginacion.resolverTamanio(tamanio));
+        return ResponseEntity.ok(PaginatedResponseDTO.desdeCursor(ubicaciones, this::convertToResponseDTO,
+                ubicacion -> CursorPaginacion.porId(ubicacion.getId()), desde == null));
     }
 
     /**
@@ -175,6 +203,69 @@ public class UbicacionController {
         return ResponseEntity.ok(coordenadasValidas);
     }
 
+    /**
+     * Obtiene los grupos de ubicaciones que corresponden a un mismo lugar
+     * GET /ubicacion/duplicados
+     * 
+     * SEGURIDAD:
+     * - Solo ADMINISTRADOR
+     */
+    @GetMapping("/duplicados")
+    public ResponseEntity<?> getUbicacionesDuplicadas() {
+        Optional<Usuario> currentUser = securityUtils.getCurrentUser();
+        if (currentUser.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponseDTO(401, "Unauthorized", "Usuario no autenticado", "/ubicacion/duplicados"));
+        }
+        if (!currentUser.get().isAdministrador()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(new ErrorResponseDTO(403, "Forbidden", "Solo los administradores pueden revisar ubicaciones duplicadas", "/ubicacion/duplicados"));
+        }
+
+        List<UbicacionDuplicadasDTO> grupos = ubicacionService.getGruposDuplicados().stream()
+                .map(grupo -> new UbicacionDuplicadasDTO(grupo.get(0).getId(),
+                        grupo.stream().map(this::convertToResponseDTO).collect(Collectors.toList())))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(grupos);
+    }
+
+    /**
+     * Fusiona ubicaciones duplicadas en la ubicación indicada: sus eventos pasan a ella y se desactivan
+     * POST /ubicacion/{id}/fusionar
+     * 
+     * SEGURIDAD:
+     * - Solo ADMINISTRADOR
+     */
+    @PostMapping("/{id}/fusionar")
+    public ResponseEntity<?> fusionarUbicaciones(@PathVariable Long id, @RequestBody UbicacionFusionDTO fusionDTO) {
+        String ruta = "/ubicacion/" + id + "/fusionar";
+        Optional<Usuario> currentUser = securityUtils.getCurrentUser();
+        if (currentUser.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponseDTO(401, "Unauthorized", "Usuario no autenticado", ruta));
+        }
+        if (!currentUser.get().isAdministrador()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(new ErrorResponseDTO(403, "Forbidden", "Solo los administradores pueden fusionar ubicaciones", ruta));
+        }
+
+        try {
+            List<Long> duplicadoIds = fusionDTO != null ? fusionDTO.getDuplicadoIds() : null;
+            int eventosReasignados = ubicacionService.fusionarUbicaciones(id, duplicadoIds);
+            Map<String, Object> respuesta = new LinkedHashMap<>();
+            respuesta.put("ubicacionId", id);
+            respuesta.put("ubicacionesFusionadas", duplicadoIds.stream().distinct().count());
+            respuesta.put("eventosReasignados", eventosReasignados);
+            return ResponseEntity.ok(respuesta);
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponseDTO(404, "Not Found", e.getMessage(), ruta));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponseDTO(400, "Bad Request", e.getMessage(), ruta));
+        }
+    }
+
     // Métodos de conversión privados
 
     /**
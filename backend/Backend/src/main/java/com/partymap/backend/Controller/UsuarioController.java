@@ -6,6 +6,7 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.HashMap;
 
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,10 +16,14 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.partymap.backend.config.PaginacionProperties;
 import com.partymap.backend.config.SecurityUtils;
+import com.partymap.backend.dto.CursorPaginacion;
+import com.partymap.backend.dto.PaginatedResponseDTO;
 import com.partymap.backend.dto.UsuarioResponseDTO;
 import com.partymap.backend.exceptions.NotFoundException;
 import com.partymap.backend.model.Usuario;
+import com.partymap.backend.service.EstadisticasCache;
 import com.partymap.backend.service.UsuarioService;
 
 /**
@@ -37,9 +42,16 @@ public class UsuarioController {
     private final UsuarioService usuarioService;
     private final SecurityUtils securityUtils;
 
-    public UsuarioController(UsuarioService usuarioService, SecurityUtils securityUtils) {
+    private final PaginacionProperties paginacion;
+
+    private final EstadisticasCache estadisticasCache;
+
+    public UsuarioController(UsuarioService usuarioService, SecurityUtils securityUtils, PaginacionProperties paginacion,
+                             EstadisticasCache estadisticasCache) {
         this.usuarioService = usuarioService;
         this.securityUtils = securityUtils;
+        this.paginacion = paginacion;
+        this.estadisticasCache = estadisticasCache;
     }
 
     /**
@@ -71,6 +83,33 @@ public class UsuarioController {
         return ResponseEntity.ok(usuariosDTO);
     }
 
+    /**
+     * Obtiene los usuarios paginados por cursor, ordenados por ID
+     * GET /usuario/all?tamanio=20&cursor=...
+     * 
+     * SEGURIDAD:
+     * - Solo ADMINISTRADOR puede ver todos los usuarios
+     */
+    @GetMapping(value = "/all", params = "tamanio")
+    public ResponseEntity<PaginatedResponseDTO<UsuarioResponseDTO>> getUsuariosPaginados(
+            @RequestParam(required = false) Integer tamanio,
+            @RequestParam(required = false) String cursor) {
+        Optional<Usuario> currentUser = securityUtils.getCurrentUser();
+        if (currentUser.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        // Solo administradores pueden ver todos los usuarios
+        if (!currentUser.get().isAdministrador()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        CursorPaginacion desde = CursorPaginacion.decodificar(cursor);
+        Slice<Usuario> usuarios = usuarioService.getUsuariosDesdeCursor(desde, paginacion.resolverTamanio(tamanio));
+        return ResponseEntity.ok(PaginatedResponseDTO.desdeCursor(usuarios, this::convertToResponseDTO,
+                usuario -> CursorPaginacion.porId(usuario.getId()), desde == null));
+    }
+
     /**
      * Obtiene un usuario específico por su ID
      * GET /usuario/{id}
@@ -433,17 +472,8 @@ public class UsuarioController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        List<Usuario> usuarios = usuarioService.getAllUsuarios();
-        
-        Map<String, Object> estadisticas = new HashMap<>();
-        estadisticas.put("totalUsuarios", usuarios.size());
-        estadisticas.put("usuariosActivos", usuarios.stream().filter(u -> u.getActivo() == 1).count());
-        estadisticas.put("usuariosInactivos", usuarios.stream().filter(u -> u.getActivo() == 0).count());
-        estadisticas.put("productores", usuarios.stream().filter(u -> u.isProductor()).count());
-        estadisticas.put("clientes", usuarios.stream().filter(u -> u.isCliente()).count());
-        estadisticas.put("administradores", usuarios.stream().filter(u -> u.isAdministrador()).count());
-        
-        return ResponseEntity.ok(estadisticas);
+        // Los conteos se resuelven en la base de datos con una sola consulta
+        return ResponseEntity.ok(estadisticasCache.obtener("usuarios", usuarioService::getEstadisticasUsuarios));
     }
 
     /**
@@ -0,0 +1,40 @@
+package com.partymap.backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de un grupo de eventos cercanos en el mapa.
+ * 
+ * USO:
+ * - Respuesta de GET /evento/mapa en niveles de zoom bajos
+ * - Se dibuja como un único marcador con la cantidad de eventos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterMapaDTO {
+
+    /**
+     * Latitud del centroide de los eventos del grupo
+     */
+    private double latitud;
+
+    /**
+     * Longitud del centroide de los eventos del grupo
+     */
+    private double longitud;
+
+    /**
+     * Cantidad de eventos del grupo
+     */
+    private int cantidad;
+
+    /**
+     * IDs de algunos eventos representativos del grupo (los de menor ID)
+     */
+    private List<Long> eventoIds;
+}
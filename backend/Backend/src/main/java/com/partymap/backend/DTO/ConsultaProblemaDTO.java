@@ -0,0 +1,62 @@
+package com.partymap.backend.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de respuesta con una consulta SQL problemática detectada en una ruta.
+ *
+ * USO:
+ * - Respuesta de GET /diagnostico/consultas (solo administradores)
+ * - tipo N_MAS_1: la misma consulta se repite muchas veces en una petición (típicamente una
+ *   colección o asociación cargada elemento por elemento)
+ * - tipo LENTA: una ejecución supera el umbral configurado
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsultaProblemaDTO {
+
+    /**
+     * N_MAS_1 o LENTA
+     */
+    private String tipo;
+
+    /**
+     * Método y plantilla de la ruta, por ejemplo "GET /evento/{id}"
+     */
+    private String ruta;
+
+    /**
+     * Consulta normalizada (sin valores literales)
+     */
+    private String sql;
+
+    /**
+     * Peticiones en que se detectó el problema
+     */
+    private long peticiones;
+
+    /**
+     * Máximo de ejecuciones de la consulta en una sola petición
+     */
+    private long maxEjecucionesPorPeticion;
+
+    /**
+     * Milisegundos de base de datos acumulados por la consulta en esas peticiones
+     */
+    private double tiempoTotalMs;
+
+    /**
+     * Milisegundos de la ejecución más lenta
+     */
+    private double maxEjecucionMs;
+
+    /**
+     * Última vez que se detectó
+     */
+    private LocalDateTime ultimaDeteccion;
+}
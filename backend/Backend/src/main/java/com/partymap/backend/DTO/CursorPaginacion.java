@@ -0,0 +1,86 @@
+package com.partymap.backend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para la paginación por clave (keyset).
+ * Representa la última fila entregada: (fecha, id) para listados ordenados por fecha
+ * o solo (id) para listados ordenados por identificador.
+ * 
+ * USO:
+ * - El servidor lo entrega codificado en PaginatedResponseDTO.siguienteCursor
+ * - El cliente lo devuelve tal cual en el parámetro "cursor" para pedir la página siguiente
+ */
+public final class CursorPaginacion {
+
+    private static final String SEPARADOR = "|";
+
+    private final LocalDateTime fecha;
+    private final Long id;
+
+    public CursorPaginacion(LocalDateTime fecha, Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("El cursor debe incluir un ID");
+        }
+        this.fecha = fecha;
+        this.id = id;
+    }
+
+    /**
+     * Crea un cursor que solo usa el ID como clave
+     */
+    public static CursorPaginacion porId(Long id) {
+        return new CursorPaginacion(null, id);
+    }
+
+    /**
+     * Decodifica el cursor recibido desde el cliente
+     * @param valor Cursor codificado (puede ser nulo o vacío para la primera página)
+     * @return Cursor decodificado o null si corresponde a la primera página
+     * @throws IllegalArgumentException Si el cursor no es válido
+     */
+    public static CursorPaginacion decodificar(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(valor.trim()), StandardCharsets.UTF_8);
+            int separador = texto.indexOf(SEPARADOR);
+            if (separador < 0) {
+                throw new IllegalArgumentException("Cursor de paginación no válido");
+            }
+            String fechaTexto = texto.substring(0, separador);
+            LocalDateTime fecha = fechaTexto.isEmpty() ? null : LocalDateTime.parse(fechaTexto);
+            Long id = Long.valueOf(texto.substring(separador + 1));
+            return new CursorPaginacion(fecha, id);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginación no válido");
+        }
+    }
+
+    /**
+     * Codifica el cursor para enviarlo al cliente
+     * @return Cursor en Base64 URL-safe
+     */
+    public String codificar() {
+        String texto = (fecha != null ? fecha.toString() : "") + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Obtiene la fecha de la última fila entregada (null si el cursor es solo por ID)
+     */
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    /**
+     * Obtiene el ID de la última fila entregada
+     */
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,54 @@
+package com.partymap.backend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con los conteos de eventos del panel de estadísticas.
+ * 
+ * USO:
+ * - Respuesta de GET /evento/mis-estadisticas
+ * - Se obtiene con una única consulta de conteos condicionales (ver EventoRepository.contarEstadisticas)
+ */
+@Data
+@NoArgsConstructor
+public class EstadisticasEventosDTO {
+
+    private long totalEventos;
+
+    private long eventosActivos;
+
+    private long eventosInactivos;
+
+    /**
+     * Eventos activos futuros que todavía tienen cupos
+     */
+    private long eventosDisponibles;
+
+    /**
+     * Eventos activos de las próximas 24 horas
+     */
+    private long eventosProximos;
+
+    /**
+     * Eventos activos cuya fecha ya pasó
+     */
+    private long eventosPasados;
+
+    /**
+     * Constructor usado por la consulta JPQL. Las sumas llegan nulas cuando no hay eventos
+     */
+    public EstadisticasEventosDTO(Long totalEventos, Long eventosActivos, Long eventosInactivos,
+                                  Long eventosDisponibles, Long eventosProximos, Long eventosPasados) {
+        this.totalEventos = valorDe(totalEventos);
+        this.eventosActivos = valorDe(eventosActivos);
+        this.eventosInactivos = valorDe(eventosInactivos);
+        this.eventosDisponibles = valorDe(eventosDisponibles);
+        this.eventosProximos = valorDe(eventosProximos);
+        this.eventosPasados = valorDe(eventosPasados);
+    }
+
+    private static long valorDe(Long valor) {
+        return valor != null ? valor : 0L;
+    }
+}
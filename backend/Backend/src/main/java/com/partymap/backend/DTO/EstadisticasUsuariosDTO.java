@@ -0,0 +1,45 @@
+package com.partymap.backend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con los conteos de usuarios del panel de estadísticas.
+ * 
+ * USO:
+ * - Respuesta de GET /usuario/estadisticas
+ * - Se obtiene con una única consulta de conteos condicionales (ver UsuarioRepository.contarEstadisticas)
+ */
+@Data
+@NoArgsConstructor
+public class EstadisticasUsuariosDTO {
+
+    private long totalUsuarios;
+
+    private long usuariosActivos;
+
+    private long usuariosInactivos;
+
+    private long productores;
+
+    private long clientes;
+
+    private long administradores;
+
+    /**
+     * Constructor usado por la consulta JPQL. Las sumas llegan nulas cuando no hay usuarios
+     */
+    public EstadisticasUsuariosDTO(Long totalUsuarios, Long usuariosActivos, Long usuariosInactivos,
+                                   Long productores, Long clientes, Long administradores) {
+        this.totalUsuarios = valorDe(totalUsuarios);
+        this.usuariosActivos = valorDe(usuariosActivos);
+        this.usuariosInactivos = valorDe(usuariosInactivos);
+        this.productores = valorDe(productores);
+        this.clientes = valorDe(clientes);
+        this.administradores = valorDe(administradores);
+    }
+
+    private static long valorDe(Long valor) {
+        return valor != null ? valor : 0L;
+    }
+}
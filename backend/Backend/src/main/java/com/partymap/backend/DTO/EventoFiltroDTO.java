@@ -3,6 +3,8 @@ package com.partymap.backend.dto;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import org.springframework.format.annotation.DateTimeFormat;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -25,6 +27,12 @@ public class EventoFiltroDTO {
      */
     private String nombre;
     
+    /**
+     * Texto libre buscado en nombre y descripción (sin distinguir tildes ni mayúsculas,
+     * acepta palabras incompletas). Sin ordenarPor, los resultados se ordenan por relevancia
+     */
+    private String texto;
+    
     /**
      * Comuna donde se realiza el evento
      */
@@ -33,11 +41,13 @@ public class EventoFiltroDTO {
     /**
      * Fecha mínima del evento
      */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
     private LocalDateTime fechaDesde;
     
     /**
      * Fecha máxima del evento
      */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
     private LocalDateTime fechaHasta;
     
     /**
@@ -69,4 +79,14 @@ public class EventoFiltroDTO {
      * Tamaño de página para paginación
      */
     private Integer tamanio;
+    
+    /**
+     * Campo de ordenamiento (fecha, nombre, precio, creacion, relevancia)
+     */
+    private String ordenarPor;
+    
+    /**
+     * Dirección del ordenamiento (asc, desc)
+     */
+    private String direccion;
 } 
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.partymap.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de una fila rechazada por POST /evento/importar.
+ * 
+ * USO:
+ * - fila es el número de la fila de datos en el archivo, partiendo en 1 (sin contar encabezados)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoImportacionErrorDTO {
+
+    /**
+     * Número de la fila de datos rechazada
+     */
+    private long fila;
+
+    /**
+     * Motivo del rechazo
+     */
+    private String error;
+}
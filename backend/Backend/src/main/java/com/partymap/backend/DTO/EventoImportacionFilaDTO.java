@@ -0,0 +1,75 @@
+package com.partymap.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de una fila del archivo de POST /evento/importar: un evento con su ubicación.
+ * 
+ * USO:
+ * - En CSV, la fila de encabezados lleva los nombres de estos campos (en cualquier orden)
+ * - En JSON, cada objeto lleva estos campos; los desconocidos se ignoran
+ * - La fecha va en formato ISO (2025-12-31T22:00:00)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class EventoImportacionFilaDTO {
+
+    /**
+     * Nombre o título del evento
+     */
+    private String nombre;
+
+    /**
+     * Descripción del evento
+     */
+    private String descripcion;
+
+    /**
+     * Fecha y hora del evento
+     */
+    private LocalDateTime fecha;
+
+    /**
+     * Capacidad máxima de asistentes (opcional)
+     */
+    private Integer capacidadMaxima;
+
+    /**
+     * Precio de la entrada (opcional)
+     */
+    private BigDecimal precioEntrada;
+
+    /**
+     * URL de la imagen del evento (opcional)
+     */
+    private String imagenUrl;
+
+    /**
+     * Dirección del lugar
+     */
+    private String direccion;
+
+    /**
+     * Comuna del lugar
+     */
+    private String comuna;
+
+    /**
+     * Latitud del lugar; solo se usa si la ubicación no existe
+     */
+    private BigDecimal latitud;
+
+    /**
+     * Longitud del lugar; solo se usa si la ubicación no existe
+     */
+    private BigDecimal longitud;
+}
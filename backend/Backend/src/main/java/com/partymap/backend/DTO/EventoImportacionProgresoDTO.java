@@ -0,0 +1,62 @@
+package com.partymap.backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de avance de POST /evento/importar; la respuesta lleva uno por línea (NDJSON).
+ * 
+ * USO:
+ * - Se escribe una línea al confirmar cada bloque de filas, con los totales acumulados
+ *   y las filas rechazadas de ese bloque
+ * - La última línea lleva terminado = true; si la importación se interrumpió, error indica
+ *   el motivo y los bloques ya informados quedan guardados
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoImportacionProgresoDTO {
+
+    /**
+     * Filas de datos leídas hasta ahora
+     */
+    private long filasProcesadas;
+
+    /**
+     * Eventos creados hasta ahora
+     */
+    private long eventosCreados;
+
+    /**
+     * Filas rechazadas hasta ahora
+     */
+    private long filasRechazadas;
+
+    /**
+     * Ubicaciones nuevas creadas hasta ahora
+     */
+    private long ubicacionesCreadas;
+
+    /**
+     * Ubicaciones que ya existían y se reutilizaron hasta ahora
+     */
+    private long ubicacionesReutilizadas;
+
+    /**
+     * Filas rechazadas del último bloque
+     */
+    private List<EventoImportacionErrorDTO> errores;
+
+    /**
+     * Indica que es la última línea de la respuesta
+     */
+    private boolean terminado;
+
+    /**
+     * Motivo por el que se interrumpió la importación, o null
+     */
+    private String error;
+}
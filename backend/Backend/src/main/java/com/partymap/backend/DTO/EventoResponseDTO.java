@@ -3,6 +3,9 @@ package com.partymap.backend.dto;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.partymap.backend.model.Evento;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -112,6 +115,71 @@ public class EventoResponseDTO {
      */
     private Boolean eventoProximo;
     
+    /**
+     * Distancia en kilómetros al punto consultado (solo en búsquedas por cercanía)
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distanciaKm;
+    
+    /**
+     * Constructor para las consultas de proyección (SELECT new ...) de EventoRepository.
+     * Recibe solo las columnas que expone la respuesta y calcula la disponibilidad con los
+     * mismos métodos de Evento, sin cargar la entidad en el contexto de persistencia.
+     */
+    public EventoResponseDTO(Long id, String nombre, String descripcion, LocalDateTime fecha,
+                             Integer capacidadMaxima, BigDecimal precioEntrada, String imagenUrl,
+                             Integer activo, LocalDateTime fechaCreacion, Integer entradasReservadas,
+                             Long ubicacionId, String direccion, String comuna, BigDecimal latitud,
+                             BigDecimal longitud, Integer ubicacionActivo, LocalDateTime ubicacionFechaCreacion,
+                             Long usuarioId, String usuarioNombre, String usuarioEmail, String usuarioRutProductor) {
+        this(id, nombre, descripcion, fecha, capacidadMaxima, precioEntrada, imagenUrl, activo, fechaCreacion,
+                entradasReservadas);
+        this.ubicacion = new UbicacionResponseDTO(ubicacionId, direccion, comuna, latitud, longitud,
+                ubicacionActivo, ubicacionFechaCreacion);
+        this.usuarioId = usuarioId;
+        this.usuarioNombre = usuarioNombre;
+        this.usuarioEmail = usuarioEmail;
+        this.usuarioRutProductor = usuarioRutProductor;
+    }
+    
+    /**
+     * Crea el evento sin ubicación ni productor (por ejemplo, el evento anidado en una reserva)
+     * @param entradasReservadas Contador de entradas reservadas del evento
+     */
+    public EventoResponseDTO(Long id, String nombre, String descripcion, LocalDateTime fecha,
+                             Integer capacidadMaxima, BigDecimal precioEntrada, String imagenUrl,
+                             Integer activo, LocalDateTime fechaCreacion, Integer entradasReservadas) {
+        this.id = id;
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+        this.fecha = fecha;
+        this.capacidadMaxima = capacidadMaxima;
+        this.precioEntrada = precioEntrada;
+        this.imagenUrl = imagenUrl;
+        this.activo = activo;
+        this.fechaCreacion = fechaCreacion;
+        
+        this.cuposDisponibles = Evento.cuposDisponibles(capacidadMaxima, entradasReservadas);
+        if (fecha != null) {
+            LocalDateTime ahora = LocalDateTime.now();
+            this.eventoPasado = Evento.eventoPasado(fecha, ahora);
+            this.eventoProximo = Evento.eventoProximo(fecha, ahora);
+            this.disponible = !this.eventoPasado && this.cuposDisponibles > 0;
+        }
+    }
+    
+    /**
+     * Crea una copia independiente de otra respuesta, incluida su ubicación
+     * (por ejemplo, para no compartir la guardada en caché)
+     */
+    public EventoResponseDTO(EventoResponseDTO otro) {
+        this(otro.id, otro.nombre, otro.descripcion, otro.fecha, otro.capacidadMaxima, otro.precioEntrada,
+                otro.imagenUrl, otro.activo, otro.fechaCreacion,
+                otro.ubicacion != null ? new UbicacionResponseDTO(otro.ubicacion) : null,
+                otro.usuarioId, otro.usuarioNombre, otro.usuarioEmail, otro.usuarioRutProductor,
+                otro.cuposDisponibles, otro.disponible, otro.eventoPasado, otro.eventoProximo, otro.distanciaKm);
+    }
+    
     // Getters manuales para asegurar compatibilidad
     public Long getId() { return id; }
     public String getNombre() { return nombre; }
@@ -131,6 +199,7 @@ public class EventoResponseDTO {
     public Boolean getDisponible() { return disponible; }
     public Boolean getEventoPasado() { return eventoPasado; }
     public Boolean getEventoProximo() { return eventoProximo; }
+    public Double getDistanciaKm() { return distanciaKm; }
     
     // Setters manuales para asegurar compatibilidad
     public void setId(Long id) { this.id = id; }
@@ -151,4 +220,5 @@ public class EventoResponseDTO {
     public void setDisponible(Boolean disponible) { this.disponible = disponible; }
     public void setEventoPasado(Boolean eventoPasado) { this.eventoPasado = eventoPasado; }
     public void setEventoProximo(Boolean eventoProximo) { this.eventoProximo = eventoProximo; }
+    public void setDistanciaKm(Double distanciaKm) { this.distanciaKm = distanciaKm; }
 } 
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.partymap.backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de respuesta del mapa de eventos para un área visible y nivel de zoom.
+ * 
+ * USO:
+ * - Respuesta de GET /evento/mapa
+ * - En zoom bajo se informan grupos (clusters) y la lista de eventos va vacía
+ * - En zoom alto se informan los eventos individuales y la lista de grupos va vacía
+ * - El tamaño de la respuesta depende del área visible, no del total de eventos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MapaEventosDTO {
+
+    /**
+     * Nivel de zoom solicitado
+     */
+    private int zoom;
+
+    /**
+     * Cantidad total de eventos dentro del área visible
+     */
+    private int totalEventos;
+
+    /**
+     * Grupos de eventos (zoom bajo)
+     */
+    private List<ClusterMapaDTO> clusters;
+
+    /**
+     * Eventos individuales (zoom alto)
+     */
+    private List<EventoResponseDTO> eventos;
+}
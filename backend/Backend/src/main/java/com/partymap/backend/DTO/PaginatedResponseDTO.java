@@ -1,6 +1,11 @@
 package com.partymap.backend.dto;
 
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,6 +18,8 @@ import lombok.NoArgsConstructor;
  * USO:
  * - Responder consultas de listas grandes (eventos, reservas, usuarios, etc.)
  * - Incluye información de página actual, total de elementos y navegación
+ * - En la paginación por cursor los totales se informan como -1, ya que no se calculan
+ *   para no recorrer la tabla completa; la navegación se hace con siguienteCursor
  */
 @Data
 @NoArgsConstructor
@@ -63,4 +70,64 @@ public class PaginatedResponseDTO<T> {
      * Indica si hay una página anterior
      */
     private boolean tieneAnterior;
-} 
\ No newline at end of file
+    
+    /**
+     * Cursor opaco para solicitar la página siguiente (null si no hay más elementos).
+     * Solo se informa en la paginación por cursor
+     */
+    private String siguienteCursor;
+
+    /**
+     * Construye la respuesta a partir de una página de Spring Data, convirtiendo cada elemento
+     * @param page Página obtenida del repositorio
+     * @param conversor Función que convierte cada entidad a su DTO
+     * @return Respuesta paginada con el contenido convertido
+     */
+    public static <E, T> PaginatedResponseDTO<T> desdePagina(Page<E> page, Function<E, T> conversor) {
+        List<T> contenido = page.getContent().stream()
+                .map(conversor)
+                .collect(Collectors.toList());
+        return new PaginatedResponseDTO<>(
+                contenido,
+                page.getNumber(),
+                page.getSize(),
+                page.getTotalElements(),
+                page.getTotalPages(),
+                page.isFirst(),
+                page.isLast(),
+                page.hasNext(),
+                page.hasPrevious(),
+                null);
+    }
+
+    /**
+     * Construye la respuesta de una página obtenida por cursor
+     * @param slice Porción de resultados obtenida desde el cursor
+     * @param conversor Función que convierte cada entidad a su DTO
+     * @param cursorDe Función que obtiene el cursor de una entidad (se aplica a la última de la página)
+     * @param primera Indica si la página se pidió sin cursor
+     * @return Respuesta paginada con el cursor de la página siguiente
+     */
+    public static <E, T> PaginatedResponseDTO<T> desdeCursor(Slice<E> slice, Function<E, T> conversor,
+            Function<E, CursorPaginacion> cursorDe, boolean primera) {
+        List<E> elementos = slice.getContent();
+        List<T> contenido = elementos.stream()
+                .map(conversor)
+                .collect(Collectors.toList());
+        String siguienteCursor = slice.hasNext() && !elementos.isEmpty()
+                ? cursorDe.apply(elementos.get(elementos.size() - 1)).codificar()
+                : null;
+
+        PaginatedResponseDTO<T> respuesta = new PaginatedResponseDTO<>();
+        respuesta.setContenido(contenido);
+        respuesta.setTamanio(slice.getSize());
+        respuesta.setTotalElementos(-1);
+        respuesta.setTotalPaginas(-1);
+        respuesta.setPrimera(primera);
+        respuesta.setUltima(!slice.hasNext());
+        respuesta.setTieneSiguiente(slice.hasNext());
+        respuesta.setTieneAnterior(!primera);
+        respuesta.setSiguienteCursor(siguienteCursor);
+        return respuesta;
+    }
+}
@@ -0,0 +1,65 @@
+package com.partymap.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.partymap.backend.model.EstadoReserva;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO plano de una reserva para las exportaciones de asistentes.
+ * 
+ * USO:
+ * - Filas de GET /reserva/evento/{eventoId}/export y GET /reserva/productor/export (CSV o NDJSON)
+ * - En CSV las columnas siguen el orden de COLUMNAS
+ */
+@Data
+@NoArgsConstructor
+@JsonPropertyOrder({ "reservaId", "eventoId", "eventoNombre", "eventoFecha", "usuarioId", "usuarioNombre",
+        "usuarioEmail", "cantidad", "precioUnitario", "precioTotal", "estado", "fechaReserva" })
+public class ReservaExportacionDTO {
+
+    /**
+     * Encabezados del CSV, en el mismo orden que las propiedades JSON
+     */
+    public static final List<String> COLUMNAS = List.of(
+            "reservaId", "eventoId", "eventoNombre", "eventoFecha", "usuarioId", "usuarioNombre",
+            "usuarioEmail", "cantidad", "precioUnitario", "precioTotal", "estado", "fechaReserva");
+
+    private Long reservaId;
+
+    private Long eventoId;
+
+    private String eventoNombre;
+
+    private LocalDateTime eventoFecha;
+
+    private Long usuarioId;
+
+    private String usuarioNombre;
+
+    private String usuarioEmail;
+
+    private Integer cantidad;
+
+    private BigDecimal precioUnitario;
+
+    private BigDecimal precioTotal;
+
+    private EstadoReserva estado;
+
+    private LocalDateTime fechaReserva;
+
+    /**
+     * Valores de la fila en el orden de COLUMNAS
+     */
+    public List<Object> valores() {
+        return Arrays.asList(reservaId, eventoId, eventoNombre, eventoFecha, usuarioId, usuarioNombre,
+                usuarioEmail, cantidad, precioUnitario, precioTotal, estado, fechaReserva);
+    }
+}
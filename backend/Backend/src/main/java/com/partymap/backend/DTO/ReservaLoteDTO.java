@@ -0,0 +1,26 @@
+package com.partymap.backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de entrada para crear varias reservas en una sola solicitud.
+ * 
+ * USO:
+ * - Cuerpo de POST /reserva/lote
+ * - Cada elemento tiene los mismos campos que POST /reserva/crear (sin id)
+ * - Un CLIENTE solo reserva para sí mismo: se ignora el usuarioId de cada elemento
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaLoteDTO {
+
+    /**
+     * Reservas a crear, para uno o varios eventos
+     */
+    private List<ReservaDTO> reservas;
+}
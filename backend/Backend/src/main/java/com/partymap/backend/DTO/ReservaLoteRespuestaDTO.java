@@ -0,0 +1,40 @@
+package com.partymap.backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de respuesta de POST /reserva/lote.
+ * 
+ * USO:
+ * - Un resultado por cada reserva solicitada, en el mismo orden
+ * - Los totales permiten saber sin recorrer la lista si hubo rechazos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaLoteRespuestaDTO {
+
+    /**
+     * Reservas solicitadas
+     */
+    private int total;
+
+    /**
+     * Reservas creadas
+     */
+    private int creadas;
+
+    /**
+     * Reservas rechazadas
+     */
+    private int rechazadas;
+
+    /**
+     * Resultado de cada reserva solicitada
+     */
+    private List<ReservaLoteResultadoDTO> resultados;
+}
@@ -0,0 +1,38 @@
+package com.partymap.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resultado de una reserva dentro de un lote.
+ * 
+ * USO:
+ * - Elemento de ReservaLoteRespuestaDTO (POST /reserva/lote)
+ * - Si se creó, incluye la reserva; si se rechazó, el motivo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaLoteResultadoDTO {
+
+    /**
+     * Posición de la reserva en la solicitud (desde 0)
+     */
+    private int indice;
+
+    /**
+     * Indica si la reserva se creó
+     */
+    private boolean creada;
+
+    /**
+     * Reserva creada (null si se rechazó)
+     */
+    private ReservaResponseDTO reserva;
+
+    /**
+     * Motivo del rechazo (null si se creó)
+     */
+    private String error;
+}
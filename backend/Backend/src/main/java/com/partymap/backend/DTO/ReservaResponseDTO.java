@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 import com.partymap.backend.model.EstadoReserva;
+import com.partymap.backend.model.TipoUsuario;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -83,6 +84,40 @@ public class ReservaResponseDTO {
      */
     private EventoResponseDTO evento;
     
+    /**
+     * Constructor para las consultas de proyección (SELECT new ...) de ReservaRepository.
+     * Recibe solo las columnas que expone la respuesta, incluyendo el usuario y el evento anidados.
+     */
+    public ReservaResponseDTO(Long id, Integer cantidad, LocalDateTime fechaReserva, BigDecimal precioUnitario,
+                              BigDecimal precioTotal, String comentarios, EstadoReserva estado, Integer activo,
+                              LocalDateTime fechaCreacion,
+                              Long usuarioId, String usuarioNombre, String usuarioEmail, TipoUsuario tipoUsuario,
+                              Integer usuarioActivo, LocalDateTime usuarioFechaCreacion,
+                              Long eventoId, String eventoNombre, String eventoDescripcion, LocalDateTime eventoFecha,
+                              Integer capacidadMaxima, BigDecimal precioEntrada, String imagenUrl,
+                              Integer eventoActivo, LocalDateTime eventoFechaCreacion, Integer entradasReservadas) {
+        this.id = id;
+        this.cantidad = cantidad;
+        this.fechaReserva = fechaReserva;
+        this.precioUnitario = precioUnitario;
+        this.precioTotal = precioTotal;
+        this.comentarios = comentarios;
+        this.estado = estado;
+        this.activo = activo;
+        this.fechaCreacion = fechaCreacion;
+        
+        this.usuario = new UsuarioResponseDTO();
+        this.usuario.setId(usuarioId);
+        this.usuario.setNombre(usuarioNombre);
+        this.usuario.setEmail(usuarioEmail);
+        this.usuario.setTipoUsuario(tipoUsuario);
+        this.usuario.setActivo(usuarioActivo);
+        this.usuario.setFechaCreacion(usuarioFechaCreacion);
+        
+        this.evento = new EventoResponseDTO(eventoId, eventoNombre, eventoDescripcion, eventoFecha, capacidadMaxima,
+                precioEntrada, imagenUrl, eventoActivo, eventoFechaCreacion, entradasReservadas);
+    }
+    
     // Getters y setters manuales para asegurar compatibilidad
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -0,0 +1,30 @@
+package com.partymap.backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de respuesta con un grupo de ubicaciones que corresponden a un mismo lugar.
+ * 
+ * USO:
+ * - Respuesta de GET /ubicacion/duplicados (solo administradores)
+ * - ubicacionIdSugerida es la más antigua del grupo: el destino propuesto para POST /ubicacion/{id}/fusionar
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UbicacionDuplicadasDTO {
+
+    /**
+     * ID de la ubicación que se sugiere conservar
+     */
+    private Long ubicacionIdSugerida;
+
+    /**
+     * Ubicaciones del grupo, ordenadas por ID
+     */
+    private List<UbicacionResponseDTO> ubicaciones;
+}
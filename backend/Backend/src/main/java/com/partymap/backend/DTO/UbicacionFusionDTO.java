@@ -0,0 +1,25 @@
+package com.partymap.backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de entrada para fusionar ubicaciones duplicadas en una sola.
+ * 
+ * USO:
+ * - Cuerpo de POST /ubicacion/{id}/fusionar (solo administradores)
+ * - Los eventos de cada duplicado pasan a la ubicación {id} y los duplicados se desactivan
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UbicacionFusionDTO {
+
+    /**
+     * IDs de las ubicaciones que se fusionan en la ubicación destino
+     */
+    private List<Long> duplicadoIds;
+}
@@ -56,6 +56,13 @@ public class UbicacionResponseDTO {
      */
     private LocalDateTime fechaCreacion;
     
+    /**
+     * Crea una copia independiente de otra respuesta (por ejemplo, para no compartir la guardada en caché)
+     */
+    public UbicacionResponseDTO(UbicacionResponseDTO otra) {
+        this(otra.id, otra.direccion, otra.comuna, otra.latitud, otra.longitud, otra.activo, otra.fechaCreacion);
+    }
+    
     // Getters manuales para asegurar compatibilidad
     public Long getId() { return id; }
     public String getDireccion() { return direccion; }
@@ -0,0 +1,46 @@
+package com.partymap.backend.events;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Evento de aplicación publicado cuando se crean, actualizan o eliminan eventos.
+ * Los componentes que mantienen datos derivados del catálogo (caché, índices)
+ * lo reciben una vez confirmada la transacción.
+ *
+ * Un cambio puede abarcar varios eventos (por ejemplo, un bloque de la importación masiva),
+ * así los índices los recargan con una sola consulta. Los IDs de un cambio van en un solo
+ * IN (...), por lo que no deben superar los 1000 que admite Oracle.
+ */
+public class EventoCambiadoEvent {
+
+    /**
+     * Tipo de cambio realizado sobre los eventos
+     */
+    public enum TipoCambio {
+        CREADO,
+        ACTUALIZADO,
+        ELIMINADO
+    }
+
+    private final List<Long> eventoIds;
+    private final TipoCambio tipo;
+
+    public EventoCambiadoEvent(Long eventoId, TipoCambio tipo) {
+        this(eventoId != null ? List.of(eventoId) : List.of(), tipo);
+    }
+
+    public EventoCambiadoEvent(Collection<Long> eventoIds, TipoCambio tipo) {
+        this.eventoIds = eventoIds.stream().filter(Objects::nonNull).toList();
+        this.tipo = tipo;
+    }
+
+    public List<Long> getEventoIds() {
+        return eventoIds;
+    }
+
+    public TipoCambio getTipo() {
+        return tipo;
+    }
+}
@@ -0,0 +1,74 @@
+package com.partymap.backend.events;
+
+import java.math.BigDecimal;
+
+import com.partymap.backend.model.Reserva;
+
+/**
+ * Evento de aplicación publicado cuando una reserva cambia de forma que afecta
+ * los cupos de su evento (creación, cambio de cantidad, cancelación, reactivación o eliminación).
+ *
+ * Incluye el resumen de la reserva antes y después del cambio, para que las estadísticas
+ * se actualicen con la diferencia sin volver a leer la base de datos.
+ */
+public class ReservaCambiadaEvent {
+
+    /**
+     * Datos de una reserva que cuentan para las estadísticas, tomados en un momento dado
+     * @param vigente La reserva no está eliminada (activo = 1)
+     * @param reservada Estado RESERVADA
+     * @param cancelada Estado CANCELADA
+     * @param cantidad Entradas de la reserva
+     * @param precioTotal Precio total de la reserva
+     */
+    public record Resumen(boolean vigente, boolean reservada, boolean cancelada, int cantidad, BigDecimal precioTotal) {
+
+        public static Resumen de(Reserva reserva) {
+            BigDecimal precioTotal = reserva.getPrecioTotal() != null
+                    ? reserva.getPrecioTotal()
+                    : reserva.calcularPrecioTotal();
+            return new Resumen(
+                    reserva.getActivo() == null || reserva.getActivo() == 1,
+                    reserva.isActiva(),
+                    reserva.isCancelada(),
+                    reserva.getCantidad() != null ? reserva.getCantidad() : 0,
+                    precioTotal);
+        }
+    }
+
+    private final Long reservaId;
+    private final Long eventoId;
+    private final Resumen anterior;
+    private final Resumen actual;
+
+    public ReservaCambiadaEvent(Long reservaId, Long eventoId) {
+        this(reservaId, eventoId, null, null);
+    }
+
+    /**
+     * @param anterior Resumen antes del cambio (null si la reserva es nueva)
+     * @param actual Resumen después del cambio
+     */
+    public ReservaCambiadaEvent(Long reservaId, Long eventoId, Resumen anterior, Resumen actual) {
+        this.reservaId = reservaId;
+        this.eventoId = eventoId;
+        this.anterior = anterior;
+        this.actual = actual;
+    }
+
+    public Long getReservaId() {
+        return reservaId;
+    }
+
+    public Long getEventoId() {
+        return eventoId;
+    }
+
+    public Resumen getAnterior() {
+        return anterior;
+    }
+
+    public Resumen getActual() {
+        return actual;
+    }
+}
@@ -0,0 +1,28 @@
+package com.partymap.backend.events;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Evento de aplicación publicado cuando se crean, actualizan o eliminan ubicaciones.
+ * Permite refrescar los datos derivados de los eventos realizados en ellas.
+ *
+ * Como en EventoCambiadoEvent, un cambio puede abarcar varias ubicaciones (hasta 1000).
+ */
+public class UbicacionCambiadaEvent {
+
+    private final List<Long> ubicacionIds;
+
+    public UbicacionCambiadaEvent(Long ubicacionId) {
+        this(ubicacionId != null ? List.of(ubicacionId) : List.of());
+    }
+
+    public UbicacionCambiadaEvent(Collection<Long> ubicacionIds) {
+        this.ubicacionIds = ubicacionIds.stream().filter(Objects::nonNull).toList();
+    }
+
+    public List<Long> getUbicacionIds() {
+        return ubicacionIds;
+    }
+}
@@ -0,0 +1,19 @@
+package com.partymap.backend.exceptions;
+
+
+/**
+ * Un servicio externo o un recurso limitado no puede atender la llamada (circuito abierto o sin cupo,
+ * como las exportaciones simultáneas); se responde 503
+ */
+public class ServicioNoDisponibleException extends RuntimeException {
+
+    private static final long serialVersionUID = 1;
+
+    public ServicioNoDisponibleException(String message) {
+        super(message);
+    }
+
+    public ServicioNoDisponibleException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
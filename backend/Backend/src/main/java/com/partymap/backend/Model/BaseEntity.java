@@ -20,6 +20,12 @@ import lombok.Setter;
 @Getter
 @Setter
 public abstract class BaseEntity {
+
+    /**
+     * IDs que Hibernate reserva con cada NEXTVAL (optimizador pooled).
+     * Debe coincidir con el INCREMENT BY de las secuencias (db/04_secuencias_pooled.sql)
+     */
+    public static final int TAMANIO_BLOQUE_IDS = 50;
     
     /**
      * Indica si la entidad está activa en el sistema.
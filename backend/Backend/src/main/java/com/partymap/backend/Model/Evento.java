@@ -24,6 +24,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
  * Entidad central que representa un evento en el sistema PartyMap.
@@ -43,7 +44,7 @@ public class Evento extends BaseEntity {
      */
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_seq")
-    @SequenceGenerator(name = "evento_seq", sequenceName = "EVENTO_SEQ", allocationSize = 1)
+    @SequenceGenerator(name = "evento_seq", sequenceName = "EVENTO_SEQ", allocationSize = TAMANIO_BLOQUE_IDS)
     private Long id;
     
     /**
@@ -75,6 +76,15 @@ public class Evento extends BaseEntity {
     @Column(name = "capacidad_maxima")
     private Integer capacidadMaxima;
     
+    /**
+     * Total de entradas con reservas vigentes (estado RESERVADA y activas).
+     * Es un contador desnormalizado que mantiene ReservaServiceImpl mediante
+     * actualizaciones atómicas; no se escribe al actualizar la entidad para
+     * no pisar incrementos concurrentes con un valor obsoleto.
+     */
+    @Column(name = "entradas_reservadas", nullable = false, updatable = false)
+    private Integer entradasReservadas = 0;
+    
     /**
      * Precio de entrada al evento
      */
@@ -90,7 +100,7 @@ public class Evento extends BaseEntity {
     /**
      * Ubicación donde se realizará el evento
      */
-    @ManyToOne(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "ubicacion_id", referencedColumnName = "id", nullable = false)
     @NotNull(message = "La ubicación es obligatoria")
     private Ubicacion ubicacion;
@@ -98,7 +108,7 @@ public class Evento extends BaseEntity {
     /**
      * Usuario productor responsable de organizar el evento
      */
-    @ManyToOne(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "usuario_id", referencedColumnName = "id", nullable = false)
     @NotNull(message = "El usuario productor es obligatorio")
     private Usuario usuario;
@@ -107,6 +117,8 @@ public class Evento extends BaseEntity {
      * Lista de reservas realizadas para este evento
      */
     @OneToMany(mappedBy = "evento", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<Reserva> reservas = new ArrayList<>();
     
     // Getters y setters explícitos para evitar problemas con Lombok
@@ -125,6 +137,9 @@ public class Evento extends BaseEntity {
     public Integer getCapacidadMaxima() { return capacidadMaxima; }
     public void setCapacidadMaxima(Integer capacidadMaxima) { this.capacidadMaxima = capacidadMaxima; }
     
+    public Integer getEntradasReservadas() { return entradasReservadas; }
+    public void setEntradasReservadas(Integer entradasReservadas) { this.entradasReservadas = entradasReservadas; }
+    
     public BigDecimal getPrecioEntrada() { return precioEntrada; }
     public void setPrecioEntrada(BigDecimal precioEntrada) { this.precioEntrada = precioEntrada; }
     
@@ -169,43 +184,61 @@ public class Evento extends BaseEntity {
      * (no ha pasado y tiene cupos disponibles)
      */
     public boolean isDisponible() {
-        return !isEventoPasado() && 
-               (capacidadMaxima == null || getCantidadReservasActivas() < capacidadMaxima);
+        return !isEventoPasado() && getCuposDisponibles() > 0;
     }
     
     /**
-     * Calcula el total de reservas activas para el evento
+     * Obtiene el total de entradas reservadas para el evento.
+     * Se lee del contador desnormalizado, sin inicializar la colección de reservas
      */
     public int getCantidadReservasActivas() {
-        return reservas.stream()
-                .filter(Reserva::isActiva)
-                .mapToInt(Reserva::getCantidad)
-                .sum();
+        return entradasReservadas != null ? entradasReservadas : 0;
     }
     
     /**
      * Calcula los cupos disponibles para el evento
      */
     public int getCuposDisponibles() {
-        if (capacidadMaxima == null) {
-            return Integer.MAX_VALUE;
-        }
-        return Math.max(0, capacidadMaxima - getCantidadReservasActivas());
+        return cuposDisponibles(capacidadMaxima, entradasReservadas);
     }
     
     /**
      * Verifica si el evento ya pasó
      */
     public boolean isEventoPasado() {
-        return fecha.isBefore(LocalDateTime.now());
+        return eventoPasado(fecha, LocalDateTime.now());
     }
     
     /**
      * Verifica si el evento es próximo (en las próximas 24 horas)
      */
     public boolean isEventoProximo() {
-        LocalDateTime ahora = LocalDateTime.now();
-        LocalDateTime proximo = ahora.plusHours(24);
-        return fecha.isAfter(ahora) && fecha.isBefore(proximo);
+        return eventoProximo(fecha, LocalDateTime.now());
+    }
+    
+    /**
+     * Cupos disponibles a partir de la capacidad y del contador de entradas reservadas.
+     * Sin capacidad máxima no hay límite. Lo usan también las proyecciones de EventoResponseDTO,
+     * que no cargan la entidad.
+     */
+    public static int cuposDisponibles(Integer capacidadMaxima, Integer entradasReservadas) {
+        if (capacidadMaxima == null) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(0, capacidadMaxima - (entradasReservadas != null ? entradasReservadas : 0));
+    }
+    
+    /**
+     * Indica si un evento con la fecha indicada ya pasó respecto de ahora
+     */
+    public static boolean eventoPasado(LocalDateTime fecha, LocalDateTime ahora) {
+        return fecha.isBefore(ahora);
+    }
+    
+    /**
+     * Indica si un evento con la fecha indicada ocurre dentro de las 24 horas siguientes a ahora
+     */
+    public static boolean eventoProximo(LocalDateTime fecha, LocalDateTime ahora) {
+        return fecha.isAfter(ahora) && fecha.isBefore(ahora.plusHours(24));
     }
 } 
\ No newline at end of file
@@ -3,7 +3,6 @@ package com.partymap.backend.model;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
-import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -23,6 +22,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
  * Entidad que representa una reserva de un usuario para un evento específico.
@@ -42,7 +42,7 @@ public class Reserva extends BaseEntity {
      */
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reserva_seq")
-    @SequenceGenerator(name = "reserva_seq", sequenceName = "RESERVA_SEQ", allocationSize = 1)
+    @SequenceGenerator(name = "reserva_seq", sequenceName = "RESERVA_SEQ", allocationSize = TAMANIO_BLOQUE_IDS)
     private Long id;
     
     /**
@@ -89,17 +89,21 @@ public class Reserva extends BaseEntity {
     /**
      * Usuario que realizó la reserva
      */
-    @ManyToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", referencedColumnName = "id", nullable = false)
     @NotNull(message = "El usuario es obligatorio")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Usuario usuario;
     
     /**
      * Evento para el cual se realizó la reserva
      */
-    @ManyToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "evento_id", referencedColumnName = "id", nullable = false)
     @NotNull(message = "El evento es obligatorio")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Evento evento;
     
     // Getters y setters explícitos para evitar problemas con Lombok
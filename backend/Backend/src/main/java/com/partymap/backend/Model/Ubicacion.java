@@ -24,6 +24,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
  * Entidad que representa una ubicación geográfica en el sistema PartyMap.
@@ -43,7 +44,7 @@ public class Ubicacion extends BaseEntity {
      */
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ubicacion_seq")
-    @SequenceGenerator(name = "ubicacion_seq", sequenceName = "UBICACION_SEQ", allocationSize = 1)
+    @SequenceGenerator(name = "ubicacion_seq", sequenceName = "UBICACION_SEQ", allocationSize = TAMANIO_BLOQUE_IDS)
     private Long id;
     
     /**
@@ -84,6 +85,8 @@ public class Ubicacion extends BaseEntity {
      * Lista de eventos que se realizan en esta ubicación
      */
     @OneToMany(mappedBy = "ubicacion", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<Evento> eventos = new ArrayList<>();
     
     // Getters y setters explícitos para evitar problemas con Lombok
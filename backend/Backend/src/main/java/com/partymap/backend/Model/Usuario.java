@@ -24,6 +24,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
  * Entidad que representa a un usuario en el sistema PartyMap.
@@ -50,7 +51,7 @@ public class Usuario extends BaseEntity {
      */
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuario_seq")
-    @SequenceGenerator(name = "usuario_seq", sequenceName = "USUARIO_SEQ", allocationSize = 1)
+    @SequenceGenerator(name = "usuario_seq", sequenceName = "USUARIO_SEQ", allocationSize = TAMANIO_BLOQUE_IDS)
     private Long id;
     
     /**
@@ -124,12 +125,16 @@ public class Usuario extends BaseEntity {
      * Lista de eventos creados por el usuario (solo si el usuario es productor)
      */
     @OneToMany(mappedBy = "usuario", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<Evento> eventos = new ArrayList<>();
     
     /**
      * Lista de reservas realizadas por el usuario
      */
     @OneToMany(mappedBy = "usuario", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<Reserva> reservas = new ArrayList<>();
     
     // Getters manuales para asegurar compatibilidad
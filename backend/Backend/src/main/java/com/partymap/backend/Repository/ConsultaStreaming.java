@@ -0,0 +1,21 @@
+package com.partymap.backend.repository;
+
+/**
+ * Parámetros comunes de las consultas que entregan un Stream de entidades
+ * para respuestas que se escriben a medida que se leen las filas.
+ */
+public final class ConsultaStreaming {
+
+    /**
+     * Filas que el driver JDBC trae por cada viaje a la base de datos (el valor por defecto de Oracle es 10)
+     */
+    public static final int TAMANIO_LOTE = 500;
+
+    /**
+     * TAMANIO_LOTE como texto, para usarlo en @QueryHint
+     */
+    public static final String TAMANIO_LOTE_HINT = "" + TAMANIO_LOTE;
+
+    private ConsultaStreaming() {
+    }
+}
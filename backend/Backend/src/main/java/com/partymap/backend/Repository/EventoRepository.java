@@ -1,20 +1,247 @@
 package com.partymap.backend.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.partymap.backend.dto.EstadisticasEventosDTO;
+import com.partymap.backend.dto.EventoResponseDTO;
 import com.partymap.backend.model.Evento;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * Repositorio para la entidad Evento.
  * Proporciona operaciones básicas de persistencia para eventos.
+ * Las búsquedas con filtros combinados se resuelven mediante EventoSpecifications.
  */
-public interface EventoRepository extends JpaRepository<Evento, Long> {
+public interface EventoRepository extends JpaRepository<Evento, Long>, JpaSpecificationExecutor<Evento> {
+
+    /**
+     * Obtiene todos los eventos con su ubicación y productor en la misma consulta
+     */
+    @Override
+    @EntityGraph(attributePaths = { "ubicacion", "usuario" })
+    List<Evento> findAll();
+
+    /**
+     * Obtiene un evento con su ubicación y productor en la misma consulta
+     */
+    @Override
+    @EntityGraph(attributePaths = { "ubicacion", "usuario" })
+    Optional<Evento> findById(Long id);
+
+    /**
+     * Obtiene varios eventos por ID con su ubicación y productor en la misma consulta
+     */
+    @Override
+    @EntityGraph(attributePaths = { "ubicacion", "usuario" })
+    List<Evento> findAllById(Iterable<Long> ids);
+
+    /**
+     * Obtiene los eventos que cumplen los filtros de búsqueda con su ubicación y productor
+     */
+    @Override
+    @EntityGraph(attributePaths = { "ubicacion", "usuario" })
+    List<Evento> findAll(Specification<Evento> especificacion);
+
+    /**
+     * Obtiene una página de eventos que cumplen los filtros de búsqueda con su ubicación y productor.
+     * El conteo de la página no lleva los JOIN
+     */
+    @Override
+    @EntityGraph(attributePaths = { "ubicacion", "usuario" })
+    Page<Evento> findAll(Specification<Evento> especificacion, Pageable pageable);
 
     /**
      * Busca eventos por ID de usuario
      * @param usuarioId ID del usuario
      * @return Lista de eventos del usuario
      */
+    @EntityGraph(attributePaths = { "ubicacion", "usuario" })
     List<Evento> findByUsuarioId(Long usuarioId);
+
+    /**
+     * Recorre los eventos activos ordenados por fecha e ID, leyendo las filas por lotes.
+     * El Stream debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @Query("SELECT e FROM Evento e JOIN FETCH e.ubicacion JOIN FETCH e.usuario "
+            + "WHERE e.activo = 1 ORDER BY e.fecha ASC, e.id ASC")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ConsultaStreaming.TAMANIO_LOTE_HINT),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    Stream<Evento> streamActivos();
+
+    /**
+     * Proyección de EventoResponseDTO: solo las columnas de la respuesta, sin cargar entidades
+     */
+    String SELECT_RESPUESTA = "SELECT new com.partymap.backend.dto.EventoResponseDTO("
+            + "e.id, e.nombre, e.descripcion, e.fecha, e.capacidadMaxima, e.precioEntrada, e.imagenUrl, "
+            + "e.activo, e.fechaCreacion, e.entradasReservadas, "
+            + "u.id, u.direccion, u.comuna, u.latitud, u.longitud, u.activo, u.fechaCreacion, "
+            + "p.id, p.nombre, p.email, p.rutProductor) "
+            + "FROM Evento e JOIN e.ubicacion u JOIN e.usuario p ";
+
+    /**
+     * Obtiene la respuesta de todos los eventos activos ordenados por ID
+     */
+    @Query(SELECT_RESPUESTA + "WHERE e.activo = 1 ORDER BY e.id ASC")
+    List<EventoResponseDTO> findRespuestasActivos();
+
+    /**
+     * Obtiene la respuesta de la primera página de eventos activos ordenados por fecha e ID
+     */
+    @Query(SELECT_RESPUESTA + "WHERE e.activo = 1 ORDER BY e.fecha ASC, e.id ASC")
+    Slice<EventoResponseDTO> findRespuestasPrimeraPaginaActivos(Pageable pageable);
+
+    /**
+     * Obtiene la respuesta de la página de eventos activos posterior al cursor (fecha, id)
+     */
+    @Query(SELECT_RESPUESTA + "WHERE e.activo = 1 AND (e.fecha > :fecha OR (e.fecha = :fecha AND e.id > :id)) "
+            + "ORDER BY e.fecha ASC, e.id ASC")
+    Slice<EventoResponseDTO> findRespuestasPaginaActivosDesde(@Param("fecha") LocalDateTime fecha,
+            @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Obtiene la respuesta de los eventos activos con fecha en [desde, hasta), ordenados por fecha e ID
+     */
+    @Query(SELECT_RESPUESTA + "WHERE e.activo = 1 AND e.fecha >= :desde AND e.fecha < :hasta "
+            + "ORDER BY e.fecha ASC, e.id ASC")
+    List<EventoResponseDTO> findRespuestasActivosEntreFechas(@Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta, Pageable pageable);
+
+    /**
+     * Obtiene la respuesta de los eventos activos desde una fecha que todavía tienen cupos
+     */
+    @Query(SELECT_RESPUESTA + "WHERE e.activo = 1 AND e.fecha >= :desde "
+            + "AND (e.capacidadMaxima IS NULL OR e.entradasReservadas < e.capacidadMaxima) "
+            + "ORDER BY e.fecha ASC, e.id ASC")
+    List<EventoResponseDTO> findRespuestasDisponiblesDesde(@Param("desde") LocalDateTime desde);
+
+    /**
+     * Obtiene los eventos activos con fecha en [desde, hasta), ordenados por fecha e ID.
+     * Se resuelve como un recorrido por rango del índice IDX_EVENTO_ACTIVO_FECHA_ID.
+     * @param desde Fecha inicial (inclusiva)
+     * @param hasta Fecha final (exclusiva)
+     * @param pageable Cantidad máxima de eventos (siempre desde el inicio)
+     * @return Lista de eventos del rango
+     */
+    @Query("SELECT e FROM Evento e JOIN FETCH e.ubicacion JOIN FETCH e.usuario "
+            + "WHERE e.activo = 1 AND e.fecha >= :desde AND e.fecha < :hasta ORDER BY e.fecha ASC, e.id ASC")
+    List<Evento> findActivosEntreFechas(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta,
+                                        Pageable pageable);
+
+    /**
+     * Obtiene los eventos activos desde una fecha que todavía tienen cupos, ordenados por fecha e ID.
+     * Los eventos pasados quedan fuera del rango recorrido en el índice IDX_EVENTO_ACTIVO_FECHA_ID.
+     * @param desde Fecha a partir de la cual se consideran los eventos (normalmente ahora)
+     * @return Lista de eventos disponibles para reservar
+     */
+    @Query("SELECT e FROM Evento e JOIN FETCH e.ubicacion JOIN FETCH e.usuario "
+            + "WHERE e.activo = 1 AND e.fecha >= :desde "
+            + "AND (e.capacidadMaxima IS NULL OR e.entradasReservadas < e.capacidadMaxima) "
+            + "ORDER BY e.fecha ASC, e.id ASC")
+    List<Evento> findDisponiblesDesde(@Param("desde") LocalDateTime desde);
+
+    /**
+     * Calcula los conteos del panel de estadísticas en una sola consulta, sin cargar eventos.
+     * Disponibles, próximos y pasados se cuentan solo entre los eventos activos.
+     * @param usuarioId ID del productor, o null para contar todos los eventos
+     * @param ahora Fecha de referencia
+     * @param limiteProximos Fecha hasta la que un evento se considera próximo
+     */
+    @Query("SELECT new com.partymap.backend.dto.EstadisticasEventosDTO("
+            + "COUNT(e), "
+            + "SUM(CASE WHEN e.activo = 1 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN e.activo = 0 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN e.activo = 1 AND e.fecha >= :ahora AND (e.capacidadMaxima IS NULL "
+            + "OR e.entradasReservadas < e.capacidadMaxima) THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN e.activo = 1 AND e.fecha > :ahora AND e.fecha < :limiteProximos THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN e.activo = 1 AND e.fecha < :ahora THEN 1 ELSE 0 END)) "
+            + "FROM Evento e WHERE (:usuarioId IS NULL OR e.usuario.id = :usuarioId)")
+    EstadisticasEventosDTO contarEstadisticas(@Param("usuarioId") Long usuarioId, @Param("ahora") LocalDateTime ahora,
+                                              @Param("limiteProximos") LocalDateTime limiteProximos);
+
+    /**
+     * Ajusta de forma atómica el contador de entradas reservadas de un evento
+     * @param id ID del evento
+     * @param delta Entradas a sumar (positivo) o liberar (negativo)
+     * @return Cantidad de filas actualizadas (0 si el evento no existe)
+     */
+    @Modifying
+    @Query("UPDATE Evento e SET e.entradasReservadas = e.entradasReservadas + :delta WHERE e.id = :id")
+    int ajustarEntradasReservadas(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * Reserva entradas de un evento solo si quedan cupos suficientes.
+     * La verificación y el incremento ocurren en una única sentencia UPDATE, por lo que
+     * dos compras concurrentes (incluso desde distintas instancias) no pueden sobrevender:
+     * la segunda espera el bloqueo de fila y vuelve a evaluar la condición.
+     * @param id ID del evento
+     * @param cantidad Entradas a reservar (mayor a 0)
+     * @return 1 si se reservaron las entradas, 0 si no hay cupos o el evento no está activo
+     */
+    @Modifying
+    @Query("UPDATE Evento e SET e.entradasReservadas = e.entradasReservadas + :cantidad "
+            + "WHERE e.id = :id AND e.activo = 1 "
+            + "AND (e.capacidadMaxima IS NULL OR e.entradasReservadas + :cantidad <= e.capacidadMaxima)")
+    int reservarEntradas(@Param("id") Long id, @Param("cantidad") int cantidad);
+
+    /**
+     * Obtiene las coordenadas de todos los eventos activos como filas [id, latitud, longitud],
+     * sin cargar las entidades. Se usa para construir el índice espacial.
+     */
+    @Query("SELECT e.id, u.latitud, u.longitud FROM Evento e JOIN e.ubicacion u WHERE e.activo = 1")
+    List<Object[]> findCoordenadasActivos();
+
+    /**
+     * Obtiene las coordenadas de los eventos indicados que estén activos, como filas [id, latitud, longitud]
+     * @param ids IDs de los eventos
+     */
+    @Query("SELECT e.id, u.latitud, u.longitud FROM Evento e JOIN e.ubicacion u WHERE e.id IN :ids AND e.activo = 1")
+    List<Object[]> findCoordenadasActivosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Obtiene las coordenadas de los eventos activos de las ubicaciones indicadas, como filas [id, latitud, longitud]
+     * @param ubicacionIds IDs de las ubicaciones
+     */
+    @Query("SELECT e.id, u.latitud, u.longitud FROM Evento e JOIN e.ubicacion u "
+            + "WHERE u.id IN :ubicacionIds AND e.activo = 1")
+    List<Object[]> findCoordenadasActivosByUbicacionIdIn(@Param("ubicacionIds") Collection<Long> ubicacionIds);
+
+    /**
+     * Obtiene eventos activos por ID junto con su ubicación y productor en una sola consulta
+     * @param ids IDs de los eventos
+     */
+    @Query("SELECT e FROM Evento e JOIN FETCH e.ubicacion JOIN FETCH e.usuario WHERE e.id IN :ids AND e.activo = 1")
+    List<Evento> findActivosConDetalleByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Obtiene los textos de todos los eventos activos como filas [id, usuarioId, nombre, descripcion].
+     * Se usa para construir el índice de texto.
+     */
+    @Query("SELECT e.id, e.usuario.id, e.nombre, e.descripcion FROM Evento e WHERE e.activo = 1")
+    List<Object[]> findTextosActivos();
+
+    /**
+     * Obtiene los textos de los eventos indicados que estén activos, como filas [id, usuarioId, nombre, descripcion]
+     * @param ids IDs de los eventos
+     */
+    @Query("SELECT e.id, e.usuario.id, e.nombre, e.descripcion FROM Evento e WHERE e.id IN :ids AND e.activo = 1")
+    List<Object[]> findTextosActivosByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,115 @@
+package com.partymap.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.partymap.backend.dto.EventoFiltroDTO;
+import com.partymap.backend.model.Evento;
+import com.partymap.backend.model.Ubicacion;
+
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Especificaciones JPA para la búsqueda de eventos.
+ * Traduce los criterios de EventoFiltroDTO a una única sentencia SQL,
+ * de modo que el filtrado, el ordenamiento y la paginación se resuelven en la base de datos.
+ */
+public final class EventoSpecifications {
+
+    private EventoSpecifications() {
+    }
+
+    /**
+     * Construye la especificación para cualquier combinación de filtros.
+     * Solo se consideran eventos activos.
+     * @param filtro Criterios de búsqueda (los campos nulos se ignoran)
+     * @param ahora Instante de referencia para el filtro de disponibilidad
+     * @return Especificación lista para usar con JpaSpecificationExecutor
+     */
+    public static Specification<Evento> conFiltro(EventoFiltroDTO filtro, LocalDateTime ahora) {
+        return (root, query, cb) -> {
+            // En la consulta de datos se traen ubicación y productor en el mismo SELECT;
+            // en la consulta de conteo basta con un join simple
+            boolean esConteo = Long.class.equals(query.getResultType()) || long.class.equals(query.getResultType());
+            From<Evento, Ubicacion> ubicacion = null;
+            if (!esConteo) {
+                ubicacion = unirUbicacion(root);
+                root.fetch("usuario", JoinType.INNER);
+            }
+
+            List<Predicate> predicados = new ArrayList<>();
+            predicados.add(cb.equal(root.get("activo"), 1));
+
+            if (tieneTexto(filtro.getNombre())) {
+                predicados.add(cb.like(cb.lower(root.get("nombre")), patronContiene(filtro.getNombre())));
+            }
+
+            if (tieneTexto(filtro.getComuna())) {
+                if (ubicacion == null) {
+                    ubicacion = root.join("ubicacion", JoinType.INNER);
+                }
+                predicados.add(cb.like(cb.lower(ubicacion.get("comuna")), patronContiene(filtro.getComuna())));
+            }
+
+            if (filtro.getUsuarioId() != null) {
+                predicados.add(cb.equal(root.get("usuario").get("id"), filtro.getUsuarioId()));
+            }
+
+            if (filtro.getFechaDesde() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("fecha"), filtro.getFechaDesde()));
+            }
+
+            if (filtro.getFechaHasta() != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("fecha"), filtro.getFechaHasta()));
+            }
+
+            if (filtro.getPrecioMinimo() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("precioEntrada"), filtro.getPrecioMinimo()));
+            }
+
+            if (filtro.getPrecioMaximo() != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("precioEntrada"), filtro.getPrecioMaximo()));
+            }
+
+            if (Boolean.TRUE.equals(filtro.getSoloDisponibles())) {
+                // Equivalente a Evento::isDisponible: no ha pasado y tiene cupos
+                predicados.add(cb.greaterThanOrEqualTo(root.get("fecha"), ahora));
+                predicados.add(cb.or(
+                        cb.isNull(root.get("capacidadMaxima")),
+                        cb.lessThan(root.<Integer>get("entradasReservadas"), root.<Integer>get("capacidadMaxima"))));
+            }
+
+            return cb.and(predicados.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Restringe la búsqueda a un conjunto de eventos (por ejemplo, los encontrados por el índice de texto)
+     * @param ids IDs permitidos; si está vacío no coincide ningún evento
+     */
+    public static Specification<Evento> conIds(Collection<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static From<Evento, Ubicacion> unirUbicacion(Root<Evento> root) {
+        // Un fetch también es un join, así se reutiliza para filtrar por comuna
+        return (Join<Evento, Ubicacion>) root.<Evento, Ubicacion>fetch("ubicacion", JoinType.INNER);
+    }
+
+    private static boolean tieneTexto(String valor) {
+        return valor != null && !valor.trim().isEmpty();
+    }
+
+    private static String patronContiene(String valor) {
+        return "%" + valor.trim().toLowerCase() + "%";
+    }
+}
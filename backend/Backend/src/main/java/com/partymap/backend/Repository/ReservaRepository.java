@@ -1,9 +1,174 @@
 package com.partymap.backend.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.partymap.backend.dto.ReservaResponseDTO;
+import com.partymap.backend.model.EstadoReserva;
 import com.partymap.backend.model.Reserva;
 
+import jakarta.persistence.QueryHint;
+
 public interface  ReservaRepository  extends JpaRepository<Reserva,Long> {
 
+    /**
+     * Obtiene todas las reservas con su usuario, su evento y los datos del evento en la misma consulta.
+     * Los filtros de ReservaServiceImpl recorren estas asociaciones fuera de la transacción
+     */
+    @Override
+    @EntityGraph(attributePaths = { "usuario", "evento", "evento.ubicacion", "evento.usuario" })
+    List<Reserva> findAll();
+
+    /**
+     * Obtiene una reserva con su usuario y su evento ya cargados, listos para armar la respuesta
+     */
+    @Override
+    @EntityGraph(attributePaths = { "usuario", "evento", "evento.ubicacion", "evento.usuario" })
+    Optional<Reserva> findById(Long id);
+
+    /**
+     * Obtiene las reservas activas con ID mayor al cursor, ordenadas por ID.
+     * Para la primera página se usa idDesde = 0
+     */
+    @Query("SELECT r FROM Reserva r JOIN FETCH r.usuario JOIN FETCH r.evento "
+            + "WHERE r.activo = 1 AND r.id > :idDesde ORDER BY r.id ASC")
+    Slice<Reserva> findPaginaActivasDesde(@Param("idDesde") Long idDesde, Pageable pageable);
+
+    /**
+     * Obtiene las reservas activas de un usuario con ID mayor al cursor, ordenadas por ID.
+     * Para la primera página se usa idDesde = 0
+     */
+    @Query("SELECT r FROM Reserva r JOIN FETCH r.usuario JOIN FETCH r.evento "
+            + "WHERE r.activo = 1 AND r.usuario.id = :usuarioId AND r.id > :idDesde ORDER BY r.id ASC")
+    Slice<Reserva> findPaginaActivasDeUsuarioDesde(@Param("usuarioId") Long usuarioId,
+            @Param("idDesde") Long idDesde, Pageable pageable);
+
+    /**
+     * Indica si el usuario tiene una reserva en el estado y activo indicados para el evento.
+     * Usa el índice por usuario y se detiene en la primera fila, sin recorrer sus reservas
+     */
+    boolean existsByUsuarioIdAndEventoIdAndEstadoAndActivo(Long usuarioId, Long eventoId, EstadoReserva estado,
+            Integer activo);
+
+    /**
+     * Obtiene los pares [usuarioId, eventoId] que ya tienen una reserva activa (estado RESERVADA)
+     * entre los usuarios y eventos indicados, para validar un lote de reservas con una sola consulta
+     */
+    @Query("SELECT r.usuario.id, r.evento.id FROM Reserva r WHERE r.activo = 1 "
+            + "AND r.estado = com.partymap.backend.model.EstadoReserva.RESERVADA "
+            + "AND r.usuario.id IN :usuarioIds AND r.evento.id IN :eventoIds")
+    List<Object[]> findParesConReservaActiva(@Param("usuarioIds") Collection<Long> usuarioIds,
+            @Param("eventoIds") Collection<Long> eventoIds);
+
+    /**
+     * Recorre las reservas activas ordenadas por ID, leyendo las filas por lotes.
+     * El Stream debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @Query("SELECT r FROM Reserva r JOIN FETCH r.usuario JOIN FETCH r.evento e "
+            + "JOIN FETCH e.ubicacion JOIN FETCH e.usuario WHERE r.activo = 1 ORDER BY r.id ASC")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ConsultaStreaming.TAMANIO_LOTE_HINT),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    Stream<Reserva> streamActivas();
+
+    /**
+     * Recorre las reservas activas de un usuario ordenadas por ID, leyendo las filas por lotes.
+     * El Stream debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @Query("SELECT r FROM Reserva r JOIN FETCH r.usuario JOIN FETCH r.evento e "
+            + "JOIN FETCH e.ubicacion JOIN FETCH e.usuario WHERE r.activo = 1 AND r.usuario.id = :usuarioId "
+            + "ORDER BY r.id ASC")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ConsultaStreaming.TAMANIO_LOTE_HINT),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    Stream<Reserva> streamActivasDeUsuario(@Param("usuarioId") Long usuarioId);
+
+    /**
+     * Recorre las reservas activas de un evento ordenadas por ID, leyendo las filas por lotes.
+     * El Stream debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @Query("SELECT r FROM Reserva r JOIN FETCH r.usuario JOIN FETCH r.evento e "
+            + "WHERE r.activo = 1 AND e.id = :eventoId ORDER BY r.id ASC")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ConsultaStreaming.TAMANIO_LOTE_HINT),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    Stream<Reserva> streamActivasDeEvento(@Param("eventoId") Long eventoId);
+
+    /**
+     * Recorre las reservas activas de todos los eventos de un productor, agrupadas por evento,
+     * leyendo las filas por lotes. El Stream debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @Query("SELECT r FROM Reserva r JOIN FETCH r.usuario JOIN FETCH r.evento e "
+            + "WHERE r.activo = 1 AND e.usuario.id = :productorId ORDER BY e.fecha ASC, e.id ASC, r.id ASC")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ConsultaStreaming.TAMANIO_LOTE_HINT),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    Stream<Reserva> streamActivasDeProductor(@Param("productorId") Long productorId);
+
+    /**
+     * Recorre las reservas activas con fecha de reserva en (inicio, fin), ordenadas por fecha,
+     * leyendo las filas por lotes. El Stream debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @Query("SELECT r FROM Reserva r JOIN FETCH r.usuario JOIN FETCH r.evento e "
+            + "JOIN FETCH e.ubicacion JOIN FETCH e.usuario "
+            + "WHERE r.activo = 1 AND r.fechaReserva > :inicio AND r.fechaReserva < :fin "
+            + "ORDER BY r.fechaReserva ASC, r.id ASC")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ConsultaStreaming.TAMANIO_LOTE_HINT),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    Stream<Reserva> streamActivasEntreFechas(@Param("inicio") LocalDateTime inicio, @Param("fin") LocalDateTime fin);
+
+    /**
+     * Proyección de ReservaResponseDTO: solo las columnas de la respuesta, sin cargar entidades
+     */
+    String SELECT_RESPUESTA = "SELECT new com.partymap.backend.dto.ReservaResponseDTO("
+            + "r.id, r.cantidad, r.fechaReserva, r.precioUnitario, r.precioTotal, r.comentarios, r.estado, "
+            + "r.activo, r.fechaCreacion, "
+            + "u.id, u.nombre, u.email, u.tipoUsuario, u.activo, u.fechaCreacion, "
+            + "e.id, e.nombre, e.descripcion, e.fecha, e.capacidadMaxima, e.precioEntrada, e.imagenUrl, "
+            + "e.activo, e.fechaCreacion, e.entradasReservadas) "
+            + "FROM Reserva r JOIN r.usuario u JOIN r.evento e ";
+
+    /**
+     * Obtiene la respuesta de todas las reservas activas ordenadas por ID
+     */
+    @Query(SELECT_RESPUESTA + "WHERE r.activo = 1 ORDER BY r.id ASC")
+    List<ReservaResponseDTO> findRespuestasActivas();
+
+    /**
+     * Obtiene la respuesta de las reservas activas de un usuario ordenadas por ID
+     */
+    @Query(SELECT_RESPUESTA + "WHERE r.activo = 1 AND u.id = :usuarioId ORDER BY r.id ASC")
+    List<ReservaResponseDTO> findRespuestasActivasDeUsuario(@Param("usuarioId") Long usuarioId);
+
+    /**
+     * Obtiene la respuesta de las reservas activas de un evento ordenadas por ID
+     */
+    @Query(SELECT_RESPUESTA + "WHERE r.activo = 1 AND e.id = :eventoId ORDER BY r.id ASC")
+    List<ReservaResponseDTO> findRespuestasActivasDeEvento(@Param("eventoId") Long eventoId);
+
+    /**
+     * Calcula en una sola consulta los agregados de las reservas no eliminadas, como fila
+     * [total, reservadas, canceladas, ingresos, precioMaximo, precioMinimo, entradas, maximoEntradas, minimoEntradas].
+     * Los ingresos consideran solo las reservas en estado RESERVADA.
+     */
+    @Query("SELECT COUNT(r), "
+            + "SUM(CASE WHEN r.estado = com.partymap.backend.model.EstadoReserva.RESERVADA THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN r.estado = com.partymap.backend.model.EstadoReserva.CANCELADA THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN r.estado = com.partymap.backend.model.EstadoReserva.RESERVADA THEN r.precioTotal ELSE 0 END), "
+            + "MAX(r.precioTotal), MIN(r.precioTotal), SUM(r.cantidad), MAX(r.cantidad), MIN(r.cantidad) "
+            + "FROM Reserva r WHERE r.activo = 1")
+    List<Object[]> calcularEstadisticas();
 }
@@ -1,11 +1,16 @@
 package com.partymap.backend.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import com.partymap.backend.dto.UbicacionResponseDTO;
 import com.partymap.backend.model.Ubicacion;
 
 public interface UbicacionRepository extends JpaRepository<Ubicacion, Long> {
@@ -31,4 +36,71 @@ public interface UbicacionRepository extends JpaRepository<Ubicacion, Long> {
      * Verifica si existe una ubicación con la misma dirección y comuna
      */
     boolean existsByDireccionAndComunaIgnoreCase(String direccion, String comuna);
+
+    /**
+     * Busca las ubicaciones activas cuya dirección y comuna (sin espacios en los extremos y en minúsculas)
+     * están entre las indicadas, ordenadas por ID. Como direcciones y comunas se filtran por separado,
+     * quien llama debe descartar los pares que no pidió
+     */
+    @Query("SELECT u FROM Ubicacion u WHERE u.activo = 1 "
+            + "AND LOWER(TRIM(u.direccion)) IN :direcciones AND LOWER(TRIM(u.comuna)) IN :comunas ORDER BY u.id ASC")
+    List<Ubicacion> findActivasPorDireccionesYComunas(@Param("direcciones") Collection<String> direcciones,
+            @Param("comunas") Collection<String> comunas);
+
+    /**
+     * Obtiene los datos de comparación de las ubicaciones activas, como filas [id, direccion, comuna, latitud, longitud]
+     */
+    @Query("SELECT u.id, u.direccion, u.comuna, u.latitud, u.longitud FROM Ubicacion u WHERE u.activo = 1")
+    List<Object[]> findDatosComparacionActivas();
+
+    /**
+     * Obtiene los datos de comparación de las ubicaciones indicadas que estén activas,
+     * como filas [id, direccion, comuna, latitud, longitud]
+     * @param ids IDs de las ubicaciones
+     */
+    @Query("SELECT u.id, u.direccion, u.comuna, u.latitud, u.longitud FROM Ubicacion u WHERE u.id IN :ids AND u.activo = 1")
+    List<Object[]> findDatosComparacionActivasByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Asigna a la ubicación destino los eventos de las ubicaciones indicadas
+     * @return Cantidad de eventos reasignados
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Evento e SET e.ubicacion = :destino WHERE e.ubicacion.id IN :ubicacionIds")
+    int reasignarEventos(@Param("ubicacionIds") Collection<Long> ubicacionIds, @Param("destino") Ubicacion destino);
+
+    /**
+     * Desactiva las ubicaciones indicadas (soft delete)
+     * @return Cantidad de ubicaciones desactivadas
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Ubicacion u SET u.activo = 0 WHERE u.id IN :ubicacionIds AND u.activo = 1")
+    int desactivar(@Param("ubicacionIds") Collection<Long> ubicacionIds);
+
+    /**
+     * Verifica si la ubicación tiene eventos asociados, sin cargar la colección de eventos
+     */
+    @Query("SELECT COUNT(e) > 0 FROM Evento e WHERE e.ubicacion.id = :ubicacionId")
+    boolean tieneEventos(@Param("ubicacionId") Long ubicacionId);
+
+    /**
+     * Verifica si la ubicación está asociada a algún evento distinto del indicado
+     */
+    @Query("SELECT COUNT(e) > 0 FROM Evento e WHERE e.ubicacion.id = :ubicacionId AND e.id <> :eventoId")
+    boolean tieneOtrosEventos(@Param("ubicacionId") Long ubicacionId, @Param("eventoId") Long eventoId);
+
+    /**
+     * Obtiene las ubicaciones activas con ID mayor al cursor, ordenadas por ID.
+     * Para la primera página se usa idDesde = 0
+     */
+    @Query("SELECT u FROM Ubicacion u WHERE u.activo = 1 AND u.id > :idDesde ORDER BY u.id ASC")
+    Slice<Ubicacion> findPaginaActivasDesde(@Param("idDesde") Long idDesde, Pageable pageable);
+
+    /**
+     * Obtiene la respuesta de todas las ubicaciones activas ordenadas por ID, sin cargar entidades
+     */
+    @Query("SELECT new com.partymap.backend.dto.UbicacionResponseDTO("
+            + "u.id, u.direccion, u.comuna, u.latitud, u.longitud, u.activo, u.fechaCreacion) "
+            + "FROM Ubicacion u WHERE u.activo = 1 ORDER BY u.id ASC")
+    List<UbicacionResponseDTO> findRespuestasActivas();
 }
@@ -1,13 +1,19 @@
 package com.partymap.backend.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.partymap.backend.dto.EstadisticasUsuariosDTO;
 import com.partymap.backend.model.TipoUsuario;
 import com.partymap.backend.model.Usuario;
 
@@ -86,4 +92,33 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
      */
     @Query("SELECT u FROM Usuario u WHERE u.tipoUsuario = 'PRODUCTOR' AND LOWER(u.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))")
     List<Usuario> findProductoresByNombreContainingIgnoreCase(@Param("nombre") String nombre);
-} 
\ No newline at end of file
+
+    /**
+     * Obtiene los usuarios activos con ID mayor al cursor, ordenados por ID.
+     * Para la primera página se usa idDesde = 0
+     */
+    @Query("SELECT u FROM Usuario u WHERE u.activo = 1 AND u.id > :idDesde ORDER BY u.id ASC")
+    Slice<Usuario> findPaginaActivosDesde(@Param("idDesde") Long idDesde, Pageable pageable);
+
+    /**
+     * Calcula los conteos del panel de estadísticas en una sola consulta, sin cargar usuarios
+     */
+    @Query("SELECT new com.partymap.backend.dto.EstadisticasUsuariosDTO("
+            + "COUNT(u), "
+            + "SUM(CASE WHEN u.activo = 1 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN u.activo = 0 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN u.tipoUsuario = 'PRODUCTOR' THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN u.tipoUsuario = 'CLIENTE' THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN u.tipoUsuario = 'ADMINISTRADOR' THEN 1 ELSE 0 END)) "
+            + "FROM Usuario u")
+    EstadisticasUsuariosDTO contarEstadisticas();
+
+    /**
+     * Registra la última conexión de varios usuarios con una sola actualización,
+     * sin retroceder una fecha posterior ya guardada
+     */
+    @Modifying
+    @Query("UPDATE Usuario u SET u.fechaUltimaConexion = :fecha WHERE u.id IN :usuarioIds "
+            + "AND (u.fechaUltimaConexion IS NULL OR u.fechaUltimaConexion < :fecha)")
+    int actualizarUltimaConexion(@Param("usuarioIds") Collection<Long> usuarioIds, @Param("fecha") LocalDateTime fecha);
+}
@@ -0,0 +1,88 @@
+package com.partymap.backend.restClients;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.partymap.backend.config.BffProperties;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+/**
+ * Cliente HTTP de Feign sobre el HttpClient del JDK.
+ *
+ * El cliente por defecto de Feign abre cada llamada con HttpURLConnection; este reutiliza un único
+ * HttpClient, que mantiene las conexiones abiertas con el microservicio entre llamadas. El tiempo
+ * máximo de respuesta se toma por método de ClienteRest (partymap.bff.timeouts-ms.*), con
+ * partymap.bff.read-timeout-ms para los demás.
+ */
+public class ClienteHttpPool implements Client {
+
+    /**
+     * Headers que fija el propio HttpClient y no se pueden copiar de la petición
+     */
+    private static final Set<String> HEADERS_RESTRINGIDOS = Set.of(
+            "connection", "content-length", "expect", "host", "upgrade");
+
+    private final HttpClient httpClient;
+    private final BffProperties properties;
+
+    public ClienteHttpPool(BffProperties properties) {
+        this.properties = properties;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMs()))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        HttpRequest.Builder peticion = HttpRequest.newBuilder(URI.create(request.url()))
+                .timeout(Duration.ofMillis(timeoutMs(request)))
+                .method(request.httpMethod().name(), request.body() != null
+                        ? HttpRequest.BodyPublishers.ofByteArray(request.body())
+                        : HttpRequest.BodyPublishers.noBody());
+        request.headers().forEach((nombre, valores) -> {
+            if (!HEADERS_RESTRINGIDOS.contains(nombre.toLowerCase())) {
+                valores.forEach(valor -> peticion.header(nombre, valor));
+            }
+        });
+
+        HttpResponse<byte[]> respuesta;
+        try {
+            // Un tiempo agotado llega como IOException y Feign lo informa como RetryableException
+            respuesta = httpClient.send(peticion.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Llamada interrumpida: " + request.url());
+        }
+
+        Map<String, Collection<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        respuesta.headers().map().forEach(headers::put);
+        return Response.builder()
+                .status(respuesta.statusCode())
+                .reason("")
+                .headers(headers)
+                .body(respuesta.body())
+                .request(request)
+                .build();
+    }
+
+    private int timeoutMs(Request request) {
+        if (request.requestTemplate() != null && request.requestTemplate().methodMetadata() != null) {
+            return properties.getTimeoutMs(request.requestTemplate().methodMetadata().method().getName());
+        }
+        return properties.getReadTimeoutMs();
+    }
+}
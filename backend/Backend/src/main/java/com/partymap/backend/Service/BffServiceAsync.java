@@ -0,0 +1,20 @@
+package com.partymap.backend.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Variante asíncrona de BffService: las llamadas al microservicio corren en un grupo de hilos
+ * propio y acotado, así los hilos de Tomcat no quedan esperando su respuesta.
+ */
+public interface BffServiceAsync {
+
+	CompletableFuture<String> create(Map<String, String> body);
+
+	CompletableFuture<String> read(String id);
+
+	CompletableFuture<String> update(String status);
+
+	CompletableFuture<String> delete(String authHeader);
+
+}
@@ -0,0 +1,63 @@
+package com.partymap.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Inserta muchas entidades nuevas en pocos viajes a la base de datos.
+ *
+ * Las entidades se persisten en bloques del tamaño del lote JDBC (hibernate.jdbc.batch_size):
+ * los IDs salen del bloque ya reservado por la secuencia y cada bloque se envía como un solo
+ * lote de INSERT. Después de cada bloque se vacía el contexto de persistencia, para que la
+ * memoria y el costo del flush no crezcan con la cantidad de filas.
+ */
+@Component
+public class EscrituraPorLotes {
+
+    private final EntityManager entityManager;
+    private final int tamanioLote;
+
+    public EscrituraPorLotes(EntityManager entityManager,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int tamanioLote) {
+        this.entityManager = entityManager;
+        this.tamanioLote = Math.max(1, tamanioLote);
+    }
+
+    /**
+     * Persiste las entidades nuevas por lotes dentro de la transacción de quien llama.
+     * Al volver, todas las entidades del contexto de persistencia quedan desasociadas
+     * (también las que quien llama había cargado antes), con sus IDs asignados.
+     * @param entidades Entidades sin ID
+     * @return Las mismas entidades, en el mismo orden
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> List<T> persistir(Collection<T> entidades) {
+        List<T> persistidas = new ArrayList<>(entidades.size());
+        for (T entidad : entidades) {
+            entityManager.persist(entidad);
+            persistidas.add(entidad);
+            if (persistidas.size() % tamanioLote == 0) {
+                vaciar();
+            }
+        }
+        vaciar();
+        return persistidas;
+    }
+
+    public int getTamanioLote() {
+        return tamanioLote;
+    }
+
+    private void vaciar() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
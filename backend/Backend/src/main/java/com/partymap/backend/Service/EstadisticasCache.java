@@ -0,0 +1,49 @@
+package com.partymap.backend.service;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.partymap.backend.config.CacheEstadisticasProperties;
+
+/**
+ * Caché de vida corta para los paneles de estadísticas (/evento/mis-estadisticas y /usuario/estadisticas).
+ *
+ * Los conteos se toleran algunos segundos desactualizados, por lo que no se invalidan con los cambios:
+ * cada entrada simplemente expira. Así un panel que se refresca seguido no repite la consulta agregada.
+ */
+@Component
+public class EstadisticasCache {
+
+    /**
+     * Hay una entrada por panel y productor; el límite solo protege ante una cantidad anómala de productores
+     */
+    private static final long ENTRADAS_MAXIMAS = 10_000;
+
+    private final Cache<String, Object> cache;
+
+    public EstadisticasCache(CacheEstadisticasProperties properties) {
+        this.cache = properties.getTtlSegundos() > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(ENTRADAS_MAXIMAS)
+                        .expireAfterWrite(Duration.ofSeconds(properties.getTtlSegundos()))
+                        .build()
+                : null;
+    }
+
+    /**
+     * Obtiene las estadísticas de la caché o las calcula con la función indicada
+     * @param clave Panel y alcance de las estadísticas (por ejemplo "eventos:productor:5")
+     * @param calcular Consulta agregada a ejecutar si la entrada no existe o expiró
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T obtener(String clave, Supplier<T> calcular) {
+        if (cache == null) {
+            return calcular.get();
+        }
+        return (T) cache.get(clave, c -> calcular.get());
+    }
+}
@@ -0,0 +1,353 @@
+package com.partymap.backend.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.partymap.backend.config.CacheEventosProperties;
+import com.partymap.backend.dto.EventoFiltroDTO;
+import com.partymap.backend.dto.EventoResponseDTO;
+import com.partymap.backend.dto.PaginatedResponseDTO;
+import com.partymap.backend.events.EventoCambiadoEvent;
+import com.partymap.backend.events.ReservaCambiadaEvent;
+import com.partymap.backend.events.UbicacionCambiadaEvent;
+
+/**
+ * Caché acotada de las respuestas públicas del catálogo de eventos
+ * (/evento/all, /proximos, /disponibles, /buscar y /evento/{id}).
+ *
+ * Cada entrada se registra con etiquetas (evento:X, ubicacion:U, altas, catalogo, disponibilidad)
+ * y los cambios de eventos, reservas y ubicaciones invalidan solo las entradas afectadas,
+ * una vez confirmada la transacción que los produjo.
+ *
+ * Los DTO de respuesta son mutables, por eso la caché guarda su propia copia de lo cargado y
+ * entrega una copia nueva en cada acierto: ningún llamador puede alterar lo que reciben los demás.
+ * Los cupos disponibles no se quedan desactualizados durante el TTL del detalle porque cada
+ * cambio de reserva invalida las entradas con la etiqueta de su evento.
+ */
+@Component
+public class EventoCatalogoCache {
+
+    /**
+     * Listados completos que se guardan en caché
+     */
+    public enum Listado {
+        TODOS, PROXIMOS, DISPONIBLES
+    }
+
+    static final String ETIQUETA_ALTAS = "altas";
+    static final String ETIQUETA_CATALOGO = "catalogo";
+    static final String ETIQUETA_DISPONIBILIDAD = "disponibilidad";
+
+    private static final String PREFIJO_DETALLE = "detalle:";
+
+    private final Cache<String, Object> cache;
+
+    /**
+     * Índice etiqueta -> claves de la caché que dependen de ella
+     */
+    private final Map<String, Set<String>> clavesPorEtiqueta = new ConcurrentHashMap<>();
+
+    /**
+     * Índice clave -> etiquetas, para limpiar clavesPorEtiqueta cuando una entrada sale de la caché
+     */
+    private final Map<String, Set<String>> etiquetasPorClave = new ConcurrentHashMap<>();
+
+    /**
+     * Se incrementa en cada invalidación; cada carga anota su valor al empezar
+     */
+    private final AtomicLong generacion = new AtomicLong();
+
+    /**
+     * Generación de la última invalidación de cada etiqueta. Una carga que empezó antes de que se
+     * invalidara alguna de sus etiquetas pudo leer datos anteriores al cambio, por lo que su resultado
+     * no se guarda; las invalidaciones de otras etiquetas no la afectan.
+     */
+    private final Map<String, Long> generacionPorEtiqueta = new ConcurrentHashMap<>();
+
+    /**
+     * Generación de la última vez que se vació la caché, que afecta a todas las cargas en curso
+     */
+    private volatile long generacionLimpieza;
+
+    public EventoCatalogoCache(CacheEventosProperties properties) {
+        Duration ttlDetalle = Duration.ofSeconds(properties.getTtlSegundos());
+        Duration ttlListados = Duration.ofSeconds(properties.getTtlListadosSegundos());
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getTamanioMaximo())
+                .weigher((String clave, Object valor) -> pesoDe(valor))
+                .expireAfter(new Expiry<String, Object>() {
+                    @Override
+                    public long expireAfterCreate(String clave, Object valor, long ahora) {
+                        return (clave.startsWith(PREFIJO_DETALLE) ? ttlDetalle : ttlListados).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String clave, Object valor, long ahora, long duracionActual) {
+                        return expireAfterCreate(clave, valor, ahora);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String clave, Object valor, long ahora, long duracionActual) {
+                        return duracionActual;
+                    }
+                })
+                .removalListener((String clave, Object valor, RemovalCause causa) -> {
+                    // Al reemplazar una entrada las etiquetas nuevas ya quedaron registradas
+                    if (causa != RemovalCause.REPLACED) {
+                        olvidarEtiquetas(clave);
+                    }
+                })
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Obtiene el detalle de un evento. Solo se guardan eventos existentes.
+     * @param id ID del evento
+     * @param cargador Consulta a ejecutar si el evento no está en caché
+     */
+    public Optional<EventoResponseDTO> obtenerEvento(Long id, Supplier<Optional<EventoResponseDTO>> cargador) {
+        String clave = PREFIJO_DETALLE + id;
+        EventoResponseDTO guardado = (EventoResponseDTO) cache.getIfPresent(clave);
+        if (guardado != null) {
+            return Optional.of(new EventoResponseDTO(guardado));
+        }
+
+        long generacionInicial = generacion.get();
+        Optional<EventoResponseDTO> evento = cargador.get();
+        evento.ifPresent(dto -> guardar(clave, new EventoResponseDTO(dto), etiquetasDe(List.of(dto)), generacionInicial));
+        return evento;
+    }
+
+    /**
+     * Obtiene un listado completo de eventos
+     * @param listado Listado solicitado
+     * @param cargador Consulta a ejecutar si el listado no está en caché
+     * @return Lista no modificable
+     */
+    @SuppressWarnings("unchecked")
+    public List<EventoResponseDTO> obtenerListado(Listado listado, Supplier<List<EventoResponseDTO>> cargador) {
+        String clave = "listado:" + listado.name();
+        List<EventoResponseDTO> guardado = (List<EventoResponseDTO>) cache.getIfPresent(clave);
+        if (guardado != null) {
+            return copiar(guardado);
+        }
+
+        long generacionInicial = generacion.get();
+        List<EventoResponseDTO> eventos = List.copyOf(cargador.get());
+        Set<String> etiquetas = etiquetasDe(eventos);
+        // Un evento nuevo o modificado puede entrar en cualquier listado
+        etiquetas.add(ETIQUETA_ALTAS);
+        if (listado == Listado.DISPONIBLES) {
+            // Una cancelación puede devolver a la lista un evento que estaba agotado
+            etiquetas.add(ETIQUETA_DISPONIBILIDAD);
+        }
+        guardar(clave, copiar(eventos), etiquetas, generacionInicial);
+        return eventos;
+    }
+
+    /**
+     * Obtiene una página de resultados de búsqueda. La clave incluye todos los criterios del filtro.
+     * @param filtro Criterios de búsqueda
+     * @param cargador Consulta a ejecutar si la página no está en caché
+     */
+    @SuppressWarnings("unchecked")
+    public PaginatedResponseDTO<EventoResponseDTO> obtenerBusqueda(EventoFiltroDTO filtro,
+            Supplier<PaginatedResponseDTO<EventoResponseDTO>> cargador) {
+        String clave = "buscar:" + (filtro != null ? filtro : new EventoFiltroDTO());
+        PaginatedResponseDTO<EventoResponseDTO> guardado = (PaginatedResponseDTO<EventoResponseDTO>) cache.getIfPresent(clave);
+        if (guardado != null) {
+            return copiar(guardado);
+        }
+
+        long generacionInicial = generacion.get();
+        PaginatedResponseDTO<EventoResponseDTO> pagina = cargador.get();
+        Set<String> etiquetas = etiquetasDe(pagina.getContenido() != null ? pagina.getContenido() : List.of());
+        // Cualquier alta, modificación o baja puede mover resultados entre páginas
+        etiquetas.add(ETIQUETA_CATALOGO);
+        if (filtro != null && Boolean.TRUE.equals(filtro.getSoloDisponibles())) {
+            etiquetas.add(ETIQUETA_DISPONIBILIDAD);
+        }
+        guardar(clave, copiar(pagina), etiquetas, generacionInicial);
+        return pagina;
+    }
+
+    /**
+     * Invalida las entradas afectadas por el alta, modificación o baja de un evento
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventoCambiado(EventoCambiadoEvent evento) {
+        switch (evento.getTipo()) {
+            case CREADO -> invalidar(ETIQUETA_ALTAS, ETIQUETA_CATALOGO);
+            case ACTUALIZADO -> invalidar(etiquetas(evento.getEventoIds(), ETIQUETA_ALTAS, ETIQUETA_CATALOGO));
+            case ELIMINADO -> invalidar(etiquetas(evento.getEventoIds(), ETIQUETA_CATALOGO));
+        }
+    }
+
+    /**
+     * Invalida las entradas cuyos cupos cambian por una reserva
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservaCambiada(ReservaCambiadaEvent evento) {
+        invalidar(etiquetaEvento(evento.getEventoId()), ETIQUETA_DISPONIBILIDAD);
+    }
+
+    /**
+     * Invalida las entradas que muestran una ubicación modificada
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUbicacionCambiada(UbicacionCambiadaEvent evento) {
+        invalidar(evento.getUbicacionIds().stream().map(id -> "ubicacion:" + id).toArray(String[]::new));
+    }
+
+    /**
+     * Vacía la caché por completo
+     */
+    public void limpiar() {
+        generacionLimpieza = generacion.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Estadísticas de uso de la caché (aciertos, fallos, desalojos y tamaño)
+     */
+    public Map<String, Object> getEstadisticas() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("aciertos", stats.hitCount());
+        estadisticas.put("fallos", stats.missCount());
+        estadisticas.put("tasaAciertos", stats.hitRate());
+        estadisticas.put("desalojos", stats.evictionCount());
+        estadisticas.put("entradas", cache.estimatedSize());
+        estadisticas.put("eventosRetenidos", cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L));
+        return estadisticas;
+    }
+
+    void invalidar(String... etiquetas) {
+        long nueva = generacion.incrementAndGet();
+        for (String etiqueta : etiquetas) {
+            // Se anota antes de quitar las claves: un guardar() concurrente ve la generación nueva
+            // o registró su clave a tiempo para que se quite aquí
+            generacionPorEtiqueta.merge(etiqueta, nueva, Math::max);
+            Set<String> claves = clavesPorEtiqueta.remove(etiqueta);
+            if (claves != null) {
+                cache.invalidateAll(claves);
+            }
+        }
+    }
+
+    private void guardar(String clave, Object valor, Set<String> etiquetas, long generacionInicial) {
+        if (invalidadaDesde(etiquetas, generacionInicial)) {
+            return;
+        }
+        // Las etiquetas se registran antes de publicar el valor para que una invalidación
+        // concurrente siempre lo encuentre
+        etiquetasPorClave.put(clave, etiquetas);
+        for (String etiqueta : etiquetas) {
+            clavesPorEtiqueta.computeIfAbsent(etiqueta, e -> ConcurrentHashMap.newKeySet()).add(clave);
+        }
+        cache.put(clave, valor);
+        if (invalidadaDesde(etiquetas, generacionInicial)) {
+            cache.invalidate(clave);
+        }
+    }
+
+    /**
+     * Indica si alguna de las etiquetas se invalidó después de la generación indicada
+     */
+    private boolean invalidadaDesde(Set<String> etiquetas, long generacionInicial) {
+        if (generacionLimpieza > generacionInicial) {
+            return true;
+        }
+        for (String etiqueta : etiquetas) {
+            if (generacionPorEtiqueta.getOrDefault(etiqueta, 0L) > generacionInicial) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void olvidarEtiquetas(String clave) {
+        Set<String> etiquetas = etiquetasPorClave.remove(clave);
+        if (etiquetas == null) {
+            return;
+        }
+        for (String etiqueta : etiquetas) {
+            clavesPorEtiqueta.computeIfPresent(etiqueta, (e, claves) -> {
+                claves.remove(clave);
+                return claves.isEmpty() ? null : claves;
+            });
+        }
+    }
+
+    private static List<EventoResponseDTO> copiar(List<EventoResponseDTO> eventos) {
+        return eventos.stream().map(EventoResponseDTO::new).toList();
+    }
+
+    private static PaginatedResponseDTO<EventoResponseDTO> copiar(PaginatedResponseDTO<EventoResponseDTO> pagina) {
+        return new PaginatedResponseDTO<>(pagina.getContenido() != null ? copiar(pagina.getContenido()) : null,
+                pagina.getPagina(), pagina.getTamanio(), pagina.getTotalElementos(), pagina.getTotalPaginas(),
+                pagina.isPrimera(), pagina.isUltima(), pagina.isTieneSiguiente(), pagina.isTieneAnterior(),
+                pagina.getSiguienteCursor());
+    }
+
+    private static Set<String> etiquetasDe(Collection<EventoResponseDTO> eventos) {
+        Set<String> etiquetas = new LinkedHashSet<>();
+        for (EventoResponseDTO evento : eventos) {
+            etiquetas.add(etiquetaEvento(evento.getId()));
+            if (evento.getUbicacion() != null) {
+                etiquetas.add("ubicacion:" + evento.getUbicacion().getId());
+            }
+        }
+        return etiquetas;
+    }
+
+    private static String etiquetaEvento(Long id) {
+        return "evento:" + id;
+    }
+
+    /**
+     * Etiquetas de los eventos indicados más las etiquetas generales recibidas
+     */
+    private static String[] etiquetas(List<Long> eventoIds, String... generales) {
+        List<String> etiquetas = new ArrayList<>(eventoIds.size() + generales.length);
+        eventoIds.forEach(id -> etiquetas.add(etiquetaEvento(id)));
+        etiquetas.addAll(List.of(generales));
+        return etiquetas.toArray(String[]::new);
+    }
+
+    /**
+     * El peso de una entrada es la cantidad de eventos que contiene, de modo que
+     * tamanioMaximo acota la memoria y no solo el número de claves
+     */
+    private static int pesoDe(Object valor) {
+        if (valor instanceof Collection<?> lista) {
+            return lista.size() + 1;
+        }
+        if (valor instanceof PaginatedResponseDTO<?> pagina && pagina.getContenido() != null) {
+            return pagina.getContenido().size() + 1;
+        }
+        return 1;
+    }
+}
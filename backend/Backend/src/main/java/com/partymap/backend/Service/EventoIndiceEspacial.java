@@ -0,0 +1,498 @@
+package com.partymap.backend.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.partymap.backend.dto.ClusterMapaDTO;
+import com.partymap.backend.events.EventoCambiadoEvent;
+import com.partymap.backend.events.UbicacionCambiadaEvent;
+import com.partymap.backend.repository.EventoRepository;
+
+/**
+ * Índice espacial en memoria de los eventos activos, para búsquedas por cercanía y por área.
+ *
+ * Divide el mapa en una grilla de celdas de TAMANIO_CELDA_GRADOS grados y guarda en cada celda
+ * los IDs de los eventos que caen en ella, con sus coordenadas como double. Una búsqueda solo
+ * revisa las celdas que intersectan el área pedida, sin recorrer todos los eventos.
+ *
+ * Para el mapa mantiene además una grilla agregada por nivel de zoom (cantidad, suma de
+ * coordenadas e IDs por celda), de modo que agrupar un área visible solo recorre las celdas
+ * de esa área y el costo no depende del total de eventos.
+ *
+ * Se carga con una única consulta de coordenadas en la primera búsqueda y luego se mantiene
+ * al día con los cambios de eventos y ubicaciones, una vez confirmada cada transacción. Los
+ * cambios confirmados mientras se ejecuta la carga inicial quedan pendientes y se aplican al
+ * terminarla, ya que la consulta de carga pudo leer los datos anteriores al cambio.
+ */
+@Component
+public class EventoIndiceEspacial {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventoIndiceEspacial.class);
+
+    /**
+     * Lado de cada celda de la grilla (~5,5 km de latitud)
+     */
+    static final double TAMANIO_CELDA_GRADOS = 0.05;
+
+    static final double RADIO_TIERRA_KM = 6371.0088;
+
+    private static final double KM_POR_GRADO_LATITUD = 111.32;
+
+    /**
+     * Desde este nivel de zoom el mapa muestra eventos individuales en lugar de grupos
+     */
+    public static final int ZOOM_EVENTOS = 15;
+
+    /**
+     * Celdas de agrupación por lado de cada tesela de 256 px (grupos de ~64 px en pantalla)
+     */
+    static final int CELDAS_POR_TESELA = 4;
+
+    /**
+     * Cantidad de IDs representativos informados por grupo
+     */
+    static final int REPRESENTANTES_POR_GRUPO = 5;
+
+    /**
+     * Máximo de IDs por consulta al aplicar cambios pendientes (límite de la cláusula IN en Oracle)
+     */
+    private static final int MAXIMO_IDS_POR_CONSULTA = 1000;
+
+    /**
+     * Coordenadas de un evento indexado
+     */
+    private record Punto(long eventoId, double latitud, double longitud, long celda) {
+    }
+
+    /**
+     * Resultado de una búsqueda: ID del evento y distancia al punto consultado (0 en búsquedas por área)
+     */
+    public record Resultado(long eventoId, double distanciaKm) {
+    }
+
+    private final EventoRepository eventoRepository;
+
+    private final Map<Long, Set<Long>> eventosPorCelda = new ConcurrentHashMap<>();
+    private final Map<Long, Punto> puntos = new ConcurrentHashMap<>();
+
+    /**
+     * Grupos por celda para cada nivel de zoom menor a ZOOM_EVENTOS (índice de la lista = zoom)
+     */
+    private final List<Map<Long, Grupo>> gruposPorZoom = new ArrayList<>();
+
+    private volatile boolean cargado;
+
+    /**
+     * Cambios recibidos durante la carga inicial. Se protegen con su propio monitor, distinto del
+     * de la carga, para no bloquear a quien confirma un cambio mientras la carga consulta la base.
+     */
+    private final Object monitorPendientes = new Object();
+    private boolean cargando;
+    private final Set<Long> eventosPendientes = new LinkedHashSet<>();
+    private final Set<Long> ubicacionesPendientes = new LinkedHashSet<>();
+
+    public EventoIndiceEspacial(EventoRepository eventoRepository) {
+        this.eventoRepository = eventoRepository;
+        for (int zoom = 0; zoom < ZOOM_EVENTOS; zoom++) {
+            gruposPorZoom.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Busca los eventos a no más de radioKm del punto indicado, ordenados del más cercano al más lejano
+     * @param latitud Latitud del centro de la búsqueda
+     * @param longitud Longitud del centro de la búsqueda
+     * @param radioKm Radio de búsqueda en kilómetros
+     * @param limite Cantidad máxima de resultados
+     */
+    public List<Resultado> buscarCercanos(double latitud, double longitud, double radioKm, int limite) {
+        asegurarCargado();
+
+        double deltaLatitud = radioKm / KM_POR_GRADO_LATITUD;
+        double cosenoLatitud = Math.cos(Math.toRadians(latitud));
+        // Cerca de los polos el área cubre todas las longitudes
+        double deltaLongitud = cosenoLatitud < 1e-6 ? 180 : Math.min(180, radioKm / (KM_POR_GRADO_LATITUD * cosenoLatitud));
+
+        List<Resultado> resultados = new ArrayList<>();
+        for (Punto punto : candidatos(latitud - deltaLatitud, longitud - deltaLongitud,
+                latitud + deltaLatitud, longitud + deltaLongitud)) {
+            double distancia = distanciaKm(latitud, longitud, punto.latitud(), punto.longitud());
+            if (distancia <= radioKm) {
+                resultados.add(new Resultado(punto.eventoId(), distancia));
+            }
+        }
+        resultados.sort(Comparator.comparingDouble(Resultado::distanciaKm).thenComparingLong(Resultado::eventoId));
+        return resultados.size() > limite ? new ArrayList<>(resultados.subList(0, limite)) : resultados;
+    }
+
+    /**
+     * Busca los eventos dentro de un rectángulo de coordenadas, ordenados por ID
+     * @param latitudMinima Borde sur
+     * @param longitudMinima Borde oeste
+     * @param latitudMaxima Borde norte
+     * @param longitudMaxima Borde este
+     * @param limite Cantidad máxima de resultados
+     */
+    public List<Resultado> buscarEnArea(double latitudMinima, double longitudMinima,
+                                        double latitudMaxima, double longitudMaxima, int limite) {
+        asegurarCargado();
+
+        List<Resultado> resultados = new ArrayList<>();
+        for (Punto punto : candidatos(latitudMinima, longitudMinima, latitudMaxima, longitudMaxima)) {
+            if (punto.latitud() >= latitudMinima && punto.latitud() <= latitudMaxima
+                    && punto.longitud() >= longitudMinima && punto.longitud() <= longitudMaxima) {
+                resultados.add(new Resultado(punto.eventoId(), 0));
+            }
+        }
+        resultados.sort(Comparator.comparingLong(Resultado::eventoId));
+        return resultados.size() > limite ? new ArrayList<>(resultados.subList(0, limite)) : resultados;
+    }
+
+    /**
+     * Agrupa los eventos del área visible según la grilla del nivel de zoom.
+     * Se devuelven los grupos de todas las celdas que intersectan el área.
+     * @param zoom Nivel de zoom del mapa (0 a ZOOM_EVENTOS - 1)
+     */
+    public List<ClusterMapaDTO> agrupar(double latitudMinima, double longitudMinima,
+                                        double latitudMaxima, double longitudMaxima, int zoom) {
+        if (zoom < 0 || zoom >= ZOOM_EVENTOS) {
+            throw new IllegalArgumentException("El zoom para agrupar debe estar entre 0 y " + (ZOOM_EVENTOS - 1));
+        }
+        asegurarCargado();
+
+        Map<Long, Grupo> grupos = gruposPorZoom.get(zoom);
+        double tamanio = tamanioCeldaGrados(zoom);
+        int filaMinima = indice(Math.max(-90, latitudMinima) + 90, tamanio);
+        int filaMaxima = indice(Math.min(90, latitudMaxima) + 90, tamanio);
+        int columnaMinima = indice(Math.max(-180, longitudMinima) + 180, tamanio);
+        int columnaMaxima = indice(Math.min(180, longitudMaxima) + 180, tamanio);
+
+        List<ClusterMapaDTO> clusters = new ArrayList<>();
+        long celdas = (long) (filaMaxima - filaMinima + 1) * (columnaMaxima - columnaMinima + 1);
+        if (celdas > grupos.size()) {
+            // Área grande para el zoom pedido: es más barato recorrer los grupos existentes
+            for (Map.Entry<Long, Grupo> entrada : grupos.entrySet()) {
+                int fila = (int) (entrada.getKey() >> 32);
+                int columna = (int) entrada.getKey().longValue();
+                if (fila >= filaMinima && fila <= filaMaxima && columna >= columnaMinima && columna <= columnaMaxima) {
+                    agregarCluster(clusters, entrada.getValue());
+                }
+            }
+        } else {
+            for (int fila = filaMinima; fila <= filaMaxima; fila++) {
+                for (int columna = columnaMinima; columna <= columnaMaxima; columna++) {
+                    Grupo grupo = grupos.get(celda(fila, columna));
+                    if (grupo != null) {
+                        agregarCluster(clusters, grupo);
+                    }
+                }
+            }
+        }
+        // Primero los grupos más grandes; a igual cantidad, por su primer evento para un orden estable
+        clusters.sort(Comparator.comparingInt(ClusterMapaDTO::getCantidad).reversed()
+                .thenComparing(cluster -> cluster.getEventoIds().get(0)));
+        return clusters;
+    }
+
+    /**
+     * Actualiza la posición de los eventos en el índice tras un alta, modificación o baja,
+     * con una sola consulta para todos los eventos del cambio
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onEventoCambiado(EventoCambiadoEvent evento) {
+        if (evento.getEventoIds().isEmpty()) {
+            return;
+        }
+        if (!cargado && dejarPendiente(eventosPendientes, evento.getEventoIds())) {
+            return;
+        }
+        synchronized (this) {
+            evento.getEventoIds().forEach(this::quitar);
+            if (evento.getTipo() != EventoCambiadoEvent.TipoCambio.ELIMINADO) {
+                agregarFilas(eventoRepository.findCoordenadasActivosByIdIn(evento.getEventoIds()));
+            }
+        }
+    }
+
+    /**
+     * Reubica los eventos de las ubicaciones cuyas coordenadas cambiaron
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onUbicacionCambiada(UbicacionCambiadaEvent evento) {
+        if (evento.getUbicacionIds().isEmpty()) {
+            return;
+        }
+        if (!cargado && dejarPendiente(ubicacionesPendientes, evento.getUbicacionIds())) {
+            return;
+        }
+        synchronized (this) {
+            agregarFilas(eventoRepository.findCoordenadasActivosByUbicacionIdIn(evento.getUbicacionIds()));
+        }
+    }
+
+    /**
+     * Cantidad de eventos indexados
+     */
+    public int getCantidadEventos() {
+        asegurarCargado();
+        return puntos.size();
+    }
+
+    /**
+     * Distancia en kilómetros entre dos coordenadas (fórmula del haversine)
+     */
+    public static double distanciaKm(double latitud1, double longitud1, double latitud2, double longitud2) {
+        double deltaLatitud = Math.toRadians(latitud2 - latitud1);
+        double deltaLongitud = Math.toRadians(longitud2 - longitud1);
+        double a = Math.sin(deltaLatitud / 2) * Math.sin(deltaLatitud / 2)
+                + Math.cos(Math.toRadians(latitud1)) * Math.cos(Math.toRadians(latitud2))
+                * Math.sin(deltaLongitud / 2) * Math.sin(deltaLongitud / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Eventos de las celdas que intersectan el rectángulo. Si el rectángulo abarca más celdas
+     * que eventos indexados, es más barato revisar todos los puntos directamente.
+     */
+    private Collection<Punto> candidatos(double latitudMinima, double longitudMinima,
+                                         double latitudMaxima, double longitudMaxima) {
+        int filaMinima = fila(Math.max(-90, latitudMinima));
+        int filaMaxima = fila(Math.min(90, latitudMaxima));
+        int columnaMinima = columna(Math.max(-180, longitudMinima));
+        int columnaMaxima = columna(Math.min(180, longitudMaxima));
+
+        long celdas = (long) (filaMaxima - filaMinima + 1) * (columnaMaxima - columnaMinima + 1);
+        if (celdas > puntos.size()) {
+            return puntos.values();
+        }
+
+        List<Punto> candidatos = new ArrayList<>();
+        for (int fila = filaMinima; fila <= filaMaxima; fila++) {
+            for (int columna = columnaMinima; columna <= columnaMaxima; columna++) {
+                Set<Long> ids = eventosPorCelda.get(celda(fila, columna));
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    Punto punto = puntos.get(id);
+                    if (punto != null) {
+                        candidatos.add(punto);
+                    }
+                }
+            }
+        }
+        return candidatos;
+    }
+
+    private void asegurarCargado() {
+        if (cargado) {
+            return;
+        }
+        synchronized (this) {
+            if (cargado) {
+                return;
+            }
+            long inicio = System.currentTimeMillis();
+            synchronized (monitorPendientes) {
+                cargando = true;
+            }
+            try {
+                agregarFilas(eventoRepository.findCoordenadasActivos());
+                aplicarPendientes();
+            } finally {
+                if (!cargado) {
+                    descartarPendientes();
+                }
+            }
+            logger.info("Índice espacial cargado con {} eventos en {} ms", puntos.size(),
+                    System.currentTimeMillis() - inicio);
+        }
+    }
+
+    /**
+     * Deja pendiente un cambio que llega antes de que el índice esté cargado. Si no hay una carga
+     * en curso el cambio se descarta, porque la carga que venga lo leerá de la base.
+     * @return false si el índice terminó de cargarse y el cambio debe aplicarse de inmediato
+     */
+    private boolean dejarPendiente(Set<Long> pendientes, List<Long> ids) {
+        synchronized (monitorPendientes) {
+            if (cargado) {
+                return false;
+            }
+            if (cargando) {
+                pendientes.addAll(ids);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Aplica los cambios recibidos durante la carga hasta que no quede ninguno y marca el índice
+     * como cargado. Se llama con el monitor del índice tomado.
+     */
+    private void aplicarPendientes() {
+        while (true) {
+            List<Long> eventos;
+            List<Long> ubicaciones;
+            synchronized (monitorPendientes) {
+                if (eventosPendientes.isEmpty() && ubicacionesPendientes.isEmpty()) {
+                    cargando = false;
+                    cargado = true;
+                    return;
+                }
+                eventos = new ArrayList<>(eventosPendientes);
+                ubicaciones = new ArrayList<>(ubicacionesPendientes);
+                eventosPendientes.clear();
+                ubicacionesPendientes.clear();
+            }
+            for (int desde = 0; desde < eventos.size(); desde += MAXIMO_IDS_POR_CONSULTA) {
+                List<Long> bloque = eventos.subList(desde, Math.min(eventos.size(), desde + MAXIMO_IDS_POR_CONSULTA));
+                bloque.forEach(this::quitar);
+                agregarFilas(eventoRepository.findCoordenadasActivosByIdIn(bloque));
+            }
+            for (int desde = 0; desde < ubicaciones.size(); desde += MAXIMO_IDS_POR_CONSULTA) {
+                agregarFilas(eventoRepository.findCoordenadasActivosByUbicacionIdIn(
+                        ubicaciones.subList(desde, Math.min(ubicaciones.size(), desde + MAXIMO_IDS_POR_CONSULTA))));
+            }
+        }
+    }
+
+    /**
+     * Cierra una carga fallida; la siguiente búsqueda vuelve a cargar todo desde la base
+     */
+    private void descartarPendientes() {
+        synchronized (monitorPendientes) {
+            cargando = false;
+            eventosPendientes.clear();
+            ubicacionesPendientes.clear();
+        }
+    }
+
+    /**
+     * Agrega o reubica eventos a partir de filas [id, latitud, longitud]
+     */
+    private void agregarFilas(List<Object[]> filas) {
+        for (Object[] fila : filas) {
+            if (fila[0] == null || fila[1] == null || fila[2] == null) {
+                continue;
+            }
+            long id = ((Number) fila[0]).longValue();
+            double latitud = aDouble(fila[1]);
+            double longitud = aDouble(fila[2]);
+            quitar(id);
+            Punto punto = new Punto(id, latitud, longitud, celda(fila(latitud), columna(longitud)));
+            puntos.put(id, punto);
+            eventosPorCelda.computeIfAbsent(punto.celda(), c -> ConcurrentHashMap.newKeySet()).add(id);
+            for (int zoom = 0; zoom < ZOOM_EVENTOS; zoom++) {
+                gruposPorZoom.get(zoom).computeIfAbsent(celdaZoom(punto, zoom), c -> new Grupo()).agregar(punto);
+            }
+        }
+    }
+
+    private void quitar(long eventoId) {
+        Punto anterior = puntos.remove(eventoId);
+        if (anterior != null) {
+            eventosPorCelda.computeIfPresent(anterior.celda(), (c, ids) -> {
+                ids.remove(eventoId);
+                return ids.isEmpty() ? null : ids;
+            });
+            for (int zoom = 0; zoom < ZOOM_EVENTOS; zoom++) {
+                gruposPorZoom.get(zoom).computeIfPresent(celdaZoom(anterior, zoom),
+                        (c, grupo) -> grupo.quitar(anterior) ? null : grupo);
+            }
+        }
+    }
+
+    private static void agregarCluster(List<ClusterMapaDTO> clusters, Grupo grupo) {
+        ClusterMapaDTO cluster = grupo.aCluster();
+        if (cluster.getCantidad() > 0) {
+            clusters.add(cluster);
+        }
+    }
+
+    private static long celdaZoom(Punto punto, int zoom) {
+        double tamanio = tamanioCeldaGrados(zoom);
+        return celda(indice(punto.latitud() + 90, tamanio), indice(punto.longitud() + 180, tamanio));
+    }
+
+    /**
+     * Lado en grados de la celda de agrupación: una tesela del zoom dividida en CELDAS_POR_TESELA
+     */
+    private static double tamanioCeldaGrados(int zoom) {
+        return 360.0 / ((1L << zoom) * CELDAS_POR_TESELA);
+    }
+
+    private static int indice(double desplazamiento, double tamanio) {
+        return (int) Math.floor(desplazamiento / tamanio);
+    }
+
+    private static double aDouble(Object valor) {
+        return valor instanceof BigDecimal decimal ? decimal.doubleValue() : ((Number) valor).doubleValue();
+    }
+
+    private static int fila(double latitud) {
+        return indice(latitud + 90, TAMANIO_CELDA_GRADOS);
+    }
+
+    private static int columna(double longitud) {
+        return indice(longitud + 180, TAMANIO_CELDA_GRADOS);
+    }
+
+    private static long celda(int fila, int columna) {
+        return ((long) fila << 32) | (columna & 0xffffffffL);
+    }
+
+    /**
+     * Agregado de los eventos de una celda en un nivel de zoom
+     */
+    private static final class Grupo {
+
+        private final TreeSet<Long> ids = new TreeSet<>();
+        private double sumaLatitud;
+        private double sumaLongitud;
+
+        synchronized void agregar(Punto punto) {
+            if (ids.add(punto.eventoId())) {
+                sumaLatitud += punto.latitud();
+                sumaLongitud += punto.longitud();
+            }
+        }
+
+        /**
+         * @return true si el grupo quedó vacío
+         */
+        synchronized boolean quitar(Punto punto) {
+            if (ids.remove(punto.eventoId())) {
+                sumaLatitud -= punto.latitud();
+                sumaLongitud -= punto.longitud();
+            }
+            return ids.isEmpty();
+        }
+
+        synchronized ClusterMapaDTO aCluster() {
+            int cantidad = ids.size();
+            if (cantidad == 0) {
+                return new ClusterMapaDTO(0, 0, 0, List.of());
+            }
+            List<Long> representantes = ids.stream().limit(REPRESENTANTES_POR_GRUPO).toList();
+            return new ClusterMapaDTO(sumaLatitud / cantidad, sumaLongitud / cantidad, cantidad, representantes);
+        }
+    }
+}
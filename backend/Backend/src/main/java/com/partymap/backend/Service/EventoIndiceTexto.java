@@ -0,0 +1,325 @@
+package com.partymap.backend.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.partymap.backend.events.EventoCambiadoEvent;
+import com.partymap.backend.repository.EventoRepository;
+
+/**
+ * Índice invertido en memoria sobre el nombre y la descripción de los eventos activos.
+ *
+ * Los textos se normalizan (minúsculas y sin tildes, "Ñuñoa" = "nunoa") y se separan en términos.
+ * Cada término apunta a los eventos que lo contienen con un peso (el nombre pesa más que la descripción).
+ * Los términos se guardan ordenados, así cada palabra buscada también encuentra los términos
+ * que empiezan con ella ("fies" encuentra "fiesta"). El costo de una búsqueda depende de los
+ * eventos que coinciden y no del total del catálogo.
+ *
+ * Se carga en la primera búsqueda y se mantiene al día con los cambios de eventos,
+ * una vez confirmada cada transacción. Los cambios confirmados mientras se ejecuta la carga
+ * quedan pendientes y se reindexan al terminarla.
+ */
+@Component
+public class EventoIndiceTexto {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventoIndiceTexto.class);
+
+    static final int PESO_NOMBRE = 3;
+    static final int PESO_DESCRIPCION = 1;
+
+    /**
+     * Una coincidencia por prefijo vale menos que la palabra completa
+     */
+    static final double FACTOR_PREFIJO = 0.5;
+
+    /**
+     * Máximo de IDs por consulta al reindexar cambios pendientes (límite de la cláusula IN en Oracle)
+     */
+    private static final int MAXIMO_IDS_POR_CONSULTA = 1000;
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "de", "la", "el", "en", "y", "a", "los", "las", "del", "al", "un", "una",
+            "con", "por", "para", "que", "se", "su", "sus", "lo", "es", "o");
+
+    /**
+     * Resultado de una búsqueda: ID del evento y su puntaje de relevancia
+     */
+    public record Resultado(long eventoId, double puntaje) {
+    }
+
+    /**
+     * Términos de un evento indexado, para poder quitarlo del índice
+     */
+    private record Documento(Long usuarioId, Map<String, Integer> pesos) {
+    }
+
+    private final EventoRepository eventoRepository;
+
+    /**
+     * Término -> (ID de evento -> peso del término en el evento)
+     */
+    private final ConcurrentSkipListMap<String, Map<Long, Integer>> terminos = new ConcurrentSkipListMap<>();
+    private final Map<Long, Documento> documentos = new ConcurrentHashMap<>();
+
+    private volatile boolean cargado;
+
+    /**
+     * Eventos cambiados durante la carga inicial, protegidos con su propio monitor para no
+     * bloquear a quien confirma un cambio mientras la carga consulta la base
+     */
+    private final Object monitorPendientes = new Object();
+    private boolean cargando;
+    private final Set<Long> eventosPendientes = new LinkedHashSet<>();
+
+    public EventoIndiceTexto(EventoRepository eventoRepository) {
+        this.eventoRepository = eventoRepository;
+    }
+
+    /**
+     * Busca eventos que contengan todas las palabras del texto (completas o como prefijo),
+     * ordenados por relevancia
+     * @param texto Texto ingresado por el usuario
+     * @param usuarioId Si no es nulo, solo se consideran los eventos de ese productor
+     * @param limite Cantidad máxima de resultados
+     */
+    public List<Resultado> buscar(String texto, Long usuarioId, int limite) {
+        List<String> palabras = new ArrayList<>(new LinkedHashSet<>(terminosDe(texto)));
+        if (palabras.isEmpty()) {
+            return List.of();
+        }
+        asegurarCargado();
+
+        // Se parte por la palabra más selectiva para acotar los candidatos desde el inicio
+        List<Map<Long, Double>> puntajesPorPalabra = new ArrayList<>();
+        for (String palabra : palabras) {
+            puntajesPorPalabra.add(puntajesDe(palabra));
+        }
+        puntajesPorPalabra.sort(Comparator.comparingInt(Map::size));
+
+        Map<Long, Double> acumulado = new HashMap<>(puntajesPorPalabra.get(0));
+        for (int i = 1; i < puntajesPorPalabra.size() && !acumulado.isEmpty(); i++) {
+            Map<Long, Double> puntajes = puntajesPorPalabra.get(i);
+            acumulado.entrySet().removeIf(entrada -> !puntajes.containsKey(entrada.getKey()));
+            acumulado.replaceAll((id, puntaje) -> puntaje + puntajes.get(id));
+        }
+
+        List<Resultado> resultados = new ArrayList<>();
+        for (Map.Entry<Long, Double> entrada : acumulado.entrySet()) {
+            Documento documento = documentos.get(entrada.getKey());
+            if (documento != null && (usuarioId == null || usuarioId.equals(documento.usuarioId()))) {
+                resultados.add(new Resultado(entrada.getKey(), entrada.getValue()));
+            }
+        }
+        resultados.sort(Comparator.comparingDouble(Resultado::puntaje).reversed()
+                .thenComparingLong(Resultado::eventoId));
+        return resultados.size() > limite ? new ArrayList<>(resultados.subList(0, limite)) : resultados;
+    }
+
+    /**
+     * Reindexa los eventos tras un alta o modificación, o los quita tras una baja,
+     * con una sola consulta para todos los eventos del cambio
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onEventoCambiado(EventoCambiadoEvent evento) {
+        if (evento.getEventoIds().isEmpty()) {
+            return;
+        }
+        if (!cargado && dejarPendiente(evento.getEventoIds())) {
+            return;
+        }
+        synchronized (this) {
+            evento.getEventoIds().forEach(this::quitar);
+            if (evento.getTipo() != EventoCambiadoEvent.TipoCambio.ELIMINADO) {
+                agregarFilas(eventoRepository.findTextosActivosByIdIn(evento.getEventoIds()));
+            }
+        }
+    }
+
+    /**
+     * Cantidad de eventos indexados
+     */
+    public int getCantidadEventos() {
+        asegurarCargado();
+        return documentos.size();
+    }
+
+    /**
+     * Normaliza un texto y lo separa en términos indexables: minúsculas, sin tildes
+     * ni signos, sin palabras vacías y con al menos dos caracteres
+     */
+    static List<String> terminosDe(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        List<String> terminos = new ArrayList<>();
+        for (String termino : SEPARADORES.split(normalizar(texto))) {
+            if (termino.length() >= 2 && !PALABRAS_VACIAS.contains(termino)) {
+                terminos.add(termino);
+            }
+        }
+        return terminos;
+    }
+
+    /**
+     * Pasa un texto a minúsculas y le quita las tildes y diéresis ("Ñuñoa" -> "nunoa")
+     */
+    public static String normalizar(String texto) {
+        return MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Puntaje de cada evento para una palabra: peso del término por su rareza (idf),
+     * sumando los términos que empiezan con la palabra a un valor reducido
+     */
+    private Map<Long, Double> puntajesDe(String palabra) {
+        Map<Long, Double> puntajes = new HashMap<>();
+        int totalDocumentos = Math.max(1, documentos.size());
+        NavigableMap<String, Map<Long, Integer>> coincidencias =
+                terminos.subMap(palabra, true, palabra + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Map<Long, Integer>> termino : coincidencias.entrySet()) {
+            Map<Long, Integer> eventos = termino.getValue();
+            double idf = Math.log(1 + (double) totalDocumentos / Math.max(1, eventos.size()));
+            double factor = termino.getKey().equals(palabra) ? 1 : FACTOR_PREFIJO;
+            for (Map.Entry<Long, Integer> evento : eventos.entrySet()) {
+                // Por evento se conserva la mejor coincidencia de la palabra
+                puntajes.merge(evento.getKey(), evento.getValue() * idf * factor, Math::max);
+            }
+        }
+        return puntajes;
+    }
+
+    private void asegurarCargado() {
+        if (cargado) {
+            return;
+        }
+        synchronized (this) {
+            if (cargado) {
+                return;
+            }
+            long inicio = System.currentTimeMillis();
+            synchronized (monitorPendientes) {
+                cargando = true;
+            }
+            try {
+                agregarFilas(eventoRepository.findTextosActivos());
+                aplicarPendientes();
+            } finally {
+                if (!cargado) {
+                    // Carga fallida: la siguiente búsqueda vuelve a cargar todo desde la base
+                    synchronized (monitorPendientes) {
+                        cargando = false;
+                        eventosPendientes.clear();
+                    }
+                }
+            }
+            logger.info("Índice de texto cargado con {} eventos y {} términos en {} ms", documentos.size(),
+                    terminos.size(), System.currentTimeMillis() - inicio);
+        }
+    }
+
+    /**
+     * Deja pendiente un cambio que llega antes de que el índice esté cargado. Sin una carga
+     * en curso el cambio se descarta, porque la carga que venga lo leerá de la base.
+     * @return false si el índice terminó de cargarse y el cambio debe aplicarse de inmediato
+     */
+    private boolean dejarPendiente(List<Long> ids) {
+        synchronized (monitorPendientes) {
+            if (cargado) {
+                return false;
+            }
+            if (cargando) {
+                eventosPendientes.addAll(ids);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Reindexa los eventos cambiados durante la carga hasta que no quede ninguno y marca el
+     * índice como cargado. Se llama con el monitor del índice tomado.
+     */
+    private void aplicarPendientes() {
+        while (true) {
+            List<Long> ids;
+            synchronized (monitorPendientes) {
+                if (eventosPendientes.isEmpty()) {
+                    cargando = false;
+                    cargado = true;
+                    return;
+                }
+                ids = new ArrayList<>(eventosPendientes);
+                eventosPendientes.clear();
+            }
+            for (int desde = 0; desde < ids.size(); desde += MAXIMO_IDS_POR_CONSULTA) {
+                List<Long> bloque = ids.subList(desde, Math.min(ids.size(), desde + MAXIMO_IDS_POR_CONSULTA));
+                bloque.forEach(this::quitar);
+                agregarFilas(eventoRepository.findTextosActivosByIdIn(bloque));
+            }
+        }
+    }
+
+    /**
+     * Agrega eventos a partir de filas [id, usuarioId, nombre, descripcion]
+     */
+    private void agregarFilas(List<Object[]> filas) {
+        for (Object[] fila : filas) {
+            if (fila[0] == null) {
+                continue;
+            }
+            long id = ((Number) fila[0]).longValue();
+            Long usuarioId = fila[1] != null ? ((Number) fila[1]).longValue() : null;
+
+            Map<String, Integer> pesos = new HashMap<>();
+            for (String termino : terminosDe((String) fila[2])) {
+                pesos.merge(termino, PESO_NOMBRE, Integer::sum);
+            }
+            for (String termino : terminosDe((String) fila[3])) {
+                pesos.merge(termino, PESO_DESCRIPCION, Integer::sum);
+            }
+
+            quitar(id);
+            documentos.put(id, new Documento(usuarioId, Collections.unmodifiableMap(pesos)));
+            for (Map.Entry<String, Integer> peso : pesos.entrySet()) {
+                terminos.computeIfAbsent(peso.getKey(), t -> new ConcurrentHashMap<>()).put(id, peso.getValue());
+            }
+        }
+    }
+
+    private void quitar(long eventoId) {
+        Documento anterior = documentos.remove(eventoId);
+        if (anterior == null) {
+            return;
+        }
+        for (String termino : anterior.pesos().keySet()) {
+            terminos.computeIfPresent(termino, (t, eventos) -> {
+                eventos.remove(eventoId);
+                return eventos.isEmpty() ? null : eventos;
+            });
+        }
+    }
+}
@@ -1,9 +1,19 @@
 package com.partymap.backend.service;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import com.partymap.backend.dto.ClusterMapaDTO;
+import com.partymap.backend.dto.CursorPaginacion;
+import com.partymap.backend.dto.EstadisticasEventosDTO;
+import com.partymap.backend.dto.EventoFiltroDTO;
+import com.partymap.backend.dto.EventoResponseDTO;
 import com.partymap.backend.model.Evento;
 import com.partymap.backend.model.Ubicacion;
 
@@ -19,6 +29,63 @@ public interface EventoService {
      */
     List<Evento> getAllEvento();
 
+    /**
+     * Recorre los eventos activos ordenados por fecha e ID sin cargarlos todos en memoria.
+     * Debe llamarse dentro de una transacción y el Stream debe cerrarse al terminar
+     * @return Stream de eventos activos con su ubicación y productor cargados
+     */
+    Stream<Evento> streamEventosActivos();
+
+    /**
+     * Obtiene la respuesta de todos los eventos activos con una consulta de proyección,
+     * sin cargar entidades en el contexto de persistencia
+     * @return Lista de eventos activos ordenados por ID
+     */
+    List<EventoResponseDTO> getRespuestasEventosActivos();
+
+    /**
+     * Obtiene la respuesta de una página de eventos activos ordenados por fecha e ID a partir de un cursor
+     * @param cursor Último evento entregado (null para la primera página)
+     * @param tamanio Cantidad máxima de eventos a retornar
+     */
+    Slice<EventoResponseDTO> getRespuestasEventosDesdeCursor(CursorPaginacion cursor, int tamanio);
+
+    /**
+     * Obtiene la respuesta de los eventos de las próximas 24 horas con una consulta de proyección
+     */
+    List<EventoResponseDTO> getRespuestasEventosProximos();
+
+    /**
+     * Obtiene la respuesta de los eventos futuros con cupos con una consulta de proyección
+     */
+    List<EventoResponseDTO> getRespuestasEventosDisponibles();
+
+    /**
+     * Obtiene la respuesta de los eventos activos con fecha en [desde, hasta) con una consulta de proyección
+     * @param limite Cantidad máxima de eventos a retornar
+     * @throws IllegalArgumentException Si falta alguna fecha o desde no es anterior a hasta
+     */
+    List<EventoResponseDTO> getRespuestasEventosEnRango(LocalDateTime desde, LocalDateTime hasta, int limite);
+
+    /**
+     * Obtiene los eventos activos de las próximas 24 horas, ordenados por fecha
+     * @return Lista de eventos próximos
+     */
+    List<Evento> getEventosProximos();
+
+    /**
+     * Obtiene los eventos activos futuros que todavía tienen cupos, ordenados por fecha
+     * @return Lista de eventos disponibles para reservar
+     */
+    List<Evento> getEventosDisponibles();
+
+    /**
+     * Obtiene los conteos de eventos del panel de estadísticas en una sola consulta
+     * @param usuarioId ID del productor, o null para considerar todos los eventos
+     * @return Estadísticas de eventos
+     */
+    EstadisticasEventosDTO getEstadisticasEventos(Long usuarioId);
+
     /**
      * Busca un evento por su ID
      * @param id ID del evento a buscar
@@ -74,4 +141,50 @@ public interface EventoService {
      * @return Lista de eventos del usuario
      */
     List<Evento> getEventosByUsuarioId(Long usuarioId);
+
+    /**
+     * Busca eventos activos aplicando filtros, ordenamiento y paginación en la base de datos
+     * @param filtro Criterios de búsqueda, página, tamaño y ordenamiento
+     * @return Página de eventos que cumplen los criterios
+     */
+    Page<Evento> buscarEventos(EventoFiltroDTO filtro);
+
+    /**
+     * Busca eventos activos dentro de un radio, usando el índice espacial en memoria
+     * @param latitud Latitud del centro
+     * @param longitud Longitud del centro
+     * @param radioKm Radio en kilómetros
+     * @param limite Cantidad máxima de eventos
+     * @return Eventos ordenados del más cercano al más lejano
+     */
+    List<Evento> buscarEventosCercanos(double latitud, double longitud, double radioKm, int limite);
+
+    /**
+     * Busca eventos activos dentro de un rectángulo de coordenadas, usando el índice espacial en memoria
+     * @param latitudMinima Borde sur
+     * @param longitudMinima Borde oeste
+     * @param latitudMaxima Borde norte
+     * @param longitudMaxima Borde este
+     * @param limite Cantidad máxima de eventos
+     * @return Eventos dentro del área, ordenados por ID
+     */
+    List<Evento> buscarEventosEnArea(double latitudMinima, double longitudMinima,
+                                     double latitudMaxima, double longitudMaxima, int limite);
+
+    /**
+     * Agrupa los eventos activos de un área del mapa según el nivel de zoom
+     * @param zoom Nivel de zoom (menor a EventoIndiceEspacial.ZOOM_EVENTOS)
+     * @return Grupos con cantidad, centroide e IDs representativos
+     */
+    List<ClusterMapaDTO> agruparEventosEnArea(double latitudMinima, double longitudMinima,
+                                              double latitudMaxima, double longitudMaxima, int zoom);
+
+    /**
+     * Busca eventos activos por texto libre en nombre y descripción, usando el índice de texto en memoria
+     * @param texto Palabras a buscar (sin distinguir tildes ni mayúsculas, acepta prefijos)
+     * @param usuarioId Si no es nulo, solo eventos de ese productor
+     * @param limite Cantidad máxima de eventos
+     * @return Eventos ordenados por relevancia
+     */
+    List<Evento> buscarEventosPorTexto(String texto, Long usuarioId, int limite);
 }
@@ -0,0 +1,76 @@
+package com.partymap.backend.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Service;
+
+import com.partymap.backend.config.BffProperties;
+import com.partymap.backend.exceptions.ServicioNoDisponibleException;
+import com.partymap.backend.service.BffService;
+import com.partymap.backend.service.BffServiceAsync;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ejecuta BffService (con su cupo, circuito y caché) en un grupo de hilos del tamaño del cupo de
+ * llamadas al microservicio y una cola acotada; si la cola está llena, la llamada falla en el acto
+ * con ServicioNoDisponibleException.
+ */
+@Service
+public class BffServiceAsyncImpl implements BffServiceAsync {
+
+    private final BffService bffService;
+    private final ThreadPoolExecutor executor;
+
+	public BffServiceAsyncImpl(BffService bffService, BffProperties properties) {
+		this.bffService = bffService;
+		int hilos = Math.max(1, properties.getMaxLlamadasConcurrentes());
+		AtomicInteger contador = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(Math.max(1, properties.getColaAsincrona())),
+				tarea -> {
+					Thread hilo = new Thread(tarea, "bff-" + contador.incrementAndGet());
+					hilo.setDaemon(true);
+					return hilo;
+				});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	public CompletableFuture<String> create(Map<String, String> body) {
+		return ejecutar(() -> bffService.create(body));
+	}
+
+	public CompletableFuture<String> read(String id) {
+		return ejecutar(() -> bffService.read(id));
+	}
+
+	public CompletableFuture<String> update(String status) {
+		return ejecutar(() -> bffService.update(status));
+	}
+
+	public CompletableFuture<String> delete(String authHeader) {
+		return ejecutar(() -> bffService.delete(authHeader));
+	}
+
+	@PreDestroy
+	public void detener() {
+		executor.shutdown();
+	}
+
+	private CompletableFuture<String> ejecutar(Supplier<String> llamada) {
+		try {
+			return CompletableFuture.supplyAsync(llamada, executor);
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.failedFuture(
+					new ServicioNoDisponibleException("Demasiadas llamadas pendientes al microservicio", e));
+		}
+	}
+
+}
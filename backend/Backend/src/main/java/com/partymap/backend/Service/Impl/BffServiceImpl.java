@@ -1,37 +1,100 @@
 package com.partymap.backend.service.impl;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.function.Supplier;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.partymap.backend.config.BffProperties;
+import com.partymap.backend.exceptions.ServicioNoDisponibleException;
 import com.partymap.backend.restClients.ClienteRest;
 import com.partymap.backend.service.BffService;
+import com.partymap.backend.service.ResilienciaBff;
 
 @Service
 public class BffServiceImpl implements BffService {
 
+    private static final Logger logger = LoggerFactory.getLogger(BffServiceImpl.class);
+
+    /**
+     * Respuesta de read(id) guardada y cuándo se obtuvo (System.nanoTime)
+     */
+    private record Lectura(String valor, long obtenida) {
+    }
+
     private final ClienteRest clienteRest;
+    private final ResilienciaBff resiliencia;
+    private final long ttlLecturaNanos;
+
+    /**
+     * Últimas lecturas: se responden sin llamar mientras son recientes, y como respaldo
+     * mientras el microservicio no está disponible
+     */
+    private final Cache<String, Lectura> lecturas;
 
 	@Autowired
-	public BffServiceImpl(ClienteRest clienteRest) {
+	public BffServiceImpl(ClienteRest clienteRest, ResilienciaBff resiliencia, BffProperties properties) {
 		this.clienteRest = clienteRest;
+		this.resiliencia = resiliencia;
+		this.ttlLecturaNanos = Duration.ofSeconds(properties.getTtlLecturaSegundos()).toNanos();
+		this.lecturas = Caffeine.newBuilder()
+				.maximumSize(properties.getTamanioCacheLecturas())
+				.expireAfterWrite(Duration.ofSeconds(
+						Math.max(properties.getTtlLecturaSegundos(), properties.getTtlLecturaObsoletaSegundos())))
+				.build();
 	}
 
 	public String create(Map<String, String> body) {
-		return clienteRest.create(body);
+		return escribir("create", () -> clienteRest.create(body));
 	}
 
 	public String read(String id) {
-		return clienteRest.read(id);
+		Lectura guardada = lecturas.getIfPresent(id);
+		if (guardada != null && System.nanoTime() - guardada.obtenida() < ttlLecturaNanos) {
+			return guardada.valor();
+		}
+		try {
+			String valor = resiliencia.ejecutar("read", () -> clienteRest.read(id));
+			if (valor != null) {
+				lecturas.put(id, new Lectura(valor, System.nanoTime()));
+			}
+			return valor;
+		} catch (RuntimeException e) {
+			// Sin respuesta del microservicio se entrega la última lectura conocida, si la hay
+			if (guardada != null && (e instanceof ServicioNoDisponibleException || ResilienciaBff.esFallo(e))) {
+				logger.warn("Microservicio no disponible, se responde la última lectura de {}: {}", id, e.getMessage());
+				return guardada.valor();
+			}
+			throw e;
+		}
 	}
 
 	public String update(String status) {
-		return clienteRest.update(status);
+		return escribir("update", () -> clienteRest.update(status));
 	}
 
 	public String delete(String authHeader) {
-		return clienteRest.delete(authHeader);
+		return escribir("delete", () -> clienteRest.delete(authHeader));
+	}
+
+	/**
+	 * Las escrituras no indican qué recurso cambian, así que se olvidan todas las lecturas guardadas
+	 * en cuanto una llega al microservicio (aunque falle, pudo haberse aplicado)
+	 */
+	private String escribir(String operacion, Supplier<String> llamada) {
+		return resiliencia.ejecutar(operacion, () -> {
+			try {
+				return llamada.get();
+			} finally {
+				lecturas.invalidateAll();
+			}
+		});
 	}
 
 }
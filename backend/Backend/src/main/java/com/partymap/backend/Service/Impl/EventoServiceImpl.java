@@ -1,19 +1,47 @@
 package com.partymap.backend.service.impl;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import io.micrometer.core.annotation.Timed;
+
+import com.partymap.backend.config.MetricasConfig;
+import com.partymap.backend.dto.ClusterMapaDTO;
+import com.partymap.backend.dto.CursorPaginacion;
+import com.partymap.backend.dto.EstadisticasEventosDTO;
+import com.partymap.backend.dto.EventoFiltroDTO;
+import com.partymap.backend.dto.EventoResponseDTO;
+import com.partymap.backend.events.EventoCambiadoEvent;
+import com.partymap.backend.events.UbicacionCambiadaEvent;
 import com.partymap.backend.exceptions.NotFoundException;
 import com.partymap.backend.model.Evento;
 import com.partymap.backend.model.Ubicacion;
 import com.partymap.backend.repository.EventoRepository;
+import com.partymap.backend.repository.EventoSpecifications;
 import com.partymap.backend.repository.UbicacionRepository;
+import com.partymap.backend.service.EventoIndiceEspacial;
+import com.partymap.backend.service.EventoIndiceTexto;
 import com.partymap.backend.service.EventoService;
+import com.partymap.backend.service.UbicacionIndiceDuplicados;
 
 /**
  * Implementación del servicio de eventos.
@@ -21,14 +49,54 @@ import com.partymap.backend.service.EventoService;
  */
 @Service
 @Transactional
+@Timed(value = MetricasConfig.TIMER_SERVICIOS, histogram = true)
 public class EventoServiceImpl implements EventoService {
 
+    static final int TAMANIO_PAGINA_POR_DEFECTO = 20;
+    static final int TAMANIO_PAGINA_MAXIMO = 100;
+
+    /**
+     * Radio máximo permitido en la búsqueda por cercanía
+     */
+    static final double RADIO_MAXIMO_KM = 200;
+
+    /**
+     * Ventana de tiempo en la que un evento se considera próximo
+     */
+    static final int HORAS_PROXIMOS = 24;
+
+    /**
+     * Máximo de coincidencias del índice de texto consideradas en una búsqueda
+     */
+    static final int MAXIMO_RESULTADOS_TEXTO = 1000;
+
+    private static final String ORDEN_RELEVANCIA = "relevancia";
+
+    /**
+     * Campos por los que se permite ordenar la búsqueda (nombre público -> atributo de la entidad)
+     */
+    private static final Map<String, String> CAMPOS_ORDENAMIENTO = Map.of(
+            "fecha", "fecha",
+            "nombre", "nombre",
+            "precio", "precioEntrada",
+            "creacion", "fechaCreacion");
+
     private final EventoRepository eventoRepository;
     private final UbicacionRepository ubicacionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventoIndiceEspacial indiceEspacial;
+    private final EventoIndiceTexto indiceTexto;
+    private final UbicacionIndiceDuplicados indiceUbicaciones;
 
-    public EventoServiceImpl(EventoRepository eventoRepository, UbicacionRepository ubicacionRepository) {
+    public EventoServiceImpl(EventoRepository eventoRepository, UbicacionRepository ubicacionRepository,
+                             ApplicationEventPublisher eventPublisher, EventoIndiceEspacial indiceEspacial,
+                             EventoIndiceTexto indiceTexto, UbicacionIndiceDuplicados indiceUbicaciones) {
         this.eventoRepository = eventoRepository;
         this.ubicacionRepository = ubicacionRepository;
+        this.eventPublisher = eventPublisher;
+        this.indiceEspacial = indiceEspacial;
+        this.indiceTexto = indiceTexto;
+        this.indiceUbicaciones = indiceUbicaciones;
     }
 
     /**
@@ -41,6 +109,108 @@ public class EventoServiceImpl implements EventoService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Recorre los eventos activos por fecha e ID; la transacción la abre quien consume el Stream
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<Evento> streamEventosActivos() {
+        return eventoRepository.streamActivos();
+    }
+
+    /**
+     * Obtiene los eventos de las próximas 24 horas con una consulta por rango de fecha
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Evento> getEventosProximos() {
+        LocalDateTime ahora = LocalDateTime.now();
+        return eventoRepository.findActivosEntreFechas(ahora, ahora.plusHours(HORAS_PROXIMOS), Pageable.unpaged());
+    }
+
+    /**
+     * Obtiene los eventos disponibles; los pasados y los agotados se descartan en la consulta
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Evento> getEventosDisponibles() {
+        return eventoRepository.findDisponiblesDesde(LocalDateTime.now());
+    }
+
+    private static void validarRango(LocalDateTime desde, LocalDateTime hasta) {
+        if (desde == null || hasta == null) {
+            throw new IllegalArgumentException("Las fechas desde y hasta son obligatorias");
+        }
+        if (!desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("La fecha desde debe ser anterior a la fecha hasta");
+        }
+    }
+
+    /**
+     * Obtiene la respuesta de los eventos activos sin cargar entidades en el contexto de persistencia
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventoResponseDTO> getRespuestasEventosActivos() {
+        return eventoRepository.findRespuestasActivos();
+    }
+
+    /**
+     * Obtiene la respuesta de una página de eventos activos desde un cursor (fecha, id)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<EventoResponseDTO> getRespuestasEventosDesdeCursor(CursorPaginacion cursor, int tamanio) {
+        Pageable pageable = PageRequest.of(0, tamanio);
+        if (cursor == null) {
+            return eventoRepository.findRespuestasPrimeraPaginaActivos(pageable);
+        }
+        if (cursor.getFecha() == null) {
+            throw new IllegalArgumentException("El cursor de eventos debe incluir la fecha");
+        }
+        return eventoRepository.findRespuestasPaginaActivosDesde(cursor.getFecha(), cursor.getId(), pageable);
+    }
+
+    /**
+     * Obtiene la respuesta de los eventos de las próximas 24 horas
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventoResponseDTO> getRespuestasEventosProximos() {
+        LocalDateTime ahora = LocalDateTime.now();
+        return eventoRepository.findRespuestasActivosEntreFechas(ahora, ahora.plusHours(HORAS_PROXIMOS),
+                Pageable.unpaged());
+    }
+
+    /**
+     * Obtiene la respuesta de los eventos disponibles; los pasados y los agotados se descartan en la consulta
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventoResponseDTO> getRespuestasEventosDisponibles() {
+        return eventoRepository.findRespuestasDisponiblesDesde(LocalDateTime.now());
+    }
+
+    /**
+     * Obtiene la respuesta de los eventos de un rango de fechas
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventoResponseDTO> getRespuestasEventosEnRango(LocalDateTime desde, LocalDateTime hasta, int limite) {
+        validarRango(desde, hasta);
+        return eventoRepository.findRespuestasActivosEntreFechas(desde, hasta, PageRequest.of(0, limite));
+    }
+
+    /**
+     * Obtiene las estadísticas de eventos con una consulta de conteos condicionales
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public EstadisticasEventosDTO getEstadisticasEventos(Long usuarioId) {
+        LocalDateTime ahora = LocalDateTime.now();
+        return eventoRepository.contarEstadisticas(usuarioId, ahora, ahora.plusHours(HORAS_PROXIMOS));
+    }
+
     /**
      * Obtiene un evento por su ID
      */
@@ -54,7 +224,9 @@ public class EventoServiceImpl implements EventoService {
      */
     @Override
     public Evento createEvento(Evento evento) throws IOException {
-        return eventoRepository.save(evento);
+        Evento eventoCreado = eventoRepository.save(evento);
+        publicarCambio(eventoCreado, EventoCambiadoEvent.TipoCambio.CREADO);
+        return eventoCreado;
     }
 
     /**
@@ -78,9 +250,6 @@ public class EventoServiceImpl implements EventoService {
                 throw new IllegalArgumentException("Las coordenadas de la ubicación no son válidas");
             }
             
-            // Guardar la ubicación
-            Ubicacion ubicacionGuardada = ubicacionRepository.save(ubicacion);
-            
             // Validar evento
             if (evento.getUsuario() == null) {
                 throw new IllegalArgumentException("El evento debe tener un usuario asignado");
@@ -107,6 +276,8 @@ public class EventoServiceImpl implements EventoService {
                 throw new IllegalArgumentException("La descripción no puede exceder 2000 caracteres");
             }
             
+            Ubicacion ubicacionGuardada = reutilizarOCrearUbicacion(ubicacion);
+            
             // Crear una nueva instancia del evento para evitar problemas de cascade
             Evento nuevoEvento = new Evento();
             nuevoEvento.setNombre(evento.getNombre());
@@ -121,6 +292,7 @@ public class EventoServiceImpl implements EventoService {
             
             // Guardar el evento
             Evento eventoCreado = eventoRepository.save(nuevoEvento);
+            publicarCambio(eventoCreado, EventoCambiadoEvent.TipoCambio.CREADO);
             
             return eventoCreado;
             
@@ -154,11 +326,14 @@ public class EventoServiceImpl implements EventoService {
             
             // Guardar la nueva ubicación
             Ubicacion ubicacionGuardada = ubicacionRepository.save(ubicacion);
+            eventPublisher.publishEvent(new UbicacionCambiadaEvent(ubicacionGuardada.getId()));
             evento.setUbicacion(ubicacionGuardada);
         }
         
         evento.setId(id);
-        return eventoRepository.save(evento);
+        Evento eventoActualizado = eventoRepository.save(evento);
+        publicarCambio(eventoActualizado, EventoCambiadoEvent.TipoCambio.ACTUALIZADO);
+        return eventoActualizado;
     }
 
     /**
@@ -211,19 +386,25 @@ public class EventoServiceImpl implements EventoService {
             throw new IllegalArgumentException("La descripción no puede exceder 2000 caracteres");
         }
         
-        // Actualizar la ubicación existente o crear una nueva
+        // Editar la ubicación solo si este evento es el único que la usa; si es compartida
+        // (por ejemplo, reutilizada al crear otro evento) se cambia este evento a otra ubicación
         Ubicacion ubicacionActualizada;
-        if (eventoActual.getUbicacion() != null) {
-            // Actualizar ubicación existente
-            Ubicacion ubicacionExistente = eventoActual.getUbicacion();
+        Ubicacion ubicacionExistente = eventoActual.getUbicacion();
+        if (ubicacionExistente != null
+                && !ubicacionRepository.tieneOtrosEventos(ubicacionExistente.getId(), eventoActual.getId())) {
             ubicacionExistente.setDireccion(ubicacion.getDireccion());
             ubicacionExistente.setComuna(ubicacion.getComuna());
             ubicacionExistente.setLatitud(ubicacion.getLatitud());
             ubicacionExistente.setLongitud(ubicacion.getLongitud());
             ubicacionActualizada = ubicacionRepository.save(ubicacionExistente);
+            eventPublisher.publishEvent(new UbicacionCambiadaEvent(ubicacionActualizada.getId()));
         } else {
-            // Crear nueva ubicación
-            ubicacionActualizada = ubicacionRepository.save(ubicacion);
+            Ubicacion nueva = new Ubicacion();
+            nueva.setDireccion(ubicacion.getDireccion());
+            nueva.setComuna(ubicacion.getComuna());
+            nueva.setLatitud(ubicacion.getLatitud());
+            nueva.setLongitud(ubicacion.getLongitud());
+            ubicacionActualizada = reutilizarOCrearUbicacion(nueva);
         }
         
         // Actualizar el evento
@@ -236,7 +417,27 @@ public class EventoServiceImpl implements EventoService {
         eventoActual.setUbicacion(ubicacionActualizada);
         
         // Guardar el evento actualizado
-        return eventoRepository.save(eventoActual);
+        Evento eventoActualizado = eventoRepository.save(eventoActual);
+        publicarCambio(eventoActualizado, EventoCambiadoEvent.TipoCambio.ACTUALIZADO);
+        return eventoActualizado;
+    }
+
+    /**
+     * Reutiliza la ubicación si el mismo lugar ya existe (aunque la dirección esté escrita distinto)
+     * o guarda la recibida como una nueva
+     */
+    private Ubicacion reutilizarOCrearUbicacion(Ubicacion ubicacion) {
+        Ubicacion existente = indiceUbicaciones.buscarDuplicado(ubicacion.getDireccion(),
+                        ubicacion.getComuna(), ubicacion.getLatitud(), ubicacion.getLongitud())
+                .flatMap(ubicacionRepository::findById)
+                .filter(guardada -> guardada.getActivo() == 1)
+                .orElse(null);
+        if (existente != null) {
+            return existente;
+        }
+        Ubicacion guardada = ubicacionRepository.save(ubicacion);
+        eventPublisher.publishEvent(new UbicacionCambiadaEvent(guardada.getId()));
+        return guardada;
     }
 
     /**
@@ -251,6 +452,7 @@ public class EventoServiceImpl implements EventoService {
         // Soft delete: cambiar estado activo a 0
         evento.setActivo(0);
         eventoRepository.save(evento);
+        publicarCambio(evento, EventoCambiadoEvent.TipoCambio.ELIMINADO);
     }
 
     /**
@@ -262,4 +464,203 @@ public class EventoServiceImpl implements EventoService {
                 .filter(evento -> evento.getActivo() == 1)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Busca eventos activos con filtros, resolviendo filtrado, orden y paginación en una sola consulta
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Evento> buscarEventos(EventoFiltroDTO filtro) {
+        EventoFiltroDTO criterios = filtro != null ? filtro : new EventoFiltroDTO();
+
+        if (criterios.getPrecioMinimo() != null && criterios.getPrecioMaximo() != null
+                && criterios.getPrecioMinimo().compareTo(criterios.getPrecioMaximo()) > 0) {
+            throw new IllegalArgumentException("El precio mínimo no puede ser mayor al precio máximo");
+        }
+        if (criterios.getFechaDesde() != null && criterios.getFechaHasta() != null
+                && criterios.getFechaDesde().isAfter(criterios.getFechaHasta())) {
+            throw new IllegalArgumentException("La fecha desde no puede ser posterior a la fecha hasta");
+        }
+
+        Specification<Evento> especificacion = EventoSpecifications.conFiltro(criterios, LocalDateTime.now());
+        boolean porRelevancia = ORDEN_RELEVANCIA.equalsIgnoreCase(textoOVacio(criterios.getOrdenarPor()));
+
+        if (!textoOVacio(criterios.getTexto()).isEmpty()) {
+            // El índice de texto resuelve las coincidencias; la base de datos aplica el resto de los filtros
+            List<Long> ids = indiceTexto.buscar(criterios.getTexto(), null, MAXIMO_RESULTADOS_TEXTO).stream()
+                    .map(EventoIndiceTexto.Resultado::eventoId)
+                    .collect(Collectors.toList());
+            especificacion = especificacion.and(EventoSpecifications.conIds(ids));
+            if (porRelevancia || textoOVacio(criterios.getOrdenarPor()).isEmpty()) {
+                return paginarPorRelevancia(especificacion, ids, criterios);
+            }
+        } else if (porRelevancia) {
+            throw new IllegalArgumentException("El ordenamiento por relevancia requiere el parámetro texto");
+        }
+
+        return eventoRepository.findAll(especificacion, construirPaginacion(criterios));
+    }
+
+    /**
+     * Busca eventos activos por texto con el índice invertido y los carga en orden de relevancia
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Evento> buscarEventosPorTexto(String texto, Long usuarioId, int limite) {
+        return cargarEnOrden(indiceTexto.buscar(texto, usuarioId, limite).stream()
+                .map(EventoIndiceTexto.Resultado::eventoId)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Pagina en memoria los resultados de una búsqueda por texto en el orden del índice.
+     * El conjunto está acotado por MAXIMO_RESULTADOS_TEXTO.
+     */
+    private Page<Evento> paginarPorRelevancia(Specification<Evento> especificacion, List<Long> idsOrdenados,
+                                              EventoFiltroDTO filtro) {
+        Pageable pageable = PageRequest.of(resolverPagina(filtro), resolverTamanio(filtro));
+        if (idsOrdenados.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        Map<Long, Integer> posiciones = posicionesDe(idsOrdenados);
+        List<Evento> eventos = eventoRepository.findAll(especificacion).stream()
+                .sorted(Comparator.comparing(evento -> posiciones.get(evento.getId())))
+                .collect(Collectors.toList());
+        int desde = (int) Math.min(pageable.getOffset(), eventos.size());
+        int hasta = Math.min(desde + pageable.getPageSize(), eventos.size());
+        return new PageImpl<>(eventos.subList(desde, hasta), pageable, eventos.size());
+    }
+
+    private static String textoOVacio(String valor) {
+        return valor != null ? valor.trim() : "";
+    }
+
+    /**
+     * Busca eventos activos dentro de un radio: el índice espacial entrega los IDs ordenados
+     * por distancia y los eventos se cargan con una sola consulta
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Evento> buscarEventosCercanos(double latitud, double longitud, double radioKm, int limite) {
+        validarCoordenadas(latitud, longitud);
+        if (!(radioKm > 0) || radioKm > RADIO_MAXIMO_KM) {
+            throw new IllegalArgumentException("El radio debe ser mayor a 0 y no superar " + (int) RADIO_MAXIMO_KM + " km");
+        }
+        return cargarEnOrden(idsDe(indiceEspacial.buscarCercanos(latitud, longitud, radioKm, limite)));
+    }
+
+    /**
+     * Busca eventos activos dentro de un rectángulo de coordenadas usando el índice espacial
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Evento> buscarEventosEnArea(double latitudMinima, double longitudMinima,
+                                            double latitudMaxima, double longitudMaxima, int limite) {
+        validarArea(latitudMinima, longitudMinima, latitudMaxima, longitudMaxima);
+        return cargarEnOrden(idsDe(indiceEspacial.buscarEnArea(latitudMinima, longitudMinima,
+                latitudMaxima, longitudMaxima, limite)));
+    }
+
+    /**
+     * Agrupa los eventos del área con la grilla por zoom del índice espacial, sin consultar la base de datos
+     */
+    @Override
+    public List<ClusterMapaDTO> agruparEventosEnArea(double latitudMinima, double longitudMinima,
+                                                     double latitudMaxima, double longitudMaxima, int zoom) {
+        validarArea(latitudMinima, longitudMinima, latitudMaxima, longitudMaxima);
+        return indiceEspacial.agrupar(latitudMinima, longitudMinima, latitudMaxima, longitudMaxima, zoom);
+    }
+
+    private void validarArea(double latitudMinima, double longitudMinima, double latitudMaxima, double longitudMaxima) {
+        validarCoordenadas(latitudMinima, longitudMinima);
+        validarCoordenadas(latitudMaxima, longitudMaxima);
+        if (latitudMinima > latitudMaxima || longitudMinima > longitudMaxima) {
+            throw new IllegalArgumentException("El área debe indicar primero la esquina suroeste y luego la noreste");
+        }
+    }
+
+    private void validarCoordenadas(double latitud, double longitud) {
+        if (!(latitud >= -90 && latitud <= 90) || !(longitud >= -180 && longitud <= 180)) {
+            throw new IllegalArgumentException("Las coordenadas no son válidas: latitud entre -90 y 90, longitud entre -180 y 180");
+        }
+    }
+
+    /**
+     * Carga los eventos de los resultados del índice respetando el orden del índice
+     */
+    private List<Evento> cargarEnOrden(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> posiciones = posicionesDe(ids);
+        return eventoRepository.findActivosConDetalleByIdIn(posiciones.keySet()).stream()
+                .sorted(Comparator.comparing(evento -> posiciones.get(evento.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private static Map<Long, Integer> posicionesDe(List<Long> ids) {
+        Map<Long, Integer> posiciones = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            posiciones.put(ids.get(i), i);
+        }
+        return posiciones;
+    }
+
+    private static List<Long> idsDe(List<EventoIndiceEspacial.Resultado> resultados) {
+        return resultados.stream().map(EventoIndiceEspacial.Resultado::eventoId).collect(Collectors.toList());
+    }
+
+    /**
+     * Publica el cambio de un evento; los interesados (por ejemplo la caché del catálogo)
+     * lo procesan una vez confirmada la transacción
+     */
+    private void publicarCambio(Evento evento, EventoCambiadoEvent.TipoCambio tipo) {
+        if (evento != null) {
+            eventPublisher.publishEvent(new EventoCambiadoEvent(evento.getId(), tipo));
+        }
+    }
+
+    /**
+     * Construye la paginación a partir del filtro, acotando el tamaño de página
+     * y agregando el ID como desempate para que el orden sea estable entre páginas
+     */
+    private Pageable construirPaginacion(EventoFiltroDTO filtro) {
+        int pagina = resolverPagina(filtro);
+        int tamanio = resolverTamanio(filtro);
+
+        String campo = "fecha";
+        if (filtro.getOrdenarPor() != null && !filtro.getOrdenarPor().isBlank()) {
+            campo = CAMPOS_ORDENAMIENTO.get(filtro.getOrdenarPor().trim().toLowerCase());
+            if (campo == null) {
+                throw new IllegalArgumentException("Campo de ordenamiento no válido: " + filtro.getOrdenarPor()
+                        + ". Valores permitidos: " + CAMPOS_ORDENAMIENTO.keySet());
+            }
+        }
+
+        Sort.Direction direccion = Sort.Direction.ASC;
+        if (filtro.getDireccion() != null && !filtro.getDireccion().isBlank()) {
+            direccion = Sort.Direction.fromOptionalString(filtro.getDireccion().trim())
+                    .orElseThrow(() -> new IllegalArgumentException(
+                            "Dirección de ordenamiento no válida: " + filtro.getDireccion()));
+        }
+
+        Sort orden = Sort.by(direccion, campo).and(Sort.by(direccion, "id"));
+        return PageRequest.of(pagina, tamanio, orden);
+    }
+
+    private int resolverPagina(EventoFiltroDTO filtro) {
+        int pagina = filtro.getPagina() != null ? filtro.getPagina() : 0;
+        if (pagina < 0) {
+            throw new IllegalArgumentException("El número de página no puede ser negativo");
+        }
+        return pagina;
+    }
+
+    private int resolverTamanio(EventoFiltroDTO filtro) {
+        int tamanio = filtro.getTamanio() != null ? filtro.getTamanio() : TAMANIO_PAGINA_POR_DEFECTO;
+        if (tamanio < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a 0");
+        }
+        return Math.min(tamanio, TAMANIO_PAGINA_MAXIMO);
+    }
 }
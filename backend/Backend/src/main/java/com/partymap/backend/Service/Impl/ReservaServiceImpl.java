@@ -3,19 +3,46 @@ package com.partymap.backend.service.impl;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import io.micrometer.core.annotation.Timed;
+
+import com.partymap.backend.config.MetricasConfig;
+import com.partymap.backend.dto.CursorPaginacion;
+import com.partymap.backend.dto.ReservaResponseDTO;
+import com.partymap.backend.events.ReservaCambiadaEvent;
 import com.partymap.backend.exceptions.NotFoundException;
 import com.partymap.backend.model.EstadoReserva;
+import com.partymap.backend.model.Evento;
 import com.partymap.backend.model.Reserva;
+import com.partymap.backend.repository.EventoRepository;
 import com.partymap.backend.repository.ReservaRepository;
+import com.partymap.backend.service.EscrituraPorLotes;
+import com.partymap.backend.service.ReservaEstadisticas;
 import com.partymap.backend.service.ReservaService;
 
 /**
@@ -25,12 +52,34 @@ import com.partymap.backend.service.ReservaService;
  */
 @Service
 @Transactional
+@Timed(value = MetricasConfig.TIMER_SERVICIOS, histogram = true)
 public class ReservaServiceImpl implements ReservaService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReservaServiceImpl.class);
+
+    /**
+     * Intentos máximos de una operación que asigna cupos cuando la base de datos informa un conflicto de bloqueo
+     */
+    static final int MAX_INTENTOS_ASIGNACION = 3;
+
+    private static final String MENSAJE_RESERVA_REPETIDA = "El usuario ya tiene una reserva activa para este evento";
+
     private final ReservaRepository reservaRepository;
+    private final EventoRepository eventoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReservaEstadisticas estadisticas;
+    private final EscrituraPorLotes escrituraPorLotes;
+    private final TransactionTemplate transaccion;
 
-    public ReservaServiceImpl(ReservaRepository reservaRepository) {
+    public ReservaServiceImpl(ReservaRepository reservaRepository, EventoRepository eventoRepository,
+                              ApplicationEventPublisher eventPublisher, ReservaEstadisticas estadisticas,
+                              EscrituraPorLotes escrituraPorLotes, PlatformTransactionManager transactionManager) {
         this.reservaRepository = reservaRepository;
+        this.eventoRepository = eventoRepository;
+        this.eventPublisher = eventPublisher;
+        this.estadisticas = estadisticas;
+        this.escrituraPorLotes = escrituraPorLotes;
+        this.transaccion = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -43,6 +92,73 @@ public class ReservaServiceImpl implements ReservaService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Obtiene la respuesta de las reservas activas sin cargar entidades en el contexto de persistencia
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ReservaResponseDTO> getRespuestasReservasActivas() {
+        return reservaRepository.findRespuestasActivas();
+    }
+
+    /**
+     * Obtiene la respuesta de las reservas activas de un usuario sin cargar entidades
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ReservaResponseDTO> getRespuestasReservasByUsuarioId(Long usuarioId) {
+        return reservaRepository.findRespuestasActivasDeUsuario(usuarioId);
+    }
+
+    /**
+     * Obtiene la respuesta de las reservas activas de un evento sin cargar entidades
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ReservaResponseDTO> getRespuestasReservasByEventoId(Long eventoId) {
+        return reservaRepository.findRespuestasActivasDeEvento(eventoId);
+    }
+
+    /**
+     * Recorre las reservas activas por ID; la transacción la abre quien consume el Stream
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<Reserva> streamReservasActivas() {
+        return reservaRepository.streamActivas();
+    }
+
+    /**
+     * Recorre las reservas activas de un usuario por ID; la transacción la abre quien consume el Stream
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<Reserva> streamReservasByUsuarioId(Long usuarioId) {
+        return reservaRepository.streamActivasDeUsuario(usuarioId);
+    }
+
+    /**
+     * Obtiene una página de reservas activas desde un cursor por ID
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Reserva> getReservasDesdeCursor(CursorPaginacion cursor, int tamanio) {
+        return reservaRepository.findPaginaActivasDesde(idDesde(cursor), PageRequest.of(0, tamanio));
+    }
+
+    /**
+     * Obtiene una página de reservas activas de un usuario desde un cursor por ID
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Reserva> getReservasByUsuarioIdDesdeCursor(Long usuarioId, CursorPaginacion cursor, int tamanio) {
+        return reservaRepository.findPaginaActivasDeUsuarioDesde(usuarioId, idDesde(cursor), PageRequest.of(0, tamanio));
+    }
+
+    private Long idDesde(CursorPaginacion cursor) {
+        return cursor != null ? cursor.getId() : 0L;
+    }
+
     /**
      * Busca una reserva por su ID
      */
@@ -52,10 +168,24 @@ public class ReservaServiceImpl implements ReservaService {
     }
 
     /**
-     * Crea una nueva reserva con validaciones completas
+     * Crea una nueva reserva con validaciones completas.
+     * Sin transacción de quien llama, se crea en una transacción propia que se repite completa
+     * ante un conflicto de bloqueo (ver conReintentos)
      */
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Reserva createReserva(Reserva reserva) throws IOException {
+        Evento evento = reserva != null ? reserva.getEvento() : null;
+        Integer entradasAntes = evento != null ? evento.getEntradasReservadas() : null;
+        return conReintentos("crear la reserva", () -> crearReserva(reserva), () -> {
+            reserva.setId(null);
+            if (evento != null) {
+                evento.setEntradasReservadas(entradasAntes);
+            }
+        });
+    }
+
+    private Reserva crearReserva(Reserva reserva) {
         // Validar campos obligatorios no nulos
         if (reserva == null) {
             throw new IllegalArgumentException("La reserva no puede ser nula");
@@ -102,22 +232,10 @@ public class ReservaServiceImpl implements ReservaService {
             throw new IllegalArgumentException("No hay suficientes cupos disponibles. Cupos disponibles: " + cuposDisponibles + ", Cantidad solicitada: " + reserva.getCantidad());
         }
         
-        // Verificar que el usuario no tenga ya una reserva activa para este evento
-        List<Reserva> reservasExistentes = getReservasByUsuarioId(reserva.getUsuario().getId());
-        boolean yaTieneReserva = reservasExistentes.stream()
-                .anyMatch(r -> r.getEvento().getId().equals(reserva.getEvento().getId()) && r.isActiva());
-        
-        if (yaTieneReserva) {
-            throw new IllegalArgumentException("El usuario ya tiene una reserva activa para este evento");
-        }
-        
-        // Verificar límite de 5 reservas ACTIVAS por usuario por evento (NO incluir canceladas)
-        long totalReservasActivasUsuarioEvento = reservasExistentes.stream()
-                .filter(r -> r.getEvento().getId().equals(reserva.getEvento().getId()) && r.isActiva())
-                .count();
-        
-        if (totalReservasActivasUsuarioEvento >= 5) {
-            throw new IllegalArgumentException("El usuario ya ha alcanzado el límite máximo de 5 reservas activas para este evento");
+        // Verificar que el usuario no tenga ya una reserva activa para este evento. Dos solicitudes
+        // simultáneas pueden pasar ambas esta verificación: la segunda la rechaza el índice único al guardar
+        if (tieneReservaActiva(reserva.getUsuario().getId(), reserva.getEvento().getId())) {
+            throw new IllegalArgumentException(MENSAJE_RESERVA_REPETIDA);
         }
         
         // Establecer precio unitario si no se especifica
@@ -135,14 +253,211 @@ public class ReservaServiceImpl implements ReservaService {
         // - Establecimiento de estado por defecto (@PrePersist)
         // - Cálculo automático del precio total (@PrePersist)
         
-        return reservaRepository.save(reserva);
+        // Asignar los cupos de forma atómica antes de guardar; si la transacción
+        // falla después, la asignación se revierte junto con la reserva
+        if (ocupaCupos(reserva)) {
+            asignarCupos(reserva.getEvento(), reserva.getCantidad(), "No hay suficientes cupos disponibles. Cupos disponibles: "
+                    + reserva.getEvento().getCuposDisponibles() + ", Cantidad solicitada: " + reserva.getCantidad());
+        }
+        Reserva creada = guardarReservaVigente(reserva);
+        publicarCambio(reserva, null);
+        return creada;
+    }
+
+    /**
+     * Crea un lote de reservas en una sola transacción.
+     * Las reservas activas ya existentes se consultan una vez para todo el lote, los cupos se
+     * asignan con una actualización por evento (en orden de ID, para que lotes concurrentes tomen
+     * los bloqueos en el mismo orden) y las reservas se insertan por lotes JDBC
+     */
+    @Override
+    public List<ResultadoLote> createReservasLote(List<Reserva> reservas) {
+        if (reservas == null || reservas.isEmpty()) {
+            throw new IllegalArgumentException("El lote debe incluir al menos una reserva");
+        }
+        if (reservas.size() > MAX_RESERVAS_POR_LOTE) {
+            throw new IllegalArgumentException("El lote no puede superar las " + MAX_RESERVAS_POR_LOTE + " reservas");
+        }
+
+        String[] errores = new String[reservas.size()];
+        for (int i = 0; i < reservas.size(); i++) {
+            errores[i] = validarReservaDeLote(reservas.get(i));
+        }
+        rechazarReservasRepetidas(reservas, errores);
+
+        Map<Long, List<Integer>> indicesPorEvento = new TreeMap<>();
+        for (int i = 0; i < reservas.size(); i++) {
+            if (errores[i] == null) {
+                indicesPorEvento.computeIfAbsent(reservas.get(i).getEvento().getId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+        for (List<Integer> indices : indicesPorEvento.values()) {
+            asignarCuposDeLote(reservas, indices, errores);
+        }
+
+        List<Reserva> aceptadas = new ArrayList<>();
+        for (int i = 0; i < reservas.size(); i++) {
+            if (errores[i] == null) {
+                aceptadas.add(reservas.get(i));
+            }
+        }
+        try {
+            escrituraPorLotes.persistir(aceptadas);
+        } catch (DataIntegrityViolationException e) {
+            // Otra solicitud creó una de estas reservas después de rechazarReservasRepetidas; se revierte el lote
+            throw new IllegalArgumentException("Otra solicitud creó al mismo tiempo una reserva activa para un "
+                    + "usuario y evento del lote. Intente nuevamente", e);
+        }
+        aceptadas.forEach(reserva -> publicarCambio(reserva, null));
+
+        List<ResultadoLote> resultados = new ArrayList<>(reservas.size());
+        for (int i = 0; i < reservas.size(); i++) {
+            resultados.add(errores[i] == null
+                    ? ResultadoLote.creada(reservas.get(i))
+                    : ResultadoLote.rechazada(errores[i]));
+        }
+        logger.info("Lote de {} reservas procesado: {} creadas", reservas.size(), aceptadas.size());
+        return resultados;
+    }
+
+    /**
+     * Aplica a una reserva del lote las validaciones de createReserva que no dependen del resto del lote
+     * y completa su precio unitario
+     * @return Motivo del rechazo, o null si la reserva es válida
+     */
+    private String validarReservaDeLote(Reserva reserva) {
+        if (reserva == null) {
+            return "La reserva no puede ser nula";
+        }
+        if (reserva.getUsuario() == null || reserva.getUsuario().getId() == null) {
+            return "La reserva debe tener un usuario asociado";
+        }
+        if (reserva.getEvento() == null || reserva.getEvento().getId() == null) {
+            return "La reserva debe tener un evento asociado";
+        }
+        if (reserva.getCantidad() == null) {
+            return "La cantidad no puede ser nula";
+        }
+        if (reserva.getCantidad() <= 0) {
+            return "La cantidad debe ser mayor a 0";
+        }
+        if (reserva.getCantidad() > 50) {
+            return "La cantidad máxima permitida es 50 entradas por reserva";
+        }
+        if (reserva.getUsuario().getActivo() != 1) {
+            return "El usuario no está activo";
+        }
+        Evento evento = reserva.getEvento();
+        if (evento.getActivo() != 1) {
+            return "El evento no está activo";
+        }
+        if (evento.isEventoPasado()) {
+            return "El evento ya ha pasado";
+        }
+        if (!evento.isDisponible()) {
+            return "El evento no está disponible para reservas";
+        }
+        if (reserva.getPrecioUnitario() == null) {
+            reserva.setPrecioUnitario(evento.getPrecioEntrada());
+        }
+        if (reserva.getPrecioUnitario() != null && reserva.getPrecioUnitario().compareTo(BigDecimal.ZERO) < 0) {
+            return "El precio unitario no puede ser negativo";
+        }
+        return null;
+    }
+
+    /**
+     * Rechaza las reservas de usuarios que ya tienen una reserva activa para el evento,
+     * ya sea guardada o anterior dentro del mismo lote
+     */
+    private void rechazarReservasRepetidas(List<Reserva> reservas, String[] errores) {
+        Set<Long> usuarioIds = new HashSet<>();
+        Set<Long> eventoIds = new HashSet<>();
+        for (int i = 0; i < reservas.size(); i++) {
+            if (errores[i] == null) {
+                usuarioIds.add(reservas.get(i).getUsuario().getId());
+                eventoIds.add(reservas.get(i).getEvento().getId());
+            }
+        }
+        if (usuarioIds.isEmpty()) {
+            return;
+        }
+
+        Set<List<Long>> ocupados = new HashSet<>();
+        for (Object[] par : reservaRepository.findParesConReservaActiva(usuarioIds, eventoIds)) {
+            ocupados.add(List.of(((Number) par[0]).longValue(), ((Number) par[1]).longValue()));
+        }
+        for (int i = 0; i < reservas.size(); i++) {
+            if (errores[i] != null) {
+                continue;
+            }
+            Reserva reserva = reservas.get(i);
+            if (!ocupados.add(List.of(reserva.getUsuario().getId(), reserva.getEvento().getId()))) {
+                errores[i] = MENSAJE_RESERVA_REPETIDA;
+            }
+        }
+    }
+
+    /**
+     * Asigna los cupos de las reservas de un evento del lote, en el orden en que llegaron.
+     * Las que caben en los cupos leídos se asignan con una sola actualización condicional; si entre
+     * la lectura y la actualización otra operación tomó cupos, se asignan de a una las que aún caben
+     * @param indices Posiciones en el lote de las reservas válidas del evento
+     */
+    private void asignarCuposDeLote(List<Reserva> reservas, List<Integer> indices, String[] errores) {
+        Evento evento = reservas.get(indices.get(0)).getEvento();
+        long cupos = evento.getCuposDisponibles();
+        List<Integer> caben = new ArrayList<>();
+        int total = 0;
+        for (int indice : indices) {
+            int cantidad = reservas.get(indice).getCantidad();
+            if (total + cantidad <= cupos) {
+                total += cantidad;
+                caben.add(indice);
+            } else {
+                errores[indice] = mensajeSinCupos(cupos - total, cantidad);
+            }
+        }
+        if (total == 0) {
+            return;
+        }
+
+        if (!reservarEntradas(evento.getId(), total)) {
+            logger.info("Cupos del evento {} modificados durante el lote, asignando reserva por reserva", evento.getId());
+            total = 0;
+            for (int indice : caben) {
+                int cantidad = reservas.get(indice).getCantidad();
+                if (reservarEntradas(evento.getId(), cantidad)) {
+                    total += cantidad;
+                } else {
+                    errores[indice] = "No hay suficientes cupos disponibles. Cantidad solicitada: " + cantidad;
+                }
+            }
+        }
+        evento.setEntradasReservadas(evento.getCantidadReservasActivas() + total);
+    }
+
+    private static String mensajeSinCupos(long cuposDisponibles, int cantidad) {
+        return "No hay suficientes cupos disponibles. Cupos disponibles: " + cuposDisponibles
+                + ", Cantidad solicitada: " + cantidad;
     }
 
     /**
      * Actualiza una reserva existente con recálculo automático de precios
      */
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Reserva updateReserva(Long id, Reserva reserva) {
+        Evento evento = reserva.getEvento();
+        Integer entradasAntes = evento != null ? evento.getEntradasReservadas() : null;
+        return conReintentos("actualizar la reserva " + id, () -> actualizarReserva(id, reserva), () -> {
+            if (evento != null) {
+                evento.setEntradasReservadas(entradasAntes);
+            }
+        });
+    }
+
+    private Reserva actualizarReserva(Long id, Reserva reserva) {
         if (!reservaRepository.existsById(id)) {
             throw new NotFoundException("Reserva no encontrada con ID: " + id);
         }
@@ -153,20 +468,41 @@ public class ReservaServiceImpl implements ReservaService {
             throw new IllegalArgumentException("No se puede modificar una reserva cancelada");
         }
         
+        // Los cupos se ajustan sobre el evento de la reserva guardada: no se permite cambiarlo
+        // (se cancela la reserva y se crea otra en el evento nuevo)
+        Evento eventoGuardado = reservaExistente.map(Reserva::getEvento).orElse(null);
+        if (reserva.getEvento() == null) {
+            reserva.setEvento(eventoGuardado);
+        } else if (eventoGuardado != null && !Objects.equals(reserva.getEvento().getId(), eventoGuardado.getId())) {
+            throw new IllegalArgumentException("No se puede cambiar el evento de una reserva");
+        }
+        
         // Si se está cambiando la cantidad, verificar cupos disponibles
+        int diferencia = 0;
         if (reserva.getCantidad() != null && reserva.getCantidad() > 0) {
             int cuposDisponibles = reserva.getEvento().getCuposDisponibles();
             int cantidadActual = reservaExistente.get().getCantidad();
-            int diferencia = reserva.getCantidad() - cantidadActual;
+            diferencia = reserva.getCantidad() - cantidadActual;
             
             if (diferencia > 0 && cuposDisponibles < diferencia) {
                 throw new IllegalArgumentException("No hay suficientes cupos disponibles para la nueva cantidad");
             }
         }
         
+        if (diferencia > 0 && ocupaCupos(reserva)) {
+            asignarCupos(reserva.getEvento(), diferencia, "No hay suficientes cupos disponibles para la nueva cantidad");
+        }
+        
+        // El resumen se toma antes de guardar, porque al guardar se copian los cambios sobre la entidad existente
+        ReservaCambiadaEvent.Resumen anterior = reservaExistente.map(ReservaCambiadaEvent.Resumen::de).orElse(null);
         reserva.setId(id);
         // El modelo Reserva recalcula automáticamente el precio total en @PreUpdate
-        return reservaRepository.save(reserva);
+        Reserva actualizada = reservaRepository.save(reserva);
+        if (diferencia < 0 && ocupaCupos(reserva)) {
+            ajustarEntradasReservadas(reserva.getEvento(), diferencia);
+        }
+        publicarCambio(reserva, anterior);
+        return actualizada;
     }
 
     /**
@@ -178,9 +514,17 @@ public class ReservaServiceImpl implements ReservaService {
             throw new NotFoundException("Reserva no encontrada con ID: " + reserva.getId());
         }
         
+        // Una reserva vigente libera sus entradas al eliminarse
+        boolean liberaCupos = ocupaCupos(reserva);
+        ReservaCambiadaEvent.Resumen anterior = ReservaCambiadaEvent.Resumen.de(reserva);
+        
         // Soft delete: cambiar estado activo a 0
         reserva.setActivo(0);
         reservaRepository.save(reserva);
+        if (liberaCupos) {
+            ajustarEntradasReservadas(reserva.getEvento(), -reserva.getCantidad());
+        }
+        publicarCambio(reserva, anterior);
     }
 
     /**
@@ -194,6 +538,15 @@ public class ReservaServiceImpl implements ReservaService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Indica si el usuario tiene una reserva activa para el evento, sin leer sus demás reservas
+     */
+    @Override
+    public boolean tieneReservaActiva(Long usuarioId, Long eventoId) {
+        return reservaRepository.existsByUsuarioIdAndEventoIdAndEstadoAndActivo(usuarioId, eventoId,
+                EstadoReserva.RESERVADA, 1);
+    }
+
     /**
      * Obtiene todas las reservas activas de un evento específico
      */
@@ -205,6 +558,24 @@ public class ReservaServiceImpl implements ReservaService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Recorre las reservas activas de un evento; la transacción la abre quien consume el Stream
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<Reserva> streamReservasByEventoId(Long eventoId) {
+        return reservaRepository.streamActivasDeEvento(eventoId);
+    }
+
+    /**
+     * Recorre las reservas activas de los eventos de un productor; la transacción la abre quien consume el Stream
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<Reserva> streamReservasByProductorId(Long productorId) {
+        return reservaRepository.streamActivasDeProductor(productorId);
+    }
+
     /**
      * Obtiene reservas activas (estado RESERVADA y activo = 1)
      */
@@ -241,9 +612,17 @@ public class ReservaServiceImpl implements ReservaService {
                 throw new IllegalArgumentException("No se puede cancelar una reserva que ya no está activa");
             }
             
+            boolean liberaCupos = ocupaCupos(reserva);
+            ReservaCambiadaEvent.Resumen anterior = ReservaCambiadaEvent.Resumen.de(reserva);
+            
             // Usar el método del modelo para cancelar
             reserva.cancelar();
-            return reservaRepository.save(reserva);
+            Reserva cancelada = reservaRepository.save(reserva);
+            if (liberaCupos) {
+                ajustarEntradasReservadas(reserva.getEvento(), -reserva.getCantidad());
+            }
+            publicarCambio(reserva, anterior);
+            return cancelada;
         } else {
             throw new NotFoundException("Reserva no encontrada con ID: " + id);
         }
@@ -253,7 +632,13 @@ public class ReservaServiceImpl implements ReservaService {
      * Reactiva una reserva cancelada cambiando su estado a RESERVADA
      */
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Reserva reactivarReserva(Long id) {
+        // La reserva se vuelve a leer en cada intento: no queda nada en memoria que restaurar
+        return conReintentos("reactivar la reserva " + id, () -> reactivar(id), () -> { });
+    }
+
+    private Reserva reactivar(Long id) {
         Optional<Reserva> reservaOpt = reservaRepository.findById(id);
         if (reservaOpt.isPresent()) {
             Reserva reserva = reservaOpt.get();
@@ -273,9 +658,22 @@ public class ReservaServiceImpl implements ReservaService {
                 throw new IllegalArgumentException("No hay suficientes cupos disponibles para reactivar la reserva");
             }
             
-            // Reactivar la reserva
+            // Verificar que el usuario no haya creado otra reserva para el evento mientras estaba cancelada
+            if (reserva.getUsuario() != null
+                    && tieneReservaActiva(reserva.getUsuario().getId(), reserva.getEvento().getId())) {
+                throw new IllegalArgumentException(MENSAJE_RESERVA_REPETIDA);
+            }
+            
+            // Reactivar la reserva volviendo a verificar los cupos de forma atómica
+            ReservaCambiadaEvent.Resumen anterior = ReservaCambiadaEvent.Resumen.de(reserva);
             reserva.setEstado(EstadoReserva.RESERVADA);
-            return reservaRepository.save(reserva);
+            if (ocupaCupos(reserva)) {
+                asignarCupos(reserva.getEvento(), reserva.getCantidad(),
+                        "No hay suficientes cupos disponibles para reactivar la reserva");
+            }
+            Reserva reactivada = guardarReservaVigente(reserva);
+            publicarCambio(reserva, anterior);
+            return reactivada;
         } else {
             throw new NotFoundException("Reserva no encontrada con ID: " + id);
         }
@@ -306,6 +704,15 @@ public class ReservaServiceImpl implements ReservaService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Recorre las reservas activas del rango con la misma semántica exclusiva que getReservasPorRangoFechas
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<Reserva> streamReservasPorRangoFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        return reservaRepository.streamActivasEntreFechas(fechaInicio, fechaFin);
+    }
+
     /**
      * Obtiene reservas activas de un usuario en un rango de fechas
      */
@@ -395,78 +802,124 @@ public class ReservaServiceImpl implements ReservaService {
     }
 
     /**
-     * Obtiene estadísticas completas de reservas activas
+     * Obtiene estadísticas completas de reservas activas desde los contadores en memoria,
+     * sin recorrer las reservas
      */
     @Override
     public Object getEstadisticasCompletas() {
-        List<Reserva> todasLasReservas = getAllreservas(); // Solo reservas activas
-        List<Reserva> reservasActivas = getReservasActivas();
-        List<Reserva> reservasCanceladas = getReservasCanceladas();
-        
-        // Estadísticas básicas
-        long totalReservas = todasLasReservas.size();
-        long reservasActivasCount = reservasActivas.size();
-        long reservasCanceladasCount = reservasCanceladas.size();
-        
-        // Estadísticas de precios
-        BigDecimal totalIngresos = reservasActivas.stream()
-                .map(Reserva::getPrecioTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal promedioPrecio = totalReservas > 0 ? 
-                totalIngresos.divide(BigDecimal.valueOf(totalReservas), 2, BigDecimal.ROUND_HALF_UP) : 
-                BigDecimal.ZERO;
-        
-        BigDecimal precioMaximo = todasLasReservas.stream()
-                .map(Reserva::getPrecioTotal)
-                .max(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
-        
-        BigDecimal precioMinimo = todasLasReservas.stream()
-                .map(Reserva::getPrecioTotal)
-                .min(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
-        
-        // Estadísticas de cantidad
-        int totalEntradas = todasLasReservas.stream()
-                .mapToInt(Reserva::getCantidad)
-                .sum();
-        
-        double promedioEntradas = totalReservas > 0 ? 
-                (double) totalEntradas / totalReservas : 0.0;
-        
-        int maxEntradas = todasLasReservas.stream()
-                .mapToInt(Reserva::getCantidad)
-                .max()
-                .orElse(0);
-        
-        int minEntradas = todasLasReservas.stream()
-                .mapToInt(Reserva::getCantidad)
-                .min()
-                .orElse(0);
-        
-        // Estadísticas por estado
-        Map<String, Object> estadisticas = new HashMap<>();
-        estadisticas.put("totalReservas", totalReservas);
-        estadisticas.put("reservasActivas", reservasActivasCount);
-        estadisticas.put("reservasCanceladas", reservasCanceladasCount);
-        estadisticas.put("porcentajeActivas", totalReservas > 0 ? 
-                (double) reservasActivasCount / totalReservas * 100 : 0.0);
-        estadisticas.put("porcentajeCanceladas", totalReservas > 0 ? 
-                (double) reservasCanceladasCount / totalReservas * 100 : 0.0);
-        
-        // Estadísticas de precios
-        estadisticas.put("totalIngresos", totalIngresos);
-        estadisticas.put("promedioPrecio", promedioPrecio);
-        estadisticas.put("precioMaximo", precioMaximo);
-        estadisticas.put("precioMinimo", precioMinimo);
-        
-        // Estadísticas de entradas
-        estadisticas.put("totalEntradas", totalEntradas);
-        estadisticas.put("promedioEntradas", promedioEntradas);
-        estadisticas.put("maxEntradas", maxEntradas);
-        estadisticas.put("minEntradas", minEntradas);
-        
-        return estadisticas;
+        return estadisticas.getEstadisticas();
+    }
+
+    /**
+     * Obtiene las estadísticas básicas desde los contadores en memoria
+     */
+    @Override
+    public Map<String, Object> getEstadisticasBasicas() {
+        return estadisticas.getEstadisticasBasicas();
+    }
+
+    /**
+     * Indica si la reserva ocupa cupos del evento (estado RESERVADA y no eliminada)
+     */
+    private boolean ocupaCupos(Reserva reserva) {
+        return reserva.isActiva() && reserva.getCantidad() != null
+                && (reserva.getActivo() == null || reserva.getActivo() == 1);
+    }
+
+    /**
+     * Guarda una reserva que queda vigente y la envía de inmediato a la base de datos, para que el índice
+     * único de reservas vigentes por usuario y evento (db/06_reserva_activa_unica.sql) rechace aquí una
+     * reserva repetida por una solicitud simultánea, y no recién al confirmar la transacción
+     * @throws IllegalArgumentException Si el usuario ya tiene una reserva activa para el evento
+     */
+    private Reserva guardarReservaVigente(Reserva reserva) {
+        try {
+            Reserva guardada = reservaRepository.save(reserva);
+            reservaRepository.flush();
+            return guardada;
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException(MENSAJE_RESERVA_REPETIDA, e);
+        }
+    }
+
+    /**
+     * Publica el cambio de una reserva para que se invaliden los cupos en caché del evento
+     * y se actualicen las estadísticas
+     * @param anterior Resumen de la reserva antes del cambio (null si es nueva)
+     */
+    private void publicarCambio(Reserva reserva, ReservaCambiadaEvent.Resumen anterior) {
+        Long eventoId = reserva.getEvento() != null ? reserva.getEvento().getId() : null;
+        eventPublisher.publishEvent(new ReservaCambiadaEvent(reserva.getId(), eventoId, anterior,
+                ReservaCambiadaEvent.Resumen.de(reserva)));
+    }
+
+    /**
+     * Asigna cupos del evento con una actualización condicional en la base de datos;
+     * si no quedan cupos se rechaza la operación.
+     * @throws IllegalArgumentException Si no hay cupos suficientes
+     */
+    private void asignarCupos(Evento evento, int cantidad, String mensajeSinCupos) {
+        if (evento == null || evento.getId() == null) {
+            return;
+        }
+        if (!reservarEntradas(evento.getId(), cantidad)) {
+            throw new IllegalArgumentException(mensajeSinCupos);
+        }
+        evento.setEntradasReservadas(evento.getCantidadReservasActivas() + cantidad);
+    }
+
+    /**
+     * Reserva entradas del evento con la actualización condicional
+     * @return true si se reservaron, false si no quedan cupos suficientes
+     */
+    private boolean reservarEntradas(Long eventoId, int cantidad) {
+        return eventoRepository.reservarEntradas(eventoId, cantidad) > 0;
+    }
+
+    /**
+     * Ejecuta una operación que asigna cupos en una transacción propia y, si la base de datos informa
+     * un conflicto de bloqueo (deadlock o timeout), la repite completa en una transacción nueva un
+     * número acotado de veces. El conflicto deja la transacción marcada para rollback, por eso no se
+     * reintenta dentro de ella, y la espera entre intentos ocurre sin transacción ni bloqueos tomados.
+     * Si quien llama ya abrió una transacción, la operación corre en ella sin reintentos.
+     * @param restaurar Deshace los cambios en memoria del intento fallido antes de repetirlo
+     */
+    private <T> T conReintentos(String operacion, Supplier<T> accion, Runnable restaurar) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return accion.get();
+        }
+        for (int intento = 1; ; intento++) {
+            try {
+                return transaccion.execute(status -> accion.get());
+            } catch (PessimisticLockingFailureException e) {
+                if (intento >= MAX_INTENTOS_ASIGNACION) {
+                    throw e;
+                }
+                logger.warn("Conflicto de bloqueo al {} (intento {}), reintentando", operacion, intento);
+                restaurar.run();
+                esperarAntesDeReintentar(intento);
+            }
+        }
+    }
+
+    private void esperarAntesDeReintentar(int intento) {
+        try {
+            Thread.sleep(10L * intento);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Asignación de cupos interrumpida", e);
+        }
+    }
+
+    /**
+     * Actualiza el contador de entradas reservadas del evento en la base de datos
+     * y refleja el cambio en la instancia en memoria
+     */
+    private void ajustarEntradasReservadas(Evento evento, int delta) {
+        if (evento == null || evento.getId() == null || delta == 0) {
+            return;
+        }
+        eventoRepository.ajustarEntradasReservadas(evento.getId(), delta);
+        evento.setEntradasReservadas(Math.max(0, evento.getCantidadReservasActivas() + delta));
     }
 }
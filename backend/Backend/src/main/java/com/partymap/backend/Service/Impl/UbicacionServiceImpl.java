@@ -1,16 +1,32 @@
 package com.partymap.backend.service.impl;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import io.micrometer.core.annotation.Timed;
+
+import com.partymap.backend.config.MetricasConfig;
+import com.partymap.backend.dto.CursorPaginacion;
+import com.partymap.backend.dto.UbicacionResponseDTO;
+import com.partymap.backend.events.UbicacionCambiadaEvent;
 import com.partymap.backend.exceptions.NotFoundException;
 import com.partymap.backend.model.Ubicacion;
 import com.partymap.backend.repository.UbicacionRepository;
+import com.partymap.backend.service.UbicacionIndiceDuplicados;
 import com.partymap.backend.service.UbicacionService;
 
 /**
@@ -19,12 +35,18 @@ import com.partymap.backend.service.UbicacionService;
  */
 @Service
 @Transactional
+@Timed(value = MetricasConfig.TIMER_SERVICIOS, histogram = true)
 public class UbicacionServiceImpl implements UbicacionService {
 
     private final UbicacionRepository ubicacionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UbicacionIndiceDuplicados indiceDuplicados;
 
-    public UbicacionServiceImpl(UbicacionRepository ubicacionRepository) {
+    public UbicacionServiceImpl(UbicacionRepository ubicacionRepository, ApplicationEventPublisher eventPublisher,
+                                UbicacionIndiceDuplicados indiceDuplicados) {
         this.ubicacionRepository = ubicacionRepository;
+        this.eventPublisher = eventPublisher;
+        this.indiceDuplicados = indiceDuplicados;
     }
 
     /**
@@ -37,6 +59,25 @@ public class UbicacionServiceImpl implements UbicacionService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Obtiene la respuesta de las ubicaciones activas sin cargar entidades en el contexto de persistencia
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<UbicacionResponseDTO> getRespuestasUbicacionesActivas() {
+        return ubicacionRepository.findRespuestasActivas();
+    }
+
+    /**
+     * Obtiene una página de ubicaciones activas desde un cursor por ID
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Ubicacion> getUbicacionesDesdeCursor(CursorPaginacion cursor, int tamanio) {
+        Long idDesde = cursor != null ? cursor.getId() : 0L;
+        return ubicacionRepository.findPaginaActivasDesde(idDesde, PageRequest.of(0, tamanio));
+    }
+
     /**
      * Busca una ubicación por su ID
      */
@@ -61,13 +102,18 @@ public class UbicacionServiceImpl implements UbicacionService {
             throw new IllegalArgumentException("Las coordenadas de la ubicación no son válidas");
         }
         
-        // Verificar si ya existe una ubicación con la misma dirección y comuna
-        if (ubicacionRepository.existsByDireccionAndComunaIgnoreCase(ubicacion.getDireccion(), ubicacion.getComuna())) {
-            throw new IllegalArgumentException("Ya existe una ubicación con la misma dirección y comuna");
+        // Verificar si ya existe el mismo lugar, aunque la dirección esté escrita de otra forma
+        Optional<Long> duplicado = indiceDuplicados.buscarDuplicado(ubicacion.getDireccion(), ubicacion.getComuna(),
+                ubicacion.getLatitud(), ubicacion.getLongitud());
+        if (duplicado.isPresent()) {
+            throw new IllegalArgumentException("Ya existe una ubicación con la misma dirección y comuna (ID "
+                    + duplicado.get() + ")");
         }
         
         // Guardar la ubicación
-        return ubicacionRepository.save(ubicacion);
+        Ubicacion ubicacionCreada = ubicacionRepository.save(ubicacion);
+        eventPublisher.publishEvent(new UbicacionCambiadaEvent(ubicacionCreada.getId()));
+        return ubicacionCreada;
     }
 
     /**
@@ -87,7 +133,10 @@ public class UbicacionServiceImpl implements UbicacionService {
         }
         
         ubicacion.setId(id);
-        return ubicacionRepository.save(ubicacion);
+        Ubicacion ubicacionActualizada = ubicacionRepository.save(ubicacion);
+        // Los eventos en caché muestran la dirección y coordenadas de la ubicación
+        eventPublisher.publishEvent(new UbicacionCambiadaEvent(id));
+        return ubicacionActualizada;
     }
 
     /**
@@ -100,13 +149,14 @@ public class UbicacionServiceImpl implements UbicacionService {
         }
         
         // Verificar si la ubicación tiene eventos asociados
-        if (!ubicacion.getEventos().isEmpty()) {
+        if (ubicacionRepository.tieneEventos(ubicacion.getId())) {
             throw new IllegalStateException("No se puede eliminar una ubicación que tiene eventos asociados");
         }
         
         // Soft delete: cambiar estado activo a 0
         ubicacion.setActivo(0);
         ubicacionRepository.save(ubicacion);
+        eventPublisher.publishEvent(new UbicacionCambiadaEvent(ubicacion.getId()));
     }
 
     /**
@@ -130,4 +180,69 @@ public class UbicacionServiceImpl implements UbicacionService {
         return latitud >= -90.0 && latitud <= 90.0 &&
                longitud >= -180.0 && longitud <= 180.0;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Obtiene los grupos de ubicaciones duplicadas según el índice en memoria, con una sola consulta
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<List<Ubicacion>> getGruposDuplicados() {
+        List<List<Long>> grupos = indiceDuplicados.buscarGrupos();
+        Set<Long> ids = new LinkedHashSet<>();
+        grupos.forEach(ids::addAll);
+        Map<Long, Ubicacion> porId = ubicacionRepository.findAllById(ids).stream()
+                .filter(ubicacion -> ubicacion.getActivo() == 1)
+                .collect(Collectors.toMap(Ubicacion::getId, Function.identity()));
+
+        List<List<Ubicacion>> resultado = new ArrayList<>();
+        for (List<Long> grupo : grupos) {
+            List<Ubicacion> ubicaciones = grupo.stream()
+                    .map(porId::get)
+                    .filter(ubicacion -> ubicacion != null)
+                    .sorted(Comparator.comparing(Ubicacion::getId))
+                    .collect(Collectors.toList());
+            // El índice pudo quedar atrasado respecto de la base de datos
+            if (ubicaciones.size() > 1) {
+                resultado.add(ubicaciones);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Fusiona ubicaciones duplicadas en la ubicación destino con dos actualizaciones masivas
+     */
+    @Override
+    public int fusionarUbicaciones(Long ubicacionId, List<Long> duplicadoIds) {
+        if (duplicadoIds == null || duplicadoIds.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos una ubicación a fusionar");
+        }
+        Set<Long> duplicados = new LinkedHashSet<>(duplicadoIds);
+        if (duplicados.contains(null) || duplicados.contains(ubicacionId)) {
+            throw new IllegalArgumentException("Las ubicaciones a fusionar deben ser distintas de la ubicación destino");
+        }
+
+        Ubicacion destino = ubicacionRepository.findById(ubicacionId)
+                .filter(ubicacion -> ubicacion.getActivo() == 1)
+                .orElseThrow(() -> new NotFoundException("Ubicación no encontrada con ID: " + ubicacionId));
+        Set<Long> encontrados = ubicacionRepository.findAllById(duplicados).stream()
+                .filter(ubicacion -> ubicacion.getActivo() == 1)
+                .map(Ubicacion::getId)
+                .collect(Collectors.toSet());
+        for (Long id : duplicados) {
+            if (!encontrados.contains(id)) {
+                throw new NotFoundException("Ubicación no encontrada con ID: " + id);
+            }
+        }
+
+        int eventosReasignados = ubicacionRepository.reasignarEventos(duplicados, destino);
+        ubicacionRepository.desactivar(duplicados);
+
+        // Los eventos en caché e índices muestran la dirección de su ubicación
+        eventPublisher.publishEvent(new UbicacionCambiadaEvent(ubicacionId));
+        for (Long id : duplicados) {
+            eventPublisher.publishEvent(new UbicacionCambiadaEvent(id));
+        }
+        return eventosReasignados;
+    }
+}
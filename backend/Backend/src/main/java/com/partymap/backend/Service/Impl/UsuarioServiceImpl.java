@@ -7,10 +7,17 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import io.micrometer.core.annotation.Timed;
+
+import com.partymap.backend.config.MetricasConfig;
+import com.partymap.backend.dto.CursorPaginacion;
+import com.partymap.backend.dto.EstadisticasUsuariosDTO;
 import com.partymap.backend.model.Usuario;
 import com.partymap.backend.repository.UsuarioRepository;
 import com.partymap.backend.service.UsuarioService;
@@ -22,6 +29,7 @@ import com.partymap.backend.service.UsuarioService;
  */
 @Service
 @Transactional
+@Timed(value = MetricasConfig.TIMER_SERVICIOS, histogram = true)
 public class UsuarioServiceImpl implements UsuarioService {
 
     private static final Logger logger = LoggerFactory.getLogger(UsuarioServiceImpl.class);
@@ -49,6 +57,25 @@ public class UsuarioServiceImpl implements UsuarioService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Obtiene una página de usuarios activos desde un cursor por ID
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Usuario> getUsuariosDesdeCursor(CursorPaginacion cursor, int tamanio) {
+        Long idDesde = cursor != null ? cursor.getId() : 0L;
+        return usuarioRepository.findPaginaActivosDesde(idDesde, PageRequest.of(0, tamanio));
+    }
+
+    /**
+     * Obtiene las estadísticas de usuarios con una consulta de conteos condicionales
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public EstadisticasUsuariosDTO getEstadisticasUsuarios() {
+        return usuarioRepository.contarEstadisticas();
+    }
+
     /**
      * Busca un usuario por su ID
      */
@@ -185,6 +212,7 @@ public class UsuarioServiceImpl implements UsuarioService {
             // Usuario existe, actualizar información
             Usuario usuario = usuarioExistente.get();
             usuario.actualizarDesdeAzureB2C(nombreAzure, apellidoAzure, rolNormalizado, rutProductor);
+            usuario.actualizarUltimaConexion();
             return usuarioRepository.save(usuario);
         } else {
             // Buscar por email como respaldo
@@ -195,6 +223,7 @@ public class UsuarioServiceImpl implements UsuarioService {
                 Usuario usuario = usuarioExistente.get();
                 usuario.setAzureB2cId(azureB2cId);
                 usuario.actualizarDesdeAzureB2C(nombreAzure, apellidoAzure, rolNormalizado, rutProductor);
+                usuario.actualizarUltimaConexion();
                 return usuarioRepository.save(usuario);
             } else {
                 // Crear nuevo usuario
@@ -0,0 +1,622 @@
+package com.partymap.backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.partymap.backend.dto.EventoImportacionErrorDTO;
+import com.partymap.backend.dto.EventoImportacionFilaDTO;
+import com.partymap.backend.dto.EventoImportacionProgresoDTO;
+import com.partymap.backend.events.EventoCambiadoEvent;
+import com.partymap.backend.events.UbicacionCambiadaEvent;
+import com.partymap.backend.model.Evento;
+import com.partymap.backend.model.Ubicacion;
+import com.partymap.backend.model.Usuario;
+import com.partymap.backend.repository.UbicacionRepository;
+
+/**
+ * Importa eventos con su ubicación desde un archivo CSV o JSON (POST /evento/importar).
+ *
+ * El archivo se lee fila a fila, sin cargarlo completo en memoria, y se procesa en bloques de
+ * tamanioBloque filas. Cada bloque se guarda en su propia transacción: busca con una sola consulta
+ * las ubicaciones que ya existen con la misma dirección y comuna, pregunta por el resto a
+ * UbicacionIndiceDuplicados (el mismo lugar escrito de otra forma), crea las que faltan y luego los
+ * eventos, ambos por lotes JDBC. Las ubicaciones resueltas se recuerdan entre bloques, así una
+ * dirección repetida en el archivo se busca y se crea una sola vez.
+ *
+ * Al confirmar cada bloque se informa el avance, de modo que en archivos grandes el cliente ve el
+ * progreso y, si algo falla a mitad de camino, sabe qué bloques quedaron guardados.
+ */
+@Component
+public class ImportacionEventos {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacionEventos.class);
+
+    /**
+     * Máximo de filas por bloque: las direcciones de un bloque van en un solo IN (...) y Oracle admite hasta 1000
+     */
+    public static final int MAX_TAMANIO_BLOQUE = 1000;
+
+    /**
+     * Columnas del CSV, con los mismos nombres que los campos de EventoImportacionFilaDTO
+     */
+    static final List<String> COLUMNAS = List.of("nombre", "descripcion", "fecha", "capacidadMaxima",
+            "precioEntrada", "imagenUrl", "direccion", "comuna", "latitud", "longitud");
+
+    /**
+     * Columnas que el encabezado del CSV debe incluir
+     */
+    static final List<String> COLUMNAS_OBLIGATORIAS = List.of("nombre", "descripcion", "fecha",
+            "direccion", "comuna", "latitud", "longitud");
+
+    /**
+     * Formatos de archivo aceptados
+     */
+    public enum Formato {
+        /**
+         * CSV (RFC 4180, UTF-8) con fila de encabezados
+         */
+        CSV,
+        /**
+         * Arreglo JSON de objetos, o un objeto JSON por línea (NDJSON)
+         */
+        JSON;
+
+        /**
+         * Resuelve el formato a partir del parámetro formato ("csv", "json" o "ndjson")
+         * o, si no viene, de la extensión del nombre del archivo
+         * @throws IllegalArgumentException Si el formato no está soportado
+         */
+        public static Formato desde(String formato, String nombreArchivo) {
+            String valor = formato;
+            if ((valor == null || valor.isBlank()) && nombreArchivo != null && nombreArchivo.lastIndexOf('.') >= 0) {
+                valor = nombreArchivo.substring(nombreArchivo.lastIndexOf('.') + 1);
+            }
+            if (valor != null) {
+                switch (valor.trim().toLowerCase(Locale.ROOT)) {
+                    case "csv":
+                        return CSV;
+                    case "json":
+                    case "ndjson":
+                    case "jsonl":
+                        return JSON;
+                    default:
+                        break;
+                }
+            }
+            throw new IllegalArgumentException("Formato de importación no soportado: " + valor
+                    + " (se aceptan csv, json y ndjson)");
+        }
+    }
+
+    /**
+     * Recibe cada línea de avance; puede fallar al escribir en la respuesta
+     */
+    @FunctionalInterface
+    public interface Avance {
+
+        void informar(EventoImportacionProgresoDTO progreso) throws IOException;
+    }
+
+    /**
+     * Fila leída del archivo: sus datos, o el error que impidió interpretarla
+     */
+    private record FilaLeida(long numero, EventoImportacionFilaDTO datos, String error) {
+    }
+
+    /**
+     * Entrega las filas del archivo de a una; null al terminar
+     */
+    private interface LectorFilas {
+
+        FilaLeida siguiente() throws IOException;
+    }
+
+    /**
+     * Lo que guardó un bloque. ubicaciones son las claves resueltas en el bloque (existentes o nuevas)
+     */
+    private record ResultadoBloque(Map<String, Ubicacion> ubicaciones, int eventosCreados,
+            int ubicacionesCreadas, int ubicacionesReutilizadas) {
+
+        static final ResultadoBloque VACIO = new ResultadoBloque(Map.of(), 0, 0, 0);
+    }
+
+    private final TransactionTemplate transactionTemplate;
+    private final UbicacionRepository ubicacionRepository;
+    private final EscrituraPorLotes escrituraPorLotes;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final UbicacionIndiceDuplicados indiceUbicaciones;
+    private final int tamanioBloque;
+
+    public ImportacionEventos(PlatformTransactionManager transactionManager,
+            UbicacionRepository ubicacionRepository,
+            EscrituraPorLotes escrituraPorLotes,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            UbicacionIndiceDuplicados indiceUbicaciones,
+            @Value("${partymap.importacion.tamanio-bloque:500}") int tamanioBloque) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ubicacionRepository = ubicacionRepository;
+        this.escrituraPorLotes = escrituraPorLotes;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.indiceUbicaciones = indiceUbicaciones;
+        this.tamanioBloque = Math.min(Math.max(1, tamanioBloque), MAX_TAMANIO_BLOQUE);
+    }
+
+    /**
+     * Crea el cuerpo de respuesta que importa el archivo y escribe el avance como NDJSON,
+     * una línea por bloque confirmado y una línea final con terminado = true
+     * @param archivo Contenido del archivo; se cierra al terminar
+     * @param formato Formato del archivo
+     * @param productor Productor al que se asignan los eventos creados
+     */
+    public StreamingResponseBody importar(InputStream archivo, Formato formato, Usuario productor) {
+        return salida -> {
+            JsonGenerator generador = objectMapper.createGenerator(salida);
+            generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generador.setRootValueSeparator(null);
+            try (InputStream entrada = archivo) {
+                importar(entrada, formato, productor, progreso -> {
+                    generador.writePOJO(progreso);
+                    generador.writeRaw('\n');
+                    generador.flush();
+                });
+            }
+            generador.close();
+        };
+    }
+
+    /**
+     * Importa el archivo informando el avance después de cada bloque confirmado y al terminar.
+     * Las filas inválidas se rechazan sin detener la importación; un archivo mal formado o un error
+     * al guardar la interrumpen, y la línea final lo informa en error
+     * @return El avance final, el mismo que se informó con terminado = true
+     * @throws IOException Si falla la lectura del archivo o la escritura del avance
+     */
+    public EventoImportacionProgresoDTO importar(InputStream entrada, Formato formato, Usuario productor,
+            Avance avance) throws IOException {
+        long inicio = System.currentTimeMillis();
+        Totales totales = new Totales();
+        // Ubicaciones ya resueltas en bloques confirmados, por dirección y comuna normalizadas
+        Map<String, Ubicacion> ubicaciones = new HashMap<>();
+        String error = null;
+        try {
+            LectorFilas lector = formato == Formato.CSV
+                    ? new LectorCsv(new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8)))
+                    : new LectorJson(entrada);
+            List<FilaLeida> bloque = new ArrayList<>(tamanioBloque);
+            for (FilaLeida fila = lector.siguiente(); fila != null; fila = lector.siguiente()) {
+                bloque.add(fila);
+                if (bloque.size() == tamanioBloque) {
+                    avance.informar(procesarBloque(bloque, productor, ubicaciones, totales));
+                    bloque.clear();
+                }
+            }
+            if (!bloque.isEmpty()) {
+                avance.informar(procesarBloque(bloque, productor, ubicaciones, totales));
+            }
+        } catch (JsonProcessingException e) {
+            error = "El archivo JSON no es válido"
+                    + (e.getLocation() != null ? " en la línea " + e.getLocation().getLineNr() : "")
+                    + ": " + e.getOriginalMessage();
+        } catch (IllegalArgumentException e) {
+            error = e.getMessage();
+        } catch (DataAccessException | TransactionException e) {
+            logger.error("Error al guardar la importación de eventos del productor {}", productor.getId(), e);
+            error = "Error al guardar los eventos; los bloques informados antes quedaron guardados";
+        }
+
+        EventoImportacionProgresoDTO resumen = totales.progreso(List.of(), true, error);
+        avance.informar(resumen);
+        logger.info("Importación de eventos del productor {}: {} filas, {} eventos creados, {} rechazadas en {} ms",
+                productor.getId(), totales.filasProcesadas, totales.eventosCreados, totales.filasRechazadas,
+                System.currentTimeMillis() - inicio);
+        return resumen;
+    }
+
+    public int getTamanioBloque() {
+        return tamanioBloque;
+    }
+
+    /**
+     * Valida las filas del bloque, guarda las válidas en una transacción y acumula los totales
+     */
+    private EventoImportacionProgresoDTO procesarBloque(List<FilaLeida> bloque, Usuario productor,
+            Map<String, Ubicacion> ubicaciones, Totales totales) {
+        List<EventoImportacionErrorDTO> errores = new ArrayList<>();
+        List<EventoImportacionFilaDTO> validas = new ArrayList<>(bloque.size());
+        for (FilaLeida fila : bloque) {
+            String error = fila.error() != null ? fila.error() : validar(fila.datos());
+            if (error != null) {
+                errores.add(new EventoImportacionErrorDTO(fila.numero(), error));
+            } else {
+                validas.add(fila.datos());
+            }
+        }
+
+        ResultadoBloque resultado = validas.isEmpty() ? ResultadoBloque.VACIO
+                : transactionTemplate.execute(estado -> guardarBloque(validas, productor, ubicaciones));
+        // Solo después de confirmar: si el bloque fallara, sus ubicaciones nuevas no existirían
+        ubicaciones.putAll(resultado.ubicaciones());
+
+        totales.filasProcesadas += bloque.size();
+        totales.filasRechazadas += errores.size();
+        totales.eventosCreados += resultado.eventosCreados();
+        totales.ubicacionesCreadas += resultado.ubicacionesCreadas();
+        totales.ubicacionesReutilizadas += resultado.ubicacionesReutilizadas();
+        logger.debug("Importación de eventos del productor {}: {} filas procesadas", productor.getId(),
+                totales.filasProcesadas);
+        return totales.progreso(errores, false, null);
+    }
+
+    /**
+     * Resuelve las ubicaciones del bloque y crea sus eventos. Debe ejecutarse dentro de una transacción
+     */
+    private ResultadoBloque guardarBloque(List<EventoImportacionFilaDTO> filas, Usuario productor,
+            Map<String, Ubicacion> ubicaciones) {
+        Map<String, Ubicacion> delBloque = new HashMap<>();
+
+        // Una sola consulta para todas las direcciones del bloque que aún no se conocen
+        Set<String> pendientes = new HashSet<>();
+        Set<String> direcciones = new HashSet<>();
+        Set<String> comunas = new HashSet<>();
+        for (EventoImportacionFilaDTO fila : filas) {
+            String clave = clave(fila.getDireccion(), fila.getComuna());
+            if (!ubicaciones.containsKey(clave) && pendientes.add(clave)) {
+                direcciones.add(normalizar(fila.getDireccion()));
+                comunas.add(normalizar(fila.getComuna()));
+            }
+        }
+        if (!pendientes.isEmpty()) {
+            for (Ubicacion existente : ubicacionRepository.findActivasPorDireccionesYComunas(direcciones, comunas)) {
+                String clave = clave(existente.getDireccion(), existente.getComuna());
+                // Vienen ordenadas por ID: ante duplicados ya existentes se usa la más antigua
+                if (pendientes.contains(clave)) {
+                    delBloque.putIfAbsent(clave, existente);
+                }
+            }
+        }
+        // Las que no coinciden exactamente pueden ser el mismo lugar escrito de otra forma
+        for (EventoImportacionFilaDTO fila : filas) {
+            String clave = clave(fila.getDireccion(), fila.getComuna());
+            if (pendientes.contains(clave) && !delBloque.containsKey(clave)) {
+                indiceUbicaciones.buscarDuplicado(fila.getDireccion(), fila.getComuna(), fila.getLatitud(),
+                        fila.getLongitud())
+                        .ifPresent(id -> delBloque.put(clave, ubicacionRepository.getReferenceById(id)));
+            }
+        }
+        int reutilizadas = delBloque.size();
+
+        List<Ubicacion> nuevas = new ArrayList<>();
+        for (EventoImportacionFilaDTO fila : filas) {
+            String clave = clave(fila.getDireccion(), fila.getComuna());
+            if (!ubicaciones.containsKey(clave) && !delBloque.containsKey(clave)) {
+                Ubicacion ubicacion = nuevaUbicacion(fila);
+                delBloque.put(clave, ubicacion);
+                nuevas.add(ubicacion);
+            }
+        }
+        escrituraPorLotes.persistir(nuevas);
+        // Un solo aviso por bloque: los índices recargan todas las ubicaciones y eventos con una consulta
+        if (!nuevas.isEmpty()) {
+            eventPublisher.publishEvent(new UbicacionCambiadaEvent(nuevas.stream().map(Ubicacion::getId).toList()));
+        }
+
+        List<Evento> eventos = new ArrayList<>(filas.size());
+        for (EventoImportacionFilaDTO fila : filas) {
+            String clave = clave(fila.getDireccion(), fila.getComuna());
+            Ubicacion ubicacion = ubicaciones.containsKey(clave) ? ubicaciones.get(clave) : delBloque.get(clave);
+            eventos.add(nuevoEvento(fila, ubicacion, productor));
+        }
+        escrituraPorLotes.persistir(eventos);
+        eventPublisher.publishEvent(new EventoCambiadoEvent(eventos.stream().map(Evento::getId).toList(),
+                EventoCambiadoEvent.TipoCambio.CREADO));
+
+        return new ResultadoBloque(delBloque, eventos.size(), nuevas.size(), reutilizadas);
+    }
+
+    /**
+     * Aplica a la fila las mismas reglas que POST /evento/con-ubicacion
+     * @return El motivo del rechazo, o null si la fila es válida
+     */
+    static String validar(EventoImportacionFilaDTO fila) {
+        String nombre = fila.getNombre();
+        if (nombre == null || nombre.trim().isEmpty()) {
+            return "El nombre del evento es obligatorio";
+        }
+        if (nombre.trim().length() < 3 || nombre.trim().length() > 100) {
+            return "El nombre del evento debe tener entre 3 y 100 caracteres";
+        }
+
+        String descripcion = fila.getDescripcion();
+        if (descripcion == null || descripcion.trim().isEmpty()) {
+            return "La descripción del evento es obligatoria";
+        }
+        if (descripcion.trim().length() < 10 || descripcion.trim().length() > 2000) {
+            return "La descripción debe tener entre 10 y 2000 caracteres";
+        }
+
+        if (fila.getFecha() == null) {
+            return "La fecha del evento es obligatoria";
+        }
+        if (fila.getFecha().isBefore(LocalDateTime.now())) {
+            return "La fecha del evento no puede estar en el pasado";
+        }
+
+        if (fila.getCapacidadMaxima() != null && fila.getCapacidadMaxima() <= 0) {
+            return "La capacidad máxima debe ser mayor a 0";
+        }
+        if (fila.getPrecioEntrada() != null && fila.getPrecioEntrada().signum() < 0) {
+            return "El precio de la entrada no puede ser negativo";
+        }
+        if (fila.getImagenUrl() != null && fila.getImagenUrl().trim().length() > 500) {
+            return "La URL de la imagen no puede exceder 500 caracteres";
+        }
+
+        String direccion = fila.getDireccion();
+        if (direccion == null || direccion.trim().length() < 5 || direccion.trim().length() > 150) {
+            return "La dirección debe tener entre 5 y 150 caracteres";
+        }
+        String comuna = fila.getComuna();
+        if (comuna == null || comuna.trim().length() < 2 || comuna.trim().length() > 50) {
+            return "La comuna debe tener entre 2 y 50 caracteres";
+        }
+        if (fila.getLatitud() == null || fila.getLongitud() == null) {
+            return "La ubicación debe tener dirección, comuna, latitud y longitud";
+        }
+        if (!nuevaUbicacion(fila).coordenadasValidas()) {
+            return "Las coordenadas de la ubicación no son válidas";
+        }
+        return null;
+    }
+
+    /**
+     * Clave de deduplicación de ubicaciones: dirección y comuna sin espacios en los extremos y en minúsculas
+     */
+    static String clave(String direccion, String comuna) {
+        return normalizar(direccion) + '\n' + normalizar(comuna);
+    }
+
+    private static String normalizar(String texto) {
+        return texto.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Ubicacion nuevaUbicacion(EventoImportacionFilaDTO fila) {
+        Ubicacion ubicacion = new Ubicacion();
+        ubicacion.setDireccion(fila.getDireccion().trim());
+        ubicacion.setComuna(fila.getComuna().trim());
+        ubicacion.setLatitud(fila.getLatitud());
+        ubicacion.setLongitud(fila.getLongitud());
+        return ubicacion;
+    }
+
+    private static Evento nuevoEvento(EventoImportacionFilaDTO fila, Ubicacion ubicacion, Usuario productor) {
+        Evento evento = new Evento();
+        evento.setNombre(fila.getNombre().trim());
+        evento.setDescripcion(fila.getDescripcion().trim());
+        evento.setFecha(fila.getFecha());
+        evento.setCapacidadMaxima(fila.getCapacidadMaxima());
+        evento.setPrecioEntrada(fila.getPrecioEntrada());
+        evento.setImagenUrl(fila.getImagenUrl() != null && !fila.getImagenUrl().isBlank()
+                ? fila.getImagenUrl().trim() : null);
+        evento.setUbicacion(ubicacion);
+        evento.setUsuario(productor);
+        evento.setActivo(1);
+        return evento;
+    }
+
+    /**
+     * Totales acumulados de la importación
+     */
+    private static final class Totales {
+
+        private long filasProcesadas;
+        private long eventosCreados;
+        private long filasRechazadas;
+        private long ubicacionesCreadas;
+        private long ubicacionesReutilizadas;
+
+        EventoImportacionProgresoDTO progreso(List<EventoImportacionErrorDTO> errores, boolean terminado,
+                String error) {
+            return new EventoImportacionProgresoDTO(filasProcesadas, eventosCreados, filasRechazadas,
+                    ubicacionesCreadas, ubicacionesReutilizadas, errores, terminado, error);
+        }
+    }
+
+    /**
+     * Lee un objeto por fila, desde un arreglo JSON o desde objetos seguidos (NDJSON).
+     * Cada objeto se lee primero como árbol, así un valor con tipo incorrecto rechaza
+     * solo su fila y la lectura sigue con la siguiente
+     */
+    private final class LectorJson implements LectorFilas {
+
+        private final MappingIterator<JsonNode> nodos;
+        private long numero;
+
+        LectorJson(InputStream entrada) throws IOException {
+            this.nodos = objectMapper.readerFor(JsonNode.class).readValues(entrada);
+        }
+
+        @Override
+        public FilaLeida siguiente() throws IOException {
+            if (!nodos.hasNextValue()) {
+                return null;
+            }
+            JsonNode nodo = nodos.nextValue();
+            numero++;
+            if (!nodo.isObject()) {
+                return new FilaLeida(numero, null, "La fila debe ser un objeto JSON");
+            }
+            try {
+                return new FilaLeida(numero, objectMapper.treeToValue(nodo, EventoImportacionFilaDTO.class), null);
+            } catch (JsonMappingException e) {
+                String campo = e.getPath().isEmpty() ? null : e.getPath().get(0).getFieldName();
+                return new FilaLeida(numero, null, "Valor inválido en el campo " + campo);
+            }
+        }
+    }
+
+    /**
+     * Lee registros CSV (RFC 4180): campos entre comillas con separadores, comillas dobles
+     * o saltos de línea, y fin de línea LF o CRLF. La primera fila trae los encabezados
+     */
+    private static final class LectorCsv implements LectorFilas {
+
+        private final BufferedReader lector;
+        private final int[] posiciones = new int[COLUMNAS.size()];
+        private long numero;
+
+        LectorCsv(BufferedReader lector) throws IOException {
+            this.lector = lector;
+            List<String> encabezados = leerRegistro();
+            if (encabezados == null) {
+                throw new IllegalArgumentException("El archivo CSV está vacío");
+            }
+            // Un BOM de UTF-8 al inicio (lo agregan algunas planillas) no es parte del primer encabezado
+            if (encabezados.get(0).startsWith("\uFEFF")) {
+                encabezados.set(0, encabezados.get(0).substring(1));
+            }
+            List<String> faltantes = new ArrayList<>();
+            for (int i = 0; i < COLUMNAS.size(); i++) {
+                posiciones[i] = -1;
+                for (int j = 0; j < encabezados.size(); j++) {
+                    if (COLUMNAS.get(i).equalsIgnoreCase(encabezados.get(j).trim())) {
+                        posiciones[i] = j;
+                        break;
+                    }
+                }
+                if (posiciones[i] < 0 && COLUMNAS_OBLIGATORIAS.contains(COLUMNAS.get(i))) {
+                    faltantes.add(COLUMNAS.get(i));
+                }
+            }
+            if (!faltantes.isEmpty()) {
+                throw new IllegalArgumentException("Faltan columnas en el encabezado del CSV: "
+                        + String.join(", ", faltantes));
+            }
+        }
+
+        @Override
+        public FilaLeida siguiente() throws IOException {
+            List<String> registro = leerRegistro();
+            // Las líneas en blanco no cuentan como filas
+            while (registro != null && registro.size() == 1 && registro.get(0).isBlank()) {
+                registro = leerRegistro();
+            }
+            if (registro == null) {
+                return null;
+            }
+            numero++;
+            String columna = null;
+            try {
+                EventoImportacionFilaDTO fila = new EventoImportacionFilaDTO();
+                fila.setNombre(valor(registro, columna = "nombre"));
+                fila.setDescripcion(valor(registro, columna = "descripcion"));
+                String fecha = valor(registro, columna = "fecha");
+                fila.setFecha(fecha != null ? LocalDateTime.parse(fecha) : null);
+                String capacidad = valor(registro, columna = "capacidadMaxima");
+                fila.setCapacidadMaxima(capacidad != null ? Integer.valueOf(capacidad) : null);
+                String precio = valor(registro, columna = "precioEntrada");
+                fila.setPrecioEntrada(precio != null ? new BigDecimal(precio) : null);
+                fila.setImagenUrl(valor(registro, columna = "imagenUrl"));
+                fila.setDireccion(valor(registro, columna = "direccion"));
+                fila.setComuna(valor(registro, columna = "comuna"));
+                String latitud = valor(registro, columna = "latitud");
+                fila.setLatitud(latitud != null ? new BigDecimal(latitud) : null);
+                String longitud = valor(registro, columna = "longitud");
+                fila.setLongitud(longitud != null ? new BigDecimal(longitud) : null);
+                return new FilaLeida(numero, fila, null);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                return new FilaLeida(numero, null, "Valor inválido en la columna " + columna);
+            }
+        }
+
+        /**
+         * Valor de la columna en el registro, sin espacios en los extremos; null si no viene o está vacío
+         */
+        private String valor(List<String> registro, String columna) {
+            int posicion = posiciones[COLUMNAS.indexOf(columna)];
+            if (posicion < 0 || posicion >= registro.size()) {
+                return null;
+            }
+            String valor = registro.get(posicion).trim();
+            return valor.isEmpty() ? null : valor;
+        }
+
+        /**
+         * Lee el siguiente registro; null al final del archivo
+         */
+        private List<String> leerRegistro() throws IOException {
+            List<String> campos = new ArrayList<>();
+            StringBuilder campo = new StringBuilder();
+            boolean entreComillas = false;
+            boolean leyo = false;
+            int caracter;
+            while ((caracter = lector.read()) != -1) {
+                leyo = true;
+                if (entreComillas) {
+                    if (caracter != '"') {
+                        campo.append((char) caracter);
+                        continue;
+                    }
+                    // "" dentro de comillas es una comilla; una sola cierra el campo
+                    lector.mark(1);
+                    if (lector.read() == '"') {
+                        campo.append('"');
+                    } else {
+                        lector.reset();
+                        entreComillas = false;
+                    }
+                } else if (caracter == '"') {
+                    entreComillas = true;
+                } else if (caracter == ',') {
+                    campos.add(campo.toString());
+                    campo.setLength(0);
+                } else if (caracter == '\n') {
+                    campos.add(campo.toString());
+                    return campos;
+                } else if (caracter != '\r') {
+                    campo.append((char) caracter);
+                }
+            }
+            if (entreComillas) {
+                throw new IllegalArgumentException("El archivo CSV termina con un campo entre comillas sin cerrar");
+            }
+            if (!leyo) {
+                return null;
+            }
+            campos.add(campo.toString());
+            return campos;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.partymap.backend.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.partymap.backend.config.ExportacionProperties;
+import com.partymap.backend.exceptions.ServicioNoDisponibleException;
+import com.partymap.backend.repository.ConsultaStreaming;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Escribe listados completos (JSON, NDJSON o CSV) a medida que se leen las filas.
+ *
+ * La consulta se recorre como un Stream respaldado por un cursor de la base de datos y cada
+ * entidad se convierte y se escribe de inmediato. Cada lote de filas se envía al cliente y se
+ * libera del contexto de persistencia, así la memoria usada no crece con el tamaño del listado.
+ * La transacción (y con ella la conexión del pool) se abre recién al empezar a escribir y se
+ * libera apenas se termina de recorrer el cursor.
+ *
+ * Como cada listado en curso retiene una conexión, solo se permiten
+ * partymap.exportacion.maximo-simultaneas a la vez. El cupo se toma al crear el cuerpo de la
+ * respuesta, todavía en el hilo de la petición, para poder rechazarla con 503 antes de enviar
+ * los encabezados.
+ */
+@Component
+public class ListadoStreaming {
+
+    /**
+     * Formatos de exportación de filas planas
+     */
+    public enum Formato {
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Formato(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Interpreta el parámetro format de los endpoints de exportación ("csv" o "ndjson")
+         * @throws IllegalArgumentException Si el formato no está soportado
+         */
+        public static Formato desde(String valor) {
+            if (valor != null) {
+                for (Formato formato : values()) {
+                    if (formato.extension.equals(valor.trim().toLowerCase(Locale.ROOT))) {
+                        return formato;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Formato de exportación no soportado: " + valor);
+        }
+    }
+
+    /**
+     * Escribe las filas en un formato concreto; terminar() solo se llama si se recorrió todo el cursor
+     */
+    private interface Escritor<T> {
+
+        void escribir(T fila) throws IOException;
+
+        void flush() throws IOException;
+
+        void terminar() throws IOException;
+    }
+
+    /**
+     * Crea el escritor sobre la salida (ya comprimida si corresponde)
+     */
+    @FunctionalInterface
+    private interface FabricaEscritor<T> {
+
+        Escritor<T> crear(OutputStream salida) throws IOException;
+    }
+
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Semaphore cupos;
+
+    public ListadoStreaming(PlatformTransactionManager transactionManager, EntityManager entityManager,
+            ObjectMapper objectMapper, ExportacionProperties properties) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.cupos = new Semaphore(Math.max(1, properties.getMaximoSimultaneas()));
+    }
+
+    /**
+     * Cantidad de listados que se pueden empezar ahora sin ser rechazados
+     */
+    public int getCuposDisponibles() {
+        return cupos.availablePermits();
+    }
+
+    /**
+     * Crea el cuerpo de respuesta que escribe el listado como arreglo JSON
+     * @param consulta Abre el Stream de entidades; se ejecuta dentro de una transacción de solo lectura
+     * @param convertir Convierte cada entidad en el DTO que se escribe
+     */
+    public <T> StreamingResponseBody json(Supplier<Stream<T>> consulta, Function<T, ?> convertir) {
+        return cuerpo(consulta, false, salida -> {
+            JsonGenerator generador = objectMapper.createGenerator(salida);
+            generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generador.writeStartArray();
+            return new Escritor<T>() {
+                public void escribir(T fila) throws IOException {
+                    generador.writePOJO(convertir.apply(fila));
+                }
+
+                public void flush() throws IOException {
+                    generador.flush();
+                }
+
+                public void terminar() throws IOException {
+                    generador.writeEndArray();
+                    generador.close();
+                }
+            };
+        });
+    }
+
+    /**
+     * Crea el cuerpo de respuesta que escribe un objeto JSON por línea
+     * @param consulta Abre el Stream de entidades; se ejecuta dentro de una transacción de solo lectura
+     * @param convertir Convierte cada entidad en el DTO que se escribe
+     * @param gzip Comprimir la salida (la respuesta debe llevar Content-Encoding: gzip)
+     */
+    public <T> StreamingResponseBody ndjson(Supplier<Stream<T>> consulta, Function<T, ?> convertir, boolean gzip) {
+        return cuerpo(consulta, gzip, salida -> {
+            JsonGenerator generador = objectMapper.createGenerator(salida);
+            generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generador.setRootValueSeparator(null);
+            return new Escritor<T>() {
+                public void escribir(T fila) throws IOException {
+                    generador.writePOJO(convertir.apply(fila));
+                    generador.writeRaw('\n');
+                }
+
+                public void flush() throws IOException {
+                    generador.flush();
+                }
+
+                public void terminar() throws IOException {
+                    generador.close();
+                }
+            };
+        });
+    }
+
+    /**
+     * Crea el cuerpo de respuesta que escribe las filas como CSV (RFC 4180, UTF-8) con fila de encabezados
+     * @param consulta Abre el Stream de entidades; se ejecuta dentro de una transacción de solo lectura
+     * @param encabezados Nombres de las columnas
+     * @param columnas Valores de cada entidad, en el orden de los encabezados
+     * @param gzip Comprimir la salida (la respuesta debe llevar Content-Encoding: gzip)
+     */
+    public <T> StreamingResponseBody csv(Supplier<Stream<T>> consulta, List<String> encabezados,
+            Function<T, List<?>> columnas, boolean gzip) {
+        return cuerpo(consulta, gzip, salida -> {
+            Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+            escribirLineaCsv(escritor, encabezados);
+            return new Escritor<T>() {
+                public void escribir(T fila) throws IOException {
+                    escribirLineaCsv(escritor, columnas.apply(fila));
+                }
+
+                public void flush() throws IOException {
+                    escritor.flush();
+                }
+
+                public void terminar() throws IOException {
+                    escritor.flush();
+                }
+            };
+        });
+    }
+
+    /**
+     * @throws ServicioNoDisponibleException Si ya hay partymap.exportacion.maximo-simultaneas listados en curso
+     */
+    private <T> StreamingResponseBody cuerpo(Supplier<Stream<T>> consulta, boolean gzip,
+            FabricaEscritor<T> fabrica) {
+        if (!cupos.tryAcquire()) {
+            throw new ServicioNoDisponibleException("Hay demasiadas exportaciones en curso, intenta nuevamente en unos minutos");
+        }
+        Runnable liberar = liberacionUnica();
+        liberarAlTerminarLaPeticion(liberar);
+        return salida -> {
+            try {
+                transactionTemplate.executeWithoutResult(estado -> recorrer(salida, consulta, gzip, fabrica));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                liberar.run();
+            }
+        };
+    }
+
+    /**
+     * Devuelve el cupo una sola vez, aunque se llame desde el cuerpo y desde el fin de la petición
+     */
+    private Runnable liberacionUnica() {
+        AtomicBoolean liberado = new AtomicBoolean();
+        return () -> {
+            if (liberado.compareAndSet(false, true)) {
+                cupos.release();
+            }
+        };
+    }
+
+    /**
+     * Si la petición termina sin que el cuerpo llegue a ejecutarse (vence el tiempo de espera o
+     * el cliente se desconecta antes), el cupo se devuelve al completarse el procesamiento asíncrono
+     */
+    private static void liberarAlTerminarLaPeticion(Runnable liberar) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos)) {
+            return;
+        }
+        WebAsyncUtils.getAsyncManager(atributos.getRequest()).registerCallableInterceptor(liberar,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <C> void afterCompletion(NativeWebRequest request, Callable<C> tarea) {
+                        liberar.run();
+                    }
+                });
+    }
+
+    private <T> void recorrer(OutputStream salida, Supplier<Stream<T>> consulta, boolean gzip,
+            FabricaEscritor<T> fabrica) {
+        try (Stream<T> filas = consulta.get()) {
+            GZIPOutputStream comprimida = gzip ? new GZIPOutputStream(salida, 8192, true) : null;
+            Escritor<T> escritor = fabrica.crear(comprimida != null ? comprimida : salida);
+            int escritas = 0;
+            for (T fila : (Iterable<T>) filas::iterator) {
+                escritor.escribir(fila);
+                if (++escritas % ConsultaStreaming.TAMANIO_LOTE == 0) {
+                    escritor.flush();
+                    entityManager.clear();
+                }
+            }
+            escritor.terminar();
+            if (comprimida != null) {
+                // Se cierra el formato gzip sin cerrar la respuesta, que es responsabilidad del contenedor
+                comprimida.finish();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Escribe una línea CSV, encerrando entre comillas los valores con separadores, comillas o saltos de línea
+     */
+    static void escribirLineaCsv(Writer escritor, List<?> valores) throws IOException {
+        for (int i = 0; i < valores.size(); i++) {
+            if (i > 0) {
+                escritor.write(',');
+            }
+            escritor.write(valorCsv(valores.get(i)));
+        }
+        escritor.write("\r\n");
+    }
+
+    static String valorCsv(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        String texto = valor.toString();
+        if (valor instanceof CharSequence && !texto.isEmpty() && "=+-@".indexOf(texto.charAt(0)) >= 0) {
+            // Evita que una planilla interprete como fórmula un texto ingresado por un usuario
+            texto = "'" + texto;
+        }
+        if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0 || texto.indexOf('\n') >= 0
+                || texto.indexOf('\r') >= 0) {
+            return '"' + texto.replace("\"", "\"\"") + '"';
+        }
+        return texto;
+    }
+}
@@ -0,0 +1,297 @@
+package com.partymap.backend.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.partymap.backend.events.ReservaCambiadaEvent;
+import com.partymap.backend.repository.ReservaRepository;
+
+/**
+ * Estadísticas de reservas mantenidas en memoria y actualizadas con cada cambio de estado.
+ *
+ * Cada cambio confirmado resta el resumen anterior de la reserva y suma el nuevo sobre contadores
+ * LongAdder, que no se bloquean entre sí aunque muchas reservas cambien a la vez. Consultar las
+ * estadísticas solo lee los contadores, sin recorrer las reservas.
+ *
+ * Los valores publicados son una base leída de la base de datos más los cambios recibidos desde
+ * esa lectura. Cada cierto tiempo se recalcula la base con una consulta agregada, lo que también
+ * corrige cualquier desviación (por ejemplo, cambios hechos desde otra instancia). Un cambio se
+ * confirma en la base de datos antes de llegar a los contadores, así que una transacción confirmada
+ * justo antes de la consulta quedaría en su resultado y luego también en los cambios. Para evitarlo,
+ * cada transacción que cambia reservas toma un permiso compartido antes de confirmar y lo suelta
+ * cuando su cambio ya se aplicó; la conciliación toma el permiso exclusivo mientras traspasa los
+ * cambios y corre la consulta. Durante esa consulta las confirmaciones de reservas esperan.
+ *
+ * Los máximos y mínimos no se pueden deshacer al eliminar una reserva, por lo que entre
+ * conciliaciones solo reflejan las altas.
+ */
+@Component
+public class ReservaEstadisticas {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservaEstadisticas.class);
+
+    private final ReservaRepository reservaRepository;
+
+    /**
+     * Contadores leídos de la base de datos en la última conciliación; null hasta la primera carga
+     */
+    private volatile Acumulado base;
+
+    /**
+     * Cambios confirmados desde la última conciliación, que se suman a la base
+     */
+    private final Acumulado cambios = new Acumulado();
+
+    /**
+     * Compartido entre las transacciones que confirman cambios de reservas, exclusivo para conciliar
+     */
+    private final ReentrantReadWriteLock confirmaciones = new ReentrantReadWriteLock();
+
+    public ReservaEstadisticas(ReservaRepository reservaRepository) {
+        this.reservaRepository = reservaRepository;
+    }
+
+    /**
+     * Estadísticas completas de las reservas no eliminadas (GET /reserva/estadisticas)
+     */
+    public Map<String, Object> getEstadisticas() {
+        Acumulado actual = asegurarCargado();
+        long totalReservas = actual.total.sum() + cambios.total.sum();
+        long reservasActivas = actual.reservadas.sum() + cambios.reservadas.sum();
+        long reservasCanceladas = actual.canceladas.sum() + cambios.canceladas.sum();
+        BigDecimal totalIngresos = BigDecimal.valueOf(actual.ingresosCentavos.sum() + cambios.ingresosCentavos.sum(), 2);
+        long totalEntradas = actual.entradas.sum() + cambios.entradas.sum();
+
+        Map<String, Object> estadisticas = new HashMap<>();
+        estadisticas.put("totalReservas", totalReservas);
+        estadisticas.put("reservasActivas", reservasActivas);
+        estadisticas.put("reservasCanceladas", reservasCanceladas);
+        estadisticas.put("porcentajeActivas", porcentaje(reservasActivas, totalReservas));
+        estadisticas.put("porcentajeCanceladas", porcentaje(reservasCanceladas, totalReservas));
+
+        estadisticas.put("totalIngresos", totalIngresos);
+        estadisticas.put("promedioPrecio", totalReservas > 0
+                ? totalIngresos.divide(BigDecimal.valueOf(totalReservas), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO);
+        estadisticas.put("precioMaximo", totalReservas > 0
+                ? BigDecimal.valueOf(Math.max(actual.precioMaximoCentavos.get(), cambios.precioMaximoCentavos.get()), 2)
+                : BigDecimal.ZERO);
+        estadisticas.put("precioMinimo", totalReservas > 0
+                ? BigDecimal.valueOf(Math.min(actual.precioMinimoCentavos.get(), cambios.precioMinimoCentavos.get()), 2)
+                : BigDecimal.ZERO);
+
+        estadisticas.put("totalEntradas", totalEntradas);
+        estadisticas.put("promedioEntradas", totalReservas > 0 ? (double) totalEntradas / totalReservas : 0.0);
+        estadisticas.put("maxEntradas", totalReservas > 0
+                ? Math.max(actual.maximoEntradas.get(), cambios.maximoEntradas.get()) : 0);
+        estadisticas.put("minEntradas", totalReservas > 0
+                ? Math.min(actual.minimoEntradas.get(), cambios.minimoEntradas.get()) : 0);
+        return estadisticas;
+    }
+
+    /**
+     * Conteos e ingresos de las reservas no eliminadas (GET /reserva/estadisticas-basicas)
+     */
+    public Map<String, Object> getEstadisticasBasicas() {
+        Acumulado actual = asegurarCargado();
+        return Map.of(
+                "totalReservas", actual.total.sum() + cambios.total.sum(),
+                "reservasActivas", actual.reservadas.sum() + cambios.reservadas.sum(),
+                "reservasCanceladas", actual.canceladas.sum() + cambios.canceladas.sum(),
+                "totalIngresos", BigDecimal.valueOf(actual.ingresosCentavos.sum() + cambios.ingresosCentavos.sum(), 2)
+                        .doubleValue());
+    }
+
+    /**
+     * Antes de confirmar una transacción que cambia reservas toma el permiso compartido, una vez por
+     * transacción, y lo suelta al terminar. Al soltarlo los cambios ya se aplicaron: el listener
+     * AFTER_COMMIT de cada evento se registró al publicarlo, antes que esta sincronización, y corre
+     * primero en afterCompletion.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void antesDeConfirmar(ReservaCambiadaEvent evento) {
+        if (TransactionSynchronizationManager.hasResource(confirmaciones)) {
+            return;
+        }
+        confirmaciones.readLock().lock();
+        TransactionSynchronizationManager.bindResource(confirmaciones, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(confirmaciones);
+                confirmaciones.readLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Aplica la diferencia entre el resumen anterior y el nuevo de la reserva, una vez confirmada la transacción
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservaCambiada(ReservaCambiadaEvent evento) {
+        // Antes de la primera carga también se acumula: esa carga descarta lo confirmado antes
+        // de su consulta y conserva lo que llegue mientras corre
+        cambios.aplicar(evento.getAnterior(), evento.getActual());
+    }
+
+    /**
+     * Recalcula las estadísticas desde la base de datos con una sola consulta agregada
+     */
+    @Scheduled(fixedDelayString = "${partymap.estadisticas.reservas.conciliacion-ms:300000}",
+            initialDelayString = "${partymap.estadisticas.reservas.conciliacion-ms:300000}")
+    public synchronized void conciliar() {
+        long inicio = System.currentTimeMillis();
+        // Con el permiso exclusivo no hay transacciones de reservas confirmadas sin aplicar, ni se
+        // confirman otras hasta terminar la consulta
+        confirmaciones.writeLock().lock();
+        try {
+            // Lo confirmado hasta aquí ya está en la base de datos: pasa a la base anterior, que se
+            // sigue publicando mientras corre la consulta, y deja de contarse como cambio
+            Acumulado corte = cambios.extraer();
+            Acumulado anterior = base;
+            if (anterior != null) {
+                corte.sumar(anterior);
+                base = corte;
+            }
+            Object[] fila = reservaRepository.calcularEstadisticas().get(0);
+            base = Acumulado.desdeFila(fila);
+        } finally {
+            confirmaciones.writeLock().unlock();
+        }
+        logger.debug("Estadísticas de reservas conciliadas en {} ms", System.currentTimeMillis() - inicio);
+    }
+
+    private Acumulado asegurarCargado() {
+        Acumulado actual = base;
+        if (actual != null) {
+            return actual;
+        }
+        synchronized (this) {
+            if (base == null) {
+                conciliar();
+            }
+            return base;
+        }
+    }
+
+    private static double porcentaje(long parte, long total) {
+        return total > 0 ? (double) parte / total * 100 : 0.0;
+    }
+
+    private static long centavos(BigDecimal monto) {
+        return monto != null ? monto.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue() : 0L;
+    }
+
+    private static long valorDe(Object valor) {
+        if (valor == null) {
+            return 0L;
+        }
+        return valor instanceof BigDecimal monto ? centavos(monto) : ((Number) valor).longValue();
+    }
+
+    /**
+     * Contadores de las reservas no eliminadas. Los montos se guardan en centavos
+     */
+    private static final class Acumulado {
+
+        private final LongAdder total = new LongAdder();
+        private final LongAdder reservadas = new LongAdder();
+        private final LongAdder canceladas = new LongAdder();
+        private final LongAdder ingresosCentavos = new LongAdder();
+        private final LongAdder entradas = new LongAdder();
+        private final LongAccumulator precioMaximoCentavos = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private final LongAccumulator precioMinimoCentavos = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator maximoEntradas = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private final LongAccumulator minimoEntradas = new LongAccumulator(Math::min, Long.MAX_VALUE);
+
+        /**
+         * Crea los contadores a partir de la fila de ReservaRepository.calcularEstadisticas
+         */
+        static Acumulado desdeFila(Object[] fila) {
+            Acumulado acumulado = new Acumulado();
+            acumulado.total.add(valorDe(fila[0]));
+            acumulado.reservadas.add(valorDe(fila[1]));
+            acumulado.canceladas.add(valorDe(fila[2]));
+            acumulado.ingresosCentavos.add(valorDe(fila[3]));
+            acumulado.entradas.add(valorDe(fila[6]));
+            if (valorDe(fila[0]) > 0) {
+                acumulado.precioMaximoCentavos.accumulate(valorDe(fila[4]));
+                acumulado.precioMinimoCentavos.accumulate(valorDe(fila[5]));
+                acumulado.maximoEntradas.accumulate(valorDe(fila[7]));
+                acumulado.minimoEntradas.accumulate(valorDe(fila[8]));
+            }
+            return acumulado;
+        }
+
+        void aplicar(ReservaCambiadaEvent.Resumen anterior, ReservaCambiadaEvent.Resumen actual) {
+            aplicar(anterior, -1);
+            aplicar(actual, 1);
+        }
+
+        private void aplicar(ReservaCambiadaEvent.Resumen resumen, int signo) {
+            if (resumen == null || !resumen.vigente()) {
+                return;
+            }
+            long precio = centavos(resumen.precioTotal());
+            total.add(signo);
+            entradas.add((long) signo * resumen.cantidad());
+            if (resumen.reservada()) {
+                reservadas.add(signo);
+                ingresosCentavos.add(signo * precio);
+            }
+            if (resumen.cancelada()) {
+                canceladas.add(signo);
+            }
+            if (signo > 0) {
+                precioMaximoCentavos.accumulate(precio);
+                precioMinimoCentavos.accumulate(precio);
+                maximoEntradas.accumulate(resumen.cantidad());
+                minimoEntradas.accumulate(resumen.cantidad());
+            }
+        }
+
+        /**
+         * Devuelve los valores acumulados y reinicia cada contador en la misma operación. Una
+         * actualización concurrente queda en lo extraído o en el contador, nunca en ambos.
+         */
+        Acumulado extraer() {
+            Acumulado extraido = new Acumulado();
+            extraido.total.add(total.sumThenReset());
+            extraido.reservadas.add(reservadas.sumThenReset());
+            extraido.canceladas.add(canceladas.sumThenReset());
+            extraido.ingresosCentavos.add(ingresosCentavos.sumThenReset());
+            extraido.entradas.add(entradas.sumThenReset());
+            extraido.precioMaximoCentavos.accumulate(precioMaximoCentavos.getThenReset());
+            extraido.precioMinimoCentavos.accumulate(precioMinimoCentavos.getThenReset());
+            extraido.maximoEntradas.accumulate(maximoEntradas.getThenReset());
+            extraido.minimoEntradas.accumulate(minimoEntradas.getThenReset());
+            return extraido;
+        }
+
+        void sumar(Acumulado otro) {
+            total.add(otro.total.sum());
+            reservadas.add(otro.reservadas.sum());
+            canceladas.add(otro.canceladas.sum());
+            ingresosCentavos.add(otro.ingresosCentavos.sum());
+            entradas.add(otro.entradas.sum());
+            precioMaximoCentavos.accumulate(otro.precioMaximoCentavos.get());
+            precioMinimoCentavos.accumulate(otro.precioMinimoCentavos.get());
+            maximoEntradas.accumulate(otro.maximoEntradas.get());
+            minimoEntradas.accumulate(otro.minimoEntradas.get());
+        }
+    }
+}
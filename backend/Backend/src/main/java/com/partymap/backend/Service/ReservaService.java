@@ -4,8 +4,14 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Slice;
+
+import com.partymap.backend.dto.CursorPaginacion;
+import com.partymap.backend.dto.ReservaResponseDTO;
 import com.partymap.backend.model.Reserva;
 
 /**
@@ -15,12 +21,75 @@ import com.partymap.backend.model.Reserva;
  */
 public interface ReservaService {
 
+    /**
+     * Reservas máximas que se aceptan en un mismo lote (POST /reserva/lote)
+     */
+    int MAX_RESERVAS_POR_LOTE = 500;
+
+    /**
+     * Resultado de una reserva de un lote: la reserva creada o el motivo por el que se rechazó
+     * @param reserva Reserva creada (null si se rechazó)
+     * @param error Motivo del rechazo (null si se creó)
+     */
+    record ResultadoLote(Reserva reserva, String error) {
+
+        public static ResultadoLote creada(Reserva reserva) {
+            return new ResultadoLote(reserva, null);
+        }
+
+        public static ResultadoLote rechazada(String error) {
+            return new ResultadoLote(null, error);
+        }
+
+        public boolean isCreada() {
+            return reserva != null;
+        }
+    }
+
     /**
      * Obtiene todas las reservas del sistema
      * @return Lista de todas las reservas
      */
     List<Reserva> getAllreservas();
 
+    /**
+     * Obtiene la respuesta de todas las reservas activas con una consulta de proyección
+     * @return Lista de reservas activas ordenadas por ID, con su usuario y evento
+     */
+    List<ReservaResponseDTO> getRespuestasReservasActivas();
+
+    /**
+     * Obtiene una página de reservas activas ordenadas por ID a partir de un cursor
+     * @param cursor Última reserva entregada (null para la primera página)
+     * @param tamanio Cantidad máxima de reservas a retornar
+     * @return Porción de reservas con indicador de página siguiente
+     */
+    Slice<Reserva> getReservasDesdeCursor(CursorPaginacion cursor, int tamanio);
+
+    /**
+     * Recorre las reservas activas ordenadas por ID sin cargarlas todas en memoria.
+     * Debe llamarse dentro de una transacción y el Stream debe cerrarse al terminar
+     * @return Stream de reservas activas con su usuario y evento cargados
+     */
+    Stream<Reserva> streamReservasActivas();
+
+    /**
+     * Recorre las reservas activas de un usuario ordenadas por ID sin cargarlas todas en memoria.
+     * Debe llamarse dentro de una transacción y el Stream debe cerrarse al terminar
+     * @param usuarioId ID del usuario
+     * @return Stream de reservas activas del usuario
+     */
+    Stream<Reserva> streamReservasByUsuarioId(Long usuarioId);
+
+    /**
+     * Obtiene una página de reservas activas de un usuario ordenadas por ID a partir de un cursor
+     * @param usuarioId ID del usuario
+     * @param cursor Última reserva entregada (null para la primera página)
+     * @param tamanio Cantidad máxima de reservas a retornar
+     * @return Porción de reservas con indicador de página siguiente
+     */
+    Slice<Reserva> getReservasByUsuarioIdDesdeCursor(Long usuarioId, CursorPaginacion cursor, int tamanio);
+
     /**
      * Busca una reserva por su ID
      * @param id ID de la reserva a buscar
@@ -36,6 +105,16 @@ public interface ReservaService {
      */
     Reserva createReserva(Reserva reserva) throws IOException;
 
+    /**
+     * Crea varias reservas en una sola transacción, con las mismas validaciones que createReserva.
+     * Los cupos se validan y asignan una vez por evento para todas sus reservas, y las reservas
+     * se insertan por lotes. Las reservas que no pasan las validaciones se rechazan sin afectar al resto
+     * @param reservas Reservas a crear, con su usuario y evento asignados
+     * @return Un resultado por reserva, en el mismo orden
+     * @throws IllegalArgumentException Si el lote está vacío o supera el máximo permitido
+     */
+    List<ResultadoLote> createReservasLote(List<Reserva> reservas);
+
     /**
      * Actualiza una reserva existente con recálculo automático de precios
      * @param id ID de la reserva a actualizar
@@ -58,6 +137,21 @@ public interface ReservaService {
      */
     List<Reserva> getReservasByUsuarioId(Long usuarioId);
 
+    /**
+     * Indica si el usuario tiene una reserva activa (estado RESERVADA) para el evento, con una consulta puntual
+     * @param usuarioId ID del usuario
+     * @param eventoId ID del evento
+     * @return true si ya tiene una reserva activa para el evento
+     */
+    boolean tieneReservaActiva(Long usuarioId, Long eventoId);
+
+    /**
+     * Obtiene la respuesta de las reservas activas de un usuario con una consulta de proyección
+     * @param usuarioId ID del usuario
+     * @return Lista de reservas del usuario ordenadas por ID
+     */
+    List<ReservaResponseDTO> getRespuestasReservasByUsuarioId(Long usuarioId);
+
     /**
      * Obtiene todas las reservas de un evento específico
      * @param eventoId ID del evento
@@ -65,6 +159,29 @@ public interface ReservaService {
      */
     List<Reserva> getReservasByEventoId(Long eventoId);
 
+    /**
+     * Obtiene la respuesta de las reservas activas de un evento con una consulta de proyección
+     * @param eventoId ID del evento
+     * @return Lista de reservas del evento ordenadas por ID
+     */
+    List<ReservaResponseDTO> getRespuestasReservasByEventoId(Long eventoId);
+
+    /**
+     * Recorre las reservas activas de un evento sin cargarlas todas en memoria (exportación de asistentes).
+     * Debe llamarse dentro de una transacción y el Stream debe cerrarse al terminar
+     * @param eventoId ID del evento
+     * @return Stream de reservas ordenadas por ID con su usuario y evento cargados
+     */
+    Stream<Reserva> streamReservasByEventoId(Long eventoId);
+
+    /**
+     * Recorre las reservas activas de todos los eventos de un productor sin cargarlas todas en memoria.
+     * Debe llamarse dentro de una transacción y el Stream debe cerrarse al terminar
+     * @param productorId ID del usuario productor
+     * @return Stream de reservas ordenadas por evento y luego por ID
+     */
+    Stream<Reserva> streamReservasByProductorId(Long productorId);
+
     /**
      * Obtiene reservas activas (estado RESERVADA)
      * @return Lista de reservas activas
@@ -106,6 +223,15 @@ public interface ReservaService {
      */
     List<Reserva> getReservasPorRangoFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin);
 
+    /**
+     * Recorre las reservas activas de un rango de fechas sin cargarlas todas en memoria.
+     * Debe llamarse dentro de una transacción y el Stream debe cerrarse al terminar
+     * @param fechaInicio Fecha de inicio del rango (exclusiva)
+     * @param fechaFin Fecha de fin del rango (exclusiva)
+     * @return Stream de reservas ordenadas por fecha de reserva
+     */
+    Stream<Reserva> streamReservasPorRangoFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin);
+
     /**
      * Obtiene reservas de un usuario en un rango de fechas
      * @param usuarioId ID del usuario
@@ -171,4 +297,10 @@ public interface ReservaService {
      * @return Objeto con estadísticas detalladas
      */
     Object getEstadisticasCompletas();
+
+    /**
+     * Obtiene los conteos de reservas (total, activas, canceladas) y los ingresos totales
+     * @return Mapa con totalReservas, reservasActivas, reservasCanceladas y totalIngresos
+     */
+    Map<String, Object> getEstadisticasBasicas();
 }
@@ -0,0 +1,218 @@
+package com.partymap.backend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.partymap.backend.config.BffProperties;
+import com.partymap.backend.exceptions.ServicioNoDisponibleException;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Protege las llamadas al microservicio de /bff para que uno lento o caído no ocupe todos los hilos.
+ *
+ * - Cupo: como máximo partymap.bff.max-llamadas-concurrentes llamadas simultáneas; una llamada sin
+ *   cupo espera un momento y luego se rechaza.
+ * - Circuito: si en las últimas llamadas fallan demasiadas (tiempo agotado, error de conexión o
+ *   respuesta 5xx), se rechazan las siguientes sin llamar durante partymap.bff.apertura-ms. Luego
+ *   se deja pasar una llamada de prueba: si responde se cierra el circuito y si falla se vuelve a abrir.
+ *
+ * Las respuestas 4xx no cuentan como fallo: el microservicio está respondiendo.
+ *
+ * Métricas: partymap.bff.circuito (0 cerrado, 1 abierto, 2 semiabierto), partymap.bff.llamadas.en.curso
+ * y partymap.bff.rechazadas por motivo (sin_cupo, circuito_abierto).
+ */
+@Component
+public class ResilienciaBff implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilienciaBff.class);
+
+    public enum EstadoCircuito { CERRADO, ABIERTO, SEMIABIERTO }
+
+    private final BffProperties properties;
+    private final Semaphore cupos;
+
+    /**
+     * Resultado de las últimas llamadas (true = falló), en un arreglo circular
+     */
+    private final boolean[] ventana;
+    private int posicion;
+    private int llamadasEnVentana;
+    private int fallosEnVentana;
+
+    private EstadoCircuito estado = EstadoCircuito.CERRADO;
+    private long abiertoHasta;
+    private boolean pruebaEnCurso;
+
+    private final LongAdder rechazadasSinCupo = new LongAdder();
+    private final LongAdder rechazadasCircuitoAbierto = new LongAdder();
+
+    public ResilienciaBff(BffProperties properties) {
+        this.properties = properties;
+        this.cupos = new Semaphore(Math.max(1, properties.getMaxLlamadasConcurrentes()), true);
+        this.ventana = new boolean[Math.max(1, properties.getVentanaLlamadas())];
+    }
+
+    /**
+     * Ejecuta la llamada si el circuito lo permite y hay cupo
+     * @throws ServicioNoDisponibleException si el circuito está abierto o no hay cupo
+     */
+    public <T> T ejecutar(String operacion, Supplier<T> llamada) {
+        boolean prueba = permitirLlamada(operacion);
+        boolean conCupo;
+        try {
+            conCupo = cupos.tryAcquire(properties.getEsperaCupoMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            conCupo = false;
+        }
+        if (!conCupo) {
+            liberarPrueba(prueba);
+            rechazadasSinCupo.increment();
+            throw new ServicioNoDisponibleException(
+                    "El microservicio tiene demasiadas llamadas en curso (" + operacion + ")");
+        }
+
+        try {
+            T resultado = llamada.get();
+            registrar(false, prueba);
+            return resultado;
+        } catch (RuntimeException e) {
+            registrar(esFallo(e), prueba);
+            throw e;
+        } finally {
+            cupos.release();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("partymap.bff.circuito", this, resiliencia -> resiliencia.getEstado().ordinal())
+                .description("Estado del circuito del microservicio /bff: 0 cerrado, 1 abierto, 2 semiabierto")
+                .register(registry);
+        Gauge.builder("partymap.bff.llamadas.en.curso", cupos,
+                        semaforo -> properties.getMaxLlamadasConcurrentes() - semaforo.availablePermits())
+                .description("Llamadas simultáneas al microservicio /bff")
+                .register(registry);
+        FunctionCounter.builder("partymap.bff.rechazadas", rechazadasSinCupo, LongAdder::sum)
+                .tag("motivo", "sin_cupo")
+                .register(registry);
+        FunctionCounter.builder("partymap.bff.rechazadas", rechazadasCircuitoAbierto, LongAdder::sum)
+                .tag("motivo", "circuito_abierto")
+                .register(registry);
+    }
+
+    /**
+     * Indica si la excepción significa que el microservicio no está respondiendo bien
+     */
+    public static boolean esFallo(Throwable e) {
+        if (e instanceof FeignException feign) {
+            // Las excepciones sin estado (-1) son de conexión o de tiempo agotado
+            return feign.status() < 0 || feign.status() >= 500;
+        }
+        return !(e instanceof ServicioNoDisponibleException);
+    }
+
+    public synchronized EstadoCircuito getEstado() {
+        return estado;
+    }
+
+    /**
+     * Estado del circuito y contadores de llamadas rechazadas
+     */
+    public synchronized Map<String, Object> getEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("estadoCircuito", estado.name());
+        estadisticas.put("llamadasEnCurso", properties.getMaxLlamadasConcurrentes() - cupos.availablePermits());
+        estadisticas.put("llamadasEnVentana", llamadasEnVentana);
+        estadisticas.put("fallosEnVentana", fallosEnVentana);
+        estadisticas.put("rechazadasSinCupo", rechazadasSinCupo.sum());
+        estadisticas.put("rechazadasCircuitoAbierto", rechazadasCircuitoAbierto.sum());
+        return estadisticas;
+    }
+
+    /**
+     * @return true si la llamada es la de prueba del circuito semiabierto
+     */
+    private synchronized boolean permitirLlamada(String operacion) {
+        if (estado == EstadoCircuito.ABIERTO && System.currentTimeMillis() >= abiertoHasta) {
+            estado = EstadoCircuito.SEMIABIERTO;
+        }
+        if (estado == EstadoCircuito.CERRADO) {
+            return false;
+        }
+        if (estado == EstadoCircuito.SEMIABIERTO && !pruebaEnCurso) {
+            pruebaEnCurso = true;
+            return true;
+        }
+        rechazadasCircuitoAbierto.increment();
+        throw new ServicioNoDisponibleException(
+                "El microservicio no está disponible, se reintentará más tarde (" + operacion + ")");
+    }
+
+    private synchronized void liberarPrueba(boolean prueba) {
+        if (prueba) {
+            pruebaEnCurso = false;
+        }
+    }
+
+    private synchronized void registrar(boolean fallo, boolean prueba) {
+        if (prueba) {
+            pruebaEnCurso = false;
+            if (fallo) {
+                abrir();
+            } else {
+                estado = EstadoCircuito.CERRADO;
+                reiniciarVentana();
+                logger.info("Circuito del microservicio /bff cerrado");
+            }
+            return;
+        }
+        if (estado != EstadoCircuito.CERRADO) {
+            return;
+        }
+
+        if (llamadasEnVentana == ventana.length) {
+            if (ventana[posicion]) {
+                fallosEnVentana--;
+            }
+        } else {
+            llamadasEnVentana++;
+        }
+        ventana[posicion] = fallo;
+        if (fallo) {
+            fallosEnVentana++;
+        }
+        posicion = (posicion + 1) % ventana.length;
+
+        if (llamadasEnVentana >= properties.getMinimoLlamadas()
+                && fallosEnVentana * 100 >= properties.getPorcentajeFallos() * llamadasEnVentana) {
+            abrir();
+        }
+    }
+
+    private void abrir() {
+        estado = EstadoCircuito.ABIERTO;
+        abiertoHasta = System.currentTimeMillis() + properties.getAperturaMs();
+        reiniciarVentana();
+        logger.warn("Circuito del microservicio /bff abierto por {} ms", properties.getAperturaMs());
+    }
+
+    private void reiniciarVentana() {
+        posicion = 0;
+        llamadasEnVentana = 0;
+        fallosEnVentana = 0;
+    }
+}
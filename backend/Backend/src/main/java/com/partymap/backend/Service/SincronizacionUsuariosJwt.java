@@ -0,0 +1,228 @@
+package com.partymap.backend.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.partymap.backend.config.CacheUsuariosProperties;
+import com.partymap.backend.config.SecurityUtils;
+import com.partymap.backend.model.Usuario;
+import com.partymap.backend.repository.UsuarioRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sincroniza el usuario de cada petición autenticada una sola vez por token (JwtUserSyncFilter).
+ *
+ * Un token no cambia durante su vigencia, así que basta con sincronizarlo la primera vez que llega:
+ * se recuerda por sujeto, identificador (jti o fecha de emisión), expiración y los claims que se
+ * copian al usuario, hasta que el token expira. Un token nuevo, o con otros claims, se vuelve a
+ * sincronizar.
+ *
+ * En las peticiones siguientes solo se anota la última conexión en memoria. Las anotaciones de un
+ * mismo usuario se combinan y se guardan cada cierto tiempo en segundo plano, con una actualización
+ * por minuto de conexión en lugar de una escritura por petición.
+ */
+@Component
+public class SincronizacionUsuariosJwt {
+
+    private static final Logger logger = LoggerFactory.getLogger(SincronizacionUsuariosJwt.class);
+
+    /**
+     * Máximo de IDs por actualización: van en un solo IN (...) y Oracle admite hasta 1000
+     */
+    static final int MAX_IDS_POR_ACTUALIZACION = 1000;
+
+    /**
+     * Claims que sincronizarUsuarioDesdeJWT copia al usuario
+     */
+    private static final List<String> CLAIMS_SINCRONIZADOS = List.of(
+            "emails", "given_name", "family_name", "extension_Roles", "extension_RUT");
+
+    /**
+     * Token recordado: el ID del usuario sincronizado y hasta cuándo vale el token
+     */
+    private record Sincronizado(Long usuarioId, Instant expiracion) {
+    }
+
+    private final UsuarioService usuarioService;
+    private final UsuarioRepository usuarioRepository;
+    private final SecurityUtils securityUtils;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, Sincronizado> tokens;
+
+    /**
+     * Última conexión anotada por usuario, pendiente de guardar
+     */
+    private final Map<Long, LocalDateTime> conexionesPendientes = new ConcurrentHashMap<>();
+
+    public SincronizacionUsuariosJwt(UsuarioService usuarioService, UsuarioRepository usuarioRepository,
+            SecurityUtils securityUtils, PlatformTransactionManager transactionManager,
+            CacheUsuariosProperties properties) {
+        this.usuarioService = usuarioService;
+        this.usuarioRepository = usuarioRepository;
+        this.securityUtils = securityUtils;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Duration ttlMaximo = Duration.ofSeconds(Math.max(1, properties.getTtlMaximoSegundos()));
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(properties.getTamanioMaximo())
+                .expireAfter(new Expiry<String, Sincronizado>() {
+                    @Override
+                    public long expireAfterCreate(String clave, Sincronizado sincronizado, long ahora) {
+                        return vigenciaNanos(sincronizado.expiracion(), ttlMaximo);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String clave, Sincronizado sincronizado, long ahora,
+                            long vigenciaActual) {
+                        return vigenciaNanos(sincronizado.expiracion(), ttlMaximo);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String clave, Sincronizado sincronizado, long ahora,
+                            long vigenciaActual) {
+                        return vigenciaActual;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Sincroniza el usuario del token si aún no se hizo, o anota su conexión si ya se sincronizó
+     * @param jwt Token de la petición
+     * @return ID del usuario sincronizado
+     */
+    public Long sincronizar(Jwt jwt) {
+        String clave = clave(jwt);
+        Sincronizado sincronizado = tokens.getIfPresent(clave);
+        if (sincronizado != null) {
+            registrarConexion(sincronizado.usuarioId());
+            return sincronizado.usuarioId();
+        }
+
+        // La sincronización ya guarda la última conexión
+        Usuario usuario = usuarioService.sincronizarUsuarioDesdeJWT(jwt);
+        logger.debug("Usuario sincronizado: {} ({})", usuario.getEmail(), usuario.getTipoUsuario());
+        if (usuario.getId() != null) {
+            tokens.put(clave, new Sincronizado(usuario.getId(), jwt.getExpiresAt()));
+            // Con los datos recién sincronizados, la petición no vuelve a buscar al usuario
+            securityUtils.recordarUsuario(jwt, usuario);
+        }
+        return usuario.getId();
+    }
+
+    /**
+     * Anota la conexión del usuario para guardarla en la próxima escritura por lotes
+     */
+    public void registrarConexion(Long usuarioId) {
+        conexionesPendientes.merge(usuarioId, LocalDateTime.now(),
+                (anterior, nueva) -> nueva.isAfter(anterior) ? nueva : anterior);
+    }
+
+    /**
+     * Guarda las conexiones anotadas, agrupadas por minuto, con una actualización por grupo
+     * @return Cantidad de usuarios actualizados
+     */
+    @Scheduled(fixedDelayString = "${partymap.usuarios.ultima-conexion.intervalo-ms:60000}",
+            initialDelayString = "${partymap.usuarios.ultima-conexion.intervalo-ms:60000}")
+    public synchronized int guardarConexiones() {
+        if (conexionesPendientes.isEmpty()) {
+            return 0;
+        }
+        Map<LocalDateTime, List<Long>> porMinuto = new TreeMap<>();
+        for (Long usuarioId : new ArrayList<>(conexionesPendientes.keySet())) {
+            LocalDateTime conexion = conexionesPendientes.remove(usuarioId);
+            if (conexion != null) {
+                porMinuto.computeIfAbsent(conexion.truncatedTo(ChronoUnit.MINUTES), m -> new ArrayList<>())
+                        .add(usuarioId);
+            }
+        }
+
+        long inicio = System.currentTimeMillis();
+        try {
+            Integer actualizados = transactionTemplate.execute(estado -> {
+                int total = 0;
+                for (Map.Entry<LocalDateTime, List<Long>> grupo : porMinuto.entrySet()) {
+                    List<Long> ids = grupo.getValue();
+                    for (int desde = 0; desde < ids.size(); desde += MAX_IDS_POR_ACTUALIZACION) {
+                        List<Long> bloque = ids.subList(desde, Math.min(ids.size(), desde + MAX_IDS_POR_ACTUALIZACION));
+                        total += usuarioRepository.actualizarUltimaConexion(bloque, grupo.getKey());
+                    }
+                }
+                return total;
+            });
+            logger.debug("Última conexión guardada para {} usuarios en {} ms", actualizados,
+                    System.currentTimeMillis() - inicio);
+            return actualizados != null ? actualizados : 0;
+        } catch (DataAccessException | TransactionException e) {
+            // Se reintentan en la próxima escritura, sin pisar conexiones anotadas mientras tanto
+            porMinuto.forEach((minuto, ids) -> ids.forEach(id -> conexionesPendientes.merge(id, minuto,
+                    (pendiente, anterior) -> pendiente.isAfter(anterior) ? pendiente : anterior)));
+            logger.warn("No se pudo guardar la última conexión de los usuarios: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Guarda las conexiones pendientes al detener la aplicación
+     */
+    @PreDestroy
+    public void detener() {
+        guardarConexiones();
+    }
+
+    /**
+     * Cantidad de usuarios con una conexión pendiente de guardar
+     */
+    public int getConexionesPendientes() {
+        return conexionesPendientes.size();
+    }
+
+    /**
+     * Identidad del token: sujeto, jti (o fecha de emisión), expiración y claims sincronizados
+     */
+    static String clave(Jwt jwt) {
+        String identificador = jwt.getId() != null ? jwt.getId()
+                : jwt.getIssuedAt() != null ? String.valueOf(jwt.getIssuedAt().getEpochSecond()) : "";
+        String expiracion = jwt.getExpiresAt() != null ? String.valueOf(jwt.getExpiresAt().getEpochSecond()) : "";
+        StringBuilder clave = new StringBuilder()
+                .append(jwt.getSubject()).append('|')
+                .append(identificador).append('|')
+                .append(expiracion);
+        for (String claim : CLAIMS_SINCRONIZADOS) {
+            clave.append('|').append(Objects.toString(jwt.getClaims().get(claim), ""));
+        }
+        return clave.toString();
+    }
+
+    private static long vigenciaNanos(Instant expiracion, Duration ttlMaximo) {
+        if (expiracion == null) {
+            return ttlMaximo.toNanos();
+        }
+        Duration restante = Duration.between(Instant.now(), expiracion);
+        if (restante.isNegative()) {
+            return 0;
+        }
+        return Math.min(restante.toNanos(), ttlMaximo.toNanos());
+    }
+}
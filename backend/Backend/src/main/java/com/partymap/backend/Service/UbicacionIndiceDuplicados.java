@@ -0,0 +1,362 @@
+package com.partymap.backend.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.partymap.backend.events.UbicacionCambiadaEvent;
+import com.partymap.backend.repository.UbicacionRepository;
+
+/**
+ * Índice en memoria de las ubicaciones activas para reconocer un mismo lugar escrito de distintas formas.
+ *
+ * La dirección y la comuna se normalizan (minúsculas, sin tildes ni signos, abreviaturas expandidas:
+ * "Avda. Providencia N° 1234" = "avenida providencia 1234") y se separan en palabras y números.
+ * Dos ubicaciones son el mismo lugar si:
+ * - su dirección y comuna normalizadas son iguales, o
+ * - están a no más de RADIO_METROS, en la misma comuna, con el mismo número de calle y al menos la
+ *   mitad de las palabras de la dirección más corta en común ("Providencia 1234, local 5" y
+ *   "Av. Providencia 1234" a 10 m)
+ *
+ * Las direcciones normalizadas se buscan en un mapa y las coordenadas en una grilla de celdas de
+ * TAMANIO_CELDA_GRADOS, así una consulta solo compara las pocas ubicaciones de las celdas vecinas.
+ * Se carga con una única consulta en el primer uso y luego se mantiene al día con los cambios de
+ * ubicaciones, una vez confirmada cada transacción.
+ */
+@Component
+public class UbicacionIndiceDuplicados {
+
+    private static final Logger logger = LoggerFactory.getLogger(UbicacionIndiceDuplicados.class);
+
+    /**
+     * Distancia máxima entre dos ubicaciones con direcciones parecidas para considerarlas el mismo lugar
+     */
+    public static final double RADIO_METROS = 25;
+
+    /**
+     * Proporción mínima de las palabras de la dirección más corta que deben estar en la otra
+     */
+    static final double SIMILITUD_MINIMA = 0.5;
+
+    /**
+     * Lado de cada celda de la grilla (~55 m de latitud)
+     */
+    static final double TAMANIO_CELDA_GRADOS = 0.0005;
+
+    private static final double METROS_POR_GRADO_LATITUD = 111_320;
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern NUMERO = Pattern.compile(".*\\p{N}.*");
+
+    private static final Map<String, String> ABREVIATURAS = Map.ofEntries(
+            Map.entry("av", "avenida"), Map.entry("avda", "avenida"), Map.entry("avd", "avenida"),
+            Map.entry("ave", "avenida"), Map.entry("pje", "pasaje"), Map.entry("psje", "pasaje"),
+            Map.entry("gral", "general"), Map.entry("sta", "santa"), Map.entry("sto", "santo"),
+            Map.entry("stgo", "santiago"));
+
+    /**
+     * Palabras que no distinguen una dirección de otra ("Calle Los Leones N° 12" = "Leones 12")
+     */
+    private static final Set<String> PALABRAS_IGNORADAS = Set.of(
+            "calle", "de", "del", "la", "las", "los", "el", "n", "no", "nro", "num", "numero");
+
+    /**
+     * Ubicación indexada. firma es la comuna y la dirección normalizadas; numero es el primer
+     * número de la dirección (null si no tiene)
+     */
+    private record Registro(long id, String comuna, String firma, Set<String> palabras, String numero,
+            double latitud, double longitud, long celda) {
+    }
+
+    private final UbicacionRepository ubicacionRepository;
+
+    private final Map<Long, Registro> registros = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> idsPorFirma = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> idsPorCelda = new ConcurrentHashMap<>();
+
+    private volatile boolean cargado;
+
+    public UbicacionIndiceDuplicados(UbicacionRepository ubicacionRepository) {
+        this.ubicacionRepository = ubicacionRepository;
+    }
+
+    /**
+     * Busca una ubicación activa que corresponda al mismo lugar
+     * @param direccion Dirección de la ubicación que se quiere crear
+     * @param comuna Comuna de la ubicación que se quiere crear
+     * @param latitud Latitud (puede ser null: solo se compara la dirección)
+     * @param longitud Longitud (puede ser null: solo se compara la dirección)
+     * @return ID de la ubicación existente: la de igual dirección con menor ID o, si no hay, la más cercana
+     */
+    public Optional<Long> buscarDuplicado(String direccion, String comuna, BigDecimal latitud, BigDecimal longitud) {
+        if (direccion == null || comuna == null) {
+            return Optional.empty();
+        }
+        asegurarCargado();
+        Registro buscado = registro(0L, direccion, comuna,
+                latitud != null ? latitud.doubleValue() : Double.NaN,
+                longitud != null ? longitud.doubleValue() : Double.NaN);
+
+        Set<Long> mismaDireccion = idsPorFirma.get(buscado.firma());
+        if (mismaDireccion != null && !mismaDireccion.isEmpty()) {
+            return mismaDireccion.stream().min(Long::compare);
+        }
+        if (Double.isNaN(buscado.latitud()) || Double.isNaN(buscado.longitud())) {
+            return Optional.empty();
+        }
+        return cercanos(buscado).stream()
+                .filter(candidato -> mismoLugar(buscado, candidato))
+                .min(Comparator.comparingDouble((Registro candidato) -> distanciaMetros(buscado, candidato))
+                        .thenComparingLong(Registro::id))
+                .map(Registro::id);
+    }
+
+    /**
+     * Agrupa las ubicaciones activas que corresponden a un mismo lugar
+     * @return Grupos de al menos dos IDs, cada uno ordenado de menor a mayor, ordenados por su primer ID
+     */
+    public List<List<Long>> buscarGrupos() {
+        asegurarCargado();
+        Map<Long, Long> padres = new HashMap<>();
+        for (Registro registro : registros.values()) {
+            Set<Long> mismaDireccion = idsPorFirma.getOrDefault(registro.firma(), Set.of());
+            for (Long otro : mismaDireccion) {
+                unir(padres, registro.id(), otro);
+            }
+            for (Registro candidato : cercanos(registro)) {
+                if (candidato.id() != registro.id() && mismoLugar(registro, candidato)) {
+                    unir(padres, registro.id(), candidato.id());
+                }
+            }
+        }
+
+        Map<Long, TreeSet<Long>> grupos = new HashMap<>();
+        for (Long id : padres.keySet()) {
+            grupos.computeIfAbsent(raiz(padres, id), r -> new TreeSet<>()).add(id);
+        }
+        List<List<Long>> resultado = new ArrayList<>();
+        for (TreeSet<Long> grupo : grupos.values()) {
+            if (grupo.size() > 1) {
+                resultado.add(new ArrayList<>(grupo));
+            }
+        }
+        resultado.sort(Comparator.comparingLong(grupo -> grupo.get(0)));
+        return resultado;
+    }
+
+    /**
+     * Vuelve a indexar las ubicaciones tras un alta o modificación, o quita las que ya no están activas
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onUbicacionCambiada(UbicacionCambiadaEvent evento) {
+        if (!cargado || evento.getUbicacionIds().isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            evento.getUbicacionIds().forEach(this::quitar);
+            agregarFilas(ubicacionRepository.findDatosComparacionActivasByIdIn(evento.getUbicacionIds()));
+        }
+    }
+
+    /**
+     * Cantidad de ubicaciones indexadas
+     */
+    public int getCantidadUbicaciones() {
+        asegurarCargado();
+        return registros.size();
+    }
+
+    /**
+     * Comuna y dirección normalizadas de una ubicación; dos ubicaciones con la misma firma son el mismo lugar
+     */
+    static String firma(String direccion, String comuna) {
+        return String.join(" ", palabrasDe(comuna, false)) + "|" + String.join(" ", palabrasDe(direccion, true));
+    }
+
+    /**
+     * Separa el texto normalizado en palabras, expandiendo abreviaturas y, si se pide, quitando las ignoradas
+     */
+    private static List<String> palabrasDe(String texto, boolean quitarIgnoradas) {
+        List<String> palabras = new ArrayList<>();
+        for (String palabra : SEPARADORES.split(EventoIndiceTexto.normalizar(texto))) {
+            if (palabra.isEmpty()) {
+                continue;
+            }
+            String expandida = ABREVIATURAS.getOrDefault(palabra, palabra);
+            if (!quitarIgnoradas || !PALABRAS_IGNORADAS.contains(expandida)) {
+                palabras.add(expandida);
+            }
+        }
+        return palabras;
+    }
+
+    private static Registro registro(long id, String direccion, String comuna, double latitud, double longitud) {
+        Set<String> palabras = new HashSet<>();
+        String numero = null;
+        for (String palabra : palabrasDe(direccion, true)) {
+            if (!NUMERO.matcher(palabra).matches()) {
+                palabras.add(palabra);
+            } else if (numero == null) {
+                numero = palabra;
+            }
+        }
+        long celda = Double.isNaN(latitud) || Double.isNaN(longitud) ? Long.MIN_VALUE
+                : celda(fila(latitud), columna(longitud));
+        return new Registro(id, String.join(" ", palabrasDe(comuna, false)), firma(direccion, comuna),
+                palabras, numero, latitud, longitud, celda);
+    }
+
+    /**
+     * Direcciones distintas pero parecidas, en la misma comuna y a no más de RADIO_METROS
+     */
+    private static boolean mismoLugar(Registro a, Registro b) {
+        if (!a.comuna().equals(b.comuna()) || !Objects.equals(a.numero(), b.numero())
+                || distanciaMetros(a, b) > RADIO_METROS) {
+            return false;
+        }
+        int menor = Math.min(a.palabras().size(), b.palabras().size());
+        if (menor == 0) {
+            return true;
+        }
+        long comunes = a.palabras().stream().filter(b.palabras()::contains).count();
+        return (double) comunes / menor >= SIMILITUD_MINIMA;
+    }
+
+    private static double distanciaMetros(Registro a, Registro b) {
+        return EventoIndiceEspacial.distanciaKm(a.latitud(), a.longitud(), b.latitud(), b.longitud()) * 1000;
+    }
+
+    /**
+     * Ubicaciones de las celdas que cubren el radio alrededor del registro
+     */
+    private List<Registro> cercanos(Registro centro) {
+        if (centro.celda() == Long.MIN_VALUE) {
+            return List.of();
+        }
+        double deltaLatitud = RADIO_METROS / METROS_POR_GRADO_LATITUD;
+        double cosenoLatitud = Math.max(1e-6, Math.cos(Math.toRadians(centro.latitud())));
+        double deltaLongitud = Math.min(180, deltaLatitud / cosenoLatitud);
+
+        List<Registro> candidatos = new ArrayList<>();
+        for (int fila = fila(centro.latitud() - deltaLatitud); fila <= fila(centro.latitud() + deltaLatitud); fila++) {
+            for (int columna = columna(centro.longitud() - deltaLongitud);
+                    columna <= columna(centro.longitud() + deltaLongitud); columna++) {
+                Set<Long> ids = idsPorCelda.get(celda(fila, columna));
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    Registro registro = registros.get(id);
+                    if (registro != null) {
+                        candidatos.add(registro);
+                    }
+                }
+            }
+        }
+        return candidatos;
+    }
+
+    private void asegurarCargado() {
+        if (cargado) {
+            return;
+        }
+        synchronized (this) {
+            if (cargado) {
+                return;
+            }
+            long inicio = System.currentTimeMillis();
+            agregarFilas(ubicacionRepository.findDatosComparacionActivas());
+            cargado = true;
+            logger.info("Índice de ubicaciones duplicadas cargado con {} ubicaciones en {} ms", registros.size(),
+                    System.currentTimeMillis() - inicio);
+        }
+    }
+
+    /**
+     * Agrega ubicaciones a partir de filas [id, direccion, comuna, latitud, longitud]
+     */
+    private void agregarFilas(List<Object[]> filas) {
+        for (Object[] fila : filas) {
+            if (fila[0] == null || fila[1] == null || fila[2] == null) {
+                continue;
+            }
+            long id = ((Number) fila[0]).longValue();
+            quitar(id);
+            Registro registro = registro(id, (String) fila[1], (String) fila[2], aDouble(fila[3]), aDouble(fila[4]));
+            registros.put(id, registro);
+            idsPorFirma.computeIfAbsent(registro.firma(), f -> ConcurrentHashMap.newKeySet()).add(id);
+            if (registro.celda() != Long.MIN_VALUE) {
+                idsPorCelda.computeIfAbsent(registro.celda(), c -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+    }
+
+    private void quitar(long id) {
+        Registro anterior = registros.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        idsPorFirma.computeIfPresent(anterior.firma(), (f, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+        idsPorCelda.computeIfPresent(anterior.celda(), (c, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static void unir(Map<Long, Long> padres, long a, long b) {
+        long raizA = raiz(padres, a);
+        long raizB = raiz(padres, b);
+        if (raizA != raizB) {
+            padres.put(Math.max(raizA, raizB), Math.min(raizA, raizB));
+        }
+    }
+
+    private static long raiz(Map<Long, Long> padres, long id) {
+        long actual = id;
+        Long padre;
+        while ((padre = padres.putIfAbsent(actual, actual)) != null && padre != actual) {
+            actual = padre;
+        }
+        return actual;
+    }
+
+    private static double aDouble(Object valor) {
+        if (valor == null) {
+            return Double.NaN;
+        }
+        return valor instanceof BigDecimal decimal ? decimal.doubleValue() : ((Number) valor).doubleValue();
+    }
+
+    private static int fila(double latitud) {
+        return (int) Math.floor((latitud + 90) / TAMANIO_CELDA_GRADOS);
+    }
+
+    private static int columna(double longitud) {
+        return (int) Math.floor((longitud + 180) / TAMANIO_CELDA_GRADOS);
+    }
+
+    private static long celda(int fila, int columna) {
+        return ((long) fila << 32) | (columna & 0xffffffffL);
+    }
+}
@@ -4,6 +4,10 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Slice;
+
+import com.partymap.backend.dto.CursorPaginacion;
+import com.partymap.backend.dto.UbicacionResponseDTO;
 import com.partymap.backend.model.Ubicacion;
 
 /**
@@ -18,6 +22,20 @@ public interface UbicacionService {
      */
     List<Ubicacion> getAllUbicaciones();
 
+    /**
+     * Obtiene la respuesta de todas las ubicaciones activas con una consulta de proyección
+     * @return Lista de ubicaciones activas ordenadas por ID
+     */
+    List<UbicacionResponseDTO> getRespuestasUbicacionesActivas();
+
+    /**
+     * Obtiene una página de ubicaciones activas ordenadas por ID a partir de un cursor
+     * @param cursor Última ubicación entregada (null para la primera página)
+     * @param tamanio Cantidad máxima de ubicaciones a retornar
+     * @return Porción de ubicaciones con indicador de página siguiente
+     */
+    Slice<Ubicacion> getUbicacionesDesdeCursor(CursorPaginacion cursor, int tamanio);
+
     /**
      * Busca una ubicación por su ID
      * @param id ID de la ubicación a buscar
@@ -62,4 +80,18 @@ public interface UbicacionService {
      * @return true si las coordenadas son válidas, false en caso contrario
      */
     boolean validarCoordenadas(Double latitud, Double longitud);
+
+    /**
+     * Obtiene los grupos de ubicaciones activas que corresponden a un mismo lugar
+     * @return Grupos de al menos dos ubicaciones, cada uno ordenado por ID
+     */
+    List<List<Ubicacion>> getGruposDuplicados();
+
+    /**
+     * Fusiona ubicaciones duplicadas: sus eventos pasan a la ubicación destino y ellas se desactivan
+     * @param ubicacionId ID de la ubicación que se conserva
+     * @param duplicadoIds IDs de las ubicaciones que se fusionan en ella
+     * @return Cantidad de eventos reasignados
+     */
+    int fusionarUbicaciones(Long ubicacionId, List<Long> duplicadoIds);
 } 
\ No newline at end of file
@@ -3,8 +3,11 @@ package com.partymap.backend.service;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Slice;
 import org.springframework.security.oauth2.jwt.Jwt;
 
+import com.partymap.backend.dto.CursorPaginacion;
+import com.partymap.backend.dto.EstadisticasUsuariosDTO;
 import com.partymap.backend.model.Usuario;
 
 
@@ -21,6 +24,20 @@ public interface UsuarioService {
      * @return Lista de todos los usuarios
      */
     List<Usuario> getAllUsuarios();
+
+    /**
+     * Obtiene una página de usuarios activos ordenados por ID a partir de un cursor
+     * @param cursor Último usuario entregado (null para la primera página)
+     * @param tamanio Cantidad máxima de usuarios a retornar
+     * @return Porción de usuarios con indicador de página siguiente
+     */
+    Slice<Usuario> getUsuariosDesdeCursor(CursorPaginacion cursor, int tamanio);
+
+    /**
+     * Obtiene los conteos de usuarios (activos, inactivos y por tipo) en una sola consulta
+     * @return Estadísticas de usuarios
+     */
+    EstadisticasUsuariosDTO getEstadisticasUsuarios();
     
     /**
      * Busca un usuario por su ID
@@ -0,0 +1,10 @@
+-- Índices para la paginación por cursor de los listados /all.
+-- El esquema se administra manualmente (spring.jpa.hibernate.ddl-auto=none),
+-- por lo que este script debe ejecutarse en Oracle antes de desplegar.
+-- RESERVA, UBICACION y USUARIO se recorren por su clave primaria, que ya está indexada.
+
+-- /evento/all?tamanio=N recorre EVENTO por (fecha, id) filtrando activos
+CREATE INDEX IDX_EVENTO_ACTIVO_FECHA_ID ON EVENTO (ACTIVO, FECHA, ID);
+
+-- /reserva/all?tamanio=N para clientes recorre sus reservas por id
+CREATE INDEX IDX_RESERVA_USUARIO_ID ON RESERVA (USUARIO_ID, ID);
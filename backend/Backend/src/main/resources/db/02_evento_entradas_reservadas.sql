@@ -0,0 +1,16 @@
+-- Contador desnormalizado de entradas reservadas por evento.
+-- Lo mantiene ReservaServiceImpl al crear, actualizar, cancelar, reactivar y eliminar reservas,
+-- de modo que los cupos disponibles se calculan sin leer la tabla RESERVA.
+
+ALTER TABLE EVENTO ADD ENTRADAS_RESERVADAS NUMBER(10) DEFAULT 0 NOT NULL;
+
+-- Carga inicial a partir de las reservas vigentes (estado RESERVADA y no eliminadas)
+UPDATE EVENTO e
+   SET e.ENTRADAS_RESERVADAS = (
+       SELECT NVL(SUM(r.CANTIDAD), 0)
+         FROM RESERVA r
+        WHERE r.EVENTO_ID = e.ID
+          AND r.ESTADO = 'RESERVADA'
+          AND r.ACTIVO = 1);
+
+COMMIT;
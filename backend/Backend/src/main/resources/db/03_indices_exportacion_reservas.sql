@@ -0,0 +1,9 @@
+-- Índices para la exportación de asistentes (/reserva/evento/{id}/export y /reserva/productor/export).
+-- Permiten recorrer las reservas de un evento por id, y los eventos de un productor,
+-- sin leer completa la tabla RESERVA.
+
+-- /reserva/evento/{eventoId}/export recorre las reservas del evento por id
+CREATE INDEX IDX_RESERVA_EVENTO_ID ON RESERVA (EVENTO_ID, ID);
+
+-- /reserva/productor/export parte de los eventos del productor
+CREATE INDEX IDX_EVENTO_USUARIO_ID ON EVENTO (USUARIO_ID, ID);
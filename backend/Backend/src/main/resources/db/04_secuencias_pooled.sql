@@ -0,0 +1,11 @@
+-- Secuencias con incremento 50 para el optimizador pooled de Hibernate.
+-- Cada NEXTVAL reserva un bloque de 50 IDs (BaseEntity.TAMANIO_BLOQUE_IDS) que la aplicación
+-- asigna en memoria, en vez de un viaje a la base de datos por cada inserción.
+-- Hibernate usa el valor obtenido como el último ID del bloque: tras este cambio el siguiente
+-- NEXTVAL queda 50 por sobre el último ID entregado, así que no se repiten IDs existentes.
+-- Debe aplicarse junto con el despliegue que cambia allocationSize a 50.
+
+ALTER SEQUENCE EVENTO_SEQ INCREMENT BY 50;
+ALTER SEQUENCE RESERVA_SEQ INCREMENT BY 50;
+ALTER SEQUENCE UBICACION_SEQ INCREMENT BY 50;
+ALTER SEQUENCE USUARIO_SEQ INCREMENT BY 50;
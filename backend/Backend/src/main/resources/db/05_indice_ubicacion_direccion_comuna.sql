@@ -0,0 +1,6 @@
+-- Índice para la importación masiva de eventos (POST /evento/importar).
+-- Cada bloque del archivo busca de una vez las ubicaciones existentes por dirección y comuna
+-- normalizadas (UbicacionRepository.findActivasPorDireccionesYComunas); el índice sobre las
+-- mismas expresiones evita recorrer completa la tabla UBICACION en cada bloque.
+
+CREATE INDEX IDX_UBICACION_DIRECCION_COMUNA ON UBICACION (LOWER(TRIM(DIRECCION)), LOWER(TRIM(COMUNA)));
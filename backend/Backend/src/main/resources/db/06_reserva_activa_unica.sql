@@ -0,0 +1,14 @@
+-- Una sola reserva vigente (estado RESERVADA y no eliminada) por usuario y evento.
+-- ReservaServiceImpl lo verifica antes de crear la reserva, pero dos solicitudes simultáneas
+-- del mismo usuario pasan ambas esa verificación; este índice rechaza la segunda al insertarla.
+-- Las filas que no están vigentes dejan ambas expresiones en NULL y Oracle no las indexa,
+-- así que las reservas canceladas o eliminadas no cuentan.
+
+-- Antes de crearlo, esta consulta debe devolver cero filas (cancelar los duplicados que aparezcan)
+-- SELECT USUARIO_ID, EVENTO_ID, COUNT(*) FROM RESERVA
+--  WHERE ESTADO = 'RESERVADA' AND ACTIVO = 1
+--  GROUP BY USUARIO_ID, EVENTO_ID HAVING COUNT(*) > 1;
+
+CREATE UNIQUE INDEX UX_RESERVA_ACTIVA_USUARIO_EVT ON RESERVA (
+    CASE WHEN ESTADO = 'RESERVADA' AND ACTIVO = 1 THEN USUARIO_ID END,
+    CASE WHEN ESTADO = 'RESERVADA' AND ACTIVO = 1 THEN EVENTO_ID END);
@@ -0,0 +1,172 @@
+package com.partymap.backend.config;
+
+import com.partymap.backend.config.DetectorConsultas.Hallazgo;
+import com.partymap.backend.config.DetectorConsultas.ResumenConsultas;
+import com.partymap.backend.config.DetectorConsultas.TipoProblema;
+import com.partymap.backend.dto.ConsultaProblemaDTO;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica la detección de consultas N+1 y lentas por petición, simulando los avisos que
+ * Hibernate entrega a InspectorConsultas.
+ */
+public class DetectorConsultasTest {
+
+    private static final String POR_EVENTO = "select r.id from reserva r where r.evento_id=?";
+
+    private DetectorConsultasProperties properties;
+    private DetectorConsultas detector;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DetectorConsultasProperties();
+        properties.setUmbralRepeticiones(5);
+        properties.setUmbralLentaMs(60_000);
+        detector = new DetectorConsultas(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        detector.finalizar("fin");
+    }
+
+    @Test
+    void forma_ignoraLiteralesYListasIn() {
+        assertEquals("select * from evento where id=? and nombre=?",
+                DetectorConsultas.forma("select * from evento where id=15 and nombre='O''Higgins'"));
+        assertEquals("select * from evento where id in (?...)",
+                DetectorConsultas.forma("select * from evento\n  where id in (?, ?,?)"));
+        assertEquals("select e1_0.id from evento e1_0",
+                DetectorConsultas.forma("select e1_0.id from evento e1_0"));
+    }
+
+    @Test
+    void consultaRepetida_seInformaComoNMas1() {
+        detector.iniciar();
+        consultar("select * from evento", 1);
+        consultar(POR_EVENTO, 6);
+
+        ResumenConsultas resumen = detector.finalizar("GET /evento");
+
+        assertEquals(7, resumen.consultas());
+        assertEquals(1, resumen.hallazgos().size());
+        Hallazgo hallazgo = resumen.hallazgos().get(0);
+        assertEquals(TipoProblema.N_MAS_1, hallazgo.tipo());
+        assertEquals(POR_EVENTO, hallazgo.sql());
+        assertEquals(6, hallazgo.ejecuciones());
+    }
+
+    @Test
+    void consultasConLiteralesDistintos_cuentanComoLaMisma() {
+        detector.iniciar();
+        for (int id = 1; id <= 5; id++) {
+            consultar("select * from ubicacion where id=" + id, 1);
+        }
+
+        ResumenConsultas resumen = detector.finalizar("GET /ubicacion");
+
+        assertEquals(1, resumen.hallazgos().size());
+        assertEquals("select * from ubicacion where id=?", resumen.hallazgos().get(0).sql());
+    }
+
+    @Test
+    void pocasRepeticiones_noSonProblema() {
+        detector.iniciar();
+        consultar(POR_EVENTO, 4);
+
+        ResumenConsultas resumen = detector.finalizar("GET /evento/{id}");
+
+        assertEquals(4, resumen.consultas());
+        assertTrue(resumen.hallazgos().isEmpty());
+        assertTrue(detector.getPeoresConsultas(10).isEmpty());
+    }
+
+    @Test
+    void consultaSobreElUmbral_seInformaComoLenta() {
+        properties.setUmbralLentaMs(0);
+        detector.iniciar();
+        consultar("select count(*) from reserva", 1);
+
+        ResumenConsultas resumen = detector.finalizar("GET /reserva/estadisticas");
+
+        assertEquals(1, resumen.hallazgos().size());
+        assertEquals(TipoProblema.LENTA, resumen.hallazgos().get(0).tipo());
+    }
+
+    @Test
+    void problemas_seAcumulanPorRutaEntrePeticiones() {
+        for (int i = 0; i < 3; i++) {
+            detector.iniciar();
+            consultar(POR_EVENTO, 5 + i);
+            detector.finalizar("GET /evento");
+        }
+        detector.iniciar();
+        consultar(POR_EVENTO, 5);
+        detector.finalizar("GET /reserva");
+
+        List<ConsultaProblemaDTO> peores = detector.getPeoresConsultas(10);
+
+        assertEquals(2, peores.size());
+        ConsultaProblemaDTO evento = peores.stream()
+                .filter(p -> p.getRuta().equals("GET /evento")).findFirst().orElseThrow();
+        assertEquals("N_MAS_1", evento.getTipo());
+        assertEquals(3, evento.getPeticiones());
+        assertEquals(7, evento.getMaxEjecucionesPorPeticion());
+        assertNotNull(evento.getUltimaDeteccion());
+        assertEquals(1, detector.getPeoresConsultas(1).size());
+
+        detector.limpiar();
+        assertTrue(detector.getPeoresConsultas(10).isEmpty());
+    }
+
+    @Test
+    void sinRegistroAbierto_noCuentaConsultas() {
+        consultar(POR_EVENTO, 20);
+
+        assertNull(detector.finalizar("GET /evento"));
+        assertTrue(detector.getPeoresConsultas(10).isEmpty());
+    }
+
+    @Test
+    void customize_registraElInspectorSoloSiEstaHabilitado() {
+        Map<String, Object> hibernate = new HashMap<>();
+        detector.customize(hibernate);
+        assertEquals(InspectorConsultas.class.getName(), hibernate.get(AvailableSettings.STATEMENT_INSPECTOR));
+        assertEquals(InspectorConsultas.class.getName(), hibernate.get(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER));
+
+        properties.setHabilitado(false);
+        Map<String, Object> deshabilitado = new HashMap<>();
+        detector.customize(deshabilitado);
+        assertTrue(deshabilitado.isEmpty());
+    }
+
+    @Test
+    void ruta_usaLaPlantillaDelEndpoint() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/evento/15");
+        assertEquals("GET /evento/15", DetectorConsultasFilter.ruta(request));
+
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/evento/{id}");
+        assertEquals("GET /evento/{id}", DetectorConsultasFilter.ruta(request));
+    }
+
+    private void consultar(String sql, int veces) {
+        InspectorConsultas inspector = new InspectorConsultas();
+        for (int i = 0; i < veces; i++) {
+            inspector.inspect(sql);
+            inspector.jdbcExecuteStatementStart();
+            inspector.jdbcExecuteStatementEnd();
+        }
+    }
+}
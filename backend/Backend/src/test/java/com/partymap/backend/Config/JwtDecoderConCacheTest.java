@@ -0,0 +1,173 @@
+package com.partymap.backend.config;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.PlainJWT;
+import com.nimbusds.jwt.SignedJWT;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba el decodificador de SecurityConfig con un JWKS leído de un archivo local
+ */
+public class JwtDecoderConCacheTest {
+
+    @TempDir
+    Path directorio;
+
+    private RSAKey clave;
+    private Path archivoJwks;
+    private JwtProperties properties;
+    private ClavesJwks clavesJwks;
+    private JwtDecoderConCache decoder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        clave = new RSAKeyGenerator(2048).keyID("clave-1").generate();
+        archivoJwks = directorio.resolve("jwks.json");
+        escribirJwks(clave);
+
+        properties = new JwtProperties();
+        properties.setJwkSetArchivo(archivoJwks.toString());
+        properties.setIntervaloMinimoRecargaSegundos(0);
+        clavesJwks = new ClavesJwks(properties, "");
+        decoder = new SecurityConfig().jwtDecoder(properties, clavesJwks);
+    }
+
+    @Test
+    void tokenFirmadoYVigente_seDecodificaConSusClaims() throws Exception {
+        Jwt jwt = decoder.decode(firmar(clave, claims().build()));
+
+        assertEquals("sub-1", jwt.getSubject());
+        assertEquals(List.of("cliente@partymap.cl"), jwt.getClaimAsStringList("emails"));
+        assertEquals("CLIENTE", jwt.getClaimAsString("extension_Roles"));
+        assertEquals("RS256", jwt.getHeaders().get("alg"));
+    }
+
+    @Test
+    void firmaDeOtraClave_seRechaza() throws Exception {
+        RSAKey ajena = new RSAKeyGenerator(2048).keyID("clave-1").generate();
+
+        assertThrows(JwtException.class, () -> decoder.decode(firmar(ajena, claims().build())));
+    }
+
+    @Test
+    void tokenSinFirma_seRechaza() {
+        String sinFirma = new PlainJWT(claims().build()).serialize();
+
+        assertThrows(JwtException.class, () -> decoder.decode(sinFirma));
+    }
+
+    @Test
+    void emisorAudienciaOExpiracionIncorrectos_seRechazan() throws Exception {
+        String otroEmisor = firmar(clave, claims().issuer("https://otro.b2clogin.com/v2.0/").build());
+        String otraAudiencia = firmar(clave, claims().audience("otra-aplicacion").build());
+        String expirado = firmar(clave, claims().expirationTime(Date.from(Instant.now().minusSeconds(600))).build());
+
+        assertThrows(JwtException.class, () -> decoder.decode(otroEmisor));
+        assertThrows(JwtException.class, () -> decoder.decode(otraAudiencia));
+        assertThrows(JwtException.class, () -> decoder.decode(expirado));
+        assertEquals(3L, decoder.getEstadisticas().get("rechazados"));
+        assertEquals(0L, decoder.getEstadisticas().get("tokensEnCache"));
+    }
+
+    @Test
+    void mismoToken_seVerificaUnaSolaVez() throws Exception {
+        String token = firmar(clave, claims().build());
+
+        Jwt primero = decoder.decode(token);
+        Jwt segundo = decoder.decode(token);
+
+        assertSame(primero, segundo);
+        Map<String, Object> estadisticas = decoder.getEstadisticas();
+        assertEquals(1L, estadisticas.get("decodificaciones"));
+        assertEquals(1L, estadisticas.get("aciertos"));
+        assertEquals(0.5, (Double) estadisticas.get("tasaAciertos"), 0.0001);
+    }
+
+    @Test
+    void metricas_registranLaCacheYLasDecodificaciones() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        decoder.bindTo(registry);
+        String token = firmar(clave, claims().build());
+
+        decoder.decode(token);
+        decoder.decode(token);
+        assertThrows(JwtException.class, () -> decoder.decode(firmar(clave, claims().audience("otra").build())));
+
+        assertEquals(2, registry.get("partymap.jwt.decodificacion").timer().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "partymap.jwt.tokens").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("partymap.jwt.rechazados").functionCounter().count());
+    }
+
+    @Test
+    void claveNueva_recargaElJwks() throws Exception {
+        decoder.decode(firmar(clave, claims().build()));
+        RSAKey rotada = new RSAKeyGenerator(2048).keyID("clave-2").generate();
+        escribirJwks(clave, rotada);
+
+        Jwt jwt = decoder.decode(firmar(rotada, claims().subject("sub-2").build()));
+
+        assertEquals("sub-2", jwt.getSubject());
+        assertEquals(2, clavesJwks.getCantidadClaves());
+    }
+
+    @Test
+    void recargaFallida_conservaLasClavesAnteriores() throws Exception {
+        decoder.decode(firmar(clave, claims().build()));
+        Files.writeString(archivoJwks, "no es un JWKS");
+
+        clavesJwks.recargar();
+        decoder.limpiar();
+
+        assertEquals(1, clavesJwks.getCantidadClaves());
+        assertEquals("sub-1", decoder.decode(firmar(clave, claims().build())).getSubject());
+    }
+
+    private JWTClaimsSet.Builder claims() {
+        Instant ahora = Instant.now();
+        return new JWTClaimsSet.Builder()
+                .issuer(properties.getIssuer())
+                .audience(properties.getAudience())
+                .subject("sub-1")
+                .issueTime(Date.from(ahora))
+                .notBeforeTime(Date.from(ahora))
+                .expirationTime(Date.from(ahora.plusSeconds(3600)))
+                .claim("emails", List.of("cliente@partymap.cl"))
+                .claim("extension_Roles", "CLIENTE");
+    }
+
+    private static String firmar(RSAKey clave, JWTClaimsSet claims) throws JOSEException {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(clave.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(clave));
+        return jwt.serialize();
+    }
+
+    private void escribirJwks(RSAKey... claves) throws IOException {
+        List<JWK> publicas = List.of(claves).stream().<JWK>map(RSAKey::toPublicJWK).toList();
+        Files.writeString(archivoJwks, new JWKSet(publicas).toString());
+    }
+}
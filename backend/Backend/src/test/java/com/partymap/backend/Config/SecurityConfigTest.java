@@ -0,0 +1,37 @@
+package com.partymap.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que Actuator solo se permita sin autenticar en el puerto de administración.
+ */
+public class SecurityConfigTest {
+
+    @Test
+    void esPuertoAdministracion_soloEnElPuertoDeActuator() {
+        SecurityConfig config = new SecurityConfig();
+        ReflectionTestUtils.setField(config, "puertoAdministracion", 8086);
+
+        assertTrue(config.esPuertoAdministracion(peticionEnPuerto(8086)));
+        assertFalse(config.esPuertoAdministracion(peticionEnPuerto(8085)));
+    }
+
+    @Test
+    void esPuertoAdministracion_sinPuertoPropioNoSePermite() {
+        SecurityConfig config = new SecurityConfig();
+        ReflectionTestUtils.setField(config, "puertoAdministracion", -1);
+
+        assertFalse(config.esPuertoAdministracion(peticionEnPuerto(8085)));
+        assertFalse(config.esPuertoAdministracion(peticionEnPuerto(-1)));
+    }
+
+    private static MockHttpServletRequest peticionEnPuerto(int puerto) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/prometheus");
+        request.setLocalPort(puerto);
+        return request;
+    }
+}
@@ -0,0 +1,127 @@
+package com.partymap.backend.config;
+
+import com.partymap.backend.model.TipoUsuario;
+import com.partymap.backend.model.Usuario;
+import com.partymap.backend.service.UsuarioService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class SecurityUtilsTest {
+
+    private UsuarioService usuarioService;
+    private SecurityUtils securityUtils;
+
+    @BeforeEach
+    void setUp() {
+        usuarioService = mock(UsuarioService.class);
+        securityUtils = new SecurityUtils(usuarioService, new CacheUsuariosProperties());
+        when(usuarioService.getUsuarioByEmail("cliente@partymap.cl"))
+                .thenAnswer(invocation -> Optional.of(usuario(5L, TipoUsuario.CLIENTE)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void usuarioActual_seResuelveUnaVezPorPeticion() {
+        autenticar(token("sub-1", "cliente@partymap.cl"));
+
+        assertEquals(5L, securityUtils.getCurrentUser().orElseThrow().getId());
+        assertTrue(securityUtils.isCurrentUserCliente());
+        assertFalse(securityUtils.isCurrentUserAdministrador());
+        assertTrue(securityUtils.canAccessReserva(5L));
+
+        verify(usuarioService, times(1)).getUsuarioByEmail("cliente@partymap.cl");
+        UsuarioAutenticadoToken autenticacion = (UsuarioAutenticadoToken) SecurityContextHolder.getContext().getAuthentication();
+        assertEquals(5L, autenticacion.getUsuario().id());
+        assertInstanceOf(Jwt.class, autenticacion.getPrincipal());
+    }
+
+    @Test
+    void usuarioActual_seRecuerdaEntrePeticionesDelMismoSujeto() {
+        autenticar(token("sub-1", "cliente@partymap.cl"));
+        securityUtils.getCurrentUser();
+
+        SecurityContextHolder.clearContext();
+        autenticar(token("sub-1", "cliente@partymap.cl"));
+
+        assertEquals(5L, securityUtils.getCurrentUser().orElseThrow().getId());
+        verify(usuarioService, times(1)).getUsuarioByEmail("cliente@partymap.cl");
+    }
+
+    @Test
+    void usuarioActual_cadaLlamadaEntregaUnaInstanciaNueva() {
+        autenticar(token("sub-1", "cliente@partymap.cl"));
+
+        Usuario primero = securityUtils.getCurrentUser().orElseThrow();
+        primero.setTipoUsuario(TipoUsuario.ADMINISTRADOR);
+
+        assertNotSame(primero, securityUtils.getCurrentUser().orElseThrow());
+        assertFalse(securityUtils.isCurrentUserAdministrador());
+    }
+
+    @Test
+    void usuarioNoRegistrado_noSeRecuerda() {
+        autenticar(token("sub-2", "nuevo@partymap.cl"));
+        when(usuarioService.getUsuarioByEmail("nuevo@partymap.cl")).thenReturn(Optional.empty());
+
+        assertTrue(securityUtils.getCurrentUser().isEmpty());
+        assertTrue(securityUtils.getCurrentUser().isEmpty());
+
+        verify(usuarioService, times(2)).getUsuarioByEmail("nuevo@partymap.cl");
+    }
+
+    @Test
+    void usuarioSincronizado_noVuelveABuscarse() {
+        Jwt jwt = token("sub-3", "productor@partymap.cl");
+        securityUtils.recordarUsuario(jwt, usuario(9L, TipoUsuario.PRODUCTOR));
+        autenticar(jwt);
+
+        assertTrue(securityUtils.isCurrentUserProductor());
+        verify(usuarioService, never()).getUsuarioByEmail(any());
+    }
+
+    @Test
+    void sinAutenticacion_noHayUsuarioActual() {
+        assertTrue(securityUtils.getCurrentUser().isEmpty());
+        assertTrue(securityUtils.getCurrentUserEmail().isEmpty());
+        verifyNoInteractions(usuarioService);
+    }
+
+    private static void autenticar(Jwt jwt) {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt, List.of()));
+    }
+
+    private static Jwt token(String sujeto, String email) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject(sujeto)
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .claim("emails", List.of(email))
+                .build();
+    }
+
+    private static Usuario usuario(Long id, TipoUsuario tipo) {
+        Usuario usuario = new Usuario();
+        usuario.setId(id);
+        usuario.setEmail("usuario" + id + "@partymap.cl");
+        usuario.setTipoUsuario(tipo);
+        return usuario;
+    }
+}
@@ -0,0 +1,266 @@
+package com.partymap.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.partymap.backend.config.BffProperties;
+import com.partymap.backend.exceptions.ServicioNoDisponibleException;
+import com.partymap.backend.restClients.ClienteHttpPool;
+import com.partymap.backend.restClients.ClienteRest;
+import com.partymap.backend.service.impl.BffServiceAsyncImpl;
+import com.partymap.backend.service.impl.BffServiceImpl;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import feign.Feign;
+import feign.FeignException;
+import feign.Retryer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba ClienteRest con el cliente HTTP, el cupo, el circuito y la caché de /bff contra un
+ * microservicio simulado en un puerto local
+ */
+public class BffClienteRestTest {
+
+    private HttpServer servidor;
+    private final AtomicInteger lecturas = new AtomicInteger();
+    private final Set<Integer> puertosCliente = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch lecturaLentaRecibida = new CountDownLatch(1);
+    private volatile int estadoRespuesta = 200;
+
+    private BffProperties properties;
+    private ResilienciaBff resiliencia;
+    private BffServiceImpl bffService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/microservicio", this::responder);
+        servidor.setExecutor(Executors.newCachedThreadPool());
+        servidor.start();
+
+        properties = new BffProperties();
+        properties.getTimeoutsMs().put("read", 2000);
+        properties.setMinimoLlamadas(2);
+        properties.setVentanaLlamadas(4);
+        properties.setAperturaMs(60_000);
+        crearServicio();
+    }
+
+    @AfterEach
+    void tearDown() {
+        servidor.stop(0);
+    }
+
+    @Test
+    void read_reutilizaLaConexionYSeRespondeDesdeLaCache() {
+        properties.setTtlLecturaSegundos(0);
+        crearServicio();
+
+        assertEquals("dato-1", bffService.read("1"));
+        assertEquals("dato-2", bffService.read("2"));
+        assertEquals("dato-1", bffService.read("1"));
+
+        assertEquals(3, lecturas.get());
+        assertEquals(1, puertosCliente.size(), "Las llamadas deben usar la misma conexión");
+
+        properties.setTtlLecturaSegundos(60);
+        crearServicio();
+        bffService.read("1");
+        bffService.read("1");
+        assertEquals(4, lecturas.get());
+    }
+
+    @Test
+    void create_enviaElCuerpoYOlvidaLasLecturasGuardadas() {
+        bffService.read("1");
+
+        assertEquals("{\"nombre\":\"fiesta\"}", bffService.create(Map.of("nombre", "fiesta")));
+        bffService.read("1");
+
+        assertEquals(2, lecturas.get());
+    }
+
+    @Test
+    void read_respetaSuTiempoMaximo() {
+        properties.getTimeoutsMs().put("read", 300);
+        crearServicio();
+        long inicio = System.nanoTime();
+
+        FeignException ex = assertThrows(FeignException.class, () -> bffService.read("lento"));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 900);
+        assertTrue(ResilienciaBff.esFallo(ex));
+    }
+
+    @Test
+    void circuito_seAbreConFallosYNoLlamaAlMicroservicio() {
+        estadoRespuesta = 500;
+
+        assertThrows(FeignException.class, () -> bffService.read("1"));
+        assertThrows(FeignException.class, () -> bffService.read("2"));
+        assertThrows(ServicioNoDisponibleException.class, () -> bffService.read("3"));
+        assertThrows(ServicioNoDisponibleException.class, () -> bffService.update("activo"));
+
+        assertEquals(ResilienciaBff.EstadoCircuito.ABIERTO, resiliencia.getEstado());
+        assertEquals(2, lecturas.get());
+    }
+
+    @Test
+    void metricas_informanElCircuitoYLosRechazos() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        resiliencia.bindTo(registry);
+        estadoRespuesta = 500;
+
+        assertThrows(FeignException.class, () -> bffService.read("1"));
+        assertThrows(FeignException.class, () -> bffService.read("2"));
+        assertThrows(ServicioNoDisponibleException.class, () -> bffService.read("3"));
+
+        assertEquals(1.0, registry.get("partymap.bff.circuito").gauge().value());
+        assertEquals(0.0, registry.get("partymap.bff.llamadas.en.curso").gauge().value());
+        assertEquals(1.0, registry.get("partymap.bff.rechazadas").tag("motivo", "circuito_abierto")
+                .functionCounter().count());
+    }
+
+    @Test
+    void circuito_trasLaAperturaUnaLlamadaCorrectaLoCierra() {
+        properties.setAperturaMs(0);
+        crearServicio();
+        estadoRespuesta = 500;
+        assertThrows(FeignException.class, () -> bffService.read("1"));
+        assertThrows(FeignException.class, () -> bffService.read("2"));
+        estadoRespuesta = 200;
+
+        assertEquals("dato-3", bffService.read("3"));
+        assertEquals(ResilienciaBff.EstadoCircuito.CERRADO, resiliencia.getEstado());
+    }
+
+    @Test
+    void errorDelCliente_noAbreElCircuito() {
+        estadoRespuesta = 404;
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(FeignException.NotFound.class, () -> bffService.read("1"));
+        }
+
+        assertEquals(ResilienciaBff.EstadoCircuito.CERRADO, resiliencia.getEstado());
+    }
+
+    @Test
+    void read_conElMicroservicioCaidoRespondeLaUltimaLectura() {
+        properties.setTtlLecturaSegundos(0);
+        crearServicio();
+        assertEquals("dato-1", bffService.read("1"));
+        estadoRespuesta = 503;
+
+        assertEquals("dato-1", bffService.read("1"));
+        // Un fallo de dos llamadas abre el circuito: se sigue respondiendo sin llamar
+        assertEquals("dato-1", bffService.read("1"));
+        assertEquals(ResilienciaBff.EstadoCircuito.ABIERTO, resiliencia.getEstado());
+        assertThrows(ServicioNoDisponibleException.class, () -> bffService.read("2"));
+        assertEquals(2, lecturas.get());
+    }
+
+    @Test
+    void sinCupo_seRechazaSinEsperarAlMicroservicio() throws Exception {
+        properties.setMaxLlamadasConcurrentes(1);
+        properties.setEsperaCupoMs(0);
+        properties.getTimeoutsMs().put("read", 2000);
+        crearServicio();
+        CompletableFuture<String> lenta = CompletableFuture.supplyAsync(() -> bffService.read("lento"));
+        assertTrue(lecturaLentaRecibida.await(5, TimeUnit.SECONDS));
+
+        assertThrows(ServicioNoDisponibleException.class, () -> bffService.read("2"));
+
+        assertEquals("dato-lento", lenta.get(5, TimeUnit.SECONDS));
+        assertEquals(1L, resiliencia.getEstadisticas().get("rechazadasSinCupo"));
+    }
+
+    @Test
+    void varianteAsincrona_completaConLaRespuestaOElError() throws Exception {
+        BffServiceAsyncImpl asincrono = new BffServiceAsyncImpl(bffService, properties);
+        try {
+            CompletableFuture<String> leida = asincrono.read("1");
+            assertEquals("dato-1", leida.get(5, TimeUnit.SECONDS));
+
+            estadoRespuesta = 500;
+            CompletableFuture<String> fallida = asincrono.update("activo");
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> fallida.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(FeignException.class, ex.getCause());
+        } finally {
+            asincrono.detener();
+        }
+    }
+
+    private void crearServicio() {
+        ObjectMapper mapper = new ObjectMapper();
+        ClienteRest clienteRest = Feign.builder()
+                .client(new ClienteHttpPool(properties))
+                .contract(new SpringMvcContract())
+                // Como en Spring Cloud OpenFeign: sin reintentos
+                .retryer(Retryer.NEVER_RETRY)
+                .encoder((objeto, tipo, plantilla) -> {
+                    try {
+                        plantilla.body(mapper.writeValueAsBytes(objeto), StandardCharsets.UTF_8);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .target(ClienteRest.class, "http://127.0.0.1:" + servidor.getAddress().getPort() + "/microservicio");
+        resiliencia = new ResilienciaBff(properties);
+        bffService = new BffServiceImpl(clienteRest, resiliencia, properties);
+    }
+
+    private void responder(HttpExchange intercambio) throws IOException {
+        puertosCliente.add(intercambio.getRemoteAddress().getPort());
+        String ruta = intercambio.getRequestURI().getPath();
+        String cuerpo;
+        if ("GET".equals(intercambio.getRequestMethod())) {
+            lecturas.incrementAndGet();
+            String id = ruta.substring(ruta.lastIndexOf('/') + 1);
+            if ("lento".equals(id)) {
+                lecturaLentaRecibida.countDown();
+                dormir(1000);
+            }
+            cuerpo = "dato-" + id;
+        } else {
+            cuerpo = new String(intercambio.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        }
+        int estado = estadoRespuesta;
+        byte[] respuesta = (estado == 200 ? cuerpo : "error " + estado).getBytes(StandardCharsets.UTF_8);
+        try {
+            intercambio.sendResponseHeaders(estado, respuesta.length);
+            intercambio.getResponseBody().write(respuesta);
+        } catch (IOException e) {
+            // El cliente dejó de esperar (tiempo agotado)
+        } finally {
+            intercambio.close();
+        }
+    }
+
+    private static void dormir(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.partymap.backend.service;
 
 
+import com.partymap.backend.config.BffProperties;
 import com.partymap.backend.restClients.ClienteRest;
 import com.partymap.backend.service.impl.BffServiceImpl;
 
@@ -20,7 +21,8 @@ public class BffServiceImplTest {
     @BeforeEach
     void setUp() {
         clienteRest = mock(ClienteRest.class);
-        bffService = new BffServiceImpl(clienteRest);
+        BffProperties properties = new BffProperties();
+        bffService = new BffServiceImpl(clienteRest, new ResilienciaBff(properties), properties);
     }
 
     @Test
@@ -0,0 +1,99 @@
+package com.partymap.backend.service;
+
+import com.partymap.backend.model.Evento;
+import com.partymap.backend.model.TipoUsuario;
+import com.partymap.backend.model.Ubicacion;
+import com.partymap.backend.model.Usuario;
+
+import jakarta.persistence.EntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Crea y guarda los usuarios, ubicaciones y eventos que usan las pruebas de {@link PruebaJpa}.
+ * Todo se guarda con el EntityManager de la transacción en curso. Los campos que no se escriben
+ * al actualizar (como las entradas reservadas) se ajustan sobre {@link #nuevoEvento} antes de guardar.
+ */
+public class DatosPrueba {
+
+    /**
+     * Algunas pruebas confirman sus datos y quedan entre casos: los correos se numeran para no repetirse
+     */
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    private final EntityManager entityManager;
+
+    public DatosPrueba(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public Usuario usuario(String email, TipoUsuario tipo) {
+        Usuario usuario = new Usuario();
+        usuario.setNombre("Usuario");
+        usuario.setEmail(email);
+        usuario.setTipoUsuario(tipo);
+        entityManager.persist(usuario);
+        return usuario;
+    }
+
+    public Usuario usuario(TipoUsuario tipo) {
+        return usuario("usuario" + SECUENCIA.incrementAndGet() + "@partymap.cl", tipo);
+    }
+
+    public List<Usuario> clientes(int cantidad) {
+        List<Usuario> clientes = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            clientes.add(usuario(TipoUsuario.CLIENTE));
+        }
+        return clientes;
+    }
+
+    public Ubicacion ubicacion() {
+        Ubicacion ubicacion = new Ubicacion();
+        ubicacion.setDireccion("Av. Providencia 1234");
+        ubicacion.setComuna("Providencia");
+        ubicacion.setLatitud(new BigDecimal("-33.4263"));
+        ubicacion.setLongitud(new BigDecimal("-70.6170"));
+        entityManager.persist(ubicacion);
+        return ubicacion;
+    }
+
+    /**
+     * Evento activo dentro de dos días, con capacidad para 100 y entrada de $10.000, sin guardar.
+     * La fecha va sin fracciones de segundo para que la guardada sea idéntica a la del objeto.
+     */
+    public Evento nuevoEvento(Usuario productor, Ubicacion ubicacion) {
+        Evento evento = new Evento();
+        evento.setNombre("Evento");
+        evento.setDescripcion("Evento de prueba");
+        evento.setFecha(LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.SECONDS));
+        evento.setCapacidadMaxima(100);
+        evento.setPrecioEntrada(new BigDecimal("10000"));
+        evento.setUbicacion(ubicacion);
+        evento.setUsuario(productor);
+        return evento;
+    }
+
+    public Evento evento(Usuario productor, Ubicacion ubicacion) {
+        return guardar(nuevoEvento(productor, ubicacion));
+    }
+
+    /**
+     * Evento guardado con la capacidad indicada, de un productor y una ubicación nuevos
+     */
+    public Evento evento(int capacidad) {
+        Evento evento = nuevoEvento(usuario(TipoUsuario.PRODUCTOR), ubicacion());
+        evento.setCapacidadMaxima(capacidad);
+        return guardar(evento);
+    }
+
+    public <T> T guardar(T entidad) {
+        entityManager.persist(entidad);
+        return entidad;
+    }
+}
@@ -0,0 +1,110 @@
+package com.partymap.backend.service;
+
+import com.partymap.backend.config.DetectorConsultas;
+import com.partymap.backend.config.DetectorConsultas.Hallazgo;
+import com.partymap.backend.config.DetectorConsultas.ResumenConsultas;
+import com.partymap.backend.config.DetectorConsultas.TipoProblema;
+import com.partymap.backend.config.DetectorConsultasProperties;
+import com.partymap.backend.model.Evento;
+import com.partymap.backend.model.TipoUsuario;
+import com.partymap.backend.model.Ubicacion;
+import com.partymap.backend.model.Usuario;
+import com.partymap.backend.repository.EventoRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica contra H2 en memoria que Hibernate entrega las consultas a InspectorConsultas y que
+ * recorrer una colección perezosa evento por evento se detecta como N+1. La carga por lotes se
+ * desactiva para reproducir el problema.
+ */
+@PruebaJpa(properties = {
+        "spring.jpa.properties.hibernate.default_batch_fetch_size=1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.partymap.backend.config.InspectorConsultas",
+        "spring.jpa.properties.hibernate.session.events.auto=com.partymap.backend.config.InspectorConsultas"
+})
+public class DetectorConsultasJpaTest {
+
+    private static final int EVENTOS = 6;
+
+    @Configuration
+    @EntityScan(basePackages = "com.partymap.backend.model")
+    @EnableJpaRepositories(basePackages = "com.partymap.backend.repository",
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = EventoRepository.class))
+    static class Config {
+    }
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DatosPrueba datos;
+
+    private DetectorConsultas detector;
+
+    @BeforeEach
+    void setUp() {
+        DetectorConsultasProperties properties = new DetectorConsultasProperties();
+        properties.setUmbralRepeticiones(EVENTOS);
+        detector = new DetectorConsultas(properties);
+
+        Usuario productor = datos.usuario(TipoUsuario.PRODUCTOR);
+        Ubicacion ubicacion = datos.ubicacion();
+        for (int i = 0; i < EVENTOS; i++) {
+            datos.evento(productor, ubicacion);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        detector.finalizar("fin");
+    }
+
+    @Test
+    void reservasPorEvento_seDetectanComoNMas1() {
+        detector.iniciar();
+        List<Evento> eventos = eventoRepository.findAll();
+        eventos.forEach(evento -> evento.getReservas().size());
+
+        ResumenConsultas resumen = detector.finalizar("GET /evento");
+
+        assertTrue(resumen.consultas() > EVENTOS);
+        Hallazgo hallazgo = resumen.hallazgos().stream()
+                .filter(h -> h.tipo() == TipoProblema.N_MAS_1)
+                .findFirst().orElseThrow();
+        assertEquals(EVENTOS, hallazgo.ejecuciones());
+        assertTrue(hallazgo.sql().contains("reserva"));
+        assertEquals(1, detector.getPeoresConsultas(10).size());
+    }
+
+    @Test
+    void consultaUnica_noSeInforma() {
+        detector.iniciar();
+        eventoRepository.findAll();
+
+        ResumenConsultas resumen = detector.finalizar("GET /evento");
+
+        assertEquals(1, resumen.consultas());
+        assertTrue(resumen.hallazgos().isEmpty());
+    }
+}
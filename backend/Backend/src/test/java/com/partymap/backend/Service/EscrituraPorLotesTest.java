@@ -0,0 +1,109 @@
+package com.partymap.backend.service;
+
+import com.partymap.backend.model.Evento;
+import com.partymap.backend.model.Reserva;
+import com.partymap.backend.model.TipoUsuario;
+import com.partymap.backend.model.Usuario;
+import com.partymap.backend.repository.ReservaRepository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import jakarta.persistence.EntityManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica contra H2 en memoria que las inserciones masivas usan los bloques de IDs
+ * de la secuencia y los lotes JDBC, en vez de dos viajes por fila.
+ */
+@PruebaJpa(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class EscrituraPorLotesTest {
+
+    @Configuration
+    @EntityScan(basePackages = "com.partymap.backend.model")
+    @EnableJpaRepositories(basePackages = "com.partymap.backend.repository",
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = { ReservaRepository.class }))
+    @Import(EscrituraPorLotes.class)
+    static class Config {
+    }
+
+    @Autowired
+    private EscrituraPorLotes escrituraPorLotes;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DatosPrueba datos;
+
+    private Usuario cliente;
+    private Evento evento;
+
+    @BeforeEach
+    void setUp() {
+        cliente = datos.usuario(TipoUsuario.CLIENTE);
+        evento = datos.evento(datos.usuario(TipoUsuario.PRODUCTOR), datos.ubicacion());
+        evento.setCapacidadMaxima(10000);
+
+        entityManager.flush();
+        entityManager.clear();
+        estadisticas().clear();
+    }
+
+    @Test
+    void persistir_insertaMilReservasEnPocosViajes() {
+        List<Reserva> reservas = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            reservas.add(nuevaReserva());
+        }
+
+        List<Reserva> persistidas = escrituraPorLotes.persistir(reservas);
+
+        assertEquals(1000, persistidas.size());
+        assertEquals(1000, new HashSet<>(persistidas.stream().map(Reserva::getId).toList()).size());
+        assertEquals(1000, reservaRepository.count());
+        // 20 lotes de INSERT y 20 NEXTVAL, más el conteo; sin lotes serían 2.000 sentencias
+        assertTrue(estadisticas().getPrepareStatementCount() <= 50,
+                "Sentencias preparadas: " + estadisticas().getPrepareStatementCount());
+    }
+
+    @Test
+    void persistir_dejaLasEntidadesDesasociadas() {
+        Reserva reserva = escrituraPorLotes.persistir(List.of(nuevaReserva())).get(0);
+
+        assertNotNull(reserva.getId());
+        assertFalse(entityManager.contains(reserva));
+    }
+
+    private Reserva nuevaReserva() {
+        Reserva reserva = new Reserva();
+        reserva.setUsuario(cliente);
+        reserva.setEvento(evento);
+        reserva.setCantidad(1);
+        reserva.setPrecioUnitario(new BigDecimal("10000"));
+        return reserva;
+    }
+
+    private Statistics estadisticas() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+}
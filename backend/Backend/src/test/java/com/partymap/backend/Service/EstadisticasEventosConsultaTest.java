@@ -0,0 +1,106 @@
+package com.partymap.backend.service;
+
+import com.partymap.backend.dto.EstadisticasEventosDTO;
+import com.partymap.backend.model.Evento;
+import com.partymap.backend.model.TipoUsuario;
+import com.partymap.backend.model.Ubicacion;
+import com.partymap.backend.model.Usuario;
+import com.partymap.backend.repository.EventoRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica la consulta de conteos condicionales de /evento/mis-estadisticas contra H2 en memoria.
+ */
+@PruebaJpa
+public class EstadisticasEventosConsultaTest {
+
+    @Configuration
+    @EntityScan(basePackages = "com.partymap.backend.model")
+    @EnableJpaRepositories(basePackages = "com.partymap.backend.repository",
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = EventoRepository.class))
+    static class Config {
+    }
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DatosPrueba datos;
+
+    private LocalDateTime ahora;
+    private Usuario productor;
+    private Usuario otroProductor;
+
+    @BeforeEach
+    void setUp() {
+        ahora = LocalDateTime.now();
+        productor = datos.usuario(TipoUsuario.PRODUCTOR);
+        otroProductor = datos.usuario(TipoUsuario.PRODUCTOR);
+        Ubicacion ubicacion = datos.ubicacion();
+
+        crearEvento(productor, ubicacion, ahora.plusHours(5), 1, 100, 10);    // próximo y disponible
+        crearEvento(productor, ubicacion, ahora.plusDays(3), 1, 50, 50);      // futuro agotado
+        crearEvento(productor, ubicacion, ahora.minusDays(2), 1, null, 0);    // pasado
+        crearEvento(productor, ubicacion, ahora.plusDays(1), 0, 100, 0);      // inactivo
+        crearEvento(otroProductor, ubicacion, ahora.plusDays(10), 1, null, 0); // disponible sin capacidad
+        entityManager.flush();
+    }
+
+    @Test
+    void contarEstadisticas_todosLosEventos() {
+        EstadisticasEventosDTO estadisticas = eventoRepository.contarEstadisticas(null, ahora, ahora.plusHours(24));
+
+        assertEquals(5, estadisticas.getTotalEventos());
+        assertEquals(4, estadisticas.getEventosActivos());
+        assertEquals(1, estadisticas.getEventosInactivos());
+        assertEquals(2, estadisticas.getEventosDisponibles());
+        assertEquals(1, estadisticas.getEventosProximos());
+        assertEquals(1, estadisticas.getEventosPasados());
+    }
+
+    @Test
+    void contarEstadisticas_soloLosEventosDelProductor() {
+        EstadisticasEventosDTO estadisticas = eventoRepository.contarEstadisticas(otroProductor.getId(), ahora,
+                ahora.plusHours(24));
+
+        assertEquals(1, estadisticas.getTotalEventos());
+        assertEquals(1, estadisticas.getEventosDisponibles());
+        assertEquals(0, estadisticas.getEventosPasados());
+    }
+
+    @Test
+    void contarEstadisticas_sinEventosDevuelveCeros() {
+        EstadisticasEventosDTO estadisticas = eventoRepository.contarEstadisticas(-1L, ahora, ahora.plusHours(24));
+
+        assertEquals(0, estadisticas.getTotalEventos());
+        assertEquals(0, estadisticas.getEventosActivos());
+    }
+
+    private void crearEvento(Usuario usuario, Ubicacion ubicacion, LocalDateTime fecha, int activo,
+                             Integer capacidad, int reservadas) {
+        Evento evento = datos.nuevoEvento(usuario, ubicacion);
+        evento.setFecha(fecha);
+        evento.setCapacidadMaxima(capacidad);
+        evento.setActivo(activo);
+        evento.setEntradasReservadas(reservadas);
+        datos.guardar(evento);
+    }
+}
@@ -0,0 +1,239 @@
+package com.partymap.backend.service;
+
+import com.partymap.backend.config.CacheEventosProperties;
+import com.partymap.backend.dto.EventoFiltroDTO;
+import com.partymap.backend.dto.EventoResponseDTO;
+import com.partymap.backend.dto.PaginatedResponseDTO;
+import com.partymap.backend.dto.UbicacionResponseDTO;
+import com.partymap.backend.events.EventoCambiadoEvent;
+import com.partymap.backend.events.ReservaCambiadaEvent;
+import com.partymap.backend.events.UbicacionCambiadaEvent;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventoCatalogoCacheTest {
+
+    private EventoCatalogoCache cache;
+    private AtomicInteger consultas;
+
+    @BeforeEach
+    void setUp() {
+        cache = new EventoCatalogoCache(new CacheEventosProperties());
+        consultas = new AtomicInteger();
+    }
+
+    @Test
+    void obtenerEvento_segundaLecturaNoConsultaLaBaseDeDatos() {
+        cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L)));
+        Optional<EventoResponseDTO> resultado = cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L)));
+
+        assertTrue(resultado.isPresent());
+        assertEquals(1, consultas.get());
+    }
+
+    @Test
+    void obtenerEvento_noGuardaEventosInexistentes() {
+        cache.obtenerEvento(99L, () -> cargar(null));
+        cache.obtenerEvento(99L, () -> cargar(null));
+
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    void actualizarEvento_invalidaSoloLasEntradasQueLoContienen() {
+        cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L)));
+        cache.obtenerEvento(2L, () -> cargar(evento(2L, 20L)));
+
+        cache.onEventoCambiado(new EventoCambiadoEvent(1L, EventoCambiadoEvent.TipoCambio.ACTUALIZADO));
+        cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L)));
+        cache.obtenerEvento(2L, () -> cargar(evento(2L, 20L)));
+
+        // Se recarga el evento 1 y el evento 2 sigue en caché
+        assertEquals(3, consultas.get());
+    }
+
+    @Test
+    void crearEvento_invalidaListadosYBusquedasPeroNoElDetalle() {
+        cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L)));
+        cache.obtenerListado(EventoCatalogoCache.Listado.TODOS, () -> cargarLista(evento(1L, 10L)));
+        cache.obtenerBusqueda(new EventoFiltroDTO(), () -> cargarPagina(evento(1L, 10L)));
+
+        cache.onEventoCambiado(new EventoCambiadoEvent(2L, EventoCambiadoEvent.TipoCambio.CREADO));
+        cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L)));
+        cache.obtenerListado(EventoCatalogoCache.Listado.TODOS, () -> cargarLista(evento(1L, 10L)));
+        cache.obtenerBusqueda(new EventoFiltroDTO(), () -> cargarPagina(evento(1L, 10L)));
+
+        assertEquals(5, consultas.get());
+    }
+
+    @Test
+    void cambioDeReserva_invalidaDisponiblesYElEventoAfectado() {
+        cache.obtenerListado(EventoCatalogoCache.Listado.DISPONIBLES, () -> cargarLista(evento(1L, 10L)));
+        cache.obtenerListado(EventoCatalogoCache.Listado.TODOS, () -> cargarLista(evento(2L, 20L)));
+
+        // La reserva es de un evento agotado que no aparece en ningún listado
+        cache.onReservaCambiada(new ReservaCambiadaEvent(5L, 3L));
+        cache.obtenerListado(EventoCatalogoCache.Listado.DISPONIBLES, () -> cargarLista(evento(1L, 10L)));
+        cache.obtenerListado(EventoCatalogoCache.Listado.TODOS, () -> cargarLista(evento(2L, 20L)));
+
+        assertEquals(3, consultas.get());
+    }
+
+    @Test
+    void cambioDeReserva_recargaLosCuposDelDetalle() {
+        EventoResponseDTO conCupos = evento(1L, 10L);
+        conCupos.setCuposDisponibles(5);
+        cache.obtenerEvento(1L, () -> cargar(conCupos));
+
+        cache.onReservaCambiada(new ReservaCambiadaEvent(7L, 1L));
+        EventoResponseDTO agotado = evento(1L, 10L);
+        agotado.setCuposDisponibles(0);
+
+        assertEquals(0, cache.obtenerEvento(1L, () -> cargar(agotado)).orElseThrow().getCuposDisponibles());
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    void modificarUnaRespuesta_noAlteraLaGuardadaEnCache() {
+        EventoResponseDTO cargado = evento(1L, 10L);
+        cargado.setNombre("Fiesta");
+        cache.obtenerEvento(1L, () -> cargar(cargado)).orElseThrow().setNombre("Cambiado por el llamador");
+        cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L))).orElseThrow().getUbicacion().setComuna("Otra");
+        cache.obtenerListado(EventoCatalogoCache.Listado.TODOS, () -> cargarLista(evento(2L, 20L)))
+                .get(0).setCuposDisponibles(0);
+
+        EventoResponseDTO detalle = cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L))).orElseThrow();
+        EventoResponseDTO enListado = cache.obtenerListado(EventoCatalogoCache.Listado.TODOS,
+                () -> cargarLista(evento(2L, 20L))).get(0);
+
+        assertEquals("Fiesta", detalle.getNombre());
+        assertNull(detalle.getUbicacion().getComuna());
+        assertNull(enListado.getCuposDisponibles());
+        assertNotSame(detalle, cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L))).orElseThrow());
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    void cambioDeUbicacion_invalidaLosEventosQueLaMuestran() {
+        cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L)));
+        cache.obtenerEvento(2L, () -> cargar(evento(2L, 20L)));
+
+        cache.onUbicacionCambiada(new UbicacionCambiadaEvent(20L));
+        cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L)));
+        cache.obtenerEvento(2L, () -> cargar(evento(2L, 20L)));
+
+        assertEquals(3, consultas.get());
+    }
+
+    @Test
+    void busquedasConFiltrosDistintosUsanEntradasDistintas() {
+        EventoFiltroDTO pagina0 = new EventoFiltroDTO();
+        pagina0.setPagina(0);
+        EventoFiltroDTO pagina1 = new EventoFiltroDTO();
+        pagina1.setPagina(1);
+
+        cache.obtenerBusqueda(pagina0, () -> cargarPagina(evento(1L, 10L)));
+        cache.obtenerBusqueda(pagina1, () -> cargarPagina(evento(2L, 20L)));
+        cache.obtenerBusqueda(pagina0, () -> cargarPagina(evento(1L, 10L)));
+
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    void cargaConcurrenteConUnaInvalidacion_noGuardaElResultadoObsoleto() {
+        cache.obtenerEvento(1L, () -> {
+            // La modificación se confirma mientras la lectura está en curso
+            cache.onEventoCambiado(new EventoCambiadoEvent(1L, EventoCambiadoEvent.TipoCambio.ACTUALIZADO));
+            return cargar(evento(1L, 10L));
+        });
+        cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L)));
+
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    void cargaConcurrenteConReservaDeOtroEvento_guardaElResultado() {
+        cache.obtenerEvento(1L, () -> {
+            // La reserva de otro evento no cambia lo que se está leyendo
+            cache.onReservaCambiada(new ReservaCambiadaEvent(7L, 2L));
+            return cargar(evento(1L, 10L));
+        });
+        cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L)));
+
+        assertEquals(1, consultas.get());
+    }
+
+    @Test
+    void cargaConcurrenteConLimpieza_noGuardaElResultado() {
+        cache.obtenerEvento(1L, () -> {
+            cache.limpiar();
+            return cargar(evento(1L, 10L));
+        });
+        cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L)));
+
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    void tamanioMaximo_desalojaEntradasPorCantidadDeEventos() {
+        CacheEventosProperties properties = new CacheEventosProperties();
+        properties.setTamanioMaximo(10);
+        EventoCatalogoCache pequenia = new EventoCatalogoCache(properties);
+
+        for (long id = 1; id <= 30; id++) {
+            long eventoId = id;
+            pequenia.obtenerEvento(eventoId, () -> Optional.of(evento(eventoId, 10L)));
+        }
+
+        Map<String, Object> estadisticas = pequenia.getEstadisticas();
+        assertTrue((Long) estadisticas.get("eventosRetenidos") <= 10);
+        assertTrue((Long) estadisticas.get("desalojos") > 0);
+    }
+
+    @Test
+    void getEstadisticas_cuentaAciertosYFallos() {
+        cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L)));
+        cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L)));
+        cache.obtenerEvento(1L, () -> cargar(evento(1L, 10L)));
+
+        Map<String, Object> estadisticas = cache.getEstadisticas();
+
+        assertEquals(2L, estadisticas.get("aciertos"));
+        assertEquals(1L, estadisticas.get("fallos"));
+        assertEquals(1L, estadisticas.get("entradas"));
+    }
+
+    private Optional<EventoResponseDTO> cargar(EventoResponseDTO evento) {
+        consultas.incrementAndGet();
+        return Optional.ofNullable(evento);
+    }
+
+    private List<EventoResponseDTO> cargarLista(EventoResponseDTO... eventos) {
+        consultas.incrementAndGet();
+        return List.of(eventos);
+    }
+
+    private PaginatedResponseDTO<EventoResponseDTO> cargarPagina(EventoResponseDTO... eventos) {
+        consultas.incrementAndGet();
+        PaginatedResponseDTO<EventoResponseDTO> pagina = new PaginatedResponseDTO<>();
+        pagina.setContenido(List.of(eventos));
+        return pagina;
+    }
+
+    private EventoResponseDTO evento(Long id, Long ubicacionId) {
+        EventoResponseDTO dto = new EventoResponseDTO();
+        dto.setId(id);
+        UbicacionResponseDTO ubicacion = new UbicacionResponseDTO();
+        ubicacion.setId(ubicacionId);
+        dto.setUbicacion(ubicacion);
+        return dto;
+    }
+}
@@ -0,0 +1,214 @@
+package com.partymap.backend.service;
+
+import com.partymap.backend.dto.ClusterMapaDTO;
+import com.partymap.backend.events.EventoCambiadoEvent;
+import com.partymap.backend.events.UbicacionCambiadaEvent;
+import com.partymap.backend.repository.EventoRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class EventoIndiceEspacialTest {
+
+    // Plaza de Armas, Providencia, Valparaíso
+    private static final Object[] CENTRO = fila(1L, "-33.4378", "-70.6505");
+    private static final Object[] PROVIDENCIA = fila(2L, "-33.4263", "-70.6170");
+    private static final Object[] VALPARAISO = fila(3L, "-33.0472", "-71.6127");
+
+    private EventoRepository eventoRepository;
+    private EventoIndiceEspacial indice;
+
+    @BeforeEach
+    void setUp() {
+        eventoRepository = mock(EventoRepository.class);
+        when(eventoRepository.findCoordenadasActivos()).thenReturn(filas(CENTRO, PROVIDENCIA, VALPARAISO));
+        indice = new EventoIndiceEspacial(eventoRepository);
+    }
+
+    @Test
+    void buscarCercanos_ordenaPorDistanciaYRespetaElRadio() {
+        List<EventoIndiceEspacial.Resultado> resultados = indice.buscarCercanos(-33.4372, -70.6506, 5, 20);
+
+        assertEquals(List.of(1L, 2L), resultados.stream().map(EventoIndiceEspacial.Resultado::eventoId).toList());
+        assertTrue(resultados.get(0).distanciaKm() < 0.1);
+        assertEquals(3.3, resultados.get(1).distanciaKm(), 0.2);
+    }
+
+    @Test
+    void buscarCercanos_radioAmplioIncluyeOtrasCiudades() {
+        List<EventoIndiceEspacial.Resultado> resultados = indice.buscarCercanos(-33.4372, -70.6506, 150, 20);
+
+        assertEquals(3, resultados.size());
+        assertEquals(3L, resultados.get(2).eventoId());
+    }
+
+    @Test
+    void buscarCercanos_respetaElLimite() {
+        assertEquals(1, indice.buscarCercanos(-33.4372, -70.6506, 150, 1).size());
+    }
+
+    @Test
+    void buscarEnArea_devuelveSoloLosEventosDentroDelRectangulo() {
+        List<EventoIndiceEspacial.Resultado> resultados = indice.buscarEnArea(-33.5, -70.7, -33.4, -70.6, 100);
+
+        assertEquals(List.of(1L, 2L), resultados.stream().map(EventoIndiceEspacial.Resultado::eventoId).toList());
+    }
+
+    @Test
+    void indiceSeCargaUnaSolaVez() {
+        indice.buscarCercanos(-33.4372, -70.6506, 5, 20);
+        indice.buscarEnArea(-34, -72, -33, -70, 20);
+
+        verify(eventoRepository, times(1)).findCoordenadasActivos();
+    }
+
+    @Test
+    void eventoCreado_seAgregaAlIndice() {
+        indice.getCantidadEventos();
+        when(eventoRepository.findCoordenadasActivosByIdIn(List.of(4L))).thenReturn(filas(fila(4L, "-33.4380", "-70.6500")));
+
+        indice.onEventoCambiado(new EventoCambiadoEvent(4L, EventoCambiadoEvent.TipoCambio.CREADO));
+
+        assertEquals(4, indice.getCantidadEventos());
+        assertEquals(3, indice.buscarCercanos(-33.4372, -70.6506, 5, 20).size());
+    }
+
+    @Test
+    void eventosCreadosEnBloque_seCarganConUnaConsulta() {
+        indice.getCantidadEventos();
+        when(eventoRepository.findCoordenadasActivosByIdIn(List.of(4L, 5L)))
+                .thenReturn(filas(fila(4L, "-33.4380", "-70.6500"), fila(5L, "-33.4390", "-70.6510")));
+
+        indice.onEventoCambiado(new EventoCambiadoEvent(List.of(4L, 5L), EventoCambiadoEvent.TipoCambio.CREADO));
+
+        assertEquals(5, indice.getCantidadEventos());
+        verify(eventoRepository, times(1)).findCoordenadasActivosByIdIn(any());
+    }
+
+    @Test
+    void eventoEliminado_seQuitaDelIndice() {
+        indice.getCantidadEventos();
+
+        indice.onEventoCambiado(new EventoCambiadoEvent(1L, EventoCambiadoEvent.TipoCambio.ELIMINADO));
+
+        assertEquals(List.of(2L), indice.buscarCercanos(-33.4372, -70.6506, 5, 20).stream()
+                .map(EventoIndiceEspacial.Resultado::eventoId).toList());
+    }
+
+    @Test
+    void ubicacionModificada_reubicaSusEventos() {
+        indice.getCantidadEventos();
+        // La ubicación del evento 3 se corrige desde Valparaíso a Santiago
+        when(eventoRepository.findCoordenadasActivosByUbicacionIdIn(List.of(30L))).thenReturn(filas(fila(3L, "-33.4400", "-70.6520")));
+
+        indice.onUbicacionCambiada(new UbicacionCambiadaEvent(30L));
+
+        assertEquals(3, indice.buscarCercanos(-33.4372, -70.6506, 5, 20).size());
+        assertTrue(indice.buscarCercanos(-33.0472, -71.6127, 5, 20).isEmpty());
+    }
+
+    @Test
+    void cambiosAntesDeCargar_noConsultanLaBaseDeDatos() {
+        indice.onEventoCambiado(new EventoCambiadoEvent(4L, EventoCambiadoEvent.TipoCambio.CREADO));
+
+        verify(eventoRepository, never()).findCoordenadasActivosByIdIn(any());
+    }
+
+    @Test
+    void cambiosDuranteLaCarga_seAplicanAlTerminarla() {
+        // Los cambios se confirman después de que la consulta de carga leyó sus filas
+        when(eventoRepository.findCoordenadasActivos()).thenAnswer(invocacion -> {
+            indice.onEventoCambiado(new EventoCambiadoEvent(4L, EventoCambiadoEvent.TipoCambio.CREADO));
+            indice.onEventoCambiado(new EventoCambiadoEvent(2L, EventoCambiadoEvent.TipoCambio.ELIMINADO));
+            indice.onUbicacionCambiada(new UbicacionCambiadaEvent(30L));
+            return filas(CENTRO, PROVIDENCIA, VALPARAISO);
+        });
+        when(eventoRepository.findCoordenadasActivosByIdIn(List.of(4L, 2L))).thenReturn(filas(fila(4L, "-33.4380", "-70.6500")));
+        when(eventoRepository.findCoordenadasActivosByUbicacionIdIn(List.of(30L))).thenReturn(filas(fila(3L, "-33.4400", "-70.6520")));
+
+        List<EventoIndiceEspacial.Resultado> resultados = indice.buscarCercanos(-33.4372, -70.6506, 5, 20);
+
+        assertEquals(List.of(1L, 4L, 3L), resultados.stream().map(EventoIndiceEspacial.Resultado::eventoId).toList());
+        verify(eventoRepository, times(1)).findCoordenadasActivosByIdIn(any());
+    }
+
+    @Test
+    void cargaFallida_descartaLosCambiosPendientes() {
+        when(eventoRepository.findCoordenadasActivos()).thenAnswer(invocacion -> {
+            indice.onEventoCambiado(new EventoCambiadoEvent(4L, EventoCambiadoEvent.TipoCambio.CREADO));
+            throw new IllegalStateException("base de datos no disponible");
+        });
+        assertThrows(IllegalStateException.class, () -> indice.getCantidadEventos());
+
+        doReturn(filas(CENTRO, PROVIDENCIA)).when(eventoRepository).findCoordenadasActivos();
+        indice.onEventoCambiado(new EventoCambiadoEvent(5L, EventoCambiadoEvent.TipoCambio.CREADO));
+
+        assertEquals(2, indice.getCantidadEventos());
+        verify(eventoRepository, never()).findCoordenadasActivosByIdIn(any());
+    }
+
+    @Test
+    void agrupar_zoomBajoUneLosEventosDeSantiago() {
+        List<ClusterMapaDTO> clusters = indice.agrupar(-34, -72, -32, -70, 8);
+
+        assertEquals(2, clusters.size());
+        ClusterMapaDTO santiago = clusters.get(0);
+        assertEquals(2, santiago.getCantidad());
+        assertEquals(List.of(1L, 2L), santiago.getEventoIds());
+        assertEquals(-33.432, santiago.getLatitud(), 0.001);
+        assertEquals(1, clusters.get(1).getCantidad());
+    }
+
+    @Test
+    void agrupar_zoomAltoSeparaLosEventos() {
+        List<ClusterMapaDTO> clusters = indice.agrupar(-33.5, -70.7, -33.4, -70.6, 14);
+
+        assertEquals(2, clusters.size());
+        assertTrue(clusters.stream().allMatch(cluster -> cluster.getCantidad() == 1));
+    }
+
+    @Test
+    void agrupar_soloIncluyeLasCeldasDelAreaVisible() {
+        List<ClusterMapaDTO> clusters = indice.agrupar(-33.1, -71.7, -33.0, -71.5, 10);
+
+        assertEquals(1, clusters.size());
+        assertEquals(List.of(3L), clusters.get(0).getEventoIds());
+    }
+
+    @Test
+    void agrupar_reflejaLasBajas() {
+        indice.getCantidadEventos();
+        indice.onEventoCambiado(new EventoCambiadoEvent(2L, EventoCambiadoEvent.TipoCambio.ELIMINADO));
+
+        List<ClusterMapaDTO> clusters = indice.agrupar(-34, -72, -32, -70, 8);
+
+        assertEquals(1, clusters.get(0).getCantidad());
+        assertEquals(-33.4378, clusters.get(0).getLatitud(), 1e-9);
+    }
+
+    @Test
+    void agrupar_zoomDeEventosIndividualesNoSeAgrupa() {
+        assertThrows(IllegalArgumentException.class,
+                () -> indice.agrupar(-34, -72, -32, -70, EventoIndiceEspacial.ZOOM_EVENTOS));
+    }
+
+    @Test
+    void distanciaKm_santiagoValparaiso() {
+        assertEquals(98, EventoIndiceEspacial.distanciaKm(-33.4378, -70.6505, -33.0472, -71.6127), 3);
+    }
+
+    private static Object[] fila(Long id, String latitud, String longitud) {
+        return new Object[] { id, new BigDecimal(latitud), new BigDecimal(longitud) };
+    }
+
+    private static List<Object[]> filas(Object[]... filas) {
+        return new ArrayList<>(List.of(filas));
+    }
+}
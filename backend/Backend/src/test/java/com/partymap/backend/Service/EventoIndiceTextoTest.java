@@ -0,0 +1,140 @@
+package com.partymap.backend.service;
+
+import com.partymap.backend.events.EventoCambiadoEvent;
+import com.partymap.backend.repository.EventoRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class EventoIndiceTextoTest {
+
+    private static final Object[] CUMBIA = fila(1L, 10L, "Cumbia en Ñuñoa", "Fiesta bailable de verano");
+    private static final Object[] FIESTA = fila(2L, 10L, "Fiesta Electrónica", "Música hasta el amanecer en Ñuñoa");
+    private static final Object[] ROCK = fila(3L, 20L, "Noche de Rock", "Bandas locales en Maipú");
+
+    private EventoRepository eventoRepository;
+    private EventoIndiceTexto indice;
+
+    @BeforeEach
+    void setUp() {
+        eventoRepository = mock(EventoRepository.class);
+        when(eventoRepository.findTextosActivos()).thenReturn(filas(CUMBIA, FIESTA, ROCK));
+        indice = new EventoIndiceTexto(eventoRepository);
+    }
+
+    @Test
+    void buscar_ignoraTildesYMayusculas() {
+        assertEquals(List.of(1L, 2L), ids(indice.buscar("NUNOA", null, 10)));
+        assertEquals(List.of(2L), ids(indice.buscar("electronica", null, 10)));
+    }
+
+    @Test
+    void buscar_encuentraPorPrefijo() {
+        assertEquals(List.of(2L, 1L), ids(indice.buscar("fies", null, 10)));
+    }
+
+    @Test
+    void buscar_elNombrePesaMasQueLaDescripcion() {
+        List<EventoIndiceTexto.Resultado> resultados = indice.buscar("fiesta", null, 10);
+
+        assertEquals(List.of(2L, 1L), ids(resultados));
+        assertTrue(resultados.get(0).puntaje() > resultados.get(1).puntaje());
+    }
+
+    @Test
+    void buscar_exigeTodasLasPalabras() {
+        assertEquals(List.of(1L), ids(indice.buscar("cumbia ñuñoa", null, 10)));
+        assertTrue(indice.buscar("cumbia maipu", null, 10).isEmpty());
+    }
+
+    @Test
+    void buscar_filtraPorProductor() {
+        assertEquals(List.of(3L), ids(indice.buscar("rock", 20L, 10)));
+        assertTrue(indice.buscar("rock", 10L, 10).isEmpty());
+    }
+
+    @Test
+    void buscar_respetaElLimite() {
+        assertEquals(1, indice.buscar("nunoa", null, 1).size());
+    }
+
+    @Test
+    void buscar_soloPalabrasVaciasNoConsultaElIndice() {
+        assertTrue(indice.buscar("de la en", null, 10).isEmpty());
+        verify(eventoRepository, never()).findTextosActivos();
+    }
+
+    @Test
+    void indiceSeCargaUnaSolaVez() {
+        indice.buscar("fiesta", null, 10);
+        indice.buscar("rock", null, 10);
+
+        verify(eventoRepository, times(1)).findTextosActivos();
+    }
+
+    @Test
+    void eventoActualizado_reemplazaSusTerminos() {
+        indice.getCantidadEventos();
+        when(eventoRepository.findTextosActivosByIdIn(List.of(3L))).thenReturn(filas(fila(3L, 20L, "Noche de Jazz", null)));
+
+        indice.onEventoCambiado(new EventoCambiadoEvent(3L, EventoCambiadoEvent.TipoCambio.ACTUALIZADO));
+
+        assertTrue(indice.buscar("rock", null, 10).isEmpty());
+        assertEquals(List.of(3L), ids(indice.buscar("jazz", null, 10)));
+    }
+
+    @Test
+    void eventoEliminado_seQuitaDelIndice() {
+        indice.getCantidadEventos();
+
+        indice.onEventoCambiado(new EventoCambiadoEvent(1L, EventoCambiadoEvent.TipoCambio.ELIMINADO));
+
+        assertEquals(2, indice.getCantidadEventos());
+        assertTrue(indice.buscar("cumbia", null, 10).isEmpty());
+    }
+
+    @Test
+    void cambiosAntesDeCargar_noConsultanLaBaseDeDatos() {
+        indice.onEventoCambiado(new EventoCambiadoEvent(4L, EventoCambiadoEvent.TipoCambio.CREADO));
+
+        verify(eventoRepository, never()).findTextosActivosByIdIn(any());
+    }
+
+    @Test
+    void cambiosDuranteLaCarga_seReindexanAlTerminarla() {
+        // El evento 3 cambia de nombre después de que la consulta de carga leyó su texto anterior
+        when(eventoRepository.findTextosActivos()).thenAnswer(invocacion -> {
+            indice.onEventoCambiado(new EventoCambiadoEvent(3L, EventoCambiadoEvent.TipoCambio.ACTUALIZADO));
+            return filas(CUMBIA, FIESTA, ROCK);
+        });
+        when(eventoRepository.findTextosActivosByIdIn(List.of(3L)))
+                .thenReturn(filas(fila(3L, 20L, "Noche de Jazz", "Bandas locales en Maipú")));
+
+        assertEquals(List.of(3L), ids(indice.buscar("jazz", null, 10)));
+        assertTrue(indice.buscar("rock", null, 10).isEmpty());
+        verify(eventoRepository, times(1)).findTextosActivosByIdIn(any());
+    }
+
+    @Test
+    void terminosDe_normalizaYDescartaPalabrasVacias() {
+        assertEquals(List.of("fiesta", "nunoa", "2024"), EventoIndiceTexto.terminosDe("¡Fiesta en Ñuñoa, 2024!"));
+    }
+
+    private static List<Long> ids(List<EventoIndiceTexto.Resultado> resultados) {
+        return resultados.stream().map(EventoIndiceTexto.Resultado::eventoId).toList();
+    }
+
+    private static Object[] fila(Long id, Long usuarioId, String nombre, String descripcion) {
+        return new Object[] { id, usuarioId, nombre, descripcion };
+    }
+
+    private static List<Object[]> filas(Object[]... filas) {
+        return new ArrayList<>(List.of(filas));
+    }
+}
@@ -1,5 +1,7 @@
 package com.partymap.backend.service;
 
+import com.partymap.backend.dto.CursorPaginacion;
+import com.partymap.backend.dto.EventoFiltroDTO;
 import com.partymap.backend.model.Evento;
 import com.partymap.backend.model.Ubicacion;
 import com.partymap.backend.model.Usuario;
@@ -9,6 +11,16 @@ import com.partymap.backend.service.impl.EventoServiceImpl;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -32,13 +44,18 @@ public class EventoServiceImplTest {
 
     private EventoRepository eventoRepository;
     private UbicacionRepository ubicacionRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private EventoIndiceEspacial indiceEspacial;
     private EventoServiceImpl eventoService;
 
     @BeforeEach
     void setUp() {
         eventoRepository = mock(EventoRepository.class);
         ubicacionRepository = mock(UbicacionRepository.class);
-        eventoService = new EventoServiceImpl(eventoRepository, ubicacionRepository);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        indiceEspacial = new EventoIndiceEspacial(eventoRepository);
+        eventoService = new EventoServiceImpl(eventoRepository, ubicacionRepository, eventPublisher, indiceEspacial,
+                new EventoIndiceTexto(eventoRepository), new UbicacionIndiceDuplicados(ubicacionRepository));
     }
 
     @Test
@@ -81,6 +98,34 @@ public class EventoServiceImplTest {
         verify(eventoRepository).save(any(Evento.class));
     }
 
+    @Test
+    void testCreateEventoConUbicacion_ReutilizaElMismoLugar() throws IOException {
+        Evento evento = new Evento();
+        evento.setNombre("Fiesta");
+        evento.setDescripcion("Una fiesta muy divertida.");
+        evento.setFecha(LocalDateTime.now().plusDays(1));
+        evento.setUsuario(new Usuario());
+
+        Ubicacion ubicacion = new Ubicacion();
+        ubicacion.setDireccion("Av. Providencia N° 1234");
+        ubicacion.setComuna("Providencia");
+        ubicacion.setLatitud(new BigDecimal("-33.4264"));
+        ubicacion.setLongitud(new BigDecimal("-70.6171"));
+
+        Ubicacion existente = new Ubicacion();
+        existente.setId(8L);
+        existente.setActivo(1);
+        when(ubicacionRepository.findDatosComparacionActivas()).thenReturn(List.<Object[]>of(
+                new Object[] { 8L, "Avenida Providencia 1234", "Providencia", new BigDecimal("-33.4263"), new BigDecimal("-70.6170") }));
+        when(ubicacionRepository.findById(8L)).thenReturn(Optional.of(existente));
+        when(eventoRepository.save(any(Evento.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Evento result = eventoService.createEventoConUbicacion(evento, ubicacion);
+
+        assertSame(existente, result.getUbicacion());
+        verify(ubicacionRepository, never()).save(any(Ubicacion.class));
+    }
+
     @Test
     void testCreateEventoConUbicacion_ConUbicacionNula() {
         Evento evento = new Evento();
@@ -147,6 +192,77 @@ public class EventoServiceImplTest {
         verify(eventoRepository).save(any(Evento.class));
     }
 
+    @Test
+    void testUpdateEventoConUbicacion_UbicacionCompartidaNoSeModifica() {
+        // Dos eventos (de distintos productores) en la misma ubicación
+        Ubicacion compartida = new Ubicacion();
+        compartida.setId(8L);
+        compartida.setDireccion("Av. Providencia 1234");
+        compartida.setComuna("Providencia");
+        compartida.setLatitud(new BigDecimal("-33.4263"));
+        compartida.setLongitud(new BigDecimal("-70.6170"));
+        Evento eventoExistente = new Evento();
+        eventoExistente.setId(1L);
+        eventoExistente.setUbicacion(compartida);
+        Evento otroEvento = new Evento();
+        otroEvento.setId(2L);
+        otroEvento.setUbicacion(compartida);
+
+        Ubicacion nuevaUbicacion = new Ubicacion();
+        nuevaUbicacion.setDireccion("Blanco 1131");
+        nuevaUbicacion.setComuna("Valparaíso");
+        nuevaUbicacion.setLatitud(new BigDecimal("-33.0472"));
+        nuevaUbicacion.setLongitud(new BigDecimal("-71.6127"));
+
+        when(eventoRepository.findById(1L)).thenReturn(Optional.of(eventoExistente));
+        when(ubicacionRepository.tieneOtrosEventos(8L, 1L)).thenReturn(true);
+        when(ubicacionRepository.save(any(Ubicacion.class))).thenAnswer(invocation -> {
+            Ubicacion guardada = invocation.getArgument(0);
+            guardada.setId(9L);
+            return guardada;
+        });
+        when(eventoRepository.save(any(Evento.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Evento actualizado = eventoService.updateEventoConUbicacion(1L, eventoValido(), nuevaUbicacion);
+
+        assertEquals(9L, actualizado.getUbicacion().getId());
+        assertEquals("Blanco 1131", actualizado.getUbicacion().getDireccion());
+        assertSame(compartida, otroEvento.getUbicacion());
+        assertEquals("Av. Providencia 1234", compartida.getDireccion());
+        assertEquals("Providencia", compartida.getComuna());
+        verify(ubicacionRepository, never()).save(compartida);
+    }
+
+    @Test
+    void testUpdateEventoConUbicacion_UbicacionCompartidaReutilizaElMismoLugar() {
+        Ubicacion compartida = new Ubicacion();
+        compartida.setId(8L);
+        compartida.setActivo(1);
+        compartida.setDireccion("Av. Providencia 1234");
+        Evento eventoExistente = new Evento();
+        eventoExistente.setId(1L);
+        eventoExistente.setUbicacion(compartida);
+
+        Ubicacion mismaDireccion = new Ubicacion();
+        mismaDireccion.setDireccion("Avenida Providencia N° 1234");
+        mismaDireccion.setComuna("Providencia");
+        mismaDireccion.setLatitud(new BigDecimal("-33.4264"));
+        mismaDireccion.setLongitud(new BigDecimal("-70.6171"));
+
+        when(eventoRepository.findById(1L)).thenReturn(Optional.of(eventoExistente));
+        when(ubicacionRepository.tieneOtrosEventos(8L, 1L)).thenReturn(true);
+        when(ubicacionRepository.findDatosComparacionActivas()).thenReturn(List.<Object[]>of(
+                new Object[] { 8L, "Av. Providencia 1234", "Providencia", new BigDecimal("-33.4263"), new BigDecimal("-70.6170") }));
+        when(ubicacionRepository.findById(8L)).thenReturn(Optional.of(compartida));
+        when(eventoRepository.save(any(Evento.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Evento actualizado = eventoService.updateEventoConUbicacion(1L, eventoValido(), mismaDireccion);
+
+        assertSame(compartida, actualizado.getUbicacion());
+        assertEquals("Av. Providencia 1234", compartida.getDireccion());
+        verify(ubicacionRepository, never()).save(any(Ubicacion.class));
+    }
+
     @Test
     void testDeleteEvento_Exitoso() throws IOException {
         Evento evento = new Evento();
@@ -488,6 +604,14 @@ public class EventoServiceImplTest {
         return usuario;
     }
 
+    private Evento eventoValido() {
+        Evento evento = new Evento();
+        evento.setNombre("Nuevo Nombre");
+        evento.setDescripcion("Descripción válida y larga");
+        evento.setFecha(LocalDateTime.now().plusDays(1));
+        return evento;
+    }
+
     private Ubicacion ubicacionValida() {
         Ubicacion ubicacion = new Ubicacion();
         ubicacion.setDireccion("Av. Siempre Viva 123");
@@ -498,4 +622,220 @@ public class EventoServiceImplTest {
     }
 
 
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBuscarEventos_PaginacionPorDefecto() {
+        when(eventoRepository.findAll(ArgumentMatchers.<Specification<Evento>>any(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(new Evento())));
+
+        Page<Evento> resultado = eventoService.buscarEventos(null);
+
+        ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+        verify(eventoRepository).findAll(ArgumentMatchers.<Specification<Evento>>any(), captor.capture());
+        Pageable pageable = captor.getValue();
+        assertEquals(1, resultado.getTotalElements());
+        assertEquals(0, pageable.getPageNumber());
+        assertEquals(20, pageable.getPageSize());
+        assertEquals(Sort.Direction.ASC, pageable.getSort().getOrderFor("fecha").getDirection());
+        assertNotNull(pageable.getSort().getOrderFor("id"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBuscarEventos_AcotaTamanioYOrdena() {
+        when(eventoRepository.findAll(ArgumentMatchers.<Specification<Evento>>any(), any(Pageable.class)))
+                .thenReturn(Page.empty());
+        EventoFiltroDTO filtro = new EventoFiltroDTO();
+        filtro.setPagina(2);
+        filtro.setTamanio(1000);
+        filtro.setOrdenarPor("precio");
+        filtro.setDireccion("desc");
+
+        eventoService.buscarEventos(filtro);
+
+        ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+        verify(eventoRepository).findAll(ArgumentMatchers.<Specification<Evento>>any(), captor.capture());
+        Pageable pageable = captor.getValue();
+        assertEquals(2, pageable.getPageNumber());
+        assertEquals(100, pageable.getPageSize());
+        assertEquals(Sort.Direction.DESC, pageable.getSort().getOrderFor("precioEntrada").getDirection());
+    }
+
+    @Test
+    void testBuscarEventos_OrdenamientoInvalido() {
+        EventoFiltroDTO filtro = new EventoFiltroDTO();
+        filtro.setOrdenarPor("descripcion");
+
+        assertThrows(IllegalArgumentException.class, () -> eventoService.buscarEventos(filtro));
+        verifyNoInteractions(eventoRepository);
+    }
+
+    @Test
+    void testBuscarEventos_RangoPrecioInvalido() {
+        EventoFiltroDTO filtro = new EventoFiltroDTO();
+        filtro.setPrecioMinimo(BigDecimal.TEN);
+        filtro.setPrecioMaximo(BigDecimal.ONE);
+
+        assertThrows(IllegalArgumentException.class, () -> eventoService.buscarEventos(filtro));
+    }
+
+    @Test
+    void testGetRespuestasEventosDesdeCursor_PrimeraPagina() {
+        when(eventoRepository.findRespuestasPrimeraPaginaActivos(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        eventoService.getRespuestasEventosDesdeCursor(null, 10);
+
+        ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+        verify(eventoRepository).findRespuestasPrimeraPaginaActivos(captor.capture());
+        assertEquals(0, captor.getValue().getOffset());
+        assertEquals(10, captor.getValue().getPageSize());
+    }
+
+    @Test
+    void testGetRespuestasEventosDesdeCursor_BuscaDesdeFechaEId() {
+        LocalDateTime fecha = LocalDateTime.of(2030, 1, 1, 20, 0);
+        when(eventoRepository.findRespuestasPaginaActivosDesde(eq(fecha), eq(7L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        eventoService.getRespuestasEventosDesdeCursor(new CursorPaginacion(fecha, 7L), 10);
+
+        verify(eventoRepository).findRespuestasPaginaActivosDesde(eq(fecha), eq(7L), any(Pageable.class));
+    }
+
+    @Test
+    void testGetRespuestasEventosDesdeCursor_CursorSinFecha() {
+        assertThrows(IllegalArgumentException.class,
+                () -> eventoService.getRespuestasEventosDesdeCursor(CursorPaginacion.porId(7L), 10));
+    }
+
+    @Test
+    void testBuscarEventosCercanos_OrdenadosPorDistancia() {
+        Evento lejano = new Evento();
+        lejano.setId(2L);
+        Evento cercano = new Evento();
+        cercano.setId(1L);
+        when(eventoRepository.findCoordenadasActivos()).thenReturn(new ArrayList<>(List.of(
+                new Object[] { 1L, new BigDecimal("-33.4378"), new BigDecimal("-70.6505") },
+                new Object[] { 2L, new BigDecimal("-33.4263"), new BigDecimal("-70.6170") })));
+        when(eventoRepository.findActivosConDetalleByIdIn(any())).thenReturn(List.of(lejano, cercano));
+
+        List<Evento> resultado = eventoService.buscarEventosCercanos(-33.4372, -70.6506, 5, 20);
+
+        assertEquals(List.of(cercano, lejano), resultado);
+    }
+
+    @Test
+    void testBuscarEventosCercanos_SinResultadosNoConsultaEventos() {
+        when(eventoRepository.findCoordenadasActivos()).thenReturn(new ArrayList<>());
+
+        assertTrue(eventoService.buscarEventosCercanos(-33.4372, -70.6506, 5, 20).isEmpty());
+        verify(eventoRepository, never()).findActivosConDetalleByIdIn(any());
+    }
+
+    @Test
+    void testBuscarEventosCercanos_RadioInvalido() {
+        assertThrows(IllegalArgumentException.class,
+                () -> eventoService.buscarEventosCercanos(-33.4, -70.6, 0, 20));
+        assertThrows(IllegalArgumentException.class,
+                () -> eventoService.buscarEventosCercanos(-33.4, -70.6, 500, 20));
+    }
+
+    @Test
+    void testBuscarEventosCercanos_CoordenadasInvalidas() {
+        assertThrows(IllegalArgumentException.class,
+                () -> eventoService.buscarEventosCercanos(-95, -70.6, 5, 20));
+    }
+
+    @Test
+    void testBuscarEventosEnArea_EsquinasInvertidas() {
+        assertThrows(IllegalArgumentException.class,
+                () -> eventoService.buscarEventosEnArea(-33.4, -70.6, -33.5, -70.7, 20));
+    }
+
+    @Test
+    void testBuscarEventos_TextoOrdenaPorRelevanciaYPagina() {
+        List<Object[]> textos = new ArrayList<>();
+        textos.add(new Object[] { 1L, 10L, "Cumbia en Ñuñoa", "Fiesta de verano" });
+        textos.add(new Object[] { 2L, 10L, "Fiesta en Ñuñoa", "Toda la noche" });
+        textos.add(new Object[] { 3L, 10L, "Rock en Maipú", "Concierto" });
+        when(eventoRepository.findTextosActivos()).thenReturn(textos);
+        Evento primero = new Evento();
+        primero.setId(1L);
+        Evento segundo = new Evento();
+        segundo.setId(2L);
+        // La base de datos los devuelve sin el orden de relevancia
+        when(eventoRepository.findAll(ArgumentMatchers.<Specification<Evento>>any()))
+                .thenReturn(List.of(primero, segundo));
+
+        EventoFiltroDTO filtro = new EventoFiltroDTO();
+        filtro.setTexto("fiesta nunoa");
+        filtro.setTamanio(1);
+        Page<Evento> resultado = eventoService.buscarEventos(filtro);
+
+        assertEquals(List.of(segundo), resultado.getContent());
+        assertEquals(2, resultado.getTotalElements());
+        verify(eventoRepository, never()).findAll(ArgumentMatchers.<Specification<Evento>>any(), any(Pageable.class));
+    }
+
+    @Test
+    void testBuscarEventos_RelevanciaSinTexto() {
+        EventoFiltroDTO filtro = new EventoFiltroDTO();
+        filtro.setOrdenarPor("relevancia");
+
+        assertThrows(IllegalArgumentException.class, () -> eventoService.buscarEventos(filtro));
+    }
+
+    @Test
+    void testBuscarEventosPorTexto_SinCoincidenciasNoConsultaEventos() {
+        when(eventoRepository.findTextosActivos()).thenReturn(new ArrayList<>());
+
+        assertTrue(eventoService.buscarEventosPorTexto("fiesta", null, 20).isEmpty());
+        verify(eventoRepository, never()).findActivosConDetalleByIdIn(any());
+    }
+
+    @Test
+    void testGetEventosProximos_ConsultaLaVentanaDe24Horas() {
+        when(eventoRepository.findActivosEntreFechas(any(), any(), any())).thenReturn(List.of());
+
+        eventoService.getEventosProximos();
+
+        ArgumentCaptor<LocalDateTime> desde = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> hasta = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(eventoRepository).findActivosEntreFechas(desde.capture(), hasta.capture(), eq(Pageable.unpaged()));
+        assertEquals(desde.getValue().plusHours(24), hasta.getValue());
+        verify(eventoRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetEventosDisponibles_FiltraEnLaConsulta() {
+        Evento evento = new Evento();
+        when(eventoRepository.findDisponiblesDesde(any())).thenReturn(List.of(evento));
+
+        assertEquals(List.of(evento), eventoService.getEventosDisponibles());
+        verify(eventoRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetRespuestasEventosEnRango_AplicaElLimite() {
+        LocalDateTime desde = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime hasta = LocalDateTime.of(2025, 2, 1, 0, 0);
+        when(eventoRepository.findRespuestasActivosEntreFechas(any(), any(), any())).thenReturn(List.of());
+
+        eventoService.getRespuestasEventosEnRango(desde, hasta, 50);
+
+        verify(eventoRepository).findRespuestasActivosEntreFechas(desde, hasta, PageRequest.of(0, 50));
+    }
+
+    @Test
+    void testGetRespuestasEventosEnRango_RangoInvalido() {
+        LocalDateTime fecha = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> eventoService.getRespuestasEventosEnRango(fecha, fecha, 50));
+        assertThrows(IllegalArgumentException.class,
+                () -> eventoService.getRespuestasEventosEnRango(null, fecha, 50));
+        verifyNoInteractions(eventoRepository);
+    }
 }
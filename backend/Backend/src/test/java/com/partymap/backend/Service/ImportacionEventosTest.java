@@ -0,0 +1,275 @@
+package com.partymap.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.partymap.backend.dto.EventoImportacionProgresoDTO;
+import com.partymap.backend.events.EventoCambiadoEvent;
+import com.partymap.backend.events.UbicacionCambiadaEvent;
+import com.partymap.backend.model.Evento;
+import com.partymap.backend.model.TipoUsuario;
+import com.partymap.backend.model.Ubicacion;
+import com.partymap.backend.model.Usuario;
+import com.partymap.backend.repository.EventoRepository;
+import com.partymap.backend.repository.UbicacionRepository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import jakarta.persistence.EntityManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba la importación masiva de eventos contra H2 en memoria: lectura de CSV y JSON,
+ * reutilización de ubicaciones existentes o repetidas en el archivo, rechazo de filas
+ * inválidas y avance por bloques.
+ */
+@PruebaJpa(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "partymap.importacion.tamanio-bloque=100"
+})
+@RecordApplicationEvents
+public class ImportacionEventosTest {
+
+    private static final String ENCABEZADOS = "nombre,descripcion,fecha,capacidadMaxima,precioEntrada,direccion,comuna,latitud,longitud\n";
+
+    @Configuration
+    @EntityScan(basePackages = "com.partymap.backend.model")
+    @EnableJpaRepositories(basePackages = "com.partymap.backend.repository",
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = { EventoRepository.class, UbicacionRepository.class }))
+    @Import({ ImportacionEventos.class, EscrituraPorLotes.class, UbicacionIndiceDuplicados.class })
+    static class Config {
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().findAndRegisterModules();
+        }
+    }
+
+    @Autowired
+    private ImportacionEventos importacionEventos;
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private UbicacionRepository ubicacionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DatosPrueba datos;
+
+    @Autowired
+    private ApplicationEvents eventos;
+
+    private Usuario productor;
+    private Ubicacion existente;
+    private final String fecha = LocalDateTime.now().plusDays(10).withNano(0).toString();
+
+    @BeforeEach
+    void setUp() {
+        productor = datos.usuario(TipoUsuario.PRODUCTOR);
+        existente = datos.ubicacion();
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void csv_reutilizaUbicacionesExistentesYRepetidas() throws IOException {
+        String csv = ENCABEZADOS
+                + "Fiesta uno,Primera fiesta del productor," + fecha + ",100,5000, av. providencia 1234 ,PROVIDENCIA,-33.4263,-70.6170\n"
+                + "Fiesta dos,Segunda fiesta del productor," + fecha + ",,,Blanco 1131,Valparaíso,-33.0472,-71.6127\n"
+                + "Fiesta tres,Tercera fiesta del productor," + fecha + ",50,0,BLANCO 1131,valparaíso,-33.0472,-71.6127\n";
+
+        List<EventoImportacionProgresoDTO> avances = importar(csv, ImportacionEventos.Formato.CSV);
+
+        EventoImportacionProgresoDTO resumen = avances.get(avances.size() - 1);
+        assertTrue(resumen.isTerminado());
+        assertNull(resumen.getError());
+        assertEquals(3, resumen.getEventosCreados());
+        assertEquals(1, resumen.getUbicacionesReutilizadas());
+        assertEquals(1, resumen.getUbicacionesCreadas());
+        assertEquals(2, ubicacionRepository.count());
+
+        List<Evento> eventos = eventoRepository.findByUsuarioId(productor.getId());
+        assertEquals(3, eventos.size());
+        assertEquals(1, eventos.stream().filter(e -> e.getUbicacion().getId().equals(existente.getId())).count());
+        assertEquals(1, eventos.stream().map(e -> e.getUbicacion().getId())
+                .filter(id -> !id.equals(existente.getId())).distinct().count());
+    }
+
+    @Test
+    void csv_camposEntreComillasYFilasInvalidas() throws IOException {
+        String csv = ENCABEZADOS
+                + "\"Fiesta, con coma\",\"Descripción con \"\"comillas\"\"\ny salto de línea\"," + fecha + ",,,Blanco 1131,Valparaíso,-33.0472,-71.6127\r\n"
+                + "Fiesta corta,Corta," + fecha + ",,,Blanco 1131,Valparaíso,-33.0472,-71.6127\r\n"
+                + "\r\n"
+                + "Fiesta latitud,Latitud que no es número," + fecha + ",,,Blanco 1131,Valparaíso,abc,-71.6127\r\n";
+
+        List<EventoImportacionProgresoDTO> avances = importar(csv, ImportacionEventos.Formato.CSV);
+
+        EventoImportacionProgresoDTO bloque = avances.get(0);
+        assertEquals(3, bloque.getFilasProcesadas());
+        assertEquals(1, bloque.getEventosCreados());
+        assertEquals(2, bloque.getFilasRechazadas());
+        assertEquals(2, bloque.getErrores().get(0).getFila());
+        assertEquals("La descripción debe tener entre 10 y 2000 caracteres", bloque.getErrores().get(0).getError());
+        assertEquals(3, bloque.getErrores().get(1).getFila());
+        assertEquals("Valor inválido en la columna latitud", bloque.getErrores().get(1).getError());
+
+        Evento evento = eventoRepository.findByUsuarioId(productor.getId()).get(0);
+        assertEquals("Fiesta, con coma", evento.getNombre());
+        assertEquals("Descripción con \"comillas\"\ny salto de línea", evento.getDescripcion());
+    }
+
+    @Test
+    void csv_sinColumnasObligatoriasNoImportaNada() throws IOException {
+        List<EventoImportacionProgresoDTO> avances = importar("nombre,descripcion\nFiesta,Una fiesta cualquiera\n",
+                ImportacionEventos.Formato.CSV);
+
+        assertEquals(1, avances.size());
+        assertTrue(avances.get(0).isTerminado());
+        assertEquals("Faltan columnas en el encabezado del CSV: fecha, direccion, comuna, latitud, longitud",
+                avances.get(0).getError());
+    }
+
+    @Test
+    void json_aceptaArregloYUnObjetoPorLinea() throws IOException {
+        String objeto = "{\"nombre\":\"Fiesta JSON\",\"descripcion\":\"Fiesta importada desde JSON\",\"fecha\":\"" + fecha
+                + "\",\"direccion\":\"Blanco 1131\",\"comuna\":\"Valparaíso\",\"latitud\":-33.0472,\"longitud\":-71.6127}";
+        String invalido = "{\"nombre\":\"Fiesta JSON\",\"descripcion\":\"Fiesta importada desde JSON\",\"fecha\":\"mañana\"}";
+
+        EventoImportacionProgresoDTO arreglo = ultimo(importar("[" + objeto + "," + invalido + "]",
+                ImportacionEventos.Formato.JSON));
+        EventoImportacionProgresoDTO ndjson = ultimo(importar(objeto + "\n" + objeto + "\n",
+                ImportacionEventos.Formato.JSON));
+
+        assertEquals(1, arreglo.getEventosCreados());
+        assertEquals(1, arreglo.getFilasRechazadas());
+        assertEquals(2, ndjson.getEventosCreados());
+        assertEquals(0, ndjson.getUbicacionesCreadas());
+        assertEquals(1, ndjson.getUbicacionesReutilizadas());
+        assertEquals(3, eventoRepository.findByUsuarioId(productor.getId()).size());
+    }
+
+    @Test
+    void json_malFormadoConservaLosBloquesAnteriores() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < importacionEventos.getTamanioBloque(); i++) {
+            json.append(filaJson("Fiesta " + i, "Calle Principal " + i)).append(',');
+        }
+        json.append("{\"nombre\":");
+
+        EventoImportacionProgresoDTO resumen = ultimo(importar(json.toString(), ImportacionEventos.Formato.JSON));
+
+        assertTrue(resumen.isTerminado());
+        assertNotNull(resumen.getError());
+        assertTrue(resumen.getError().startsWith("El archivo JSON no es válido"));
+        assertEquals(importacionEventos.getTamanioBloque(), resumen.getEventosCreados());
+        assertEquals(importacionEventos.getTamanioBloque(), eventoRepository.findByUsuarioId(productor.getId()).size());
+    }
+
+    @Test
+    void importar_informaAvancePorBloqueYEscribePorLotes() throws IOException {
+        int filas = importacionEventos.getTamanioBloque() * 2 + 50;
+        StringBuilder csv = new StringBuilder(ENCABEZADOS);
+        for (int i = 0; i < filas; i++) {
+            // 100 direcciones distintas, repetidas a lo largo de todos los bloques
+            csv.append("Fiesta ").append(i).append(",Fiesta importada número ").append(i).append(',').append(fecha)
+                    .append(",100,1000,Calle Principal ").append(i % 100).append(",Santiago,-33.45,-70.66\n");
+        }
+        estadisticas().clear();
+
+        List<EventoImportacionProgresoDTO> avances = importar(csv.toString(), ImportacionEventos.Formato.CSV);
+
+        assertEquals(4, avances.size());
+        assertEquals(List.of(100L, 200L, 250L, 250L),
+                avances.stream().map(EventoImportacionProgresoDTO::getFilasProcesadas).toList());
+        EventoImportacionProgresoDTO resumen = ultimo(avances);
+        assertEquals(filas, resumen.getEventosCreados());
+        assertEquals(100, resumen.getUbicacionesCreadas());
+        assertEquals(101, ubicacionRepository.count());
+        // Por bloque: una búsqueda de ubicaciones (solo si hay direcciones nuevas) y lotes de 50 filas;
+        // fila a fila serían más de 1.000 sentencias
+        assertTrue(estadisticas().getPrepareStatementCount() <= 30,
+                "Sentencias preparadas: " + estadisticas().getPrepareStatementCount());
+        // Un aviso por bloque para los índices, no uno por evento o ubicación
+        assertEquals(List.of(100, 100, 50), eventos.stream(EventoCambiadoEvent.class)
+                .map(cambio -> cambio.getEventoIds().size()).toList());
+        assertEquals(List.of(100), eventos.stream(UbicacionCambiadaEvent.class)
+                .map(cambio -> cambio.getUbicacionIds().size()).toList());
+    }
+
+    @Test
+    void importar_escribeElAvanceComoNdjson() throws IOException {
+        String csv = ENCABEZADOS
+                + "Fiesta uno,Primera fiesta del productor," + fecha + ",,,Blanco 1131,Valparaíso,-33.0472,-71.6127\n";
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        importacionEventos.importar(entrada(csv), ImportacionEventos.Formato.CSV, productor).writeTo(salida);
+
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lineas.length);
+        assertFalse(objectMapper.readValue(lineas[0], EventoImportacionProgresoDTO.class).isTerminado());
+        assertTrue(objectMapper.readValue(lineas[1], EventoImportacionProgresoDTO.class).isTerminado());
+    }
+
+    @Test
+    void formato_seResuelveDelParametroODeLaExtension() {
+        assertEquals(ImportacionEventos.Formato.CSV, ImportacionEventos.Formato.desde("CSV", "eventos.json"));
+        assertEquals(ImportacionEventos.Formato.JSON, ImportacionEventos.Formato.desde(null, "eventos.ndjson"));
+        assertEquals(ImportacionEventos.Formato.CSV, ImportacionEventos.Formato.desde("", "eventos.csv"));
+        assertThrows(IllegalArgumentException.class, () -> ImportacionEventos.Formato.desde(null, "eventos.xlsx"));
+        assertThrows(IllegalArgumentException.class, () -> ImportacionEventos.Formato.desde(null, "eventos"));
+    }
+
+    private List<EventoImportacionProgresoDTO> importar(String contenido, ImportacionEventos.Formato formato)
+            throws IOException {
+        List<EventoImportacionProgresoDTO> avances = new ArrayList<>();
+        importacionEventos.importar(entrada(contenido), formato, productor, avances::add);
+        return avances;
+    }
+
+    private static EventoImportacionProgresoDTO ultimo(List<EventoImportacionProgresoDTO> avances) {
+        return avances.get(avances.size() - 1);
+    }
+
+    private static ByteArrayInputStream entrada(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String filaJson(String nombre, String direccion) {
+        return "{\"nombre\":\"" + nombre + "\",\"descripcion\":\"Fiesta importada desde JSON\",\"fecha\":\"" + fecha
+                + "\",\"direccion\":\"" + direccion + "\",\"comuna\":\"Santiago\",\"latitud\":-33.45,\"longitud\":-70.66}";
+    }
+
+    private Statistics estadisticas() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,189 @@
+package com.partymap.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.partymap.backend.config.ExportacionProperties;
+import com.partymap.backend.exceptions.ServicioNoDisponibleException;
+import com.partymap.backend.repository.ConsultaStreaming;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class ListadoStreamingTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PlatformTransactionManager transactionManager;
+    private EntityManager entityManager;
+    private ListadoStreaming listadoStreaming;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        entityManager = mock(EntityManager.class);
+        ExportacionProperties properties = new ExportacionProperties();
+        properties.setMaximoSimultaneas(2);
+        listadoStreaming = new ListadoStreaming(transactionManager, entityManager, objectMapper, properties);
+    }
+
+    @Test
+    void json_escribeCadaFilaConvertidaComoArreglo() throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        listadoStreaming.json(() -> Stream.of(1L, 2L, 3L), id -> Map.of("id", id)).writeTo(salida);
+
+        JsonNode arreglo = objectMapper.readTree(salida.toByteArray());
+        assertEquals(3, arreglo.size());
+        assertEquals(2, arreglo.get(1).get("id").asInt());
+    }
+
+    @Test
+    void json_sinFilasEscribeArregloVacio() throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        listadoStreaming.json(Stream::empty, fila -> fila).writeTo(salida);
+
+        assertEquals("[]", salida.toString());
+    }
+
+    @Test
+    void json_consultaDentroDeTransaccionDeSoloLectura() throws IOException {
+        listadoStreaming.json(() -> Stream.of(1), fila -> fila).writeTo(new ByteArrayOutputStream());
+
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void json_liberaElContextoDePersistenciaPorLotes() throws IOException {
+        int filas = ConsultaStreaming.TAMANIO_LOTE * 2 + 1;
+
+        listadoStreaming.json(() -> IntStream.range(0, filas).boxed(), fila -> fila)
+                .writeTo(new ByteArrayOutputStream());
+
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void json_cierraElStreamYNoCierraLaSalida() throws IOException {
+        AtomicBoolean streamCerrado = new AtomicBoolean();
+        OutputStream salida = spy(new ByteArrayOutputStream());
+
+        listadoStreaming.json(() -> Stream.of(1).onClose(() -> streamCerrado.set(true)), fila -> fila)
+                .writeTo(salida);
+
+        assertTrue(streamCerrado.get());
+        verify(salida, never()).close();
+    }
+
+    @Test
+    void json_errorDeEscrituraSePropagaComoIOException() throws IOException {
+        OutputStream salida = mock(OutputStream.class);
+        doAnswer(invocacion -> {
+            throw new IOException("cliente desconectado");
+        }).when(salida).write(any(byte[].class), anyInt(), anyInt());
+
+        assertThrows(IOException.class,
+                () -> listadoStreaming.json(() -> Stream.of(1), fila -> fila).writeTo(salida));
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void ndjson_escribeUnObjetoPorLinea() throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        listadoStreaming.ndjson(() -> Stream.of(1L, 2L), id -> Map.of("id", id), false).writeTo(salida);
+
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", salida.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void csv_escribeEncabezadosYEscapaLosValores() throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        listadoStreaming.csv(() -> Stream.of("Pérez, Ana", "dice \"hola\"", "=1+1"), List.of("id", "nombre"),
+                nombre -> Arrays.asList(7, nombre), false).writeTo(salida);
+
+        assertEquals("id,nombre\r\n7,\"Pérez, Ana\"\r\n7,\"dice \"\"hola\"\"\"\r\n7,'=1+1\r\n",
+                salida.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void csv_valoresNulosQuedanVacios() {
+        assertEquals("", ListadoStreaming.valorCsv(null));
+        assertEquals("-5", ListadoStreaming.valorCsv(-5));
+    }
+
+    @Test
+    void csv_conGzipSeComprimeCompleto() throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        int filas = ConsultaStreaming.TAMANIO_LOTE + 10;
+
+        listadoStreaming.csv(() -> IntStream.range(0, filas).boxed(), List.of("n"), n -> List.of(n), true)
+                .writeTo(salida);
+
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(salida.toByteArray()))) {
+            String[] lineas = new String(entrada.readAllBytes(), StandardCharsets.UTF_8).split("\r\n");
+            assertEquals(filas + 1, lineas.length);
+            assertEquals(String.valueOf(filas - 1), lineas[filas]);
+        }
+    }
+
+    @Test
+    void listadosSimultaneos_sobreElMaximoSeRechazan() throws IOException {
+        StreamingResponseBody primero = listadoStreaming.json(() -> Stream.of(1), fila -> fila);
+        listadoStreaming.ndjson(() -> Stream.of(2), fila -> fila, false);
+
+        assertEquals(0, listadoStreaming.getCuposDisponibles());
+        assertThrows(ServicioNoDisponibleException.class,
+                () -> listadoStreaming.csv(Stream::empty, List.of("n"), n -> List.of(n), false));
+
+        // Al terminar de escribir un listado se libera su cupo
+        primero.writeTo(new ByteArrayOutputStream());
+        assertEquals(1, listadoStreaming.getCuposDisponibles());
+        assertNotNull(listadoStreaming.csv(Stream::empty, List.of("n"), n -> List.of(n), false));
+    }
+
+    @Test
+    void listadoConError_liberaSuCupoUnaSolaVez() {
+        OutputStream salida = mock(OutputStream.class);
+        StreamingResponseBody cuerpo = listadoStreaming.json(() -> Stream.<Integer>of(1).map(fila -> {
+            throw new IllegalStateException("cursor cerrado");
+        }), fila -> fila);
+
+        assertThrows(IllegalStateException.class, () -> cuerpo.writeTo(salida));
+        assertThrows(IllegalStateException.class, () -> cuerpo.writeTo(salida));
+
+        assertEquals(2, listadoStreaming.getCuposDisponibles());
+    }
+
+    @Test
+    void formato_desdeParametro() {
+        assertEquals(ListadoStreaming.Formato.CSV, ListadoStreaming.Formato.desde("CSV"));
+        assertEquals(ListadoStreaming.Formato.NDJSON, ListadoStreaming.Formato.desde("ndjson"));
+        assertThrows(IllegalArgumentException.class, () -> ListadoStreaming.Formato.desde("xlsx"));
+    }
+}
@@ -0,0 +1,171 @@
+package com.partymap.backend.service;
+
+import com.partymap.backend.model.Evento;
+import com.partymap.backend.model.Reserva;
+import com.partymap.backend.model.TipoUsuario;
+import com.partymap.backend.model.Ubicacion;
+import com.partymap.backend.repository.EventoRepository;
+import com.partymap.backend.repository.ReservaRepository;
+import com.partymap.backend.repository.UbicacionRepository;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import jakarta.persistence.EntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica contra H2 en memoria que los planes de carga declarados en los repositorios
+ * traen las asociaciones que se usan al armar las respuestas en una sola consulta,
+ * ya que sin open-in-view no se pueden cargar después de la transacción.
+ */
+@PruebaJpa(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class PlanesDeCargaTest {
+
+    @Configuration
+    @EntityScan(basePackages = "com.partymap.backend.model")
+    @EnableJpaRepositories(basePackages = "com.partymap.backend.repository",
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = { EventoRepository.class, ReservaRepository.class, UbicacionRepository.class }))
+    static class Config {
+    }
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private UbicacionRepository ubicacionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DatosPrueba datos;
+
+    private Ubicacion ubicacion;
+    private Evento evento;
+    private Reserva reserva;
+
+    @BeforeEach
+    void setUp() {
+        ubicacion = datos.ubicacion();
+        evento = datos.evento(datos.usuario(TipoUsuario.PRODUCTOR), ubicacion);
+
+        reserva = new Reserva();
+        reserva.setUsuario(datos.usuario(TipoUsuario.CLIENTE));
+        reserva.setEvento(evento);
+        reserva.setCantidad(2);
+        reserva.setFechaReserva(LocalDateTime.now());
+        reserva.setPrecioUnitario(new BigDecimal("10000"));
+        entityManager.persist(reserva);
+
+        entityManager.flush();
+        entityManager.clear();
+        estadisticas().clear();
+    }
+
+    @Test
+    void reservaPorId_traeUsuarioYEventoEnUnaConsulta() {
+        Reserva encontrada = reservaRepository.findById(reserva.getId()).orElseThrow();
+
+        assertAsociacionesCargadas(encontrada);
+        assertEquals(1, estadisticas().getPrepareStatementCount());
+    }
+
+    @Test
+    void reservasTodas_traenUsuarioYEventoEnUnaConsulta() {
+        List<Reserva> reservas = reservaRepository.findAll();
+
+        assertEquals(1, reservas.size());
+        assertAsociacionesCargadas(reservas.get(0));
+        assertEquals(1, estadisticas().getPrepareStatementCount());
+    }
+
+    @Test
+    void eventoPorId_traeUbicacionYProductorEnUnaConsulta() {
+        Evento encontrado = eventoRepository.findById(evento.getId()).orElseThrow();
+
+        assertTrue(Hibernate.isInitialized(encontrado.getUbicacion()));
+        assertTrue(Hibernate.isInitialized(encontrado.getUsuario()));
+        assertFalse(Hibernate.isInitialized(encontrado.getReservas()));
+        assertEquals(1, estadisticas().getPrepareStatementCount());
+    }
+
+    @Test
+    void eventosPorFiltro_paginanConUbicacionYProductor() {
+        Specification<Evento> activos = (root, query, cb) -> cb.equal(root.get("activo"), 1);
+
+        Page<Evento> pagina = eventoRepository.findAll(activos, PageRequest.of(0, 10));
+
+        assertEquals(1, pagina.getNumberOfElements());
+        assertTrue(Hibernate.isInitialized(pagina.getContent().get(0).getUbicacion()));
+        assertTrue(Hibernate.isInitialized(pagina.getContent().get(0).getUsuario()));
+    }
+
+    @Test
+    void tieneEventos_consultaSinCargarLaColeccion() {
+        Ubicacion vacia = new Ubicacion();
+        vacia.setDireccion("Blanco 1131");
+        vacia.setComuna("Valparaíso");
+        vacia.setLatitud(new BigDecimal("-33.0472"));
+        vacia.setLongitud(new BigDecimal("-71.6127"));
+        entityManager.persist(vacia);
+
+        assertTrue(ubicacionRepository.tieneEventos(ubicacion.getId()));
+        assertFalse(ubicacionRepository.tieneEventos(vacia.getId()));
+    }
+
+    @Test
+    void toString_noCargaColeccionesPerezosas() {
+        Evento encontrado = eventoRepository.findById(evento.getId()).orElseThrow();
+
+        assertNotNull(encontrado.toString());
+        assertFalse(Hibernate.isInitialized(encontrado.getReservas()));
+    }
+
+    @Test
+    void guardarReserva_conUsuarioYEventoCargadosEnOtraTransaccion() {
+        Reserva encontrada = reservaRepository.findById(reserva.getId()).orElseThrow();
+        entityManager.clear();
+
+        Reserva nueva = new Reserva();
+        nueva.setUsuario(encontrada.getUsuario());
+        nueva.setEvento(encontrada.getEvento());
+        nueva.setCantidad(1);
+        nueva.setPrecioUnitario(new BigDecimal("10000"));
+
+        assertDoesNotThrow(() -> reservaRepository.saveAndFlush(nueva));
+        assertNotNull(nueva.getId());
+    }
+
+    private void assertAsociacionesCargadas(Reserva encontrada) {
+        assertTrue(Hibernate.isInitialized(encontrada.getUsuario()));
+        assertTrue(Hibernate.isInitialized(encontrada.getEvento()));
+        assertTrue(Hibernate.isInitialized(encontrada.getEvento().getUbicacion()));
+        assertTrue(Hibernate.isInitialized(encontrada.getEvento().getUsuario()));
+    }
+
+    private Statistics estadisticas() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,154 @@
+package com.partymap.backend.service;
+
+import com.partymap.backend.dto.EventoResponseDTO;
+import com.partymap.backend.dto.ReservaResponseDTO;
+import com.partymap.backend.dto.UbicacionResponseDTO;
+import com.partymap.backend.model.Evento;
+import com.partymap.backend.model.Reserva;
+import com.partymap.backend.model.TipoUsuario;
+import com.partymap.backend.model.Ubicacion;
+import com.partymap.backend.model.Usuario;
+import com.partymap.backend.repository.EventoRepository;
+import com.partymap.backend.repository.ReservaRepository;
+import com.partymap.backend.repository.UbicacionRepository;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import jakarta.persistence.EntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica las consultas de proyección de los listados contra H2 en memoria:
+ * entregan las mismas columnas que la conversión desde entidades y no cargan entidades.
+ */
+@PruebaJpa
+public class ProyeccionesRespuestaTest {
+
+    @Configuration
+    @EntityScan(basePackages = "com.partymap.backend.model")
+    @EnableJpaRepositories(basePackages = "com.partymap.backend.repository",
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = { EventoRepository.class, ReservaRepository.class, UbicacionRepository.class }))
+    static class Config {
+    }
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private UbicacionRepository ubicacionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DatosPrueba datos;
+
+    private Evento evento;
+    private Usuario cliente;
+
+    @BeforeEach
+    void setUp() {
+        Usuario productor = datos.usuario("productor@partymap.cl", TipoUsuario.PRODUCTOR);
+        productor.setRutProductor("11111111-1");
+        cliente = datos.usuario("cliente@partymap.cl", TipoUsuario.CLIENTE);
+        Ubicacion ubicacion = datos.ubicacion();
+
+        evento = crearEvento(productor, ubicacion, 1);
+        crearEvento(productor, ubicacion, 0);
+
+        Reserva reserva = new Reserva();
+        reserva.setUsuario(cliente);
+        reserva.setEvento(evento);
+        reserva.setCantidad(2);
+        reserva.setFechaReserva(LocalDateTime.now());
+        reserva.setPrecioUnitario(new BigDecimal("10000"));
+        reserva.setComentarios("Mesa cerca del escenario");
+        entityManager.persist(reserva);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void eventos_proyectanColumnasYDisponibilidad() {
+        List<EventoResponseDTO> eventos = eventoRepository.findRespuestasActivos();
+
+        assertEquals(1, eventos.size());
+        EventoResponseDTO dto = eventos.get(0);
+        assertEquals(evento.getId(), dto.getId());
+        assertEquals(70, dto.getCuposDisponibles());
+        assertTrue(dto.getDisponible());
+        assertFalse(dto.getEventoPasado());
+        assertEquals("Providencia", dto.getUbicacion().getComuna());
+        assertEquals("productor@partymap.cl", dto.getUsuarioEmail());
+        assertEquals("11111111-1", dto.getUsuarioRutProductor());
+        assertSinEntidadesCargadas();
+    }
+
+    @Test
+    void eventos_paginaPorCursor() {
+        Slice<EventoResponseDTO> pagina = eventoRepository.findRespuestasPrimeraPaginaActivos(PageRequest.of(0, 10));
+
+        assertEquals(1, pagina.getNumberOfElements());
+        assertFalse(pagina.hasNext());
+        assertTrue(eventoRepository.findRespuestasPaginaActivosDesde(evento.getFecha(), evento.getId(),
+                PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void reservas_proyectanUsuarioYEventoAnidados() {
+        List<ReservaResponseDTO> reservas = reservaRepository.findRespuestasActivasDeUsuario(cliente.getId());
+
+        assertEquals(1, reservas.size());
+        ReservaResponseDTO dto = reservas.get(0);
+        assertEquals(2, dto.getCantidad());
+        assertEquals(0, new BigDecimal("20000").compareTo(dto.getPrecioTotal()));
+        assertEquals("cliente@partymap.cl", dto.getUsuario().getEmail());
+        assertEquals(TipoUsuario.CLIENTE, dto.getUsuario().getTipoUsuario());
+        assertEquals(evento.getId(), dto.getEvento().getId());
+        assertEquals(70, dto.getEvento().getCuposDisponibles());
+        assertEquals(1, reservaRepository.findRespuestasActivas().size());
+        assertEquals(1, reservaRepository.findRespuestasActivasDeEvento(evento.getId()).size());
+        assertSinEntidadesCargadas();
+    }
+
+    @Test
+    void ubicaciones_proyectanTodasLasColumnas() {
+        List<UbicacionResponseDTO> ubicaciones = ubicacionRepository.findRespuestasActivas();
+
+        assertEquals(1, ubicaciones.size());
+        assertEquals("Av. Providencia 1234", ubicaciones.get(0).getDireccion());
+        assertNotNull(ubicaciones.get(0).getFechaCreacion());
+        assertSinEntidadesCargadas();
+    }
+
+    private void assertSinEntidadesCargadas() {
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    private Evento crearEvento(Usuario productor, Ubicacion ubicacion, int activo) {
+        Evento nuevo = datos.nuevoEvento(productor, ubicacion);
+        nuevo.setActivo(activo);
+        nuevo.setEntradasReservadas(30);
+        return datos.guardar(nuevo);
+    }
+}
@@ -0,0 +1,36 @@
+package com.partymap.backend.service;
+
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.test.context.TestPropertySource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Prueba de repositorios contra H2 en memoria, con el esquema creado desde las entidades
+ * y {@link DatosPrueba} disponible para armar los datos de cada caso.
+ * Cada prueba declara en su propia configuración los repositorios y servicios que usa.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@DataJpaTest
+@TestPropertySource(properties = {
+        // Anula el dialecto de Oracle de application.properties: Hibernate detecta H2 desde la conexión
+        "spring.jpa.properties.hibernate.dialect=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(DatosPrueba.class)
+public @interface PruebaJpa {
+
+    /**
+     * Propiedades adicionales propias de la prueba, en formato clave=valor
+     */
+    @AliasFor(annotation = DataJpaTest.class, attribute = "properties")
+    String[] properties() default {};
+}
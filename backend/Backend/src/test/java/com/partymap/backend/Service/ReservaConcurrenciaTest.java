@@ -0,0 +1,201 @@
+package com.partymap.backend.service;
+
+import com.partymap.backend.model.EstadoReserva;
+import com.partymap.backend.model.Evento;
+import com.partymap.backend.model.Reserva;
+import com.partymap.backend.model.Usuario;
+import com.partymap.backend.repository.EventoRepository;
+import com.partymap.backend.repository.ReservaRepository;
+import com.partymap.backend.service.impl.ReservaServiceImpl;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+import jakarta.persistence.EntityManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de estrés de la asignación de cupos contra una base de datos real (H2 en memoria).
+ * Cientos de compras concurrentes sobre un evento con capacidad limitada no deben sobrevender.
+ */
+@PruebaJpa(properties = "spring.datasource.hikari.maximum-pool-size=20")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReservaConcurrenciaTest {
+
+    private static final int CAPACIDAD = 50;
+    private static final int COMPRADORES = 300;
+    private static final int HILOS = 32;
+
+    @Configuration
+    @EntityScan(basePackages = "com.partymap.backend.model")
+    @EnableJpaRepositories(basePackages = "com.partymap.backend.repository",
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = { EventoRepository.class, ReservaRepository.class }))
+    @Import({ ReservaServiceImpl.class, ReservaEstadisticas.class, EscrituraPorLotes.class })
+    static class Config {
+    }
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private ReservaEstadisticas reservaEstadisticas;
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DatosPrueba datos;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compradoresConcurrentesNoSobrevendenElEvento() throws Exception {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        Evento evento = transaccion.execute(status -> datos.evento(CAPACIDAD));
+        List<Long> compradores = transaccion.execute(status ->
+                datos.clientes(COMPRADORES).stream().map(Usuario::getId).toList());
+        // Se cargan antes de las compras para que se mantengan solo con los cambios confirmados
+        Map<String, Object> antes = reservaEstadisticas.getEstadisticas();
+
+        AtomicInteger exitosas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+
+        for (Long compradorId : compradores) {
+            tareas.add(pool.submit(() -> {
+                largada.await();
+                try {
+                    // Igual que en una petición HTTP: las entidades se cargan y la reserva
+                    // se crea dentro de la misma transacción
+                    transaccion.executeWithoutResult(status -> {
+                        Reserva reserva = new Reserva();
+                        reserva.setCantidad(1);
+                        reserva.setUsuario(entityManager.find(Usuario.class, compradorId));
+                        reserva.setEvento(eventoRepository.findById(evento.getId()).orElseThrow());
+                        try {
+                            reservaService.createReserva(reserva);
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+                    exitosas.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    rechazadas.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        largada.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        int entradasVendidas = reservaRepository.findAll().stream()
+                .filter(r -> r.getEvento().getId().equals(evento.getId()))
+                .filter(r -> r.getEstado() == EstadoReserva.RESERVADA)
+                .mapToInt(Reserva::getCantidad)
+                .sum();
+        Evento actualizado = eventoRepository.findById(evento.getId()).orElseThrow();
+
+        assertEquals(CAPACIDAD, exitosas.get());
+        assertEquals(COMPRADORES - CAPACIDAD, rechazadas.get());
+        assertEquals(CAPACIDAD, entradasVendidas);
+        assertEquals(CAPACIDAD, actualizado.getCantidadReservasActivas());
+        assertEquals(0, actualizado.getCuposDisponibles());
+
+        // Los contadores en memoria coinciden con lo que hay en la base de datos
+        Map<String, Object> enMemoria = reservaEstadisticas.getEstadisticas();
+        assertEquals((long) antes.get("reservasActivas") + CAPACIDAD, enMemoria.get("reservasActivas"));
+        assertEquals((long) antes.get("totalEntradas") + CAPACIDAD, enMemoria.get("totalEntradas"));
+        reservaEstadisticas.conciliar();
+        assertEquals(enMemoria, reservaEstadisticas.getEstadisticas());
+    }
+
+    @Test
+    void conflictoDeBloqueo_repiteLaReservaEnUnaTransaccionNuevaYLaConfirma() throws Exception {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        Evento evento = transaccion.execute(status -> datos.evento(CAPACIDAD));
+        Long compradorId = transaccion.execute(status -> datos.clientes(1)).get(0).getId();
+        Reserva reserva = transaccion.execute(status -> {
+            Reserva nueva = new Reserva();
+            nueva.setCantidad(2);
+            nueva.setUsuario(entityManager.find(Usuario.class, compradorId));
+            nueva.setEvento(eventoRepository.findById(evento.getId()).orElseThrow());
+            return nueva;
+        });
+
+        ListAppender<ILoggingEvent> avisos = new ListAppender<>();
+        avisos.start();
+        Logger logger = (Logger) LoggerFactory.getLogger(ReservaServiceImpl.class);
+        logger.addAppender(avisos);
+        ExecutorService otraCompra = Executors.newSingleThreadExecutor();
+        // Las conexiones nuevas esperan poco por un bloqueo, para que el conflicto llegue rápido
+        transaccion.executeWithoutResult(status ->
+                entityManager.createNativeQuery("SET DEFAULT_LOCK_TIMEOUT 200").executeUpdate());
+        try {
+            // Otra transacción toma la fila del evento y la suelta recién cuando falla el primer intento
+            CountDownLatch filaTomada = new CountDownLatch(1);
+            Future<?> bloqueo = otraCompra.submit(() -> transaccion.executeWithoutResult(status -> {
+                eventoRepository.reservarEntradas(evento.getId(), 1);
+                filaTomada.countDown();
+                long limite = System.currentTimeMillis() + 10_000;
+                while (avisos.list.isEmpty() && System.currentTimeMillis() < limite) {
+                    Thread.onSpinWait();
+                }
+            }));
+            assertTrue(filaTomada.await(10, TimeUnit.SECONDS));
+
+            Reserva creada = reservaService.createReserva(reserva);
+            bloqueo.get(10, TimeUnit.SECONDS);
+
+            assertEquals(1, avisos.list.size(), "El primer intento debe chocar con el bloqueo");
+            assertNotNull(creada.getId());
+            assertTrue(reservaRepository.findById(creada.getId()).isPresent());
+            assertEquals(3, eventoRepository.findById(evento.getId()).orElseThrow().getCantidadReservasActivas());
+        } finally {
+            transaccion.executeWithoutResult(status ->
+                    entityManager.createNativeQuery("SET DEFAULT_LOCK_TIMEOUT 1000").executeUpdate());
+            otraCompra.shutdownNow();
+            logger.detachAppender(avisos);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.partymap.backend.service;
+
+import com.partymap.backend.events.ReservaCambiadaEvent;
+import com.partymap.backend.repository.ReservaRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReservaEstadisticasTest {
+
+    private ReservaRepository reservaRepository;
+    private ReservaEstadisticas estadisticas;
+
+    @BeforeEach
+    void setUp() {
+        reservaRepository = mock(ReservaRepository.class);
+        // 3 reservas: 2 reservadas (10.000 y 30.000) y 1 cancelada (5.000), con 1, 3 y 1 entradas
+        when(reservaRepository.calcularEstadisticas()).thenReturn(fila(3L, 2L, 1L, new BigDecimal("40000.00"),
+                new BigDecimal("30000.00"), new BigDecimal("5000.00"), 5L, 3, 1));
+        estadisticas = new ReservaEstadisticas(reservaRepository);
+    }
+
+    @Test
+    void getEstadisticas_cargaDesdeLaBaseDeDatos() {
+        Map<String, Object> resultado = estadisticas.getEstadisticas();
+
+        assertEquals(3L, resultado.get("totalReservas"));
+        assertEquals(2L, resultado.get("reservasActivas"));
+        assertEquals(1L, resultado.get("reservasCanceladas"));
+        assertEquals(new BigDecimal("40000.00"), resultado.get("totalIngresos"));
+        assertEquals(new BigDecimal("13333.33"), resultado.get("promedioPrecio"));
+        assertEquals(new BigDecimal("30000.00"), resultado.get("precioMaximo"));
+        assertEquals(new BigDecimal("5000.00"), resultado.get("precioMinimo"));
+        assertEquals(5L, resultado.get("totalEntradas"));
+        assertEquals(3L, resultado.get("maxEntradas"));
+        assertEquals(1L, resultado.get("minEntradas"));
+    }
+
+    @Test
+    void consultasRepetidasNoVuelvenALaBaseDeDatos() {
+        estadisticas.getEstadisticas();
+        estadisticas.getEstadisticas();
+        estadisticas.getEstadisticasBasicas();
+
+        verify(reservaRepository, times(1)).calcularEstadisticas();
+    }
+
+    @Test
+    void nuevaReserva_sumaContadoresEIngresos() {
+        estadisticas.getEstadisticas();
+
+        estadisticas.onReservaCambiada(evento(null, reservada(4, "80000")));
+
+        Map<String, Object> resultado = estadisticas.getEstadisticas();
+        assertEquals(4L, resultado.get("totalReservas"));
+        assertEquals(3L, resultado.get("reservasActivas"));
+        assertEquals(new BigDecimal("120000.00"), resultado.get("totalIngresos"));
+        assertEquals(new BigDecimal("80000.00"), resultado.get("precioMaximo"));
+        assertEquals(4L, resultado.get("maxEntradas"));
+    }
+
+    @Test
+    void cancelacion_mueveLaReservaDeActivasACanceladas() {
+        estadisticas.getEstadisticas();
+
+        estadisticas.onReservaCambiada(evento(reservada(3, "30000"), cancelada(3, "30000")));
+
+        Map<String, Object> resultado = estadisticas.getEstadisticasBasicas();
+        assertEquals(3L, resultado.get("totalReservas"));
+        assertEquals(1L, resultado.get("reservasActivas"));
+        assertEquals(2L, resultado.get("reservasCanceladas"));
+        assertEquals(10000.0, resultado.get("totalIngresos"));
+    }
+
+    @Test
+    void eliminacion_restaLaReserva() {
+        estadisticas.getEstadisticas();
+        ReservaCambiadaEvent.Resumen eliminada = new ReservaCambiadaEvent.Resumen(false, false, true, 1,
+                new BigDecimal("5000"));
+
+        estadisticas.onReservaCambiada(evento(cancelada(1, "5000"), eliminada));
+
+        Map<String, Object> resultado = estadisticas.getEstadisticas();
+        assertEquals(2L, resultado.get("totalReservas"));
+        assertEquals(0L, resultado.get("reservasCanceladas"));
+        assertEquals(4L, resultado.get("totalEntradas"));
+    }
+
+    @Test
+    void cambiosAntesDeCargar_seIgnoranPorqueLaCargaLosIncluye() {
+        estadisticas.onReservaCambiada(evento(null, reservada(4, "80000")));
+
+        assertEquals(3L, estadisticas.getEstadisticas().get("totalReservas"));
+    }
+
+    @Test
+    void conciliar_reemplazaLosContadoresConLosDeLaBaseDeDatos() {
+        estadisticas.getEstadisticas();
+        estadisticas.onReservaCambiada(evento(null, reservada(4, "80000")));
+        when(reservaRepository.calcularEstadisticas()).thenReturn(fila(0L, null, null, null, null, null, null, null, null));
+
+        estadisticas.conciliar();
+
+        Map<String, Object> resultado = estadisticas.getEstadisticas();
+        assertEquals(0L, resultado.get("totalReservas"));
+        assertEquals(BigDecimal.ZERO, resultado.get("precioMaximo"));
+        assertEquals(0.0, resultado.get("promedioEntradas"));
+    }
+
+    @Test
+    void conciliar_reservaConfirmadaDuranteLaConsultaSeCuentaUnaVez() {
+        estadisticas.getEstadisticas();
+        // La consulta ya tomó su lectura cuando se confirma la nueva reserva, así que no la incluye
+        when(reservaRepository.calcularEstadisticas()).thenAnswer(invocacion -> {
+            estadisticas.onReservaCambiada(evento(null, reservada(4, "80000")));
+            return fila(3L, 2L, 1L, new BigDecimal("40000.00"), new BigDecimal("30000.00"),
+                    new BigDecimal("5000.00"), 5L, 3, 1);
+        });
+
+        estadisticas.conciliar();
+
+        Map<String, Object> resultado = estadisticas.getEstadisticas();
+        assertEquals(4L, resultado.get("totalReservas"));
+        assertEquals(new BigDecimal("120000.00"), resultado.get("totalIngresos"));
+        assertEquals(9L, resultado.get("totalEntradas"));
+    }
+
+    @Test
+    void conciliar_reservaConfirmadaAntesDeLaConsultaNoSeDuplica() {
+        estadisticas.getEstadisticas();
+        estadisticas.onReservaCambiada(evento(null, reservada(4, "80000")));
+        when(reservaRepository.calcularEstadisticas()).thenAnswer(invocacion -> {
+            // Mientras corre la consulta se sigue publicando el total con la reserva nueva
+            assertEquals(4L, estadisticas.getEstadisticasBasicas().get("totalReservas"));
+            return fila(4L, 3L, 1L, new BigDecimal("120000.00"), new BigDecimal("80000.00"),
+                    new BigDecimal("5000.00"), 9L, 4, 1);
+        });
+
+        estadisticas.conciliar();
+
+        Map<String, Object> resultado = estadisticas.getEstadisticas();
+        assertEquals(4L, resultado.get("totalReservas"));
+        assertEquals(new BigDecimal("120000.00"), resultado.get("totalIngresos"));
+        assertEquals(9L, resultado.get("totalEntradas"));
+    }
+
+    @Test
+    void conciliar_esperaLaTransaccionConfirmadaHastaQueSeAplica() throws Exception {
+        estadisticas.getEstadisticas();
+        ReservaCambiadaEvent nueva = evento(null, reservada(4, "80000"));
+        // La transacción ya se confirmó en la base de datos, así que la consulta incluye la reserva nueva
+        when(reservaRepository.calcularEstadisticas()).thenReturn(fila(4L, 3L, 1L, new BigDecimal("120000.00"),
+                new BigDecimal("80000.00"), new BigDecimal("5000.00"), 9L, 4, 1));
+        ExecutorService conciliacion = Executors.newSingleThreadExecutor();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            estadisticas.antesDeConfirmar(nueva);
+            Future<?> tarea = conciliacion.submit(estadisticas::conciliar);
+            assertThrows(TimeoutException.class, () -> tarea.get(200, TimeUnit.MILLISECONDS));
+
+            // afterCompletion: primero el listener AFTER_COMMIT y después se suelta el permiso
+            estadisticas.onReservaCambiada(nueva);
+            for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+                sincronizacion.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+            tarea.get(5, TimeUnit.SECONDS);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            conciliacion.shutdownNow();
+        }
+
+        Map<String, Object> resultado = estadisticas.getEstadisticas();
+        assertEquals(4L, resultado.get("totalReservas"));
+        assertEquals(new BigDecimal("120000.00"), resultado.get("totalIngresos"));
+        assertEquals(9L, resultado.get("totalEntradas"));
+    }
+
+    @Test
+    void cambiosConcurrentes_noPierdenActualizaciones() throws Exception {
+        estadisticas.getEstadisticas();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            pool.submit(() -> estadisticas.onReservaCambiada(evento(null, reservada(2, "10000"))));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        Map<String, Object> resultado = estadisticas.getEstadisticas();
+        assertEquals(1003L, resultado.get("totalReservas"));
+        assertEquals(new BigDecimal("10040000.00"), resultado.get("totalIngresos"));
+    }
+
+    private static ReservaCambiadaEvent evento(ReservaCambiadaEvent.Resumen anterior, ReservaCambiadaEvent.Resumen actual) {
+        return new ReservaCambiadaEvent(1L, 1L, anterior, actual);
+    }
+
+    private static ReservaCambiadaEvent.Resumen reservada(int cantidad, String precioTotal) {
+        return new ReservaCambiadaEvent.Resumen(true, true, false, cantidad, new BigDecimal(precioTotal));
+    }
+
+    private static ReservaCambiadaEvent.Resumen cancelada(int cantidad, String precioTotal) {
+        return new ReservaCambiadaEvent.Resumen(true, false, true, cantidad, new BigDecimal(precioTotal));
+    }
+
+    private static List<Object[]> fila(Object... valores) {
+        List<Object[]> filas = new ArrayList<>();
+        filas.add(valores);
+        return filas;
+    }
+}
@@ -0,0 +1,133 @@
+package com.partymap.backend.service;
+
+import com.partymap.backend.model.Evento;
+import com.partymap.backend.model.Reserva;
+import com.partymap.backend.model.Usuario;
+import com.partymap.backend.repository.EventoRepository;
+import com.partymap.backend.repository.ReservaRepository;
+import com.partymap.backend.service.impl.ReservaServiceImpl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba los lotes de reservas contra una base de datos real (H2 en memoria):
+ * lotes concurrentes sobre un mismo evento no deben sobrevender, y las reservas
+ * repetidas se rechazan aunque vengan en lotes distintos.
+ */
+@PruebaJpa(properties = "spring.datasource.hikari.maximum-pool-size=20")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReservaLoteTest {
+
+    private static final int CAPACIDAD = 50;
+    private static final int LOTES = 10;
+    private static final int RESERVAS_POR_LOTE = 30;
+
+    @Configuration
+    @EntityScan(basePackages = "com.partymap.backend.model")
+    @EnableJpaRepositories(basePackages = "com.partymap.backend.repository",
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = { EventoRepository.class, ReservaRepository.class }))
+    @Import({ ReservaServiceImpl.class, ReservaEstadisticas.class, EscrituraPorLotes.class })
+    static class Config {
+    }
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private DatosPrueba datos;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void lotesConcurrentesNoSobrevendenElEvento() throws Exception {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        Long eventoId = transaccion.execute(status -> datos.evento(CAPACIDAD).getId());
+        List<Usuario> compradores = transaccion.execute(status -> datos.clientes(LOTES * RESERVAS_POR_LOTE));
+
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(LOTES);
+        List<Future<List<ReservaService.ResultadoLote>>> tareas = new ArrayList<>();
+        for (int lote = 0; lote < LOTES; lote++) {
+            List<Usuario> delLote = compradores.subList(lote * RESERVAS_POR_LOTE, (lote + 1) * RESERVAS_POR_LOTE);
+            tareas.add(pool.submit(() -> {
+                // Igual que en POST /reserva/lote: el evento y los usuarios se cargan antes de la transacción
+                Evento evento = eventoRepository.findById(eventoId).orElseThrow();
+                List<Reserva> reservas = new ArrayList<>();
+                for (Usuario comprador : delLote) {
+                    reservas.add(nuevaReserva(comprador, evento, 1));
+                }
+                largada.await();
+                return transaccion.execute(status -> reservaService.createReservasLote(reservas));
+            }));
+        }
+
+        largada.countDown();
+        int creadas = 0;
+        for (Future<List<ReservaService.ResultadoLote>> tarea : tareas) {
+            creadas += (int) tarea.get(60, TimeUnit.SECONDS).stream().filter(ReservaService.ResultadoLote::isCreada).count();
+        }
+        pool.shutdown();
+
+        Evento actualizado = eventoRepository.findById(eventoId).orElseThrow();
+        assertEquals(CAPACIDAD, creadas);
+        assertEquals(CAPACIDAD, reservaRepository.findRespuestasActivasDeEvento(eventoId).size());
+        assertEquals(CAPACIDAD, actualizado.getCantidadReservasActivas());
+    }
+
+    @Test
+    void reservasRepetidasSeRechazanDentroYEntreLotes() {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        Evento evento = transaccion.execute(status -> datos.evento(CAPACIDAD));
+        List<Usuario> compradores = transaccion.execute(status -> datos.clientes(2));
+
+        List<ReservaService.ResultadoLote> primero = transaccion.execute(status -> reservaService.createReservasLote(
+                List.of(nuevaReserva(compradores.get(0), evento, 2), nuevaReserva(compradores.get(0), evento, 1))));
+        List<ReservaService.ResultadoLote> segundo = transaccion.execute(status -> reservaService.createReservasLote(
+                List.of(nuevaReserva(compradores.get(0), evento, 1), nuevaReserva(compradores.get(1), evento, 3))));
+
+        assertTrue(primero.get(0).isCreada());
+        assertEquals("El usuario ya tiene una reserva activa para este evento", primero.get(1).error());
+        assertEquals("El usuario ya tiene una reserva activa para este evento", segundo.get(0).error());
+        assertTrue(segundo.get(1).isCreada());
+        assertEquals(0, new BigDecimal("30000").compareTo(segundo.get(1).reserva().getPrecioTotal()));
+        assertEquals(5, eventoRepository.findById(evento.getId()).orElseThrow().getCantidadReservasActivas());
+    }
+
+    private Reserva nuevaReserva(Usuario usuario, Evento evento, int cantidad) {
+        Reserva reserva = new Reserva();
+        reserva.setUsuario(usuario);
+        reserva.setEvento(evento);
+        reserva.setCantidad(cantidad);
+        return reserva;
+    }
+}
@@ -10,15 +10,20 @@ import com.partymap.backend.repository.ReservaRepository;
 import com.partymap.backend.repository.UsuarioRepository;
 import com.partymap.backend.service.impl.ReservaServiceImpl;
 import com.partymap.backend.exceptions.NotFoundException;
+import com.partymap.backend.events.ReservaCambiadaEvent;
 
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
@@ -54,6 +59,18 @@ public class ReservaServiceImplTest {
     @Mock
     private UsuarioRepository usuarioRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ReservaEstadisticas estadisticas;
+
+    @Mock
+    private EscrituraPorLotes escrituraPorLotes;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
 
     
 
@@ -254,6 +271,67 @@ public class ReservaServiceImplTest {
         assertEquals(5, result.getCantidad());
     }
 
+    @Test
+    void testUpdateReserva_NoPermiteCambiarElEvento() {
+        Evento eventoOriginal = new Evento();
+        eventoOriginal.setId(10L);
+        eventoOriginal.setFecha(LocalDateTime.now().plusDays(1));
+        eventoOriginal.setEntradasReservadas(2);
+        Reserva original = new Reserva();
+        original.setId(1L);
+        original.setCantidad(2);
+        original.setEstado(EstadoReserva.RESERVADA);
+        original.setEvento(eventoOriginal);
+
+        Evento otroEvento = new Evento();
+        otroEvento.setId(20L);
+        otroEvento.setFecha(LocalDateTime.now().plusDays(1));
+        otroEvento.setCapacidadMaxima(100);
+        Reserva cambiada = new Reserva();
+        cambiada.setCantidad(3);
+        cambiada.setUsuario(new Usuario());
+        cambiada.setEvento(otroEvento);
+
+        when(reservaRepository.existsById(1L)).thenReturn(true);
+        when(reservaRepository.findById(1L)).thenReturn(Optional.of(original));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> reservaService.updateReserva(1L, cambiada));
+
+        assertEquals("No se puede cambiar el evento de una reserva", ex.getMessage());
+        verify(eventoRepository, never()).reservarEntradas(anyLong(), anyInt());
+        verify(eventoRepository, never()).ajustarEntradasReservadas(anyLong(), anyInt());
+        verify(reservaRepository, never()).save(any());
+    }
+
+    @Test
+    void testUpdateReserva_SinEventoUsaElDeLaReservaGuardada() {
+        Evento evento = new Evento();
+        evento.setId(10L);
+        evento.setFecha(LocalDateTime.now().plusDays(1));
+        evento.setCapacidadMaxima(100);
+        evento.setEntradasReservadas(2);
+        Reserva original = new Reserva();
+        original.setId(1L);
+        original.setCantidad(2);
+        original.setEstado(EstadoReserva.RESERVADA);
+        original.setEvento(evento);
+
+        Reserva cambiada = new Reserva();
+        cambiada.setCantidad(3);
+        cambiada.setUsuario(new Usuario());
+
+        when(reservaRepository.existsById(1L)).thenReturn(true);
+        when(reservaRepository.findById(1L)).thenReturn(Optional.of(original));
+        when(eventoRepository.reservarEntradas(10L, 1)).thenReturn(1);
+        when(reservaRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Reserva actualizada = reservaService.updateReserva(1L, cambiada);
+
+        assertSame(evento, actualizada.getEvento());
+        verify(eventoRepository).reservarEntradas(10L, 1);
+    }
+
     @Test
     void testUpdateReserva_notFound() {
         Reserva reserva = new Reserva();
@@ -669,10 +747,33 @@ public class ReservaServiceImplTest {
 
     @Test
     void testGetEstadisticasCompletas_empty() {
-        when(reservaRepository.findAll()).thenReturn(Collections.emptyList());
-        Object estadisticas = reservaService.getEstadisticasCompletas();
-        assertNotNull(estadisticas);
-        assertTrue(estadisticas instanceof Map);
+        when(estadisticas.getEstadisticas()).thenReturn(Map.of("totalReservas", 0L));
+        Object resultado = reservaService.getEstadisticasCompletas();
+        assertNotNull(resultado);
+        assertTrue(resultado instanceof Map);
+        verify(reservaRepository, never()).findAll();
+    }
+
+    @Test
+    void testCancelarReserva_PublicaElResumenAnteriorYElNuevo() {
+        Evento evento = new Evento();
+        evento.setId(3L);
+        Reserva reserva = new Reserva();
+        reserva.setId(9L);
+        reserva.setEvento(evento);
+        reserva.setCantidad(2);
+        reserva.setPrecioTotal(new BigDecimal("20000"));
+        reserva.setEstado(EstadoReserva.RESERVADA);
+        when(reservaRepository.findById(9L)).thenReturn(Optional.of(reserva));
+        when(reservaRepository.save(reserva)).thenReturn(reserva);
+
+        reservaService.cancelarReserva(9L);
+
+        ArgumentCaptor<ReservaCambiadaEvent> captor = ArgumentCaptor.forClass(ReservaCambiadaEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertTrue(captor.getValue().getAnterior().reservada());
+        assertTrue(captor.getValue().getActual().cancelada());
+        assertEquals(2, captor.getValue().getActual().cantidad());
     }
    
 
@@ -723,6 +824,7 @@ public class ReservaServiceImplTest {
         // Mock repositorio
         when(reservaRepository.findById(reservaId)).thenReturn(Optional.of(reserva));
         when(reservaRepository.save(any(Reserva.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(eventoRepository.reservarEntradas(anyLong(), eq(cantidad))).thenReturn(1);
 
         // Ejecutar lógica
         Reserva result = reservaService.reactivarReserva(reservaId);
@@ -733,6 +835,7 @@ public class ReservaServiceImplTest {
 
         verify(reservaRepository).findById(reservaId);
         verify(reservaRepository).save(reserva);
+        verify(eventoRepository).reservarEntradas(anyLong(), eq(cantidad));
     }
 
         
@@ -877,9 +980,247 @@ public class ReservaServiceImplTest {
         verify(reservaRepository).save(reservaMock);
     }
 
+    @Test
+    void testCreateReserva_IncrementaEntradasReservadas() throws Exception {
+        Evento evento = new Evento();
+        evento.setId(10L);
+        evento.setFecha(LocalDateTime.now().plusDays(1));
+        evento.setCapacidadMaxima(100);
+        evento.setEntradasReservadas(40);
+        Reserva reserva = new Reserva();
+        reserva.setCantidad(3);
+        reserva.setUsuario(new Usuario());
+        reserva.setEvento(evento);
+        when(eventoRepository.reservarEntradas(10L, 3)).thenReturn(1);
+        when(reservaRepository.save(any())).thenReturn(reserva);
+
+        reservaService.createReserva(reserva);
+
+        verify(eventoRepository).reservarEntradas(10L, 3);
+        assertEquals(43, evento.getCantidadReservasActivas());
+        assertEquals(57, evento.getCuposDisponibles());
+    }
+
+    @Test
+    void testCreateReserva_SinCuposAlAsignarNoGuarda() {
+        Evento evento = new Evento();
+        evento.setId(10L);
+        evento.setFecha(LocalDateTime.now().plusDays(1));
+        evento.setCapacidadMaxima(100);
+        Reserva reserva = new Reserva();
+        reserva.setCantidad(3);
+        reserva.setUsuario(new Usuario());
+        reserva.setEvento(evento);
+        // Otra compra concurrente ocupó los cupos entre la validación y la asignación
+        when(eventoRepository.reservarEntradas(10L, 3)).thenReturn(0);
+
+        assertThrows(IllegalArgumentException.class, () -> reservaService.createReserva(reserva));
+        verify(reservaRepository, never()).save(any());
+    }
+
+    @Test
+    void testCreateReserva_ReservaActivaExistenteNoAsignaCupos() {
+        Usuario usuario = new Usuario();
+        usuario.setId(5L);
+        Evento evento = new Evento();
+        evento.setId(10L);
+        evento.setFecha(LocalDateTime.now().plusDays(1));
+        Reserva reserva = new Reserva();
+        reserva.setCantidad(1);
+        reserva.setUsuario(usuario);
+        reserva.setEvento(evento);
+        when(reservaRepository.existsByUsuarioIdAndEventoIdAndEstadoAndActivo(5L, 10L, EstadoReserva.RESERVADA, 1))
+                .thenReturn(true);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> reservaService.createReserva(reserva));
+
+        assertEquals("El usuario ya tiene una reserva activa para este evento", ex.getMessage());
+        verify(reservaRepository, never()).findAll();
+        verify(eventoRepository, never()).reservarEntradas(anyLong(), anyInt());
+    }
+
+    @Test
+    void testCreateReserva_ReservaSimultaneaRechazadaPorElIndiceUnico() {
+        Evento evento = new Evento();
+        evento.setId(10L);
+        evento.setFecha(LocalDateTime.now().plusDays(1));
+        Reserva reserva = new Reserva();
+        reserva.setCantidad(1);
+        reserva.setUsuario(new Usuario());
+        reserva.setEvento(evento);
+        when(eventoRepository.reservarEntradas(10L, 1)).thenReturn(1);
+        // Otra solicitud del mismo usuario pasó la verificación al mismo tiempo y se confirmó primero
+        doThrow(new DataIntegrityViolationException("UX_RESERVA_ACTIVA_USUARIO_EVT")).when(reservaRepository).flush();
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> reservaService.createReserva(reserva));
 
+        assertEquals("El usuario ya tiene una reserva activa para este evento", ex.getMessage());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
 
+    @Test
+    void testReactivarReserva_SinCuposAlAsignar() {
+        Evento evento = new Evento();
+        evento.setId(10L);
+        evento.setFecha(LocalDateTime.now().plusDays(1));
+        evento.setCapacidadMaxima(10);
+        evento.setEntradasReservadas(8);
+        Reserva reserva = new Reserva();
+        reserva.setCantidad(2);
+        reserva.setEstado(EstadoReserva.CANCELADA);
+        reserva.setEvento(evento);
+        when(reservaRepository.findById(1L)).thenReturn(Optional.of(reserva));
+        when(eventoRepository.reservarEntradas(10L, 2)).thenReturn(0);
 
+        assertThrows(IllegalArgumentException.class, () -> reservaService.reactivarReserva(1L));
+        verify(reservaRepository, never()).save(any());
+    }
 
+    @Test
+    void testCancelarReserva_LiberaEntradasReservadas() {
+        Evento evento = new Evento();
+        evento.setId(10L);
+        evento.setEntradasReservadas(5);
+        Reserva reserva = new Reserva();
+        reserva.setCantidad(2);
+        reserva.setEstado(EstadoReserva.RESERVADA);
+        reserva.setEvento(evento);
+        when(reservaRepository.findById(1L)).thenReturn(Optional.of(reserva));
+        when(reservaRepository.save(any())).thenReturn(reserva);
+
+        reservaService.cancelarReserva(1L);
+
+        verify(eventoRepository).ajustarEntradasReservadas(10L, -2);
+        assertEquals(3, evento.getCantidadReservasActivas());
+    }
+
+    @Test
+    void testDeleteReserva_CanceladaNoAjustaEntradas() throws IOException {
+        Evento evento = new Evento();
+        evento.setId(10L);
+        Reserva reserva = new Reserva();
+        reserva.setId(1L);
+        reserva.setCantidad(2);
+        reserva.setEstado(EstadoReserva.CANCELADA);
+        reserva.setEvento(evento);
+        when(reservaRepository.existsById(1L)).thenReturn(true);
+
+        reservaService.deleteReserva(reserva);
 
+        verify(eventoRepository, never()).ajustarEntradasReservadas(any(), anyInt());
+    }
+
+    @Test
+    void testDeleteReserva_VigenteLiberaEntradas() throws IOException {
+        Evento evento = new Evento();
+        evento.setId(10L);
+        evento.setEntradasReservadas(2);
+        Reserva reserva = new Reserva();
+        reserva.setId(1L);
+        reserva.setCantidad(2);
+        reserva.setEstado(EstadoReserva.RESERVADA);
+        reserva.setEvento(evento);
+        when(reservaRepository.existsById(1L)).thenReturn(true);
+
+        reservaService.deleteReserva(reserva);
+
+        verify(eventoRepository).ajustarEntradasReservadas(10L, -2);
+        assertEquals(0, evento.getCantidadReservasActivas());
+    }
+
+    @Test
+    void testCreateReservasLote_AsignaCuposUnaVezPorEventoEnOrdenDeLlegada() {
+        Evento evento = eventoConCupos(10L, 10, 6);
+        List<Reserva> lote = List.of(reservaDeLote(1L, evento, 2), reservaDeLote(2L, evento, 3), reservaDeLote(3L, evento, 2));
+        when(reservaRepository.findParesConReservaActiva(any(), any())).thenReturn(List.of());
+        when(eventoRepository.reservarEntradas(10L, 4)).thenReturn(1);
+
+        List<ReservaService.ResultadoLote> resultados = reservaService.createReservasLote(lote);
+
+        assertTrue(resultados.get(0).isCreada());
+        assertEquals("No hay suficientes cupos disponibles. Cupos disponibles: 2, Cantidad solicitada: 3",
+                resultados.get(1).error());
+        assertTrue(resultados.get(2).isCreada());
+        verify(eventoRepository, times(1)).reservarEntradas(anyLong(), anyInt());
+        verify(escrituraPorLotes).persistir(List.of(lote.get(0), lote.get(2)));
+        verify(eventPublisher, times(2)).publishEvent(any(ReservaCambiadaEvent.class));
+        assertEquals(10, evento.getCantidadReservasActivas());
+    }
+
+    @Test
+    void testCreateReservasLote_RechazaReservasActivasExistentesYRepetidas() {
+        Evento evento = eventoConCupos(10L, 100, 0);
+        List<Reserva> lote = List.of(reservaDeLote(1L, evento, 1), reservaDeLote(2L, evento, 1), reservaDeLote(2L, evento, 1));
+        when(reservaRepository.findParesConReservaActiva(any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[] { 1L, 10L }));
+        when(eventoRepository.reservarEntradas(10L, 1)).thenReturn(1);
+
+        List<ReservaService.ResultadoLote> resultados = reservaService.createReservasLote(lote);
+
+        assertEquals("El usuario ya tiene una reserva activa para este evento", resultados.get(0).error());
+        assertTrue(resultados.get(1).isCreada());
+        assertEquals("El usuario ya tiene una reserva activa para este evento", resultados.get(2).error());
+    }
+
+    @Test
+    void testCreateReservasLote_CuposTomadosDuranteElLoteSeAsignanDeAUna() {
+        Evento evento = eventoConCupos(10L, 10, 0);
+        List<Reserva> lote = List.of(reservaDeLote(1L, evento, 4), reservaDeLote(2L, evento, 4));
+        when(reservaRepository.findParesConReservaActiva(any(), any())).thenReturn(List.of());
+        when(eventoRepository.reservarEntradas(10L, 8)).thenReturn(0);
+        when(eventoRepository.reservarEntradas(10L, 4)).thenReturn(1).thenReturn(0);
+
+        List<ReservaService.ResultadoLote> resultados = reservaService.createReservasLote(lote);
+
+        assertTrue(resultados.get(0).isCreada());
+        assertFalse(resultados.get(1).isCreada());
+        verify(escrituraPorLotes).persistir(List.of(lote.get(0)));
+        assertEquals(4, evento.getCantidadReservasActivas());
+    }
+
+    @Test
+    void testCreateReservasLote_ValidaCadaReservaSinConsultarCupos() {
+        Evento pasado = eventoConCupos(10L, 10, 0);
+        pasado.setFecha(LocalDateTime.now().minusDays(1));
+        Reserva sinCantidad = reservaDeLote(1L, eventoConCupos(11L, 10, 0), 1);
+        sinCantidad.setCantidad(null);
+
+        List<ReservaService.ResultadoLote> resultados = reservaService.createReservasLote(
+                List.of(reservaDeLote(2L, pasado, 1), sinCantidad));
+
+        assertEquals("El evento ya ha pasado", resultados.get(0).error());
+        assertEquals("La cantidad no puede ser nula", resultados.get(1).error());
+        verify(eventoRepository, never()).reservarEntradas(anyLong(), anyInt());
+        verify(reservaRepository, never()).findParesConReservaActiva(any(), any());
+    }
+
+    @Test
+    void testCreateReservasLote_LoteVacioOExcedidoSeRechaza() {
+        List<Reserva> excedido = new ArrayList<>(Collections.nCopies(ReservaService.MAX_RESERVAS_POR_LOTE + 1, new Reserva()));
+
+        assertThrows(IllegalArgumentException.class, () -> reservaService.createReservasLote(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> reservaService.createReservasLote(excedido));
+    }
+
+    private Evento eventoConCupos(Long id, int capacidad, int reservadas) {
+        Evento evento = new Evento();
+        evento.setId(id);
+        evento.setFecha(LocalDateTime.now().plusDays(1));
+        evento.setCapacidadMaxima(capacidad);
+        evento.setEntradasReservadas(reservadas);
+        evento.setPrecioEntrada(new BigDecimal("10000"));
+        return evento;
+    }
+
+    private Reserva reservaDeLote(Long usuarioId, Evento evento, int cantidad) {
+        Usuario usuario = new Usuario();
+        usuario.setId(usuarioId);
+        Reserva reserva = new Reserva();
+        reserva.setUsuario(usuario);
+        reserva.setEvento(evento);
+        reserva.setCantidad(cantidad);
+        return reserva;
+    }
 }
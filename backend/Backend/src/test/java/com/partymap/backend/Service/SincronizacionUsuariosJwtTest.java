@@ -0,0 +1,156 @@
+package com.partymap.backend.service;
+
+import com.partymap.backend.config.CacheUsuariosProperties;
+import com.partymap.backend.config.SecurityUtils;
+import com.partymap.backend.model.Usuario;
+import com.partymap.backend.repository.UsuarioRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class SincronizacionUsuariosJwtTest {
+
+    private UsuarioService usuarioService;
+    private UsuarioRepository usuarioRepository;
+    private SincronizacionUsuariosJwt sincronizacion;
+
+    @BeforeEach
+    void setUp() {
+        usuarioService = mock(UsuarioService.class);
+        usuarioRepository = mock(UsuarioRepository.class);
+        sincronizacion = new SincronizacionUsuariosJwt(usuarioService, usuarioRepository, mock(SecurityUtils.class),
+                mock(PlatformTransactionManager.class), new CacheUsuariosProperties());
+        when(usuarioService.sincronizarUsuarioDesdeJWT(any())).thenAnswer(invocation -> usuario(7L));
+    }
+
+    @Test
+    void mismoToken_seSincronizaUnaSolaVez() {
+        Jwt jwt = token("sub-1", "CLIENTE", Instant.now().plusSeconds(3600));
+
+        assertEquals(7L, sincronizacion.sincronizar(jwt));
+        assertEquals(7L, sincronizacion.sincronizar(jwt));
+        assertEquals(7L, sincronizacion.sincronizar(token("sub-1", "CLIENTE", jwt.getExpiresAt())));
+
+        verify(usuarioService, times(1)).sincronizarUsuarioDesdeJWT(any());
+        assertEquals(1, sincronizacion.getConexionesPendientes());
+    }
+
+    @Test
+    void tokenNuevoOConOtrosClaims_seVuelveASincronizar() {
+        Instant expiracion = Instant.now().plusSeconds(3600);
+        sincronizacion.sincronizar(token("sub-1", "CLIENTE", expiracion));
+
+        sincronizacion.sincronizar(token("sub-1", "PRODUCTOR", expiracion));
+        sincronizacion.sincronizar(token("sub-1", "CLIENTE", expiracion.plusSeconds(600)));
+
+        verify(usuarioService, times(3)).sincronizarUsuarioDesdeJWT(any());
+    }
+
+    @Test
+    void tokenExpirado_noSeRecuerda() {
+        Jwt jwt = token("sub-1", "CLIENTE", Instant.now().minusSeconds(1));
+
+        sincronizacion.sincronizar(jwt);
+        sincronizacion.sincronizar(jwt);
+
+        verify(usuarioService, times(2)).sincronizarUsuarioDesdeJWT(any());
+    }
+
+    @Test
+    void errorAlSincronizar_noSeRecuerdaElToken() {
+        Jwt jwt = token("sub-1", "CLIENTE", Instant.now().plusSeconds(3600));
+        when(usuarioService.sincronizarUsuarioDesdeJWT(jwt))
+                .thenThrow(new RuntimeException("Formato de email no válido en JWT"))
+                .thenAnswer(invocation -> usuario(7L));
+
+        assertThrows(RuntimeException.class, () -> sincronizacion.sincronizar(jwt));
+        assertEquals(7L, sincronizacion.sincronizar(jwt));
+    }
+
+    @Test
+    void guardarConexiones_combinaLasDeUnMismoUsuarioEnUnaActualizacion() {
+        List<Collection<Long>> actualizados = new ArrayList<>();
+        when(usuarioRepository.actualizarUltimaConexion(anyCollection(), any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            actualizados.add(new ArrayList<>(ids));
+            return ids.size();
+        });
+        for (int i = 0; i < 5; i++) {
+            sincronizacion.registrarConexion(1L);
+            sincronizacion.registrarConexion(2L);
+        }
+
+        int guardados = sincronizacion.guardarConexiones();
+
+        assertEquals(2, guardados);
+        assertEquals(2, actualizados.stream().mapToInt(Collection::size).sum());
+        assertTrue(actualizados.size() <= 2);
+        assertEquals(0, sincronizacion.getConexionesPendientes());
+        assertEquals(0, sincronizacion.guardarConexiones());
+    }
+
+    @Test
+    void guardarConexiones_separaEnBloquesDeMilIds() {
+        when(usuarioRepository.actualizarUltimaConexion(anyCollection(), any()))
+                .thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+        for (long id = 1; id <= 2500; id++) {
+            sincronizacion.registrarConexion(id);
+        }
+
+        assertEquals(2500, sincronizacion.guardarConexiones());
+        verify(usuarioRepository, atLeast(3)).actualizarUltimaConexion(anyCollection(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void guardarConexiones_conErrorLasDejaPendientes() {
+        when(usuarioRepository.actualizarUltimaConexion(anyCollection(), any()))
+                .thenThrow(new DataAccessResourceFailureException("Sin conexión"));
+        sincronizacion.registrarConexion(1L);
+        sincronizacion.registrarConexion(2L);
+
+        assertEquals(0, sincronizacion.guardarConexiones());
+        assertEquals(2, sincronizacion.getConexionesPendientes());
+    }
+
+    @Test
+    void clave_ignoraLaFirmaPeroNoLosClaimsSincronizados() {
+        Instant expiracion = Instant.now().plusSeconds(3600);
+
+        assertEquals(SincronizacionUsuariosJwt.clave(token("sub-1", "CLIENTE", expiracion)),
+                SincronizacionUsuariosJwt.clave(token("sub-1", "CLIENTE", expiracion)));
+        assertNotEquals(SincronizacionUsuariosJwt.clave(token("sub-1", "CLIENTE", expiracion)),
+                SincronizacionUsuariosJwt.clave(token("sub-2", "CLIENTE", expiracion)));
+    }
+
+    private static Jwt token(String sujeto, String rol, Instant expiracion) {
+        return Jwt.withTokenValue("token-" + System.nanoTime())
+                .header("alg", "none")
+                .subject(sujeto)
+                .issuedAt(expiracion.minusSeconds(3600))
+                .expiresAt(expiracion)
+                .claim("emails", List.of(sujeto + "@partymap.cl"))
+                .claim("extension_Roles", rol)
+                .build();
+    }
+
+    private static Usuario usuario(Long id) {
+        Usuario usuario = new Usuario();
+        usuario.setId(id);
+        usuario.setEmail("usuario@partymap.cl");
+        return usuario;
+    }
+}
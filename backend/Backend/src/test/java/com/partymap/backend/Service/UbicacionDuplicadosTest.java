@@ -0,0 +1,134 @@
+package com.partymap.backend.service;
+
+import com.partymap.backend.events.UbicacionCambiadaEvent;
+import com.partymap.backend.model.Evento;
+import com.partymap.backend.model.TipoUsuario;
+import com.partymap.backend.model.Ubicacion;
+import com.partymap.backend.model.Usuario;
+import com.partymap.backend.repository.EventoRepository;
+import com.partymap.backend.repository.UbicacionRepository;
+import com.partymap.backend.service.impl.UbicacionServiceImpl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba contra H2 en memoria que el índice de ubicaciones duplicadas se mantiene al día
+ * con las transacciones confirmadas: el alta rechaza el mismo lugar escrito de otra forma
+ * y la fusión mueve los eventos y desactiva los duplicados.
+ */
+@PruebaJpa
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UbicacionDuplicadosTest {
+
+    @Configuration
+    @EntityScan(basePackages = "com.partymap.backend.model")
+    @EnableJpaRepositories(basePackages = "com.partymap.backend.repository",
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = { EventoRepository.class, UbicacionRepository.class }))
+    @Import({ UbicacionServiceImpl.class, UbicacionIndiceDuplicados.class })
+    static class Config {
+    }
+
+    @Autowired
+    private UbicacionService ubicacionService;
+
+    @Autowired
+    private UbicacionIndiceDuplicados indice;
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private UbicacionRepository ubicacionRepository;
+
+    @Autowired
+    private DatosPrueba datos;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void createUbicacion_rechazaElMismoLugarRecienCreado() throws IOException {
+        // Carga el índice antes del alta: la ubicación nueva llega por el evento tras confirmar
+        indice.getCantidadUbicaciones();
+        Ubicacion creada = ubicacionService.createUbicacion(
+                nuevaUbicacion("Av. Libertador Bernardo O'Higgins 3363", "Estación Central", "-33.4521", "-70.6843"));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> ubicacionService
+                .createUbicacion(nuevaUbicacion("Avda Libertador Bernardo OHiggins N° 3363", "Estacion Central",
+                        "-33.4522", "-70.6844")));
+
+        assertEquals("Ya existe una ubicación con la misma dirección y comuna (ID " + creada.getId() + ")",
+                ex.getMessage());
+    }
+
+    @Test
+    void fusionarUbicaciones_mueveLosEventosYDesactivaLosDuplicados() {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        Usuario productor = transaccion.execute(status -> datos.usuario(TipoUsuario.PRODUCTOR));
+        Ubicacion original = ubicacionRepository.save(nuevaUbicacion("Av. Italia 1200", "Providencia", "-33.4460", "-70.6260"));
+        Ubicacion repetida = ubicacionRepository.save(nuevaUbicacion("avenida italia 1200, local 3", "PROVIDENCIA", "-33.4461", "-70.6261"));
+        Ubicacion otra = ubicacionRepository.save(nuevaUbicacion("Av. Italia 1500", "Providencia", "-33.4490", "-70.6255"));
+        // Guardadas directo, como los duplicados anteriores al índice: se avisa igual que lo hacen los servicios
+        for (Ubicacion ubicacion : List.of(original, repetida, otra)) {
+            indice.onUbicacionCambiada(new UbicacionCambiadaEvent(ubicacion.getId()));
+        }
+        Evento delOriginal = eventoRepository.save(nuevoEvento("Fiesta original", original, productor));
+        Evento delRepetido = eventoRepository.save(nuevoEvento("Fiesta repetida", repetida, productor));
+
+        List<Long> grupo = ubicacionService.getGruposDuplicados().stream()
+                .filter(ubicaciones -> ubicaciones.get(0).getId().equals(original.getId()))
+                .findFirst().orElseThrow()
+                .stream().map(Ubicacion::getId).toList();
+        int reasignados = ubicacionService.fusionarUbicaciones(original.getId(), List.of(repetida.getId()));
+
+        assertEquals(List.of(original.getId(), repetida.getId()), grupo);
+        assertEquals(1, reasignados);
+        assertEquals(original.getId(), eventoRepository.findById(delRepetido.getId()).orElseThrow().getUbicacion().getId());
+        assertEquals(original.getId(), eventoRepository.findById(delOriginal.getId()).orElseThrow().getUbicacion().getId());
+        assertEquals(0, ubicacionRepository.findById(repetida.getId()).orElseThrow().getActivo());
+        assertEquals(1, ubicacionRepository.findById(otra.getId()).orElseThrow().getActivo());
+        assertTrue(ubicacionService.getGruposDuplicados().stream()
+                .noneMatch(ubicaciones -> ubicaciones.get(0).getId().equals(original.getId())));
+    }
+
+    private Ubicacion nuevaUbicacion(String direccion, String comuna, String latitud, String longitud) {
+        Ubicacion ubicacion = new Ubicacion();
+        ubicacion.setDireccion(direccion);
+        ubicacion.setComuna(comuna);
+        ubicacion.setLatitud(new BigDecimal(latitud));
+        ubicacion.setLongitud(new BigDecimal(longitud));
+        return ubicacion;
+    }
+
+    private Evento nuevoEvento(String nombre, Ubicacion ubicacion, Usuario productor) {
+        Evento evento = new Evento();
+        evento.setNombre(nombre);
+        evento.setDescripcion("Evento de prueba para la fusión de ubicaciones");
+        evento.setFecha(LocalDateTime.now().plusDays(5));
+        evento.setCapacidadMaxima(100);
+        evento.setPrecioEntrada(new BigDecimal("5000"));
+        evento.setUbicacion(ubicacion);
+        evento.setUsuario(productor);
+        return evento;
+    }
+
+}
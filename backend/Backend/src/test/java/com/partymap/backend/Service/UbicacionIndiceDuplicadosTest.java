@@ -0,0 +1,149 @@
+package com.partymap.backend.service;
+
+import com.partymap.backend.events.UbicacionCambiadaEvent;
+import com.partymap.backend.repository.UbicacionRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UbicacionIndiceDuplicadosTest {
+
+    // Dos registros del mismo local en Providencia (a ~15 m), uno en Valparaíso
+    private static final Object[] PROVIDENCIA = fila(1L, "Av. Providencia 1234", "Providencia", "-33.4263", "-70.6170");
+    private static final Object[] VALPARAISO = fila(2L, "Blanco 1131", "Valparaíso", "-33.0472", "-71.6127");
+    private static final Object[] PROVIDENCIA_REPETIDA = fila(3L, "avenida providencia N° 1234, local 5",
+            "PROVIDENCIA", "-33.4264", "-70.6171");
+
+    private UbicacionRepository ubicacionRepository;
+    private UbicacionIndiceDuplicados indice;
+
+    @BeforeEach
+    void setUp() {
+        ubicacionRepository = mock(UbicacionRepository.class);
+        when(ubicacionRepository.findDatosComparacionActivas()).thenReturn(filas(PROVIDENCIA, VALPARAISO));
+        indice = new UbicacionIndiceDuplicados(ubicacionRepository);
+    }
+
+    @Test
+    void firma_normalizaAbreviaturasTildesYPalabrasDeRelleno() {
+        assertEquals(UbicacionIndiceDuplicados.firma("Avenida Providencia 1234", "Providencia"),
+                UbicacionIndiceDuplicados.firma("  AV. providencia  N° 1234 ", "providencia"));
+        assertEquals(UbicacionIndiceDuplicados.firma("Calle Los Leones 12", "Ñuñoa"),
+                UbicacionIndiceDuplicados.firma("leones #12", "Nunoa"));
+        assertNotEquals(UbicacionIndiceDuplicados.firma("Providencia 1234", "Providencia"),
+                UbicacionIndiceDuplicados.firma("Providencia 1236", "Providencia"));
+    }
+
+    @Test
+    void buscarDuplicado_mismaDireccionEscritaDistintoAunqueLasCoordenadasEstenLejos() {
+        Optional<Long> duplicado = indice.buscarDuplicado("AVDA. PROVIDENCIA 1234", "providencia",
+                new BigDecimal("-33.40"), new BigDecimal("-70.50"));
+
+        assertEquals(Optional.of(1L), duplicado);
+    }
+
+    @Test
+    void buscarDuplicado_direccionParecidaYCercana() {
+        Optional<Long> duplicado = indice.buscarDuplicado("Providencia 1234, local 5", "Providencia",
+                new BigDecimal("-33.4264"), new BigDecimal("-70.6171"));
+
+        assertEquals(Optional.of(1L), duplicado);
+    }
+
+    @Test
+    void buscarDuplicado_direccionParecidaPeroFueraDelRadio() {
+        // ~110 m al sur
+        Optional<Long> duplicado = indice.buscarDuplicado("Providencia 1234, local 5", "Providencia",
+                new BigDecimal("-33.4273"), new BigDecimal("-70.6170"));
+
+        assertTrue(duplicado.isEmpty());
+    }
+
+    @Test
+    void buscarDuplicado_cercanaConOtroNumeroNoEsElMismoLugar() {
+        Optional<Long> duplicado = indice.buscarDuplicado("Av. Providencia 1240", "Providencia",
+                new BigDecimal("-33.4263"), new BigDecimal("-70.6171"));
+
+        assertTrue(duplicado.isEmpty());
+    }
+
+    @Test
+    void buscarDuplicado_cercanaEnOtraComunaNoEsElMismoLugar() {
+        Optional<Long> duplicado = indice.buscarDuplicado("Av. Providencia 1234", "Ñuñoa",
+                new BigDecimal("-33.4263"), new BigDecimal("-70.6170"));
+
+        assertTrue(duplicado.isEmpty());
+    }
+
+    @Test
+    void buscarDuplicado_sinCoordenadasSoloComparaLaDireccion() {
+        assertEquals(Optional.of(2L), indice.buscarDuplicado("blanco 1131", "Valparaiso", null, null));
+        assertTrue(indice.buscarDuplicado("Blanco 1131, piso 2", "Valparaíso", null, null).isEmpty());
+    }
+
+    @Test
+    void buscarGrupos_agrupaLasUbicacionesDelMismoLugar() {
+        when(ubicacionRepository.findDatosComparacionActivas())
+                .thenReturn(filas(PROVIDENCIA_REPETIDA, VALPARAISO, PROVIDENCIA));
+
+        assertEquals(List.of(List.of(1L, 3L)), indice.buscarGrupos());
+    }
+
+    @Test
+    void indiceSeCargaUnaSolaVez() {
+        indice.buscarDuplicado("Blanco 1131", "Valparaíso", null, null);
+        indice.buscarGrupos();
+
+        verify(ubicacionRepository, times(1)).findDatosComparacionActivas();
+    }
+
+    @Test
+    void ubicacionCreada_seAgregaAlIndice() {
+        indice.getCantidadUbicaciones();
+        when(ubicacionRepository.findDatosComparacionActivasByIdIn(List.of(3L))).thenReturn(filas(PROVIDENCIA_REPETIDA));
+
+        indice.onUbicacionCambiada(new UbicacionCambiadaEvent(3L));
+
+        assertEquals(3, indice.getCantidadUbicaciones());
+        assertEquals(List.of(List.of(1L, 3L)), indice.buscarGrupos());
+    }
+
+    @Test
+    void ubicacionDesactivada_seQuitaDelIndice() {
+        indice.getCantidadUbicaciones();
+        when(ubicacionRepository.findDatosComparacionActivasByIdIn(List.of(1L))).thenReturn(List.of());
+
+        indice.onUbicacionCambiada(new UbicacionCambiadaEvent(1L));
+
+        assertEquals(1, indice.getCantidadUbicaciones());
+        assertTrue(indice.buscarDuplicado("Av. Providencia 1234", "Providencia",
+                new BigDecimal("-33.4263"), new BigDecimal("-70.6170")).isEmpty());
+    }
+
+    @Test
+    void cambioAntesDeCargar_noConsultaLaUbicacion() {
+        indice.onUbicacionCambiada(new UbicacionCambiadaEvent(1L));
+
+        verify(ubicacionRepository, never()).findDatosComparacionActivasByIdIn(any());
+    }
+
+    private static Object[] fila(Long id, String direccion, String comuna, String latitud, String longitud) {
+        return new Object[] { id, direccion, comuna, new BigDecimal(latitud), new BigDecimal(longitud) };
+    }
+
+    private static List<Object[]> filas(Object[]... filas) {
+        List<Object[]> lista = new ArrayList<>();
+        for (Object[] fila : filas) {
+            lista.add(fila);
+        }
+        return lista;
+    }
+}
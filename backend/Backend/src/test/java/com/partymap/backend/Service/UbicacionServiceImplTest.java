@@ -1,12 +1,18 @@
 package com.partymap.backend.service;
 
-import com.partymap.backend.model.Evento;
+import com.partymap.backend.config.MetricasConfig;
+import com.partymap.backend.exceptions.NotFoundException;
 import com.partymap.backend.model.Ubicacion;
 import com.partymap.backend.repository.UbicacionRepository;
 import com.partymap.backend.service.impl.UbicacionServiceImpl;
 
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -15,11 +21,12 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.ArgumentMatchers.any;
-import com.partymap.backend.model.Evento;
+import static org.mockito.ArgumentMatchers.eq;
 
 
 
@@ -32,7 +39,28 @@ public class UbicacionServiceImplTest {
     @BeforeEach
     void setUp() {
         ubicacionRepository = mock(UbicacionRepository.class);
-        ubicacionService = new UbicacionServiceImpl(ubicacionRepository);
+        ubicacionService = new UbicacionServiceImpl(ubicacionRepository, mock(ApplicationEventPublisher.class),
+                new UbicacionIndiceDuplicados(ubicacionRepository));
+    }
+
+    @Test
+    void metodosDelServicio_seMidenConElTimerDeServicios() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AspectJProxyFactory fabrica = new AspectJProxyFactory(ubicacionService);
+        fabrica.addAspect(new TimedAspect(registry));
+        // Proxy de clase, como los que crea Spring Boot
+        fabrica.setProxyTargetClass(true);
+        UbicacionService medido = fabrica.getProxy();
+        when(ubicacionRepository.findAll()).thenReturn(Collections.emptyList());
+
+        medido.getAllUbicaciones();
+        medido.getAllUbicaciones();
+
+        Timer timer = registry.get(MetricasConfig.TIMER_SERVICIOS)
+                .tag("class", UbicacionServiceImpl.class.getName())
+                .tag("method", "getAllUbicaciones")
+                .timer();
+        assertEquals(2, timer.count());
     }
 
     @Test
@@ -95,7 +123,6 @@ public class UbicacionServiceImplTest {
         when(ubicacion.getLatitud()).thenReturn(BigDecimal.valueOf(-33.45));
         when(ubicacion.getLongitud()).thenReturn(BigDecimal.valueOf(-70.66));
         when(ubicacion.coordenadasValidas()).thenReturn(true);
-        when(ubicacionRepository.existsByDireccionAndComunaIgnoreCase("Calle 123", "Santiago")).thenReturn(false);
         when(ubicacionRepository.save(ubicacion)).thenReturn(ubicacion);
 
         Ubicacion resultado = ubicacionService.createUbicacion(ubicacion);
@@ -220,13 +247,92 @@ public class UbicacionServiceImplTest {
         when(ubicacion.getLatitud()).thenReturn(BigDecimal.valueOf(-33.0));
         when(ubicacion.getLongitud()).thenReturn(BigDecimal.valueOf(-70.0));
         when(ubicacion.coordenadasValidas()).thenReturn(true);
-        when(ubicacionRepository.existsByDireccionAndComunaIgnoreCase("Calle Falsa 123", "Santiago")).thenReturn(true);
+        when(ubicacionRepository.findDatosComparacionActivas()).thenReturn(List.<Object[]>of(
+                new Object[] { 7L, "calle falsa 123", "SANTIAGO", BigDecimal.valueOf(-33.0), BigDecimal.valueOf(-70.0) }));
+
+        Exception ex = assertThrows(IllegalArgumentException.class, () -> {
+            ubicacionService.createUbicacion(ubicacion);
+        });
+
+        assertEquals("Ya existe una ubicación con la misma dirección y comuna (ID 7)", ex.getMessage());
+        verify(ubicacionRepository, never()).save(any());
+    }
+
+    @Test
+    void deberiaLanzarExcepcionSiMismoLugarEscritoDistintoEnCreate() {
+        Ubicacion ubicacion = new Ubicacion();
+        ubicacion.setDireccion("Avda. Providencia N° 1234");
+        ubicacion.setComuna("Providencia");
+        ubicacion.setLatitud(new BigDecimal("-33.42640"));
+        ubicacion.setLongitud(new BigDecimal("-70.61710"));
+        when(ubicacionRepository.findDatosComparacionActivas()).thenReturn(List.<Object[]>of(
+                new Object[] { 3L, "Providencia 1234, local 2", "Providencia", new BigDecimal("-33.4263"), new BigDecimal("-70.6170") }));
 
         Exception ex = assertThrows(IllegalArgumentException.class, () -> {
             ubicacionService.createUbicacion(ubicacion);
         });
 
-        assertEquals("Ya existe una ubicación con la misma dirección y comuna", ex.getMessage());
+        assertEquals("Ya existe una ubicación con la misma dirección y comuna (ID 3)", ex.getMessage());
+    }
+
+    @Test
+    void deberiaFusionarUbicacionesDuplicadas() {
+        Ubicacion destino = ubicacionActiva(1L);
+        when(ubicacionRepository.findById(1L)).thenReturn(Optional.of(destino));
+        when(ubicacionRepository.findAllById(any())).thenReturn(List.of(ubicacionActiva(2L), ubicacionActiva(3L)));
+        when(ubicacionRepository.reasignarEventos(any(), eq(destino))).thenReturn(4);
+
+        int reasignados = ubicacionService.fusionarUbicaciones(1L, List.of(2L, 3L, 2L));
+
+        assertEquals(4, reasignados);
+        verify(ubicacionRepository).reasignarEventos(Set.of(2L, 3L), destino);
+        verify(ubicacionRepository).desactivar(Set.of(2L, 3L));
+    }
+
+    @Test
+    void deberiaLanzarExcepcionSiFusionIncluyeElDestino() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> {
+            ubicacionService.fusionarUbicaciones(1L, List.of(1L, 2L));
+        });
+
+        assertEquals("Las ubicaciones a fusionar deben ser distintas de la ubicación destino", ex.getMessage());
+        verify(ubicacionRepository, never()).reasignarEventos(any(), any());
+    }
+
+    @Test
+    void deberiaLanzarExcepcionSiDuplicadoNoExisteEnFusion() {
+        Ubicacion inactiva = ubicacionActiva(3L);
+        inactiva.setActivo(0);
+        when(ubicacionRepository.findById(1L)).thenReturn(Optional.of(ubicacionActiva(1L)));
+        when(ubicacionRepository.findAllById(any())).thenReturn(List.of(ubicacionActiva(2L), inactiva));
+
+        NotFoundException ex = assertThrows(NotFoundException.class, () -> {
+            ubicacionService.fusionarUbicaciones(1L, List.of(2L, 3L));
+        });
+
+        assertEquals("Ubicación no encontrada con ID: 3", ex.getMessage());
+        verify(ubicacionRepository, never()).desactivar(any());
+    }
+
+    @Test
+    void deberiaAgruparUbicacionesDuplicadas() {
+        when(ubicacionRepository.findDatosComparacionActivas()).thenReturn(List.<Object[]>of(
+                new Object[] { 1L, "Av. Providencia 1234", "Providencia", new BigDecimal("-33.4263"), new BigDecimal("-70.6170") },
+                new Object[] { 2L, "Blanco 1131", "Valparaíso", new BigDecimal("-33.0472"), new BigDecimal("-71.6127") },
+                new Object[] { 5L, "avenida providencia 1234", "PROVIDENCIA", new BigDecimal("-33.4264"), new BigDecimal("-70.6171") }));
+        when(ubicacionRepository.findAllById(any())).thenReturn(List.of(ubicacionActiva(5L), ubicacionActiva(1L)));
+
+        List<List<Ubicacion>> grupos = ubicacionService.getGruposDuplicados();
+
+        assertEquals(1, grupos.size());
+        assertEquals(List.of(1L, 5L), grupos.get(0).stream().map(Ubicacion::getId).toList());
+    }
+
+    private Ubicacion ubicacionActiva(Long id) {
+        Ubicacion ubicacion = new Ubicacion();
+        ubicacion.setId(id);
+        ubicacion.setActivo(1);
+        return ubicacion;
     }
 
 
@@ -284,11 +390,9 @@ public class UbicacionServiceImplTest {
     void deberiaLanzarExcepcionSiUbicacionTieneEventosEnDelete() {
         Ubicacion ubicacion = new Ubicacion();
         ubicacion.setId(15L);
-        List<Evento> eventos = new ArrayList<>();
-        eventos.add(mock(Evento.class));
-        ubicacion.setEventos(eventos);
 
         when(ubicacionRepository.existsById(15L)).thenReturn(true);
+        when(ubicacionRepository.tieneEventos(15L)).thenReturn(true);
 
         IllegalStateException ex = assertThrows(IllegalStateException.class, () -> {
             ubicacionService.deleteUbicacion(ubicacion);
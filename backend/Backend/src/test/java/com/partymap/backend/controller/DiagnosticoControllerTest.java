@@ -0,0 +1,110 @@
+package com.partymap.backend.controller;
+
+import com.partymap.backend.config.DetectorConsultas;
+import com.partymap.backend.config.SecurityUtils;
+import com.partymap.backend.dto.ConsultaProblemaDTO;
+import com.partymap.backend.dto.ErrorResponseDTO;
+import com.partymap.backend.model.TipoUsuario;
+import com.partymap.backend.model.Usuario;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class DiagnosticoControllerTest {
+
+    @Mock
+    private DetectorConsultas detectorConsultas;
+
+    @Mock
+    private SecurityUtils securityUtils;
+
+    @InjectMocks
+    private DiagnosticoController diagnosticoController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testGetConsultasProblematicas_Admin() {
+        ConsultaProblemaDTO problema = new ConsultaProblemaDTO("N_MAS_1", "GET /evento",
+                "select r.id from reserva r where r.evento_id=?", 3, 25, 120.5, 8.2, LocalDateTime.now());
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuario(TipoUsuario.ADMINISTRADOR)));
+        when(detectorConsultas.getPeoresConsultas(20)).thenReturn(List.of(problema));
+
+        ResponseEntity<?> response = diagnosticoController.getConsultasProblematicas(20);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(problema), response.getBody());
+    }
+
+    @Test
+    void testGetConsultasProblematicas_NoAdmin() {
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuario(TipoUsuario.PRODUCTOR)));
+
+        ResponseEntity<?> response = diagnosticoController.getConsultasProblematicas(20);
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(detectorConsultas, never()).getPeoresConsultas(anyInt());
+    }
+
+    @Test
+    void testGetConsultasProblematicas_NoAutenticado() {
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = diagnosticoController.getConsultasProblematicas(20);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        assertEquals(401, ((ErrorResponseDTO) response.getBody()).getStatus());
+    }
+
+    @Test
+    void testGetConsultasProblematicas_LimiteInvalido() {
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuario(TipoUsuario.ADMINISTRADOR)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, diagnosticoController.getConsultasProblematicas(0).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, diagnosticoController.getConsultasProblematicas(500).getStatusCode());
+        verify(detectorConsultas, never()).getPeoresConsultas(anyInt());
+    }
+
+    @Test
+    void testLimpiarConsultasProblematicas() {
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuario(TipoUsuario.ADMINISTRADOR)));
+
+        ResponseEntity<?> response = diagnosticoController.limpiarConsultasProblematicas();
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(detectorConsultas).limpiar();
+    }
+
+    @Test
+    void testLimpiarConsultasProblematicas_NoAdmin() {
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuario(TipoUsuario.CLIENTE)));
+
+        ResponseEntity<?> response = diagnosticoController.limpiarConsultasProblematicas();
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(detectorConsultas, never()).limpiar();
+    }
+
+    private Usuario usuario(TipoUsuario tipo) {
+        Usuario usuario = new Usuario();
+        usuario.setId(10L);
+        usuario.setTipoUsuario(tipo);
+        return usuario;
+    }
+}
@@ -2,14 +2,25 @@ package com.partymap.backend.controller;
 
 import com.partymap.backend.dto.EventoConUbicacionDTO;
 import com.partymap.backend.dto.EventoConUbicacionUpdateDTO;
+import com.partymap.backend.dto.EstadisticasEventosDTO;
+import com.partymap.backend.dto.ErrorResponseDTO;
 import com.partymap.backend.dto.EventoDTO;
+import com.partymap.backend.dto.EventoFiltroDTO;
+import com.partymap.backend.dto.PaginatedResponseDTO;
 import com.partymap.backend.dto.EventoResponseDTO;
+import com.partymap.backend.dto.ClusterMapaDTO;
+import com.partymap.backend.dto.MapaEventosDTO;
 import com.partymap.backend.dto.UbicacionDTO;
 import com.partymap.backend.exceptions.NotFoundException;
 import com.partymap.backend.model.Evento;
 import com.partymap.backend.model.Ubicacion;
 import com.partymap.backend.model.Usuario;
+import com.partymap.backend.service.EstadisticasCache;
+import com.partymap.backend.service.EventoCatalogoCache;
 import com.partymap.backend.service.EventoService;
+import com.partymap.backend.service.ImportacionEventos;
+import com.partymap.backend.config.CacheEstadisticasProperties;
+import com.partymap.backend.config.CacheEventosProperties;
 import com.partymap.backend.config.SecurityUtils;
 import com.partymap.backend.repository.UbicacionRepository;
 import com.partymap.backend.repository.UsuarioRepository;
@@ -32,8 +43,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -51,6 +64,8 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.Mockito.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -58,6 +73,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -78,6 +95,15 @@ public class EventoControllerTest {
     @Mock
     private SecurityUtils securityUtils;
 
+    @Mock
+    private ImportacionEventos importacionEventos;
+
+    @Spy
+    private EventoCatalogoCache catalogoCache = new EventoCatalogoCache(new CacheEventosProperties());
+
+    @Spy
+    private EstadisticasCache estadisticasCache = new EstadisticasCache(new CacheEstadisticasProperties());
+
     @InjectMocks
     private EventoController eventoController;
 
@@ -114,7 +140,9 @@ public class EventoControllerTest {
 
     @Test
     void testGetAllEventos_OK() {
-        when(eventoService.getAllEvento()).thenReturn(List.of(evento1, evento2));
+        EventoResponseDTO dto1 = new EventoResponseDTO();
+        dto1.setNombre("Fiesta 1");
+        when(eventoService.getRespuestasEventosActivos()).thenReturn(List.of(dto1, new EventoResponseDTO()));
 
         ResponseEntity<List<EventoResponseDTO>> response = eventoController.getAllEventos();
 
@@ -269,31 +297,36 @@ public class EventoControllerTest {
 
     @Test
     void testGetEventosDisponibles() {
-        Evento evento = new Evento();
-        evento.setActivo(1);
-        evento.setCapacidadMaxima(100);
-        evento.setReservas(List.of()); // sin reservas
-        evento.setFecha(LocalDateTime.now().plusDays(1));
-        when(eventoService.getAllEvento()).thenReturn(List.of(evento));
+        // Proyección de un evento de mañana con 100 cupos y 40 entradas reservadas
+        EventoResponseDTO evento = new EventoResponseDTO(1L, "Fiesta", null, LocalDateTime.now().plusDays(1),
+                100, BigDecimal.TEN, null, 1, LocalDateTime.now(), 40);
+        when(eventoService.getRespuestasEventosDisponibles()).thenReturn(List.of(evento));
 
         ResponseEntity<List<EventoResponseDTO>> response = eventoController.getEventosDisponibles();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().size());
+        assertEquals(60, response.getBody().get(0).getCuposDisponibles());
+        assertTrue(response.getBody().get(0).getDisponible());
+        assertFalse(response.getBody().get(0).getEventoPasado());
+        verify(eventoService, never()).getAllEvento();
     }
 
     // FUNCIONANDO
 
     @Test
     void testGetEventosProximos() {
-        Evento evento = new Evento();
-        evento.setFecha(LocalDateTime.now().plusHours(10));
-        when(eventoService.getAllEvento()).thenReturn(List.of(evento));
+        EventoResponseDTO evento = new EventoResponseDTO(1L, "Fiesta", null, LocalDateTime.now().plusHours(10),
+                null, BigDecimal.TEN, null, 1, LocalDateTime.now(), 0);
+        when(eventoService.getRespuestasEventosProximos()).thenReturn(List.of(evento));
 
         ResponseEntity<List<EventoResponseDTO>> response = eventoController.getEventosProximos();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().size());
+        assertTrue(response.getBody().get(0).getEventoProximo());
+        assertEquals(Integer.MAX_VALUE, response.getBody().get(0).getCuposDisponibles());
+        verify(eventoService, never()).getAllEvento();
     }
     // FUNCIONANDO
 
@@ -327,13 +360,14 @@ public class EventoControllerTest {
 
     @Test
     void testBuscarEventosSinParametros() {
-        when(eventoService.getAllEvento()).thenReturn(List.of());
+        when(eventoService.buscarEventos(any())).thenReturn(Page.empty());
 
-        ResponseEntity<List<EventoResponseDTO>> response = eventoController.buscarEventos(null, null, null, null);
+        ResponseEntity<PaginatedResponseDTO<EventoResponseDTO>> response = eventoController.buscarEventos(new EventoFiltroDTO());
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertTrue(response.getBody().isEmpty());
+        assertTrue(response.getBody().getContenido().isEmpty());
+        assertEquals(0, response.getBody().getTotalElementos());
     }
 
     // FUNCIONANDO
@@ -370,21 +404,30 @@ public class EventoControllerTest {
         when(admin.getId()).thenReturn(1L);
         when(admin.isAdministrador()).thenReturn(true);
 
-        Evento evento1 = new Evento();
-        evento1.setActivo(1);
-        evento1.setFecha(LocalDateTime.now().plusDays(1));  // evento futuro
-
-        Evento evento2 = new Evento();
-        evento2.setActivo(0);
-        evento2.setFecha(LocalDateTime.now().minusDays(1));  // evento pasado
-
+        EstadisticasEventosDTO estadisticas = new EstadisticasEventosDTO(2L, 1L, 1L, 1L, 0L, 0L);
         when(securityUtils.getCurrentUser()).thenReturn(Optional.of(admin));
-        when(eventoService.getAllEvento()).thenReturn(List.of(evento1, evento2));
+        when(eventoService.getEstadisticasEventos(null)).thenReturn(estadisticas);
 
         ResponseEntity<Object> response = eventoController.getMisEstadisticas();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertNotNull(response.getBody());
+        assertEquals(estadisticas, response.getBody());
+        verify(eventoService, never()).getAllEvento();
+    }
+
+    @Test
+    void testGetMisEstadisticas_ProductorVeSoloSusEventosYSeReutilizaElResultado() {
+        Usuario productor = new Usuario();
+        productor.setId(7L);
+        productor.setTipoUsuario(TipoUsuario.PRODUCTOR);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(productor));
+        when(eventoService.getEstadisticasEventos(7L)).thenReturn(new EstadisticasEventosDTO(1L, 1L, 0L, 1L, 1L, 0L));
+
+        eventoController.getMisEstadisticas();
+        ResponseEntity<Object> response = eventoController.getMisEstadisticas();
+
+        assertEquals(1L, ((EstadisticasEventosDTO) response.getBody()).getTotalEventos());
+        verify(eventoService, times(1)).getEstadisticasEventos(7L);
     }
 
     //  FUNCIONANDO
@@ -1046,7 +1089,8 @@ public class EventoControllerTest {
         evento2.setUsuario(productor);
 
         when(securityUtils.getCurrentUser()).thenReturn(Optional.of(productor));
-        when(eventoService.getAllEvento()).thenReturn(List.of(evento1, evento2));
+        // El índice de texto ya filtra por nombre y por productor
+        when(eventoService.buscarEventosPorTexto(eq("tech"), eq(1L), anyInt())).thenReturn(List.of(evento1));
 
         ResponseEntity<List<EventoResponseDTO>> response = eventoController.buscarMisEventos("tech", null, null, null, null, null);
 
@@ -1547,11 +1591,29 @@ public class EventoControllerTest {
         Evento evento = new Evento();
         evento.setNombre("Festival Primavera");
         evento.setUsuario(usuario);
-        when(eventoService.getAllEvento()).thenReturn(List.of(evento));
+        when(eventoService.buscarEventosPorTexto(eq("primavera"), eq(1L), anyInt())).thenReturn(List.of(evento));
 
         ResponseEntity<List<EventoResponseDTO>> response = eventoController.buscarMisEventos("primavera", null, null, null, null, null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(1, response.getBody().size());
+        verify(eventoService, never()).getAllEvento();
+    }
+
+    @Test
+    void testBuscarMisEventos_AdminBuscaPorTextoEnTodosLosEventos() {
+        Usuario admin = new Usuario();
+        admin.setId(2L);
+        admin.setTipoUsuario(TipoUsuario.ADMINISTRADOR);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(admin));
+
+        Evento evento = new Evento();
+        evento.setNombre("Fiesta en Ñuñoa");
+        evento.setActivo(1);
+        when(eventoService.buscarEventosPorTexto(eq("nunoa"), isNull(), anyInt())).thenReturn(List.of(evento));
+
+        ResponseEntity<List<EventoResponseDTO>> response = eventoController.buscarMisEventos("nunoa", null, null, null, null, null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
     }
 
     @Test
@@ -1649,4 +1711,147 @@ public class EventoControllerTest {
 
 
 
+    @Test
+    void testGetEventoById_SegundaLecturaDesdeCache() {
+        when(eventoService.getEventoById(1L)).thenReturn(Optional.of(evento1));
+
+        eventoController.getEventoById(1L);
+        ResponseEntity<EventoResponseDTO> response = eventoController.getEventoById(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Fiesta 1", response.getBody().getNombre());
+        verify(eventoService, times(1)).getEventoById(1L);
+    }
+
+    @Test
+    void testGetEstadisticasCache_Administrador() {
+        Usuario admin = new Usuario();
+        admin.setTipoUsuario(TipoUsuario.ADMINISTRADOR);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(admin));
+
+        ResponseEntity<java.util.Map<String, Object>> response = eventoController.getEstadisticasCache();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().containsKey("aciertos"));
+    }
+
+    @Test
+    void testGetEstadisticasCache_ClienteSinPermiso() {
+        Usuario cliente = new Usuario();
+        cliente.setTipoUsuario(TipoUsuario.CLIENTE);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(cliente));
+
+        ResponseEntity<java.util.Map<String, Object>> response = eventoController.getEstadisticasCache();
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+    }
+
+    @Test
+    void testGetMapaEventos_ZoomBajoDevuelveGrupos() {
+        ClusterMapaDTO cluster = new ClusterMapaDTO(-33.43, -70.63, 12, List.of(1L, 2L));
+        when(eventoService.agruparEventosEnArea(-34.0, -71.0, -33.0, -70.0, 10)).thenReturn(List.of(cluster));
+
+        ResponseEntity<MapaEventosDTO> response = eventoController.getMapaEventos("-71,-34,-70,-33", 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(12, response.getBody().getTotalEventos());
+        assertEquals(1, response.getBody().getClusters().size());
+        assertTrue(response.getBody().getEventos().isEmpty());
+    }
+
+    @Test
+    void testGetMapaEventos_ZoomAltoDevuelveEventos() {
+        when(eventoService.buscarEventosEnArea(eq(-33.44), eq(-70.66), eq(-33.43), eq(-70.65), anyInt()))
+                .thenReturn(List.of(evento1, evento2));
+
+        ResponseEntity<MapaEventosDTO> response = eventoController.getMapaEventos("-70.66,-33.44,-70.65,-33.43", 16);
+
+        assertEquals(2, response.getBody().getEventos().size());
+        assertTrue(response.getBody().getClusters().isEmpty());
+        verify(eventoService, never()).agruparEventosEnArea(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyInt());
+    }
+
+    @Test
+    void testGetMapaEventos_BboxInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> eventoController.getMapaEventos("-70.66,-33.44", 10));
+        assertThrows(IllegalArgumentException.class, () -> eventoController.getMapaEventos("a,b,c,d", 10));
+    }
+
+    @Test
+    void testImportarEventos_ClienteSinPermisos() {
+        Usuario cliente = new Usuario();
+        cliente.setTipoUsuario(TipoUsuario.CLIENTE);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(cliente));
+
+        ResponseEntity<?> response = eventoController.importarEventos(archivoCsv("eventos.csv"), null, null);
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(importacionEventos);
+    }
+
+    @Test
+    void testImportarEventos_FormatoNoSoportado() {
+        Usuario productor = new Usuario();
+        productor.setTipoUsuario(TipoUsuario.PRODUCTOR);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(productor));
+
+        ResponseEntity<?> response = eventoController.importarEventos(archivoCsv("eventos.xlsx"), null, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(importacionEventos);
+    }
+
+    @Test
+    void testImportarEventos_ProductorImportaASuNombre() {
+        Usuario productor = new Usuario();
+        productor.setId(7L);
+        productor.setTipoUsuario(TipoUsuario.PRODUCTOR);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(productor));
+        StreamingResponseBody cuerpo = salida -> { };
+        when(importacionEventos.importar(any(), eq(ImportacionEventos.Formato.CSV), eq(productor))).thenReturn(cuerpo);
+
+        // productorId se ignora para un productor
+        ResponseEntity<?> response = eventoController.importarEventos(archivoCsv("eventos.csv"), null, 99L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        assertSame(cuerpo, response.getBody());
+        verify(usuarioRepository, never()).findById(any());
+    }
+
+    @Test
+    void testImportarEventos_AdminConProductorInexistente() {
+        Usuario admin = new Usuario();
+        admin.setTipoUsuario(TipoUsuario.ADMINISTRADOR);
+        Usuario cliente = new Usuario();
+        cliente.setTipoUsuario(TipoUsuario.CLIENTE);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(admin));
+        when(usuarioRepository.findById(5L)).thenReturn(Optional.of(cliente));
+
+        ResponseEntity<?> response = eventoController.importarEventos(archivoCsv("eventos.csv"), "csv", 5L);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(importacionEventos);
+    }
+
+    @Test
+    void testImportarEventos_ArchivoIlegible() throws IOException {
+        Usuario productor = new Usuario();
+        productor.setTipoUsuario(TipoUsuario.PRODUCTOR);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(productor));
+        MockMultipartFile archivo = spy(archivoCsv("eventos.csv"));
+        doThrow(new IOException("conexión interrumpida")).when(archivo).getInputStream();
+
+        ResponseEntity<?> response = eventoController.importarEventos(archivo, null, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("No se pudo leer el archivo", ((ErrorResponseDTO) response.getBody()).getMessage());
+        verifyNoInteractions(importacionEventos);
+    }
+
+    private MockMultipartFile archivoCsv(String nombre) {
+        return new MockMultipartFile("archivo", nombre, "text/csv",
+                "nombre,descripcion,fecha,direccion,comuna,latitud,longitud\n".getBytes());
+    }
+
 }
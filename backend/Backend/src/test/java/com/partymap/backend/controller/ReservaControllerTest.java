@@ -1,13 +1,19 @@
 package com.partymap.backend.controller;
 
 import com.partymap.backend.dto.ReservaDTO;
+import com.partymap.backend.dto.ReservaExportacionDTO;
+import com.partymap.backend.dto.ReservaLoteDTO;
+import com.partymap.backend.dto.ReservaLoteRespuestaDTO;
 import com.partymap.backend.model.Evento;
 import com.partymap.backend.model.Reserva;
 import com.partymap.backend.model.TipoUsuario;
 import com.partymap.backend.model.Usuario;
 import com.partymap.backend.repository.EventoRepository;
 import com.partymap.backend.repository.UsuarioRepository;
+import com.partymap.backend.service.ListadoStreaming;
 import com.partymap.backend.service.ReservaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.partymap.backend.config.ExportacionProperties;
 import com.partymap.backend.config.SecurityUtils;
 import com.partymap.backend.dto.ReservaResponseDTO;
 import com.partymap.backend.exceptions.NotFoundException;
@@ -18,14 +24,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.persistence.EntityManager;
+
+import java.io.ByteArrayOutputStream;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -51,6 +66,10 @@ class ReservaControllerTest {
     @Mock
     private UsuarioRepository usuarioRepository;
 
+    @Spy
+    private ListadoStreaming listadoStreaming = new ListadoStreaming(mock(PlatformTransactionManager.class),
+            mock(EntityManager.class), new ObjectMapper().findAndRegisterModules(), new ExportacionProperties());
+
     @InjectMocks
     private ReservaController reservaController;
 
@@ -138,7 +157,7 @@ class ReservaControllerTest {
         usuarioCliente.setTipoUsuario(TipoUsuario.CLIENTE);
 
         when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuarioCliente));
-        when(reservaService.getReservasByUsuarioId(2L)).thenReturn(List.of(reserva));
+        when(reservaService.getRespuestasReservasByUsuarioId(2L)).thenReturn(List.of(new ReservaResponseDTO()));
 
         // Act
         ResponseEntity<List<ReservaResponseDTO>> response = reservaController.getAllReservas();
@@ -160,7 +179,7 @@ class ReservaControllerTest {
         usuarioAdmin.setTipoUsuario(TipoUsuario.ADMINISTRADOR);
 
         when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuarioAdmin));
-        when(reservaService.getAllreservas()).thenReturn(List.of(reserva));
+        when(reservaService.getRespuestasReservasActivas()).thenReturn(List.of(new ReservaResponseDTO()));
 
         // Act
         ResponseEntity<List<ReservaResponseDTO>> response = reservaController.getAllReservas();
@@ -171,6 +190,117 @@ class ReservaControllerTest {
         assertEquals(1, response.getBody().size());
     }
 
+    @Test
+    void getAllReservasStreaming_usuarioCliente_escribeSoloSusReservas() throws IOException {
+        usuarioCliente = new Usuario();
+        usuarioCliente.setId(2L);
+        usuarioCliente.setTipoUsuario(TipoUsuario.CLIENTE);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuarioCliente));
+        when(reservaService.streamReservasByUsuarioId(2L)).thenReturn(Stream.of(reserva));
+
+        ResponseEntity<StreamingResponseBody> response = reservaController.getAllReservasStreaming();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        response.getBody().writeTo(salida);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertTrue(salida.toString().startsWith("[{\"id\":100"));
+        verify(reservaService, never()).streamReservasActivas();
+    }
+
+    @Test
+    void getAllReservasStreaming_usuarioNoAutenticado_devuelveUnauthorized() {
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.empty());
+
+        assertEquals(HttpStatus.UNAUTHORIZED, reservaController.getAllReservasStreaming().getStatusCode());
+        verifyNoInteractions(listadoStreaming);
+    }
+
+    @Test
+    void getReservasPorRangoFechasStreaming_fechaInvalida_devuelveBadRequest() {
+        usuarioAdmin = new Usuario();
+        usuarioAdmin.setId(1L);
+        usuarioAdmin.setTipoUsuario(TipoUsuario.ADMINISTRADOR);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuarioAdmin));
+
+        ResponseEntity<StreamingResponseBody> response =
+                reservaController.getReservasPorRangoFechasStreaming("2024-01-01", "2024-12-31 23:59:59");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void exportarReservasEvento_productorDueno_exportaCsvComprimido() throws IOException {
+        usuarioProductor = new Usuario();
+        usuarioProductor.setId(5L);
+        usuarioProductor.setTipoUsuario(TipoUsuario.PRODUCTOR);
+        when(evento.getUsuario()).thenReturn(usuarioProductor);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuarioProductor));
+        when(eventoRepository.findById(10L)).thenReturn(Optional.of(evento));
+        when(reservaService.streamReservasByEventoId(10L)).thenReturn(Stream.of(reserva));
+
+        ResponseEntity<StreamingResponseBody> response =
+                reservaController.exportarReservasEvento(10L, "csv", "gzip, deflate");
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        response.getBody().writeTo(salida);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("gzip", response.getHeaders().getFirst("Content-Encoding"));
+        assertEquals("text", response.getHeaders().getContentType().getType());
+        String csv = new String(new java.util.zip.GZIPInputStream(
+                new java.io.ByteArrayInputStream(salida.toByteArray())).readAllBytes());
+        assertTrue(csv.startsWith(String.join(",", ReservaExportacionDTO.COLUMNAS)));
+        assertTrue(csv.contains("\r\n100,10,Evento de prueba,"));
+    }
+
+    @Test
+    void exportarReservasEvento_productorDeOtroEvento_devuelveForbidden() {
+        Usuario otroProductor = new Usuario();
+        otroProductor.setId(6L);
+        usuarioProductor = new Usuario();
+        usuarioProductor.setId(5L);
+        usuarioProductor.setTipoUsuario(TipoUsuario.PRODUCTOR);
+        when(evento.getUsuario()).thenReturn(otroProductor);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuarioProductor));
+        when(eventoRepository.findById(10L)).thenReturn(Optional.of(evento));
+
+        ResponseEntity<StreamingResponseBody> response = reservaController.exportarReservasEvento(10L, "csv", null);
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(reservaService, never()).streamReservasByEventoId(any());
+    }
+
+    @Test
+    void exportarReservasProductor_formatoInvalido_devuelveBadRequest() {
+        usuarioProductor = new Usuario();
+        usuarioProductor.setId(5L);
+        usuarioProductor.setTipoUsuario(TipoUsuario.PRODUCTOR);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuarioProductor));
+
+        ResponseEntity<StreamingResponseBody> response = reservaController.exportarReservasProductor(null, "xlsx", null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void exportarReservasProductor_productorExportaSusEventosComoNdjson() throws IOException {
+        usuarioProductor = new Usuario();
+        usuarioProductor.setId(5L);
+        usuarioProductor.setTipoUsuario(TipoUsuario.PRODUCTOR);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuarioProductor));
+        when(reservaService.streamReservasByProductorId(5L)).thenReturn(Stream.of(reserva));
+
+        // El productorId enviado por un productor se ignora
+        ResponseEntity<StreamingResponseBody> response = reservaController.exportarReservasProductor(99L, "ndjson", null);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        response.getBody().writeTo(salida);
+
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        assertNull(response.getHeaders().getFirst("Content-Encoding"));
+        assertTrue(salida.toString().startsWith("{\"reservaId\":100,\"eventoId\":10"));
+        assertTrue(salida.toString().endsWith("}\n"));
+    }
+
     @Test
     void getAllReservas_usuarioNoAutenticado_devuelveUnauthorized() {
         // Arrange
@@ -506,24 +636,18 @@ class ReservaControllerTest {
         usuarioCliente.setTipoUsuario(TipoUsuario.CLIENTE);
 
         Evento eventoMock = mock(Evento.class);
-        when(eventoMock.getId()).thenReturn(10L); // Clave
         when(eventoMock.getActivo()).thenReturn(1);
         when(eventoMock.isEventoPasado()).thenReturn(false);
         when(eventoMock.isDisponible()).thenReturn(true);
         when(eventoMock.getCuposDisponibles()).thenReturn(10);
 
-        Reserva reservaActiva = mock(Reserva.class);
-        when(reservaActiva.isActiva()).thenReturn(true);
-        when(reservaActiva.getEvento()).thenReturn(eventoMock);
-
         ReservaDTO dto = new ReservaDTO();
         dto.setCantidad(2);
         dto.setEventoId(10L);
 
         when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuarioCliente));
         when(eventoRepository.findById(10L)).thenReturn(Optional.of(eventoMock));
-        when(reservaService.getReservasByUsuarioId(usuarioCliente.getId()))
-                .thenReturn(List.of(reservaActiva));
+        when(reservaService.tieneReservaActiva(usuarioCliente.getId(), 10L)).thenReturn(true);
 
         // Act
         ResponseEntity<?> response = reservaController.createReserva(dto);
@@ -1020,4 +1144,80 @@ class ReservaControllerTest {
 
 
 
+
+    @Test
+    void createReservasLote_clienteReservaParaSiMismoYReportaCadaRechazo() {
+        usuarioCliente = new Usuario();
+        usuarioCliente.setId(2L);
+        usuarioCliente.setTipoUsuario(TipoUsuario.CLIENTE);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuarioCliente));
+        when(eventoRepository.findAllById(any())).thenReturn(List.of(evento));
+        when(reservaService.createReservasLote(any())).thenAnswer(invocation -> {
+            List<Reserva> reservas = invocation.getArgument(0);
+            return reservas.stream().map(ReservaService.ResultadoLote::creada).toList();
+        });
+        ReservaDTO paraOtroUsuario = new ReservaDTO(null, 2, null, null, 99L, 10L);
+        ReservaDTO eventoInexistente = new ReservaDTO(null, 1, null, null, null, 77L);
+
+        ResponseEntity<?> response = reservaController.createReservasLote(
+                new ReservaLoteDTO(List.of(paraOtroUsuario, eventoInexistente)));
+
+        assertEquals(HttpStatus.MULTI_STATUS, response.getStatusCode());
+        ReservaLoteRespuestaDTO body = (ReservaLoteRespuestaDTO) response.getBody();
+        assertEquals(1, body.getCreadas());
+        assertEquals(1, body.getRechazadas());
+        assertEquals(2L, body.getResultados().get(0).getReserva().getUsuario().getId());
+        assertEquals("Evento no encontrado con ID: 77", body.getResultados().get(1).getError());
+        verifyNoInteractions(usuarioRepository);
+    }
+
+    @Test
+    void createReservasLote_adminConTodasCreadasDevuelveCreated() {
+        usuarioAdmin = new Usuario();
+        usuarioAdmin.setId(1L);
+        usuarioAdmin.setTipoUsuario(TipoUsuario.ADMINISTRADOR);
+        Usuario comprador = new Usuario();
+        comprador.setId(5L);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuarioAdmin));
+        when(eventoRepository.findAllById(any())).thenReturn(List.of(evento));
+        when(usuarioRepository.findAllById(any())).thenReturn(List.of(comprador));
+        when(reservaService.createReservasLote(any())).thenAnswer(invocation -> {
+            List<Reserva> reservas = invocation.getArgument(0);
+            return reservas.stream().map(ReservaService.ResultadoLote::creada).toList();
+        });
+
+        ResponseEntity<?> response = reservaController.createReservasLote(
+                new ReservaLoteDTO(List.of(new ReservaDTO(null, 2, null, null, 5L, 10L))));
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        ReservaLoteRespuestaDTO body = (ReservaLoteRespuestaDTO) response.getBody();
+        assertEquals(1, body.getCreadas());
+        assertEquals(5L, body.getResultados().get(0).getReserva().getUsuario().getId());
+    }
+
+    @Test
+    void createReservasLote_productorDevuelveForbidden() {
+        usuarioProductor = new Usuario();
+        usuarioProductor.setId(3L);
+        usuarioProductor.setTipoUsuario(TipoUsuario.PRODUCTOR);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuarioProductor));
+
+        ResponseEntity<?> response = reservaController.createReservasLote(
+                new ReservaLoteDTO(List.of(new ReservaDTO(null, 1, null, null, 3L, 10L))));
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(reservaService);
+    }
+
+    @Test
+    void createReservasLote_loteVacioDevuelveBadRequest() {
+        usuarioCliente = new Usuario();
+        usuarioCliente.setId(2L);
+        usuarioCliente.setTipoUsuario(TipoUsuario.CLIENTE);
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuarioCliente));
+
+        ResponseEntity<?> response = reservaController.createReservasLote(new ReservaLoteDTO(List.of()));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
 }
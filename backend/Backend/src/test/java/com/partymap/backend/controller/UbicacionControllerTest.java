@@ -1,8 +1,17 @@
 package com.partymap.backend.controller;
 
+import com.partymap.backend.config.PaginacionProperties;
+import com.partymap.backend.config.SecurityUtils;
+import com.partymap.backend.dto.CursorPaginacion;
+import com.partymap.backend.dto.ErrorResponseDTO;
+import com.partymap.backend.dto.PaginatedResponseDTO;
 import com.partymap.backend.dto.UbicacionDTO;
+import com.partymap.backend.dto.UbicacionDuplicadasDTO;
+import com.partymap.backend.dto.UbicacionFusionDTO;
 import com.partymap.backend.dto.UbicacionResponseDTO;
+import com.partymap.backend.model.TipoUsuario;
 import com.partymap.backend.model.Ubicacion;
+import com.partymap.backend.model.Usuario;
 import com.partymap.backend.service.UbicacionService;
 import com.partymap.backend.exceptions.NotFoundException;
 
@@ -13,6 +22,9 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -31,6 +43,12 @@ public class UbicacionControllerTest {
     @Mock
     private UbicacionService ubicacionService;
 
+    @Spy
+    private PaginacionProperties paginacion = new PaginacionProperties();
+
+    @Mock
+    private SecurityUtils securityUtils;
+
     @InjectMocks
     private UbicacionController ubicacionController;
 
@@ -51,7 +69,9 @@ public class UbicacionControllerTest {
 
     @Test
     void testGetAllUbicaciones() {
-        when(ubicacionService.getAllUbicaciones()).thenReturn(List.of(ubicacion));
+        when(ubicacionService.getRespuestasUbicacionesActivas()).thenReturn(List.of(new UbicacionResponseDTO(
+                ubicacion.getId(), ubicacion.getDireccion(), ubicacion.getComuna(), ubicacion.getLatitud(),
+                ubicacion.getLongitud(), ubicacion.getActivo(), ubicacion.getFechaCreacion())));
 
         ResponseEntity<List<UbicacionResponseDTO>> response = ubicacionController.getAllUbicaciones();
 
@@ -174,4 +194,123 @@ public class UbicacionControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody());
     }
+
+    @Test
+    void testGetUbicacionesPaginadas_PrimeraPaginaConSiguienteCursor() {
+        when(ubicacionService.getUbicacionesDesdeCursor(isNull(), eq(1)))
+                .thenReturn(new SliceImpl<>(List.of(ubicacion), PageRequest.of(0, 1), true));
+
+        ResponseEntity<PaginatedResponseDTO<UbicacionResponseDTO>> response =
+                ubicacionController.getUbicacionesPaginadas(1, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getContenido().size());
+        assertTrue(response.getBody().isPrimera());
+        assertTrue(response.getBody().isTieneSiguiente());
+        CursorPaginacion siguiente = CursorPaginacion.decodificar(response.getBody().getSiguienteCursor());
+        assertEquals(1L, siguiente.getId());
+    }
+
+    @Test
+    void testGetUbicacionesPaginadas_UltimaPaginaAcotaTamanio() {
+        String cursor = CursorPaginacion.porId(1L).codificar();
+        when(ubicacionService.getUbicacionesDesdeCursor(any(CursorPaginacion.class), eq(100)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 100), false));
+
+        ResponseEntity<PaginatedResponseDTO<UbicacionResponseDTO>> response =
+                ubicacionController.getUbicacionesPaginadas(5000, cursor);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertFalse(response.getBody().isPrimera());
+        assertFalse(response.getBody().isTieneSiguiente());
+        assertNull(response.getBody().getSiguienteCursor());
+    }
+
+    @Test
+    void testGetUbicacionesPaginadas_CursorInvalido() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ubicacionController.getUbicacionesPaginadas(10, "no-es-un-cursor"));
+    }
+
+    @Test
+    void testGetUbicacionesDuplicadas_Admin() {
+        Ubicacion repetida = new Ubicacion();
+        repetida.setId(4L);
+        repetida.setDireccion("Avenida Siempre Viva 742");
+        repetida.setComuna("Springfield");
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuario(TipoUsuario.ADMINISTRADOR)));
+        when(ubicacionService.getGruposDuplicados()).thenReturn(List.of(List.of(ubicacion, repetida)));
+
+        ResponseEntity<?> response = ubicacionController.getUbicacionesDuplicadas();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<?> grupos = (List<?>) response.getBody();
+        UbicacionDuplicadasDTO grupo = (UbicacionDuplicadasDTO) grupos.get(0);
+        assertEquals(1L, grupo.getUbicacionIdSugerida());
+        assertEquals(2, grupo.getUbicaciones().size());
+    }
+
+    @Test
+    void testGetUbicacionesDuplicadas_NoAdmin() {
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuario(TipoUsuario.PRODUCTOR)));
+
+        ResponseEntity<?> response = ubicacionController.getUbicacionesDuplicadas();
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(ubicacionService, never()).getGruposDuplicados();
+    }
+
+    @Test
+    void testFusionarUbicaciones_Admin() {
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuario(TipoUsuario.ADMINISTRADOR)));
+        when(ubicacionService.fusionarUbicaciones(1L, List.of(4L, 5L))).thenReturn(3);
+
+        ResponseEntity<?> response = ubicacionController.fusionarUbicaciones(1L, new UbicacionFusionDTO(List.of(4L, 5L)));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Map<?, ?> body = (Map<?, ?>) response.getBody();
+        assertEquals(1L, body.get("ubicacionId"));
+        assertEquals(2L, body.get("ubicacionesFusionadas"));
+        assertEquals(3, body.get("eventosReasignados"));
+    }
+
+    @Test
+    void testFusionarUbicaciones_SinAutenticar() {
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = ubicacionController.fusionarUbicaciones(1L, new UbicacionFusionDTO(List.of(4L)));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verify(ubicacionService, never()).fusionarUbicaciones(any(), any());
+    }
+
+    @Test
+    void testFusionarUbicaciones_DuplicadoNoEncontrado() {
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuario(TipoUsuario.ADMINISTRADOR)));
+        when(ubicacionService.fusionarUbicaciones(1L, List.of(9L)))
+                .thenThrow(new NotFoundException("Ubicación no encontrada con ID: 9"));
+
+        ResponseEntity<?> response = ubicacionController.fusionarUbicaciones(1L, new UbicacionFusionDTO(List.of(9L)));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("Ubicación no encontrada con ID: 9", ((ErrorResponseDTO) response.getBody()).getMessage());
+    }
+
+    @Test
+    void testFusionarUbicaciones_ListaVacia() {
+        when(securityUtils.getCurrentUser()).thenReturn(Optional.of(usuario(TipoUsuario.ADMINISTRADOR)));
+        when(ubicacionService.fusionarUbicaciones(1L, null))
+                .thenThrow(new IllegalArgumentException("Debe indicar al menos una ubicación a fusionar"));
+
+        ResponseEntity<?> response = ubicacionController.fusionarUbicaciones(1L, new UbicacionFusionDTO());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    private Usuario usuario(TipoUsuario tipo) {
+        Usuario usuario = new Usuario();
+        usuario.setId(10L);
+        usuario.setTipoUsuario(tipo);
+        return usuario;
+    }
 }
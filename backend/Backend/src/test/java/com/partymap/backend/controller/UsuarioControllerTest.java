@@ -2,9 +2,12 @@ package com.partymap.backend.controller;
 
 import com.partymap.backend.model.TipoUsuario;
 import com.partymap.backend.model.Usuario;
+import com.partymap.backend.service.EstadisticasCache;
 import com.partymap.backend.service.UsuarioService;
+import com.partymap.backend.dto.EstadisticasUsuariosDTO;
 import com.partymap.backend.dto.UsuarioResponseDTO;
 import com.partymap.backend.controller.UsuarioController;
+import com.partymap.backend.config.CacheEstadisticasProperties;
 import com.partymap.backend.config.SecurityUtils;
 import com.partymap.backend.exceptions.NotFoundException;
 
@@ -15,6 +18,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.ResponseEntity;
 
 import java.util.*;
@@ -30,6 +34,9 @@ public class UsuarioControllerTest {
     @Mock
     private SecurityUtils securityUtils;
 
+    @Spy
+    private EstadisticasCache estadisticasCache = new EstadisticasCache(new CacheEstadisticasProperties());
+
     @InjectMocks
     private UsuarioController usuarioController;
 
@@ -247,24 +254,21 @@ public class UsuarioControllerTest {
 
         @Test
     void testGetEstadisticasUsuarios_AdminRecibeEstadisticas() {
-        admin.setActivo(1);
-        cliente.setActivo(1);
-        productor.setActivo(0);
-
         when(securityUtils.getCurrentUser()).thenReturn(Optional.of(admin));
-        when(usuarioService.getAllUsuarios()).thenReturn(List.of(admin, cliente, productor));
+        when(usuarioService.getEstadisticasUsuarios()).thenReturn(new EstadisticasUsuariosDTO(3L, 2L, 1L, 1L, 1L, 1L));
 
         ResponseEntity<Object> response = usuarioController.getEstadisticasUsuarios();
 
         assertEquals(200, response.getStatusCodeValue());
 
-        Map<String, Object> body = (Map<String, Object>) response.getBody();
-        assertEquals(3, body.get("totalUsuarios"));
-        assertEquals(2L, body.get("usuariosActivos"));
-        assertEquals(1L, body.get("usuariosInactivos"));
-        assertEquals(1L, body.get("productores"));
-        assertEquals(1L, body.get("clientes"));
-        assertEquals(1L, body.get("administradores"));
+        EstadisticasUsuariosDTO body = (EstadisticasUsuariosDTO) response.getBody();
+        assertEquals(3, body.getTotalUsuarios());
+        assertEquals(2L, body.getUsuariosActivos());
+        assertEquals(1L, body.getUsuariosInactivos());
+        assertEquals(1L, body.getProductores());
+        assertEquals(1L, body.getClientes());
+        assertEquals(1L, body.getAdministradores());
+        verify(usuarioService, never()).getAllUsuarios();
     }
 
     @Test